@@ -0,0 +1,74 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import org.openjdk.jmh.infra.Blackhole
+
+import org.opalj.br.Method
+import org.opalj.ai.BaseAI
+import org.opalj.ai.domain
+import org.opalj.tac.TACAI
+
+/**
+ * Measures the abstract interpretation of methods using domains of different precision
+ * and the subsequent transformation into the three-address code representation.
+ *
+ * The methods are a reproducible sample – every n-th method with a body – of the project's
+ * methods.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 1, jvmArgsAppend = Array("-Xmx6g"))
+class AbstractInterpretationBenchmarks extends ProjectState {
+
+    @Param(Array("1000"))
+    var methodsCount: Int = _
+
+    var methods: Array[Method] = _
+
+    @Setup(Level.Trial)
+    def setupMethods(): Unit = {
+        val allMethods = project.allMethodsWithBody.toArray
+        val step = Math.max(allMethods.length / methodsCount, 1)
+        methods = allMethods.iterator.zipWithIndex.collect {
+            case (m, i) if i % step == 0 ⇒ m
+        }.take(methodsCount).toArray
+    }
+
+    @Benchmark
+    def l0BaseDomain(bh: Blackhole): Unit = {
+        methods foreach { m ⇒ bh.consume(BaseAI(m, domain.l0.BaseDomain(project, m))) }
+    }
+
+    @Benchmark
+    def l1DefaultDomain(bh: Blackhole): Unit = {
+        methods foreach { m ⇒ bh.consume(BaseAI(m, new domain.l1.DefaultDomain(project, m))) }
+    }
+
+    @Benchmark
+    def l1DefaultDomainTAC(bh: Blackhole): Unit = {
+        methods foreach { m ⇒
+            bh.consume(TACAI(project, m)(new domain.l1.DefaultDomainWithCFGAndDefUse(project, m)))
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import scala.util.Random
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import org.openjdk.jmh.infra.Blackhole
+
+import org.opalj.br.ClassHierarchy
+import org.opalj.br.ObjectType
+
+/**
+ * Measures the class hierarchy's subtype tests and joins of object types using
+ * (pseudo-)random, but reproducible pairs of the types defined by the project.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = Array("-Xmx6g"))
+class ClassHierarchyBenchmarks extends ProjectState {
+
+    @Param(Array("10000"))
+    var pairsCount: Int = _
+
+    var classHierarchy: ClassHierarchy = _
+
+    var subtypes: Array[ObjectType] = _
+
+    var supertypes: Array[ObjectType] = _
+
+    @Setup(Level.Trial)
+    def setupPairs(): Unit = {
+        classHierarchy = project.classHierarchy
+        val types = project.allClassFiles.iterator.map(_.thisType).toArray
+        val random = new Random(pairsCount.toLong)
+        subtypes = Array.fill(pairsCount)(types(random.nextInt(types.length)))
+        // to get a reasonable number of positive answers, every second supertype is
+        // a supertype of the respective subtype
+        supertypes = Array.tabulate(pairsCount) { i ⇒
+            val subtype = subtypes(i)
+            if (i % 2 == 0) {
+                val allSupertypes = classHierarchy.allSupertypes(subtype, reflexive = true).toArray
+                allSupertypes(random.nextInt(allSupertypes.length))
+            } else {
+                types(random.nextInt(types.length))
+            }
+        }
+    }
+
+    @Benchmark
+    def isSubtypeOf(bh: Blackhole): Unit = {
+        val classHierarchy = this.classHierarchy
+        val subtypes = this.subtypes
+        val supertypes = this.supertypes
+        var i = 0
+        while (i < subtypes.length) {
+            bh.consume(classHierarchy.isSubtypeOf(subtypes(i), supertypes(i)))
+            i += 1
+        }
+    }
+
+    @Benchmark
+    def joinObjectTypes(bh: Blackhole): Unit = {
+        val classHierarchy = this.classHierarchy
+        val subtypes = this.subtypes
+        val supertypes = this.supertypes
+        var i = 0
+        while (i < subtypes.length) {
+            bh.consume(classHierarchy.joinObjectTypes(subtypes(i), supertypes(i), true))
+            i += 1
+        }
+    }
+
+}
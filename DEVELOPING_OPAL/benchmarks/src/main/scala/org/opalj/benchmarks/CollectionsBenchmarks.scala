@@ -0,0 +1,102 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import scala.util.Random
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import org.openjdk.jmh.infra.Blackhole
+
+import org.opalj.collection.immutable.Chain
+import org.opalj.collection.immutable.IntArraySet
+import org.opalj.collection.immutable.IntTrieSet
+
+/**
+ * Measures the core operations of OPAL's specialized collections which are heavily used
+ * by the abstract interpretation framework and the three-address code.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+class CollectionsBenchmarks {
+
+    @Param(Array("8", "64", "1024"))
+    var size: Int = _
+
+    var values: Array[Int] = _
+
+    var intTrieSet: IntTrieSet = _
+
+    var intArraySet: IntArraySet = _
+
+    @Setup(Level.Trial)
+    def setup(): Unit = {
+        val random = new Random(size.toLong)
+        values = Array.fill(size)(random.nextInt(size * 4))
+        intTrieSet = values.foldLeft(IntTrieSet.empty)(_ + _)
+        intArraySet = values.foldLeft(IntArraySet.empty)(_ + _)
+    }
+
+    @Benchmark
+    def intTrieSetAdd(): IntTrieSet = {
+        var s = IntTrieSet.empty
+        val values = this.values
+        var i = 0
+        while (i < values.length) { s += values(i); i += 1 }
+        s
+    }
+
+    @Benchmark
+    def intArraySetAdd(): IntArraySet = {
+        var s = IntArraySet.empty
+        val values = this.values
+        var i = 0
+        while (i < values.length) { s += values(i); i += 1 }
+        s
+    }
+
+    @Benchmark
+    def intTrieSetContains(bh: Blackhole): Unit = {
+        val s = intTrieSet
+        var i = 0
+        while (i < size * 4) { bh.consume(s.contains(i)); i += 1 }
+    }
+
+    @Benchmark
+    def intArraySetContains(bh: Blackhole): Unit = {
+        val s = intArraySet
+        var i = 0
+        while (i < size * 4) { bh.consume(s.contains(i)); i += 1 }
+    }
+
+    @Benchmark
+    def intTrieSetForeach(bh: Blackhole): Unit = intTrieSet.foreach(bh.consume(_))
+
+    @Benchmark
+    def chainPrependAndForeach(bh: Blackhole): Unit = {
+        var c: Chain[Int] = Chain.empty
+        val values = this.values
+        var i = 0
+        while (i < values.length) { c = values(i) :&: c; i += 1 }
+        c.foreach(bh.consume(_))
+    }
+
+}
@@ -0,0 +1,60 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package benchmarks
+
+import java.io.File
+import java.net.URL
+import java.util.concurrent.TimeUnit
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+
+import org.opalj.br.ClassFile
+import org.opalj.br.analyses.Project
+
+/**
+ * Measures the time required to read the class files and to create a [[Project]].
+ * The class files are configured using the parameter `input` (see [[ProjectState]]).
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.SingleShotTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = Array("-Xmx6g"))
+class ProjectCreationBenchmarks {
+
+    @Param(Array(""))
+    var input: String = _
+
+    var files: Array[File] = _
+
+    @Setup(Level.Trial)
+    def setup(): Unit = files = ProjectState.inputFiles(input)
+
+    @Benchmark
+    def readClassFiles(): Traversable[(ClassFile, URL)] = {
+        Project.JavaClassFileReader().AllClassFiles(files)
+    }
+
+    @Benchmark
+    def readLibraryClassFiles(): Traversable[(ClassFile, URL)] = {
+        Project.JavaLibraryClassFileReader.AllClassFiles(files)
+    }
+
+    @Benchmark
+    def createProject(): Project[URL] = Project(files, Array.empty[File])
+
+}
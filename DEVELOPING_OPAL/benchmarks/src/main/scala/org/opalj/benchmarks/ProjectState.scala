@@ -0,0 +1,69 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package benchmarks
+
+import java.io.File
+import java.net.URL
+
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+import org.opalj.bi.TestResources.allManagedBITestJARs
+import org.opalj.bi.TestResources.locateTestResources
+import org.opalj.br.analyses.Project
+
+/**
+ * Common state of all benchmarks which require a (fully loaded) [[Project]].
+ *
+ * The analyzed code is configured using the JMH parameter `input`; if the parameter is
+ * empty, all JARs which are compiled from OPAL's (bi) test fixtures are analyzed. Otherwise,
+ * the parameter is a list of JARs or folders separated by the platform's path separator;
+ * a name which does not denote an existing file is looked up among the test fixtures. E.g.:
+ * `OPAL-Benchmarks/jmh:run -p input=/path/to/some.jar ClassHierarchyBenchmarks` or
+ * `OPAL-Benchmarks/jmh:run -p input=methods.jar,jvm_features.jar ClassHierarchyBenchmarks`
+ * (JMH runs the benchmarks once per comma-separated value).
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+class ProjectState {
+
+    @Param(Array(""))
+    var input: String = _
+
+    var project: Project[URL] = _
+
+    @Setup(Level.Trial)
+    def setupProject(): Unit = {
+        val files = ProjectState.inputFiles(input)
+        project = Project(files, Array.empty[File])
+        if (project.projectClassFilesCount == 0)
+            throw new IllegalArgumentException(s"no class files found in ${files.mkString(", ")}")
+    }
+
+}
+
+object ProjectState {
+
+    /**
+     * Returns the files denoted by the given `input` parameter; by default (if the input is
+     * empty) the JARs compiled from the test fixtures.
+     */
+    def inputFiles(input: String): Array[File] = {
+        if (input == null || input.isEmpty) {
+            val fixtures = allManagedBITestJARs().toArray
+            if (fixtures.isEmpty)
+                throw new IllegalArgumentException("no test fixtures found; run bi/test:compile")
+            fixtures
+        } else {
+            input.split(File.pathSeparatorChar) map { name ⇒
+                val file = new File(name)
+                if (file.exists()) file else locateTestResources(name, "bi")
+            }
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import scala.util.Random
+import scala.collection.mutable
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+
+import org.opalj.log.GlobalLogContext
+import org.opalj.fpcf.Entity
+import org.opalj.fpcf.FinalEP
+import org.opalj.fpcf.IntermediateResult
+import org.opalj.fpcf.OrderedProperty
+import org.opalj.fpcf.PropertyComputationResult
+import org.opalj.fpcf.PropertyKey
+import org.opalj.fpcf.PropertyStore
+import org.opalj.fpcf.Result
+import org.opalj.fpcf.SomeEOptionP
+import org.opalj.fpcf.SomeEPS
+import org.opalj.fpcf.par.PKEParallelTasksPropertyStore
+import org.opalj.fpcf.par.TasksSchedulerFactory
+import org.opalj.fpcf.seq.PKESequentialPropertyStore
+
+/**
+ * Measures a complete phase of the property store – i.e., the scheduling of the
+ * computations, the propagation of the updates and the resolution of the cycles – using
+ * a purity-like analysis of a large, randomly generated, but reproducible graph.
+ *
+ * The parameter `store` selects the property store; it is either `Sequential` or the name
+ * of a [[TasksSchedulerFactory]] optionally followed by `:` and the number of threads
+ * which process the store updates (default: 1). The parameter `threads` is the number of
+ * threads which execute the property computations of a parallel store; if it is `0`,
+ * [[PKEParallelTasksPropertyStore.NumberOfThreadsForProcessingPropertyComputations]] is used.
+ * The thread counts are passed to each created store; the global defaults of the
+ * parallel store are never changed.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.SingleShotTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = Array("-Xmx6g"))
+class PropertyStoreBenchmarks {
+
+    import PropertyStoreBenchmarks._
+
+    @Param(Array("Sequential", "ConcurrentQueues", "WorkStealing", "ConcurrentQueues:4"))
+    var store: String = _
+
+    @Param(Array("0"))
+    var threads: Int = _
+
+    @Param(Array("100000"))
+    var nodesCount: Int = _
+
+    var nodes: Array[Node] = _
+
+    @Setup(Level.Trial)
+    def setupGraph(): Unit = {
+        val random = new Random(nodesCount.toLong)
+        nodes = Array.tabulate(nodesCount)(i ⇒ new Node(i, random.nextInt(1000) == 0))
+        nodes foreach { n ⇒
+            val targets = mutable.LinkedHashSet.empty[Node]
+            for { _ ← 0 until random.nextInt(MaxSuccessors) } {
+                targets += nodes(random.nextInt(nodesCount))
+            }
+            n.targets = targets.toArray
+        }
+    }
+
+    private[this] def createPropertyStore(): PropertyStore = {
+        implicit val logContext = GlobalLogContext
+        val computationsThreads =
+            if (threads > 0)
+                threads
+            else
+                PKEParallelTasksPropertyStore.NumberOfThreadsForProcessingPropertyComputations
+        def parallelStore(scheduler: String, storeUpdatesThreads: Int): PropertyStore = {
+            PKEParallelTasksPropertyStore(
+                TasksSchedulerFactory(scheduler),
+                computationsThreads,
+                storeUpdatesThreads
+            )()
+        }
+        store.split(':') match {
+            case Array("Sequential")                   ⇒ PKESequentialPropertyStore()
+            case Array(scheduler)                      ⇒ parallelStore(scheduler, 1)
+            case Array(scheduler, storeUpdatesThreads) ⇒ parallelStore(scheduler, storeUpdatesThreads.toInt)
+            case _ ⇒
+                throw new IllegalArgumentException(s"unsupported store configuration: $store")
+        }
+    }
+
+    @Benchmark
+    def purityAnalysis(): Int = {
+        val ps = createPropertyStore()
+        ps.setupPhase(Set(Purity.Key), Set.empty)
+
+        def analyze(n: Node): PropertyComputationResult = {
+            if (n.impure)
+                return Result(n, Impure);
+
+            val dependees = mutable.HashMap.empty[Entity, SomeEOptionP]
+
+            def handle(eOptionP: SomeEOptionP): Boolean /* true if n is impure */ = {
+                eOptionP match {
+                    case FinalEP(_, Pure)                 ⇒ dependees -= eOptionP.e; false
+                    case FinalEP(_, _)                    ⇒ true
+                    case eps: SomeEPS if eps.ub == Impure ⇒ true
+                    case _                                ⇒ dependees += ((eOptionP.e, eOptionP)); false
+                }
+            }
+
+            def result(): PropertyComputationResult = {
+                if (dependees.isEmpty)
+                    Result(n, Pure)
+                else
+                    IntermediateResult(n, Impure, Pure, dependees.values.toList, c)
+            }
+
+            def c(eps: SomeEPS): PropertyComputationResult = {
+                if (handle(eps)) Result(n, Impure) else result()
+            }
+
+            if (n.targets.exists(t ⇒ (t ne n) && handle(ps(t, Purity.Key))))
+                Result(n, Impure)
+            else
+                result()
+        }
+
+        ps.scheduleEagerComputationsForEntities(nodes)(analyze)
+        ps.waitOnPhaseCompletion()
+        val pureNodes = ps.entities(Purity.Key).count(_.ub == Pure)
+        ps.shutdown()
+        pureNodes
+    }
+
+}
+
+object PropertyStoreBenchmarks {
+
+    final val MaxSuccessors = 5
+
+    final class Node(val id: Int, val impure: Boolean) {
+        var targets: Array[Node] = _
+        override def toString: String = s"Node($id)"
+    }
+
+    sealed trait Purity extends OrderedProperty {
+        final type Self = Purity
+        final def key: PropertyKey[Purity] = Purity.Key
+    }
+    object Purity {
+        final val Key = PropertyKey.create[Entity, Purity]("Benchmarks.Purity", Impure)
+    }
+    case object Pure extends Purity {
+        def checkIsEqualOrBetterThan(e: Entity, other: Purity): Unit = { /* always true */ }
+    }
+    case object Impure extends Purity {
+        def checkIsEqualOrBetterThan(e: Entity, other: Purity): Unit = {
+            if (other != Impure) {
+                throw new IllegalArgumentException(s"$e: $this is not equal or better than $other")
+            }
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.opalj.ai.util.removeFirstUnless
 import org.opalj.ai.util.containsInPrefix
 import org.opalj.ai.util.insertBefore
 import org.opalj.ai.util.insertBeforeIfNew
+import org.opalj.ai.util.PCPriorityQueue
 
 /**
  * A highly-configurable framework for the (abstract) interpretation of Java bytecode.
@@ -137,11 +138,26 @@ import org.opalj.ai.util.insertBeforeIfNew
  *         This is required when using the result of the abstract interpretation for computing
  *         stack map tables.
  *
+ * @param  ScheduleInReversePostorder If `true` (default: `false`), the instructions of the
+ *         current (sub)routine are evaluated in reverse postorder w.r.t. the method's
+ *         control-flow graph; i.e., an instruction is (in general) only evaluated after all
+ *         its (non-back-edge) predecessors were evaluated. This generally reduces the number
+ *         of times an instruction is evaluated, because the join instructions of branches and
+ *         loops are evaluated after all incoming paths were evaluated. If `false`, the
+ *         instructions are evaluated depth-first, where join instructions are evaluated
+ *         last. See [[schedulingPriorities]] for further details.
+ *         If `true`, the instructions of the current (sub)routine that are scheduled by
+ *         the abstract interpreter are managed using a [[org.opalj.ai.util.PCPriorityQueue]];
+ *         hence, the worklist passed to the domain only contains the instructions scheduled
+ *         by the domain – which are evaluated first – and the information about the
+ *         (sub)routines.
+ *
  * @author Michael Eichberg
  */
 abstract class AI[D <: Domain](
         final val IdentifyDeadVariables:           Boolean = true,
-        final val RegisterStoreMayThrowExceptions: Boolean = false
+        final val RegisterStoreMayThrowExceptions: Boolean = false,
+        final val ScheduleInReversePostorder:      Boolean = false
 ) {
 
     type SomeLocals[V <: d.DomainValue forSome { val d: D }] = Option[IndexedSeq[V]]
@@ -445,6 +461,106 @@ abstract class AI[D <: Domain](
         }
     }
 
+    /**
+     * Computes the priorities of the instructions which are used to order the worklist if
+     * [[ScheduleInReversePostorder]] is `true`; the instruction with the lowest priority value
+     * is evaluated first.
+     *
+     * By default, the priority of an instruction is its index in a reverse postorder
+     * traversal of the method's control-flow graph. To avoid the costs of computing the
+     * exceptional control-flow, we only consider an edge from the first instruction of
+     * each try block to the handler; because these edges are traversed first, a handler
+     * is (in general) evaluated after the instructions of its try block. In case
+     * of subroutines, the control-flow from a jsr instruction to the instruction following
+     * the jsr is considered. Instructions which are not reachable get the highest priority
+     * values.
+     *
+     * This method is called once per abstract interpretation/continuation of an
+     * interpretation and may be overridden to use other priorities.
+     *
+     * @return An array which contains for each instruction its priority.
+     */
+    protected[this] def schedulingPriorities(code: Code, theDomain: D): Array[Int] = {
+        implicit val theCode: Code = code
+        val instructions = code.instructions
+        val instructionsCount = instructions.length
+
+        val handlerPCs: Array[List[Int /*PC*/ ]] =
+            if (code.exceptionHandlers.isEmpty) {
+                null
+            } else {
+                val handlerPCs = new Array[List[Int /*PC*/ ]](instructionsCount)
+                code.exceptionHandlers foreach { eh ⇒
+                    val startPC = eh.startPC
+                    val startPCHandlerPCs = handlerPCs(startPC)
+                    handlerPCs(startPC) =
+                        if (startPCHandlerPCs eq null) eh.handlerPC :&: Nil
+                        else eh.handlerPC :&: startPCHandlerPCs
+                }
+                handlerPCs
+            }
+
+        def successors(pc: Int): List[Int /*PC*/ ] = {
+            val instruction = instructions(pc)
+            val regularSuccessors = (instruction.opcode: @switch) match {
+                case RET.opcode ⇒
+                    // the targets of the ret are the instructions following the jsrs
+                    Nil
+                case JSR.opcode | JSR_W.opcode ⇒
+                    val UnconditionalBranchInstruction(branchoffset) = instruction
+                    (pc + branchoffset) :&: instruction.indexOfNextInstruction(pc) :&: Nil
+                case _ ⇒
+                    instruction.nextInstructions(pc, regularSuccessorsOnly = true)
+            }
+            if ((handlerPCs ne null) && (handlerPCs(pc) ne null))
+                handlerPCs(pc) :&:: regularSuccessors
+            else
+                regularSuccessors
+        }
+
+        val priorities = new Array[Int](instructionsCount)
+        val isVisited = new Array[Boolean](instructionsCount)
+        val postorder = new IntArrayStack(instructionsCount)
+        // the "stack" of the depth-first traversal: a pc and its unvisited successors
+        var pcs: List[Int /*PC*/ ] = 0 :&: Nil
+        var successorPCs: List[List[Int /*PC*/ ]] = successors(0) :&: Nil
+        isVisited(0) = true
+        while (pcs.nonEmpty) {
+            var nextPCs = successorPCs.head
+            while (nextPCs.nonEmpty &&
+                (nextPCs.head >= instructionsCount || isVisited(nextPCs.head))) {
+                nextPCs = nextPCs.tail
+            }
+            if (nextPCs.isEmpty) {
+                postorder += pcs.head
+                pcs = pcs.tail
+                successorPCs = successorPCs.tail
+            } else {
+                val nextPC = nextPCs.head
+                isVisited(nextPC) = true
+                successorPCs = successors(nextPC) :&: nextPCs.tail :&: successorPCs.tail
+                pcs = nextPC :&: pcs
+            }
+        }
+
+        // the priorities of the reachable instructions...
+        var priority = 0
+        while (postorder.nonEmpty) {
+            priorities(postorder.pop()) = priority
+            priority += 1
+        }
+        // the priorities of the unreachable instructions...
+        var pc = 0
+        while (pc < instructionsCount) {
+            if (!isVisited(pc) && (instructions(pc) ne null)) {
+                priorities(pc) = priority
+                priority += 1
+            }
+            pc += 1
+        }
+        priorities
+    }
+
     /**
      * Continues the interpretation of/performs an abstract interpretation of
      * the given method (code) using the given domain.
@@ -586,12 +702,40 @@ abstract class AI[D <: Domain](
         /* 7 */ var subroutinesOperandsArray = theSubroutinesOperandsArray
         /* 8 */ var subroutinesLocalsArray = theSubroutinesLocalsArray
 
+        // The priorities of the instructions if the worklist is ordered (`null` otherwise).
+        val priorities: Array[Int] =
+            if (ScheduleInReversePostorder) schedulingPriorities(code, theDomain) else null
+
+        // If the worklist is ordered, the instructions of the current (sub)routine that are
+        // scheduled by the abstract interpreter are stored in this queue and not in the
+        // worklist. The worklist then only contains the instructions scheduled by the domain
+        // – which are evaluated first – and the information about the (sub)routines.
+        val scheduledPCs: PCPriorityQueue =
+            if (priorities ne null) new PCPriorityQueue(priorities) else null
+
+        @inline def hasScheduledPCs: Boolean = (scheduledPCs ne null) && scheduledPCs.nonEmpty
+
+        // Moves the instructions of the current (sub)routine from the worklist to the queue.
+        def scheduleWorklistPrefix(): Unit = {
+            while (worklist.nonEmpty && worklist.head >= 0) {
+                scheduledPCs.add(worklist.head)
+                worklist = worklist.tail
+            }
+        }
+
+        // The complete worklist; i.e., including the instructions stored in the queue.
+        def completeWorklist(): List[Int /*PC*/ ] = {
+            if (hasScheduledPCs) scheduledPCs.drain() :&:: worklist else worklist
+        }
+
+        if (scheduledPCs ne null) scheduleWorklistPrefix()
+
         def throwInterpretationFailedException(cause: Throwable, pc: Int): Nothing = {
             throw InterpretationFailedException(
                 cause, theDomain
             )(
                 this,
-                pc, cfJoins, worklist, evaluatedPCs,
+                pc, cfJoins, completeWorklist(), evaluatedPCs,
                 operandsArray, localsArray, memoryLayoutBeforeSubroutineCall
             )
         }
@@ -853,6 +997,8 @@ abstract class AI[D <: Domain](
 
                     if (abruptSubroutineTerminationCount > 0) {
                         handleAbruptSubroutineTermination(forceScheduling = true)
+                    } else if (scheduledPCs ne null) {
+                        scheduledPCs.add(targetPC)
                     } else if (worklist.nonEmpty && cfJoins.contains(targetPC)) {
                         // We try to first finish the evaluation of the body of, e.g., a loop;
                         // Recall that a typical loop has the following bytecode:
@@ -895,7 +1041,9 @@ abstract class AI[D <: Domain](
                     isTargetScheduled = Yes // it is already or will be scheduled...
                     targetOperandsArray(targetPC) = operands
                     targetLocalsArray(targetPC) = locals
-                    if (!containsInPrefix(worklist, targetPC, SUBROUTINE_START)) {
+                    if (scheduledPCs ne null) {
+                        scheduledPCs.add(targetPC)
+                    } else if (!containsInPrefix(worklist, targetPC, SUBROUTINE_START)) {
                         worklist = targetPC :&: worklist
                     }
                     if (tracer.isDefined) {
@@ -945,10 +1093,18 @@ abstract class AI[D <: Domain](
                                     }
                                 }
                             } else {
-                                val updatedWorklist =
-                                    insertBeforeIfNew(worklist, targetPC, SUBROUTINE_START)
+                                val isNewlyScheduled =
+                                    if (scheduledPCs ne null) {
+                                        scheduledPCs.add(targetPC)
+                                    } else {
+                                        val updatedWorklist =
+                                            insertBeforeIfNew(worklist, targetPC, SUBROUTINE_START)
+                                        val isNewlyScheduled = updatedWorklist ne worklist
+                                        worklist = updatedWorklist
+                                        isNewlyScheduled
+                                    }
                                 if (tracer.isDefined) {
-                                    if (updatedWorklist ne worklist) {
+                                    if (isNewlyScheduled) {
                                         // the instruction was not yet scheduled (in the current
                                         // context) for another evaluation
                                         tracer.get.flow(theDomain)(
@@ -958,7 +1114,6 @@ abstract class AI[D <: Domain](
                                         tracer.get.noFlow(theDomain)(sourcePC, targetPC)
                                     }
                                 }
-                                worklist = updatedWorklist
                             }
 
                         case MetaInformationUpdate((updatedOperands, updatedLocals)) ⇒
@@ -989,7 +1144,8 @@ abstract class AI[D <: Domain](
                                 // reschedule instructions that do not belong to the current
                                 // evaluation context/(sub-)routine.), but not for
                                 // instructions where multiple paths join...
-                                if (containsInPrefix(worklist, targetPC, SUBROUTINE)) {
+                                if (((scheduledPCs ne null) && scheduledPCs.contains(targetPC)) ||
+                                    containsInPrefix(worklist, targetPC, SUBROUTINE)) {
                                     isTargetScheduled = Yes
                                 } else {
                                     // keep default: isTargetScheduled = Unknown
@@ -1009,8 +1165,13 @@ abstract class AI[D <: Domain](
                 }
 
             assert(
-                worklist.exists(_ == targetPC) == isTargetScheduled.isYesOrUnknown ||
-                    worklist.forall(_ != targetPC) == isTargetScheduled.isNoOrUnknown,
+                {
+                    val isScheduled =
+                        worklist.exists(_ == targetPC) ||
+                            ((scheduledPCs ne null) && scheduledPCs.contains(targetPC))
+                    isScheduled == isTargetScheduled.isYesOrUnknown ||
+                        !isScheduled == isTargetScheduled.isNoOrUnknown
+                },
                 s"worklist=$worklist; target=$targetPC; scheduled=$isTargetScheduled "+
                     s"(join=$wasJoinPerformed,exceptional=$isExceptionalControlFlow)"
             )
@@ -1035,13 +1196,13 @@ abstract class AI[D <: Domain](
         }
 
         // THIS IS THE MAIN INTERPRETER LOOP
-        while (worklist.nonEmpty) {
+        while (worklist.nonEmpty || hasScheduledPCs) {
             if (isInterrupted) {
                 val result =
                     AIResultBuilder.aborted(
                         code, cfJoins, liveVariables, theDomain
                     )(
-                        worklist, evaluatedPCs, evaluatedSubroutine,
+                        completeWorklist(), evaluatedPCs, evaluatedSubroutine,
                         operandsArray, localsArray,
                         memoryLayoutBeforeSubroutineCall,
                         subroutinesOperandsArray, subroutinesLocalsArray
@@ -1063,7 +1224,10 @@ abstract class AI[D <: Domain](
                 // I.e., all paths in a subroutine are explored and we know all
                 // exit points; we will now schedule the jump to the return
                 // address and reset the subroutine's computation context
-                while (worklist.head < 0) { // while we may return from multiple nested subroutines
+                // (If the worklist is ordered, all instructions of the subroutine that are
+                // stored in the queue have to be evaluated first.)
+                while (worklist.nonEmpty && worklist.head < 0 && !hasScheduledPCs) {
+                    // while we may return from multiple nested subroutines
                     evaluatedPCs += SUBROUTINE_END
                     // the structure is:
                     //      SUBROUTINE_START :&:
@@ -1191,6 +1355,7 @@ abstract class AI[D <: Domain](
                     operandsArray = oldOperandsArray
                     localsArray = oldLocalsArray
                     memoryLayoutBeforeSubroutineCall = memoryLayoutBeforeSubroutineCall.tail
+                    if (scheduledPCs ne null) scheduleWorklistPrefix()
                     targets foreach { target ⇒
                         val (retPC, operands, updatedLocals) = target
                         gotoTarget(
@@ -1207,16 +1372,22 @@ abstract class AI[D <: Domain](
                     // the interpretation ends (in the bytecode there is at least
                     // one further instruction, but we may have evaluated that one
                     // already and the evaluation context didn't change).
-                    if (worklist.isEmpty) {
+                    if (worklist.isEmpty && !hasScheduledPCs) {
                         return abstractInterpretationEnded();
                     }
                 }
                 // [THE DEFAULT CASE] the PC of the next instruction...
-                worklist.head
+                if (worklist.nonEmpty && worklist.head >= 0) {
+                    val nextPC = worklist.head
+                    worklist = worklist.tail
+                    if (scheduledPCs ne null) scheduledPCs.remove(nextPC)
+                    nextPC
+                } else {
+                    scheduledPCs.poll()
+                }
             }
 
             try {
-                worklist = worklist.tail
                 evaluatedPCs += pc
                 val instruction = instructions(pc)
                 // the memory layout before executing the instruction with the given pc
@@ -1904,6 +2075,11 @@ abstract class AI[D <: Domain](
                         memoryLayoutBeforeSubroutineCall :&:= (
                             (branchTarget, operandsArray.clone, localsArray.clone)
                         )
+                        if (hasScheduledPCs) {
+                            // the instructions of the calling routine are evaluated after the
+                            // subroutine; hence, they are (temporarily) stored in the worklist
+                            worklist = scheduledPCs.drain() :&:: worklist
+                        }
 
                         // let's check if we can eagerly fetch the information where the
                         // return address is stored!
@@ -6,6 +6,7 @@ import scala.annotation.switch
 import org.opalj.collection.immutable.{Chain ⇒ List}
 import org.opalj.collection.immutable.{Naught ⇒ Nil}
 import org.opalj.collection.immutable.IntArraySet
+import org.opalj.collection.immutable.IntArraySet1
 import org.opalj.collection.immutable.IntTrieSet
 import org.opalj.collection.mutable.FixedSizeBitSet
 import org.opalj.collection.BitSet
@@ -140,6 +141,13 @@ sealed abstract class AIResult {
      */
     def wasAborted: Boolean
 
+    /**
+     * Returns `true` if this result only contains the complete memory layout of the
+     * join instructions and the values used by the other instructions; see
+     * [[AIResultBuilder.compact]] for details.
+     */
+    def isCompact: Boolean = false
+
     /**
      * Textual representation of the state encapsulated by this result.
      */
@@ -202,6 +210,18 @@ sealed abstract class AICompleted extends AIResult {
 
     def restartInterpretation(ai: AI[_ >: domain.type]): AIResult
 
+    /**
+     * Returns a result which contains the complete memory layout of all evaluated
+     * instructions. If this result is compact, the complete memory layout is re-derived
+     * by re-running the abstract interpretation starting with the memory layout of the
+     * join instructions (using the given abstract interpreter); otherwise `this` is returned.
+     *
+     * @note   The abstract interpretation is performed using the domain of this result; hence,
+     *         the state of the domain (e.g., the recorded def/use information) is recomputed
+     *         and the domain must not be used concurrently.
+     */
+    def expand(ai: AI[_ >: domain.type]): AIResult { val domain: AICompleted.this.domain.type }
+
     override def stateToString: String = {
         "The abstract interpretation succeeded:\n"+super.stateToString
     }
@@ -340,6 +360,113 @@ object AIResultBuilder { builder ⇒
                     Nil, subroutinesOperandsArray, subroutinesLocalsArray
                 )
             }
+
+            def expand(ai: AI[_ >: domain.type]): AIResult { val domain: theDomain.type } = this
+        }
+    }
+
+    /**
+     * Creates a compact representation of the given result that only retains:
+     *  - the complete memory layout of the first instruction, of the join instructions
+     *    (see [[AIResult.cfJoins]]) and of the exception handlers,
+     *  - for all other evaluated instructions the operands which are popped by the
+     *    instruction (at least the top-most operand; i.e., the value pushed by the
+     *    previous instruction) and
+     *  - the registers of those instructions which read a register or which are executed
+     *    immediately after an instruction that writes a register.
+     *
+     * The information recorded by the domain (e.g., the def/use information or the CFG) is
+     * not affected. Hence, the compact result can still be used to create the three-address
+     * code and the complete memory layout can be re-derived on demand
+     * (see [[AICompleted.expand]]).
+     *
+     * The result is returned as is if it is already compact or if subroutines were
+     * evaluated.
+     *
+     * @note   If the domain keeps a reference to the memory layout (e.g., `TheMemoryLayout`),
+     *         the memory required by the complete memory layout is not released.
+     */
+    def compact(result: AICompleted): AICompleted { val domain: result.domain.type } = {
+        if (result.isCompact || result.subroutinesWereEvaluated)
+            return result.asInstanceOf[AICompleted { val domain: result.domain.type }];
+
+        val theDomain: result.domain.type = result.domain
+        val theCode = result.code
+        val instructions = theCode.instructions
+        val codeSize = instructions.length
+        val operandsArray = result.operandsArray
+        val localsArray = result.localsArray
+        val theCFJoins = result.cfJoins
+
+        var fullStatePCs: IntArraySet = IntArraySet1(0)
+        def retainFullState(pc: Int): Unit = {
+            if (operandsArray(pc) ne null) fullStatePCs += pc
+        }
+        theCFJoins foreach retainFullState
+        theCode.exceptionHandlers foreach { eh ⇒ retainFullState(eh.handlerPC) }
+
+        val compactOperandsArray = new Array[theDomain.Operands](codeSize)
+        val compactLocalsArray = new Array[theDomain.Locals](codeSize)
+        var pc = 0
+        while (pc < codeSize) {
+            val operands = operandsArray(pc)
+            if (operands ne null) {
+                val instruction = instructions(pc)
+                if (fullStatePCs.contains(pc)) {
+                    compactOperandsArray(pc) = operands
+                    compactLocalsArray(pc) = localsArray(pc)
+                } else {
+                    val poppedOperandsCount = instruction.numberOfPoppedOperands { i ⇒
+                        operands(i).computationalType.category
+                    }
+                    val usedOperandsCount =
+                        if (poppedOperandsCount == 0 && operands.nonEmpty) 1 else poppedOperandsCount
+                    compactOperandsArray(pc) = operands.takeUpTo(usedOperandsCount)
+                    if (instruction.readsLocal) compactLocalsArray(pc) = localsArray(pc)
+                }
+                if (instruction.writesLocal) {
+                    val nextPC = instruction.indexOfNextInstruction(pc)(theCode)
+                    if (nextPC < codeSize) compactLocalsArray(nextPC) = localsArray(nextPC)
+                }
+            }
+            pc += 1
+        }
+
+        new AICompleted {
+            val code: Code = theCode
+            val cfJoins: IntTrieSet = theCFJoins
+            val liveVariables: LiveVariables = result.liveVariables
+            val domain: theDomain.type = theDomain
+            val evaluatedPCs: IntArrayStack = result.evaluatedPCs
+            val subroutinesWereEvaluated: Boolean = false
+            val operandsArray: theDomain.OperandsArray = compactOperandsArray
+            val localsArray: theDomain.LocalsArray = compactLocalsArray
+            val memoryLayoutBeforeSubroutineCall: List[(Int /*PC*/ , theDomain.OperandsArray, theDomain.LocalsArray)] = Nil
+            val subroutinesOperandsArray: theDomain.OperandsArray = null
+            val subroutinesLocalsArray: theDomain.LocalsArray = null
+
+            override def isCompact: Boolean = true
+
+            // the interpretation is restarted using the retained memory layout
+            def restartInterpretation(ai: AI[_ >: theDomain.type]): AIResult = expand(ai)
+
+            def expand(ai: AI[_ >: domain.type]): AIResult { val domain: theDomain.type } = {
+                val operandsArray = new Array[theDomain.Operands](codeSize)
+                val localsArray = new Array[theDomain.Locals](codeSize)
+                var worklist: List[PC] = Nil
+                fullStatePCs.reverseIntIterator foreach { pc ⇒
+                    operandsArray(pc) = compactOperandsArray(pc)
+                    localsArray(pc) = compactLocalsArray(pc)
+                    worklist :&:= pc
+                }
+                ai.continueInterpretation(
+                    code, cfJoins, liveVariables, domain
+                )(
+                    worklist, new IntArrayStack(codeSize * 2), false,
+                    operandsArray, localsArray,
+                    Nil, null, null
+                )
+            }
         }
     }
 }
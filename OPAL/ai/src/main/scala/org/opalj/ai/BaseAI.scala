@@ -15,9 +15,12 @@ package ai
  */
 class BaseAI(
         IdentifyDeadVariables:           Boolean = true,
-        RegisterStoreMayThrowExceptions: Boolean = false
+        RegisterStoreMayThrowExceptions: Boolean = false,
+        ScheduleInReversePostorder:      Boolean = false
 )
-    extends AI[Domain](IdentifyDeadVariables, RegisterStoreMayThrowExceptions) {
+    extends AI[Domain](
+        IdentifyDeadVariables, RegisterStoreMayThrowExceptions, ScheduleInReversePostorder
+    ) {
 
     override def isInterrupted: Boolean = Thread.interrupted()
 
@@ -26,4 +29,4 @@ class BaseAI(
 /**
  * Instance of the base abstract interpreter.
  */
-object BaseAI extends BaseAI(true, false)
+object BaseAI extends BaseAI(true, false, false)
@@ -0,0 +1,242 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+package common
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.LongAdder
+
+import scala.collection.JavaConverters._
+
+import org.opalj.log.OPALLogger
+import org.opalj.util.Milliseconds
+import org.opalj.util.Nanoseconds
+import org.opalj.br.Method
+import org.opalj.br.analyses.SomeProject
+import org.opalj.ai.common.AdaptiveAI.Level
+import org.opalj.ai.common.AdaptiveAI.Result
+import org.opalj.ai.domain.l2.CalledMethodsSummariesKey
+
+/**
+ * Performs the abstract interpretation of all methods of a project using increasingly
+ * precise – and costly – domains only for those methods for which the result computed using
+ * a cheaper domain is not precise enough w.r.t. the needs of a client analysis.
+ *
+ * Each method is first analyzed using the domain of the first level; i.e., the cheapest
+ * domain. Afterwards, the client analysis is executed using the result of the abstract
+ * interpretation; if the client reports that its result is imprecise, the method is
+ * analyzed again using the domain of the next level. The methods are analyzed in parallel;
+ * the largest methods are scheduled first (see `Project.parForeachMethodWithBody`).
+ *
+ * Each abstract interpretation is bounded w.r.t. the number of evaluated instructions and
+ * the required time (see [[BoundedInterruptableAI]]). If an abstract interpretation is
+ * aborted, the method is not analyzed using more precise domains and the result of the client
+ * analysis computed using the previous level – if any – is kept.
+ *
+ * If a domain reuses the summaries of called methods (see
+ * [[domain.l2.PerformInvocationsWithSummaries]]), the number of the reused and of the
+ * computed summaries is reported as part of the results.
+ *
+ * ==Thread Safety==
+ * This class is thread-safe; the client analysis is called concurrently for different
+ * methods.
+ *
+ * @example
+ *      {{{
+ *      val adaptiveAI = new AdaptiveAI()
+ *      val results = adaptiveAI(project) { (m, aiResult) ⇒
+ *          ??? // ... analyze the result
+ *      } { r ⇒ ??? /* is the client analysis' result imprecise? */ }
+ *      println(results.statistics.mkString("\n"))
+ *      }}}
+ *
+ * @param  levels The domains which are used; ordered by their precision and cost.
+ *
+ * @author agent
+ */
+class AdaptiveAI(val levels: IndexedSeq[Level] = AdaptiveAI.DefaultLevels) {
+
+    require(levels.nonEmpty, "at least one level is required")
+
+    /**
+     * Analyzes all methods of the given project.
+     *
+     * @param  analyze The client analysis.
+     * @param  isImprecise Returns `true` if the result of the client analysis is imprecise
+     *         and the method should be analyzed using the next level's domain.
+     */
+    def apply[R](
+        project:       SomeProject,
+        isInterrupted: () ⇒ Boolean = () ⇒ Thread.currentThread().isInterrupted()
+    )(
+        analyze: (Method, AIResult) ⇒ R
+    )(
+        isImprecise: R ⇒ Boolean
+    ): AdaptiveAI.Results[R] = {
+        implicit val logContext = project.logContext
+
+        val statistics = levels.map(level ⇒ new AdaptiveAI.LevelStatistics(level))
+        val summariesHits = project.has(CalledMethodsSummariesKey).map(_.hits).getOrElse(0L)
+        val summariesMisses = project.has(CalledMethodsSummariesKey).map(_.misses).getOrElse(0L)
+        val results = new ConcurrentHashMap[Method, Result[R]]()
+
+        project.parForeachMethodWithBody(isInterrupted) { methodInfo ⇒
+            val method = methodInfo.method
+            val code = method.body.get
+            var levelIndex = 0
+            var continue = true
+            while (continue && levelIndex < levels.length) {
+                val level = levels(levelIndex)
+                val levelStatistics = statistics(levelIndex)
+                val ai = new BoundedInterruptableAI[Domain](
+                    code, level.maxEvaluationFactor, level.maxEvaluationTime, isInterrupted
+                )
+                val startTime = System.nanoTime()
+                val aiResult = ai(method, level.domainFactory(project, method))
+                levelStatistics.timeCounter.add(System.nanoTime() - startTime)
+                levelStatistics.analyzedCounter.increment()
+
+                if (aiResult.wasAborted) {
+                    levelStatistics.abortedCounter.increment()
+                    continue = false
+                } else {
+                    val result = analyze(method, aiResult)
+                    results.put(method, Result(level, result))
+                    if (isImprecise(result)) {
+                        levelStatistics.impreciseCounter.increment()
+                        levelIndex += 1
+                    } else {
+                        continue = false
+                    }
+                }
+            }
+        }
+
+        val calledMethodsSummaries = project.has(CalledMethodsSummariesKey) match {
+            case Some(summaries) ⇒
+                new AdaptiveAI.SummariesStatistics(
+                    summaries.hits - summariesHits,
+                    summaries.misses - summariesMisses
+                )
+            case None ⇒
+                new AdaptiveAI.SummariesStatistics(0L, 0L)
+        }
+
+        OPALLogger.info(
+            "analysis progress",
+            statistics.mkString("adaptive abstract interpretation:\n\t", "\n\t", "\n\t")+
+                calledMethodsSummaries
+        )
+        new AdaptiveAI.Results(results.asScala, statistics, calledMethodsSummaries)
+    }
+}
+
+object AdaptiveAI {
+
+    /**
+     * A level of an [[AdaptiveAI]].
+     *
+     * @param  maxEvaluationFactor See [[InstructionCountBoundedAI.calculateMaxEvaluationCount]].
+     * @param  maxEvaluationTime The time after which the abstract interpretation of a single
+     *         method is aborted.
+     */
+    final case class Level(
+            name:                String,
+            domainFactory:       (SomeProject, Method) ⇒ Domain,
+            maxEvaluationFactor: Double                          = 1.75d,
+            maxEvaluationTime:   Milliseconds                    = new Milliseconds(10000L)
+    ) {
+        override def toString: String = {
+            s"Level($name,maxEvaluationFactor=$maxEvaluationFactor,maxEvaluationTime=$maxEvaluationTime)"
+        }
+    }
+
+    /**
+     * The default levels which use the domains: [[domain.l0.BaseDomain]],
+     * [[domain.l1.DefaultDomain]] and [[domain.l2.DefaultPerformInvocationsDomainWithSummaries]].
+     */
+    final val DefaultLevels: IndexedSeq[Level] = IndexedSeq(
+        Level("l0", (p, m) ⇒ new domain.l0.BaseDomain(p, m)),
+        Level("l1", (p, m) ⇒ new domain.l1.DefaultDomain(p, m)),
+        Level("l2", (p, m) ⇒ new domain.l2.DefaultPerformInvocationsDomainWithSummaries(p, m))
+    )
+
+    /**
+     * The result of the client analysis which was computed using the given level.
+     */
+    final case class Result[R](level: Level, value: R)
+
+    /**
+     * The results of the client analysis per method and the statistics per level.
+     *
+     * @param  results The results of the client analysis computed using the most precise
+     *         level that was used; methods for which the abstract interpretation was aborted
+     *         using the first level have no result.
+     * @param  calledMethodsSummaries The usage of the summaries of called methods by this
+     *         run of the adaptive abstract interpretation.
+     */
+    final class Results[R] private[AdaptiveAI] (
+            val results:                scala.collection.Map[Method, Result[R]],
+            val statistics:             IndexedSeq[LevelStatistics],
+            val calledMethodsSummaries: SummariesStatistics
+    ) {
+
+        /** The overall time spent by the abstract interpretations. */
+        def time: Nanoseconds = statistics.foldLeft(Nanoseconds.None)(_ + _.time)
+
+        override def toString: String = {
+            val start = s"AdaptiveAI.Results(results=${results.size},time=$time,\n\t"
+            statistics.mkString(start, "\n\t", s"\n\t$calledMethodsSummaries\n)")
+        }
+    }
+
+    /**
+     * The number of invocations which were answered using a summary of the called method
+     * (`hits`) and the number of invocations for which the called method was analyzed
+     * (`misses`).
+     */
+    final class SummariesStatistics private[AdaptiveAI] (val hits: Long, val misses: Long) {
+
+        /** The ratio of the hits and all requests; `0.0` if no summary was requested. */
+        def hitRate: Double = {
+            val requests = hits + misses
+            if (requests == 0L) 0.0d else hits.toDouble / requests.toDouble
+        }
+
+        override def toString: String = {
+            s"summaries of called methods: hits=$hits, misses=$misses, "+
+                f"hitRate=${hitRate * 100.0d}%.1f%%"
+        }
+    }
+
+    /**
+     * The statistics of a single level.
+     */
+    final class LevelStatistics private[AdaptiveAI] (val level: Level) {
+
+        private[AdaptiveAI] val analyzedCounter = new LongAdder
+        private[AdaptiveAI] val abortedCounter = new LongAdder
+        private[AdaptiveAI] val impreciseCounter = new LongAdder
+        private[AdaptiveAI] val timeCounter = new LongAdder
+
+        /** The number of methods analyzed using this level's domain. */
+        def analyzed: Long = analyzedCounter.sum
+
+        /** The number of aborted abstract interpretations. */
+        def aborted: Long = abortedCounter.sum
+
+        /**
+         * The number of methods for which the client analysis reported an imprecise result;
+         * unless this is the last level, these methods were analyzed again using the next level.
+         */
+        def imprecise: Long = impreciseCounter.sum
+
+        /** The overall time spent by the abstract interpretations using this level's domain. */
+        def time: Nanoseconds = new Nanoseconds(timeCounter.sum)
+
+        override def toString: String = {
+            s"${level.name}: analyzed=$analyzed, aborted=$aborted, imprecise=$imprecise, "+
+                s"time=${time.toSeconds}"
+        }
+    }
+}
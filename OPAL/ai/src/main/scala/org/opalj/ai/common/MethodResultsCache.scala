@@ -0,0 +1,377 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+package common
+
+import java.lang.ref.ReferenceQueue
+import java.lang.ref.SoftReference
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.LongAdder
+
+import com.typesafe.config.Config
+
+import org.opalj.log.LogContext
+import org.opalj.log.OPALLogger
+import org.opalj.br.Method
+
+/**
+ * A thread-safe cache of the results of a per-method computation; e.g., the result of the
+ * abstract interpretation of a method or the three-address code of a method.
+ *
+ * The result of a method is computed at most once as long as it is cached; i.e., if multiple
+ * threads concurrently request the result of the same method, the result is computed by the
+ * first thread and all other threads wait for that computation. The computations of the results
+ * of different methods are independent of each other and are never serialized using a global
+ * or a per-code lock.
+ *
+ * The caching policy is configured using the project's configuration; see
+ * [[MethodResultsCache$.apply]] for details.
+ *
+ * @tparam V The type of the computed values.
+ *
+ * @author agent
+ */
+sealed abstract class MethodResultsCache[V <: AnyRef] protected (
+        final val computation: Method ⇒ V
+) extends (Method ⇒ V) {
+
+    protected[this] final val hitsCounter = new LongAdder
+    protected[this] final val missesCounter = new LongAdder
+    protected[this] final val evictionsCounter = new LongAdder
+
+    /** The name of the caching policy. */
+    def policy: String
+
+    /** The number of requests which were answered using a cached result. */
+    final def hits: Long = hitsCounter.sum
+
+    /** The number of requests which required the computation of the result. */
+    final def misses: Long = missesCounter.sum
+
+    /** The number of results which were removed from the cache to save memory. */
+    final def evictions: Long = evictionsCounter.sum
+
+    /** The (approximated) number of cached results. */
+    def size: Int
+
+    /** Removes all cached results; the statistics are not reset. */
+    def clear(): Unit
+
+    def statistics: Map[String, Long] = Map(
+        "hits" → hits,
+        "misses" → misses,
+        "evictions" → evictions,
+        "size" → size.toLong
+    )
+
+    override def toString: String = {
+        statistics.map(e ⇒ e._1+"="+e._2).mkString(s"MethodResultsCache($policy;", ",", ")")
+    }
+
+    /**
+     * Returns the value of the given (completed) future; if the computation has failed, the
+     * original exception is thrown.
+     */
+    protected[this] final def valueOf(f: CompletableFuture[V]): V = {
+        try {
+            f.join()
+        } catch {
+            case ce: CompletionException if ce.getCause ne null ⇒ throw ce.getCause
+        }
+    }
+
+    /**
+     * Computes the value using the given future which was successfully registered in the
+     * cache. If the computation fails, `deregister` is called to enable subsequent requests
+     * to retry the computation.
+     */
+    protected[this] final def compute(
+        m:          Method,
+        f:          CompletableFuture[V],
+        deregister: () ⇒ Unit
+    ): V = {
+        missesCounter.increment()
+        val v = try {
+            computation(m)
+        } catch {
+            case t: Throwable ⇒
+                deregister()
+                f.completeExceptionally(t)
+                throw t
+        }
+        f.complete(v)
+        v
+    }
+
+}
+
+/**
+ * Factory for [[MethodResultsCache]]s.
+ *
+ * @author agent
+ */
+object MethodResultsCache {
+
+    final val UnboundedPolicy = "Unbounded"
+    final val BoundedPolicy = "Bounded"
+    final val SoftReferencesPolicy = "SoftReferences"
+    final val NoCachingPolicy = "None"
+
+    /**
+     * Creates a new cache for the results of the given `computation` as specified by the
+     * configuration object with the path `configKey`. The configuration object has to
+     * define the `policy` which is either:
+     *  - `Unbounded`: all results are cached until the cache is garbage collected.
+     *  - `Bounded`: at most `maxEntries` results are cached and the code size of all methods
+     *    for which the results are cached is at most `maxCodeSize`; if either bound is
+     *    exceeded the least recently used results are evicted (approximated using the CLOCK
+     *    algorithm). A bound which is `0` is not enforced.
+     *  - `SoftReferences`: the results are softly referenced and are therefore evicted by the
+     *    garbage collector when the memory is low.
+     *  - `None`: no results are cached.
+     *
+     * @throws IllegalArgumentException If the policy is unknown.
+     */
+    def apply[V <: AnyRef](
+        config:    Config,
+        configKey: String
+    )(
+        computation: Method ⇒ V
+    )(
+        implicit
+        logContext: LogContext
+    ): MethodResultsCache[V] = {
+        val cacheConfig = config.getConfig(configKey)
+        val cache = cacheConfig.getString("policy") match {
+            case UnboundedPolicy ⇒
+                new UnboundedMethodResultsCache(computation)
+            case BoundedPolicy ⇒
+                new BoundedMethodResultsCache(
+                    computation,
+                    cacheConfig.getLong("maxEntries"),
+                    cacheConfig.getLong("maxCodeSize")
+                )
+            case SoftReferencesPolicy ⇒
+                new SoftReferencesMethodResultsCache(computation)
+            case NoCachingPolicy ⇒
+                new NoCachingMethodResultsCache(computation)
+            case policy ⇒
+                throw new IllegalArgumentException(
+                    s"$configKey: unknown cache policy $policy; supported: "+
+                        Seq(
+                            UnboundedPolicy, BoundedPolicy, SoftReferencesPolicy, NoCachingPolicy
+                        ).mkString(", ")
+                )
+        }
+        OPALLogger.info("analysis configuration", s"$configKey: ${cache.policy}")
+        cache
+    }
+
+}
+
+/**
+ * Caches all results.
+ */
+final class UnboundedMethodResultsCache[V <: AnyRef](
+        computation: Method ⇒ V
+) extends MethodResultsCache[V](computation) {
+
+    private[this] val results = new ConcurrentHashMap[Method, CompletableFuture[V]]()
+
+    override def policy: String = MethodResultsCache.UnboundedPolicy
+
+    override def apply(m: Method): V = {
+        val f = results.get(m)
+        if (f ne null) {
+            hitsCounter.increment()
+            return valueOf(f);
+        }
+
+        val newF = new CompletableFuture[V]()
+        val oldF = results.putIfAbsent(m, newF)
+        if (oldF ne null) {
+            hitsCounter.increment()
+            valueOf(oldF)
+        } else {
+            compute(m, newF, () ⇒ results.remove(m, newF))
+        }
+    }
+
+    override def size: Int = results.size
+
+    override def clear(): Unit = results.clear()
+
+}
+
+/**
+ * Caches at most `maxEntries` results of methods with a total code size of at most
+ * `maxCodeSize`; if a bound is exceeded, the least recently used results are evicted using
+ * the CLOCK (second-chance) algorithm.
+ */
+final class BoundedMethodResultsCache[V <: AnyRef](
+        computation:     Method ⇒ V,
+        val maxEntries:  Long,
+        val maxCodeSize: Long
+) extends MethodResultsCache[V](computation) {
+
+    private[this] class Entry(val m: Method) extends CompletableFuture[V] {
+        val codeSize: Int = m.codeSize
+        @volatile var referenced: Boolean = false
+    }
+
+    private[this] val results = new ConcurrentHashMap[Method, Entry]()
+    private[this] val clock = new ConcurrentLinkedQueue[Entry]()
+    private[this] val entriesCount = new AtomicLong(0L)
+    private[this] val totalCodeSize = new AtomicLong(0L)
+
+    override def policy: String = {
+        s"${MethodResultsCache.BoundedPolicy}(maxEntries=$maxEntries,maxCodeSize=$maxCodeSize)"
+    }
+
+    private[this] def isExceeded: Boolean = {
+        (maxEntries > 0L && entriesCount.get > maxEntries) ||
+            (maxCodeSize > 0L && totalCodeSize.get > maxCodeSize)
+    }
+
+    private[this] def evictIfNecessary(): Unit = {
+        while (isExceeded) {
+            val e = clock.poll()
+            if (e eq null)
+                return ;
+
+            if (e.referenced) {
+                // second chance...
+                e.referenced = false
+                clock.offer(e)
+            } else if (results.remove(e.m, e)) {
+                entriesCount.decrementAndGet()
+                totalCodeSize.addAndGet(-e.codeSize.toLong)
+                evictionsCounter.increment()
+            }
+        }
+    }
+
+    override def apply(m: Method): V = {
+        val e = results.get(m)
+        if (e ne null) {
+            hitsCounter.increment()
+            e.referenced = true
+            return valueOf(e);
+        }
+
+        val newE = new Entry(m)
+        val oldE = results.putIfAbsent(m, newE)
+        if (oldE ne null) {
+            hitsCounter.increment()
+            oldE.referenced = true
+            valueOf(oldE)
+        } else {
+            val v = compute(m, newE, () ⇒ results.remove(m, newE))
+            entriesCount.incrementAndGet()
+            totalCodeSize.addAndGet(newE.codeSize.toLong)
+            clock.offer(newE)
+            evictIfNecessary()
+            v
+        }
+    }
+
+    override def size: Int = results.size
+
+    override def clear(): Unit = {
+        var e = clock.poll()
+        while (e ne null) {
+            if (results.remove(e.m, e)) {
+                entriesCount.decrementAndGet()
+                totalCodeSize.addAndGet(-e.codeSize.toLong)
+            }
+            e = clock.poll()
+        }
+    }
+
+}
+
+/**
+ * Caches the results using soft references; i.e., the results are evicted by the garbage
+ * collector if the memory is low.
+ */
+final class SoftReferencesMethodResultsCache[V <: AnyRef](
+        computation: Method ⇒ V
+) extends MethodResultsCache[V](computation) {
+
+    private[this] class Entry(
+            val m: Method,
+            f:     CompletableFuture[V],
+            queue: ReferenceQueue[CompletableFuture[V]]
+    ) extends SoftReference[CompletableFuture[V]](f, queue)
+
+    private[this] val results = new ConcurrentHashMap[Method, Entry]()
+    private[this] val clearedEntries = new ReferenceQueue[CompletableFuture[V]]()
+
+    override def policy: String = MethodResultsCache.SoftReferencesPolicy
+
+    private[this] def removeClearedEntries(): Unit = {
+        var e = clearedEntries.poll()
+        while (e ne null) {
+            val entry = e.asInstanceOf[Entry]
+            if (results.remove(entry.m, entry)) evictionsCounter.increment()
+            e = clearedEntries.poll()
+        }
+    }
+
+    override def apply(m: Method): V = {
+        removeClearedEntries()
+
+        var e = results.get(m)
+        while (true) {
+            if (e ne null) {
+                val f = e.get
+                if (f ne null) {
+                    hitsCounter.increment()
+                    return valueOf(f);
+                }
+            }
+            // the method was not yet analyzed or the result was garbage collected
+            val newF = new CompletableFuture[V]()
+            val newE = new Entry(m, newF, clearedEntries)
+            val registered =
+                if (e eq null)
+                    results.putIfAbsent(m, newE) eq null
+                else
+                    results.replace(m, e, newE)
+            if (registered) {
+                return compute(m, newF, () ⇒ results.remove(m, newE));
+            }
+            e = results.get(m)
+        }
+        throw new UnknownError("unreachable")
+    }
+
+    override def size: Int = results.size
+
+    override def clear(): Unit = results.clear()
+
+}
+
+/**
+ * Caches no results; i.e., the result is computed whenever it is requested.
+ */
+final class NoCachingMethodResultsCache[V <: AnyRef](
+        computation: Method ⇒ V
+) extends MethodResultsCache[V](computation) {
+
+    override def policy: String = MethodResultsCache.NoCachingPolicy
+
+    override def apply(m: Method): V = {
+        missesCounter.increment()
+        computation(m)
+    }
+
+    override def size: Int = 0
+
+    override def clear(): Unit = {}
+
+}
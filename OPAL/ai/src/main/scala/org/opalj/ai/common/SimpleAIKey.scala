@@ -3,8 +3,6 @@ package org.opalj
 package ai
 package common
 
-import scala.collection.concurrent.TrieMap
-
 import org.opalj.br.Method
 import org.opalj.br.analyses.ProjectInformationKey
 import org.opalj.br.analyses.SomeProject
@@ -29,13 +27,22 @@ import org.opalj.ai.domain.l1.DefaultDomainWithCFGAndDefUse
  * @note   To get the index use the [[org.opalj.br.analyses.Project]]'s `get` method and
  *         pass in `this` object.
  *
+ * @note   The results are cached using a [[MethodResultsCache]] which is configured using the
+ *         configuration key `org.opalj.ai.common.SimpleAIKey.cache`. If the configuration key
+ *         `org.opalj.ai.common.SimpleAIKey.compactResults` is `true`, the results of completed
+ *         abstract interpretations are compacted (see [[org.opalj.ai.AIResultBuilder.compact]])
+ *         before they are cached.
+ *
  * @note   '''If you are developing analyses using the `PropertyStore` use an appropriate analysis
  *         that stores the results of an abstract interpretation in the store.'''
  *
  * @author Michael Eichberg
  */
 object SimpleAIKey
-    extends ProjectInformationKey[Method ⇒ AIResult { val domain: Domain with RecordDefUse }, /*DomainFactory*/ Method ⇒ Domain with RecordDefUse] {
+    extends ProjectInformationKey[MethodResultsCache[AIResult { val domain: Domain with RecordDefUse }], /*DomainFactory*/ Method ⇒ Domain with RecordDefUse] {
+
+    final val CacheConfigKey = "org.opalj.ai.common.SimpleAIKey.cache"
+    final val CompactResultsConfigKey = "org.opalj.ai.common.SimpleAIKey.compactResults"
 
     /**
      * The SimpleAIKey has no special prerequisites.
@@ -54,31 +61,21 @@ object SimpleAIKey
      */
     override protected def compute(
         project: SomeProject
-    ): Method ⇒ AIResult { val domain: Domain with RecordDefUse } = {
+    ): MethodResultsCache[AIResult { val domain: Domain with RecordDefUse }] = {
 
         val domainFactory = project.
             getProjectInformationKeyInitializationData(this).
             getOrElse((m: Method) ⇒ new DefaultDomainWithCFGAndDefUse(project, m))
 
-        val aiResults = TrieMap.empty[Method, AIResult { val domain: Domain with RecordDefUse }]
+        val compactResults = project.config.getBoolean(CompactResultsConfigKey)
 
-        (m: Method) ⇒ {
-            aiResults.get(m) match {
-                case Some(taCode) ⇒ taCode
-                case None ⇒
-                    val brCode = m.body.get
-                    // Basically, we use double checked locking; we really don't want to
-                    // transform the code more than once!
-                    brCode.synchronized {
-                        aiResults.get(m) match {
-                            case Some(aiResult) ⇒ aiResult
-                            case None ⇒
-                                val aiResult = BaseAI(m, domainFactory(m))
-                                aiResults.put(m, aiResult)
-                                aiResult
-                        }
-                    }
+        MethodResultsCache(project.config, CacheConfigKey) { m: Method ⇒
+            BaseAI(m, domainFactory(m)) match {
+                case result: AICompleted if compactResults ⇒
+                    AIResultBuilder.compact(result): AIResult { val domain: Domain with RecordDefUse }
+                case result ⇒
+                    result: AIResult { val domain: Domain with RecordDefUse }
             }
-        }
+        }(project.logContext)
     }
 }
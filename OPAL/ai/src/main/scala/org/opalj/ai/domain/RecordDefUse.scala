@@ -92,23 +92,23 @@ trait RecordDefUse extends RecordCFG { defUseDomain: Domain with TheCode with Th
     private[this] var usedExternalExceptions: Array[ValueOrigins] = _ // initialized by initProperties
     protected[this] var parametersOffset: Int = _ // initialized by initProperties
 
+    // The origins of the values stored in the registers when the method is called; i.e.,
+    // the origins of the parameters (negative values).
+    protected[this] var parameterOrigins: Registers[ValueOrigins] = _ // initialized by initProperties
+
     // This array contains the information where each operand value found at a
     // specific instruction was defined.
-    private[this] var defOps: Array[Chain[ValueOrigins]] = _ // initialized by initProperties
+    private[this] var defOps: Array[Chain[ValueOrigins]] = _ // initialized by computeDefUseInformation
     // This array contains the information where each local is defined;
     // negative values indicate that the values are parameters.
-    private[this] var defLocals: Array[Registers[ValueOrigins]] = _ // initialized by initProperties
+    private[this] var defLocals: Array[Registers[ValueOrigins]] = _ // initialized by computeDefUseInformation
 
     abstract override def initProperties(code: Code, cfJoins: IntTrieSet, locals: Locals): Unit = {
         val codeSize = code.codeSize
-        val defOps = new Array[Chain[ValueOrigins]](codeSize)
-        defOps(0) = Naught // the operand stack is empty...
-        this.defOps = defOps
 
         // Initialize initial def-use information based on the parameters:
-        val defLocals = new Array[Registers[ValueOrigins]](codeSize)
         var parameterIndex = 0
-        defLocals(0) =
+        this.parameterOrigins =
             locals map { v ⇒
                 // We always decrement parameterIndex to get the same offsets as used by the AI.
                 parameterIndex -= 1
@@ -118,11 +118,12 @@ trait RecordDefUse extends RecordCFG { defUseDomain: Domain with TheCode with Th
                     null
                 }
             }
-        this.defLocals = defLocals
         this.parametersOffset = -parameterIndex // <= definitively large enough - in general a bit too large
 
         this.used = new Array(codeSize + parametersOffset)
         this.usedExternalExceptions = new Array(codeSize)
+        this.defOps = null
+        this.defLocals = null
 
         super.initProperties(code, cfJoins, locals)
     }
@@ -206,10 +207,10 @@ trait RecordDefUse extends RecordCFG { defUseDomain: Domain with TheCode with Th
 
         // 1. check if the parameters are used...
         val parametersOffset = this.parametersOffset
-        val defLocals0 = defLocals(0)
+        val parameterOrigins = this.parameterOrigins
         var parameterIndex = 0
         while (parameterIndex < parametersOffset) {
-            if (defLocals0(parameterIndex) ne null) /*we may have parameters with comp. type 2*/ {
+            if (parameterOrigins(parameterIndex) ne null) /*we may have parameters with comp. type 2*/ {
                 val unusedParameter = -parameterIndex - 1
                 val usedBy = this.usedBy(unusedParameter)
                 if (usedBy eq null) { unused += unusedParameter }
@@ -232,7 +233,7 @@ trait RecordDefUse extends RecordCFG { defUseDomain: Domain with TheCode with Th
         unused
     }
 
-    private[this] def updateUsageInformation(usedValues: ValueOrigins, useSite: PC): Unit = {
+    protected[this] final def updateUsageInformation(usedValues: ValueOrigins, useSite: PC): Unit = {
         usedValues foreach { usedValue ⇒
             if (ai.isImplicitOrExternalException(usedValue)) {
                 // we have a usage of an implicit exception or a method external exception
@@ -438,91 +439,110 @@ trait RecordDefUse extends RecordCFG { defUseDomain: Domain with TheCode with Th
         implicit
         operandsArray: OperandsArray
     ): Chain[ValueOrigins] = {
+        val origins =
+            exceptionOrigins(currentPC, currentInstruction, successorPC, defOps(currentPC).head)
+        new :&:(origins)
+    }
+
+    /**
+     * Returns the origins of the exception which is caught by the handler with the pc
+     * `successorPC` if the instruction with the pc `currentPC` throws an exception.
+     *
+     * @param  thrownValueOrigins The origins of the value which is explicitly thrown by an
+     *         `athrow` instruction; only evaluated if the thrown value may be non-null.
+     */
+    protected[this] def exceptionOrigins(
+        currentPC:          PC,
+        currentInstruction: Instruction,
+        successorPC:        PC,
+        thrownValueOrigins: ⇒ ValueOrigins
+    )(
+        implicit
+        operandsArray: OperandsArray
+    ): ValueOrigins = {
         // The stack only contains the exception (which was created before and was explicitly
         // thrown by an athrow instruction or which resulted from a called method or which was
         // created by the JVM). (Whether we had a join or not is irrelevant.)
-        val origins =
-            originsOf(operandsArray(successorPC).head) match {
-                case None ⇒
-                    // We don't have precise origin information...
-
-                    // We now have to determine the source of the exception - whether
-                    // it was (potentially) created externally (i.e., in another method)
-                    // and/or by the JVM.
-                    (currentInstruction.opcode: @switch) match {
-                        case ATHROW.opcode ⇒
-                            // The thrown value may be null... in that case the thrown exception is
-                            // the VM generated NullPointerException.
-                            val thrownValue = operandsArray(currentPC).head
-                            val exceptionIsNull = refIsNull(currentPC, thrownValue)
-                            var newDefOps =
-                                if (exceptionIsNull.isNoOrUnknown) {
-                                    defOps(currentPC).head
-                                } else {
-                                    NoValueOrigins
-                                }
-                            if (throwNullPointerExceptionOnThrow &&
-                                exceptionIsNull.isYesOrUnknown)
-                                newDefOps += ValueOriginForImmediateVMException(currentPC)
-                            newDefOps
-
-                        case INVOKEINTERFACE.opcode |
-                            INVOKEVIRTUAL.opcode |
-                            INVOKESPECIAL.opcode ⇒
-                            val mii = currentInstruction.asInstanceOf[MethodInvocationInstruction]
-                            val receiver = operandsArray(currentPC)(mii.methodDescriptor.parametersCount)
-                            var newDefOps = NoValueOrigins
-                            if ( // we have to check that the handler is actually handling
-                            // (implicit) null pointer exceptions
-                            throwNullPointerExceptionOnMethodCall
-                                && refIsNull(currentPC, receiver).isYesOrUnknown
-                                && {
-                                    var foundDefinitiveHandler = false
-                                    code.handlersFor(currentPC) filter { eh ⇒
-                                        !foundDefinitiveHandler && (
-                                            (eh.catchType.isEmpty && { foundDefinitiveHandler = true; true }) || {
-                                                val isHandled = isASubtypeOf(ObjectType.NullPointerException, eh.catchType.get)
-                                                if (isHandled.isYes) {
-                                                    foundDefinitiveHandler = true
-                                                    true
-                                                } else if (isHandled.isYesOrUnknown)
-                                                    true
-                                                else
-                                                    false
-                                            }
-                                        )
-                                    }
-                                }.exists(eh ⇒ eh.handlerPC == successorPC)) {
-                                newDefOps += ValueOriginForImmediateVMException(currentPC)
-                            }
-                            // the configuration option:
-                            //      throwExceptionsOnMethodCall
-                            // is either
-                            //      Any
-                            //      AllExplicitlyHandled
-                            //      Known (most restrictive)
-                            // Given that we have reached this point, we assume that we used
-                            // very shallow analyses and hence have no more precise information.
-                            if (throwExceptionsOnMethodCall != ExceptionsRaisedByCalledMethods.Known) {
-                                newDefOps += ValueOriginForMethodExternalException(currentPC)
+        originsOf(operandsArray(successorPC).head) match {
+            case None ⇒
+                // We don't have precise origin information...
+
+                // We now have to determine the source of the exception - whether
+                // it was (potentially) created externally (i.e., in another method)
+                // and/or by the JVM.
+                (currentInstruction.opcode: @switch) match {
+                    case ATHROW.opcode ⇒
+                        // The thrown value may be null... in that case the thrown exception is
+                        // the VM generated NullPointerException.
+                        val thrownValue = operandsArray(currentPC).head
+                        val exceptionIsNull = refIsNull(currentPC, thrownValue)
+                        var newDefOps =
+                            if (exceptionIsNull.isNoOrUnknown) {
+                                thrownValueOrigins
+                            } else {
+                                NoValueOrigins
                             }
-                            newDefOps
+                        if (throwNullPointerExceptionOnThrow &&
+                            exceptionIsNull.isYesOrUnknown)
+                            newDefOps += ValueOriginForImmediateVMException(currentPC)
+                        newDefOps
+
+                    case INVOKEINTERFACE.opcode |
+                        INVOKEVIRTUAL.opcode |
+                        INVOKESPECIAL.opcode ⇒
+                        val mii = currentInstruction.asInstanceOf[MethodInvocationInstruction]
+                        val receiver = operandsArray(currentPC)(mii.methodDescriptor.parametersCount)
+                        var newDefOps = NoValueOrigins
+                        if ( // we have to check that the handler is actually handling
+                        // (implicit) null pointer exceptions
+                        throwNullPointerExceptionOnMethodCall
+                            && refIsNull(currentPC, receiver).isYesOrUnknown
+                            && {
+                                var foundDefinitiveHandler = false
+                                code.handlersFor(currentPC) filter { eh ⇒
+                                    !foundDefinitiveHandler && (
+                                        (eh.catchType.isEmpty && { foundDefinitiveHandler = true; true }) || {
+                                            val isHandled = isASubtypeOf(ObjectType.NullPointerException, eh.catchType.get)
+                                            if (isHandled.isYes) {
+                                                foundDefinitiveHandler = true
+                                                true
+                                            } else if (isHandled.isYesOrUnknown)
+                                                true
+                                            else
+                                                false
+                                        }
+                                    )
+                                }
+                            }.exists(eh ⇒ eh.handlerPC == successorPC)) {
+                            newDefOps += ValueOriginForImmediateVMException(currentPC)
+                        }
+                        // the configuration option:
+                        //      throwExceptionsOnMethodCall
+                        // is either
+                        //      Any
+                        //      AllExplicitlyHandled
+                        //      Known (most restrictive)
+                        // Given that we have reached this point, we assume that we used
+                        // very shallow analyses and hence have no more precise information.
+                        if (throwExceptionsOnMethodCall != ExceptionsRaisedByCalledMethods.Known) {
+                            newDefOps += ValueOriginForMethodExternalException(currentPC)
+                        }
+                        newDefOps
 
-                        case INVOKEDYNAMIC.opcode | INVOKESTATIC.opcode ⇒
-                            // ... we have no receiver, hence, we can't have a
-                            // VM NullPointerException and therefore the exception
-                            // is not raised by the INVOKEDYNAMIC instruction
-                            ValueOrigins(ValueOriginForMethodExternalException(currentPC))
+                    case INVOKEDYNAMIC.opcode | INVOKESTATIC.opcode ⇒
+                        // ... we have no receiver, hence, we can't have a
+                        // VM NullPointerException and therefore the exception
+                        // is not raised by the INVOKEDYNAMIC instruction
+                        ValueOrigins(ValueOriginForMethodExternalException(currentPC))
 
-                        case _ ⇒
-                            // The instruction implicitly threw the exception...
-                            ValueOrigins(ValueOriginForImmediateVMException(currentPC))
-                    }
+                    case _ ⇒
+                        // The instruction implicitly threw the exception...
+                        ValueOrigins(ValueOriginForImmediateVMException(currentPC))
+                }
 
-                case Some(origins) ⇒
-                    origins
-            }
-        new :&:(origins)
+            case Some(origins) ⇒
+                origins
+        }
     }
 
     /*
@@ -596,7 +616,24 @@ trait RecordDefUse extends RecordCFG { defUseDomain: Domain with TheCode with Th
         if (aiResult.wasAborted)
             return /* nothing to do */ ;
 
+        computeDefUseInformation(aiResult)
+    }
+
+    /**
+     * Computes the definition/use information by propagating the origins of all operands
+     * and registers along the recorded cfg; i.e., the origins are stored for each
+     * instruction.
+     */
+    protected[this] def computeDefUseInformation(
+        aiResult: AIResult { val domain: defUseDomain.type }
+    ): Unit = {
         val instructions = code.instructions
+        val codeSize = code.codeSize
+        defOps = new Array[Chain[ValueOrigins]](codeSize)
+        defOps(0) = Naught // the operand stack is empty...
+        defLocals = new Array[Registers[ValueOrigins]](codeSize)
+        defLocals(0) = parameterOrigins
+
         lazy val belongsToSubroutine = code.belongsToSubroutine()
         // println(belongsToSubroutine.zipWithIndex.map(_.swap).mkString("Subroutine association:\n\t", "\n\t", "\n"))
         implicit val operandsArray = aiResult.operandsArray
@@ -1361,14 +1398,9 @@ trait RecordDefUse extends RecordCFG { defUseDomain: Domain with TheCode with Th
     }
 
     /**
-     * Creates a multi-graph that represents the method's def-use information. I.e.,
-     * in which way a certain value is used by other instructions and where the derived
-     * values are then used by further instructions.
-     * (Basically, we compute the data-dependence graph.)
+     * The origins of all values which are stored in an operand or a register.
      */
-    def createDefUseGraph(code: Code): Set[DefaultMutableNode[ValueOrigin]] = {
-
-        // 1. create set of all def sites
+    protected[this] def defSites: Set[ValueOrigin] = {
         var defSites: Set[ValueOrigin] = Set.empty
         defOps.iterator.filter(_ ne null).foreach { _.foreach { _.foreach { defSites += _ } } }
         for {
@@ -1380,6 +1412,19 @@ trait RecordDefUse extends RecordCFG { defUseDomain: Domain with TheCode with Th
         } {
             defSites += valueOrigin
         }
+        defSites
+    }
+
+    /**
+     * Creates a multi-graph that represents the method's def-use information. I.e.,
+     * in which way a certain value is used by other instructions and where the derived
+     * values are then used by further instructions.
+     * (Basically, we compute the data-dependence graph.)
+     */
+    def createDefUseGraph(code: Code): Set[DefaultMutableNode[ValueOrigin]] = {
+
+        // 1. create set of all def sites
+        val defSites: Set[ValueOrigin] = this.defSites
 
         def instructionToString(vo: ValueOrigin): String = {
             if (ai.isImplicitOrExternalException(vo))
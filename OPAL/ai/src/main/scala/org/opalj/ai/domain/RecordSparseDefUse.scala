@@ -0,0 +1,598 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+package domain
+
+import scala.annotation.switch
+
+import scala.xml.Node
+
+import org.opalj.collection.immutable.:&:
+import org.opalj.collection.immutable.IntTrieSet
+import org.opalj.collection.immutable.IntTrieSet1
+import org.opalj.collection.mutable.IntArrayStack
+import org.opalj.graphs.DominanceFrontiers
+import org.opalj.br.PC
+import org.opalj.br.Code
+import org.opalj.br.instructions._
+
+/**
+ * Collects the definition/use information based on the abstract interpretation time cfg
+ * using a sparse, SSA based representation of the operands and registers.
+ *
+ * [[RecordDefUse]] computes – for each instruction – the origins of all operands and
+ * registers. This domain only computes the origins at the definition sites and
+ * propagates them along the dominator tree. Phi nodes are placed at the iterated dominance
+ * frontiers of the definition sites (i.e., at control-flow joins) and only for those operands
+ * and registers which still contain a value according to the abstract interpretation.
+ * After the computation only the origins of the operands and registers which are used by
+ * an instruction are kept.
+ *
+ * ==Restrictions==
+ * `operandOrigin` can only be queried for the operands which are used by the instruction
+ * (i.e., the `numberOfPoppedOperands` top-most operands; stack management, load and store
+ * instructions do not use operands) and – in case of the first instruction of an exception
+ * handler – for the caught exception. `localOrigin` can only be queried for the register
+ * which is read by an `iinc` instruction. Other queries throw an `IllegalArgumentException`.
+ *
+ * If the method contains subroutines (JSR/RET), the def/use information is computed by
+ * [[RecordDefUse]] and no restrictions apply.
+ *
+ * @author agent
+ */
+trait RecordSparseDefUse extends RecordDefUse {
+    sparseDefUseDomain: Domain with TheCode with TheClassHierarchy ⇒
+
+    import RecordSparseDefUse._
+
+    // The origins of the used operands and registers; the origins of the values used by
+    // the instruction with the pc "pc" are stored in the range
+    // [usedOriginsIndex(pc),usedOriginsIndex(pc+1)): first the operands (top-most first)
+    // and then – in case of an iinc – the register.
+    // Both arrays are null if the dense representation is used.
+    private[this] var usedOrigins: Array[ValueOrigins] = _
+    private[this] var usedOriginsIndex: Array[Int] = _
+
+    abstract override def initProperties(code: Code, cfJoins: IntTrieSet, locals: Locals): Unit = {
+        usedOrigins = null
+        usedOriginsIndex = null
+
+        super.initProperties(code, cfJoins, locals)
+    }
+
+    private[this] def storedOperandsCount(pc: PC): Int = {
+        val count = usedOriginsIndex(pc + 1) - usedOriginsIndex(pc)
+        if (code.instructions(pc).isIINC) count - 1 else count
+    }
+
+    override def operandOrigin(pc: PC, stackIndex: Int): ValueOrigins = {
+        if (usedOriginsIndex eq null)
+            super.operandOrigin(pc, stackIndex)
+        else if (stackIndex >= 0 && stackIndex < storedOperandsCount(pc))
+            usedOrigins(usedOriginsIndex(pc) + stackIndex)
+        else
+            throw new IllegalArgumentException(s"$pc: the operand $stackIndex is not used")
+    }
+
+    override def localOrigin(pc: PC, registerIndex: Int): ValueOrigins = {
+        if (usedOriginsIndex eq null)
+            super.localOrigin(pc, registerIndex)
+        else {
+            val instruction = code.instructions(pc)
+            if (instruction.isIINC && instruction.asIINC.lvIndex == registerIndex)
+                usedOrigins(usedOriginsIndex(pc + 1) - 1)
+            else
+                throw new IllegalArgumentException(s"$pc: the register $registerIndex is not used")
+        }
+    }
+
+    private[this] def stackManagementEffect(opcode: Int, operands: Operands): Array[Int] = {
+        (opcode: @switch) match {
+            case 87 /*pop*/ ⇒
+                Pop
+            case 88 /*pop2*/ ⇒
+                if (operands.head.computationalType.operandSize == 1) Pop2 else Pop
+            case 89 /*dup*/ ⇒
+                Dup
+            case 90 /*dup_x1*/ ⇒
+                DupX1
+            case 91 /*dup_x2*/ ⇒
+                operands match {
+                    case _ /*v1 @ CTC1()*/ :&: (_@ CTC1()) :&: _ ⇒ DupX2
+                    case _                                      ⇒ DupX1
+                }
+            case 92 /*dup2*/ ⇒
+                operands match {
+                    case (_@ CTC1()) :&: _ ⇒ Dup2
+                    case _                 ⇒ Dup
+                }
+            case 93 /*dup2_x1*/ ⇒
+                operands match {
+                    case (_@ CTC1()) :&: _ ⇒ Dup2X1
+                    case _                 ⇒ DupX1
+                }
+            case 94 /*dup2_x2*/ ⇒
+                operands match {
+                    case (_@ CTC1()) :&: (_@ CTC1()) :&: (_@ CTC1()) :&: _ ⇒ Dup2X2Form1
+                    case (_@ CTC1()) :&: (_@ CTC1()) :&: _                 ⇒ Dup2X1
+                    case _ /*v1 @ CTC2()*/ :&: (_@ CTC1()) :&: _          ⇒ DupX2
+                    case _                                                 ⇒ DupX1
+                }
+            case 95 /*swap*/ ⇒
+                Swap
+        }
+    }
+
+    /**
+     * Computes the definition/use information by placing phi nodes at the iterated
+     * dominance frontiers of the definition sites and by renaming the operands and registers
+     * along the dominator tree.
+     */
+    override protected[this] def computeDefUseInformation(
+        aiResult: AIResult { val domain: sparseDefUseDomain.type }
+    ): Unit = {
+        if (subroutineStartPCs.nonEmpty) {
+            // The values of the registers depend on the calling context of a subroutine.
+            super.computeDefUseInformation(aiResult)
+            return ;
+        }
+
+        val instructions = code.instructions
+        val codeSize = instructions.length
+        implicit val operandsArray = aiResult.operandsArray
+        val localsArray = aiResult.localsArray
+
+        // The variables are the registers [0,maxLocals) followed by the operand
+        // stack's slots (the slot with index 0 is the bottom of the stack).
+        val maxLocals = code.maxLocals
+        val variablesCount = maxLocals + code.maxStack
+        @inline def stackVariable(depth: Int): Int = maxLocals + depth
+
+        // The values are identified by an id; a value is either a concrete value or a phi.
+        var valuesCount = 0
+        var valueOrigins = new Array[ValueOrigins](codeSize + variablesCount)
+        var phiOperands = new Array[IntTrieSet](codeSize + variablesCount) // null if concrete
+        def newValue(origins: ValueOrigins, operands: IntTrieSet): Int = {
+            if (valuesCount == valueOrigins.length) {
+                valueOrigins = java.util.Arrays.copyOf(valueOrigins, valuesCount * 2)
+                phiOperands = java.util.Arrays.copyOf(phiOperands, valuesCount * 2)
+            }
+            valueOrigins(valuesCount) = origins
+            phiOperands(valuesCount) = operands
+            valuesCount += 1
+            valuesCount - 1
+        }
+        def addPhiOperand(phi: Int, operand: Int): Unit = {
+            if (operand >= 0) phiOperands(phi) += operand
+        }
+
+        val stackHeights = new Array[Int](codeSize)
+        var handlerPCs = IntTrieSet.empty
+        val usedOriginsIndex = new Array[Int](codeSize + 1)
+
+        def usedOperandsCount(instruction: Instruction): Int = {
+            if (instruction.isLoadLocalVariableInstruction ||
+                instruction.isStoreLocalVariableInstruction ||
+                instruction.isStackManagementInstruction ||
+                instruction.isGotoInstruction ||
+                instruction.isIINC ||
+                instruction.opcode == NOP.opcode ||
+                instruction.opcode == WIDE.opcode)
+                0
+            else
+                instruction.numberOfPoppedOperands(NotRequired)
+        }
+
+        /*
+         * Calls `define` for each variable which is (re)defined by the instruction with the
+         * given pc; the value is only evaluated if necessary and always before the (next)
+         * variable is defined.
+         */
+        def defineVariables(pc: PC, define: (Int, ⇒ Int) ⇒ Unit, current: Int ⇒ Int): Unit = {
+            val instruction = instructions(pc)
+            val height = stackHeights(pc)
+            (instruction.opcode: @switch) match {
+                case 25 /*aload*/ | 24 /*dload*/ | 23 /*fload*/ | 21 /*iload*/ | 22 /*lload*/ |
+                    42 /*aload_0*/ | 38 /*dload_0*/ | 34 /*fload_0*/ | 26 /*iload_0*/ | 30 /*lload_0*/ |
+                    43 /*aload_1*/ | 39 /*dload_1*/ | 35 /*fload_1*/ | 27 /*iload_1*/ | 31 /*lload_1*/ |
+                    44 /*aload_2*/ | 40 /*dload_2*/ | 36 /*fload_2*/ | 28 /*iload_2*/ | 32 /*lload_2*/ |
+                    45 /*aload_3*/ | 41 /*dload_3*/ | 37 /*fload_3*/ | 29 /*iload_3*/ | 33 /*lload_3*/ ⇒
+                    val index = instruction.asLoadLocalVariableInstruction.lvIndex
+                    define(stackVariable(height), current(index))
+
+                case 58 /*astore*/ | 57 /*dstore*/ | 56 /*fstore*/ | 54 /*istore*/ | 55 /*lstore*/ |
+                    75 /*astore_0*/ | 71 /*dstore_0*/ | 67 /*fstore_0*/ | 63 /*lstore_0*/ | 59 /*istore_0*/ |
+                    76 /*astore_1*/ | 72 /*dstore_1*/ | 68 /*fstore_1*/ | 64 /*lstore_1*/ | 60 /*istore_1*/ |
+                    77 /*astore_2*/ | 73 /*dstore_2*/ | 69 /*fstore_2*/ | 65 /*lstore_2*/ | 61 /*istore_2*/ |
+                    78 /*astore_3*/ | 74 /*dstore_3*/ | 70 /*fstore_3*/ | 66 /*lstore_3*/ | 62 /*istore_3*/ ⇒
+                    val index = instruction.asStoreLocalVariableInstruction.lvIndex
+                    define(index, current(stackVariable(height - 1)))
+
+                case IINC.opcode ⇒
+                    val index = instruction.asIINC.lvIndex
+                    define(index, {
+                        val successorPC = regularSuccessorsOf(pc).head
+                        val origins = originsOf(localsArray(successorPC)(index)) match {
+                            case Some(origins) ⇒ origins
+                            case None          ⇒ ValueOrigins(pc)
+                        }
+                        newValue(origins, null)
+                    })
+
+                case 87 /*pop*/ | 88 /*pop2*/ |
+                    89 /*dup*/ | 90 /*dup_x1*/ | 91 /*dup_x2*/ |
+                    92 /*dup2*/ | 93 /*dup2_x1*/ | 94 /*dup2_x2*/ |
+                    95 /*swap*/ ⇒
+                    val effect = stackManagementEffect(instruction.opcode, operandsArray(pc))
+                    val poppedValues = effect(0)
+                    val newHeight = height - poppedValues + effect.length - 1
+                    // all values have to be read before the first variable is redefined
+                    lazy val values = Array.tabulate(poppedValues) { i ⇒
+                        current(stackVariable(height - 1 - i))
+                    }
+                    var i = 1
+                    while (i < effect.length) {
+                        define(stackVariable(newHeight - i), values(effect(i)))
+                        i += 1
+                    }
+
+                case GOTO.opcode | GOTO_W.opcode | NOP.opcode | WIDE.opcode | CHECKCAST.opcode ⇒
+                // nothing is defined; a checkcast is not a def-site (see RecordDefUse)
+
+                case _ ⇒
+                    val regularSuccessors = regularSuccessorsOf(pc)
+                    if (regularSuccessors.nonEmpty &&
+                        instruction.numberOfPushedOperands(NotRequired) > 0) {
+                        val poppedValues = instruction.numberOfPoppedOperands(NotRequired)
+                        define(stackVariable(height - poppedValues), {
+                            val origins = originsOf(operandsArray(regularSuccessors.head).head) match {
+                                case Some(origins) ⇒ origins
+                                case None          ⇒ ValueOrigins(pc)
+                            }
+                            newValue(origins, null)
+                        })
+                    }
+            }
+        }
+
+        //
+        // 1. COLLECT THE DEFINITION SITES (OF EACH VARIABLE) AND THE USE SITES
+        //
+        val defSites = new Array[IntArrayStack](variablesCount)
+        def addDefSite(variable: Int, pc: PC): Unit = {
+            var variableDefSites = defSites(variable)
+            if (variableDefSites eq null) {
+                variableDefSites = new IntArrayStack(4)
+                defSites(variable) = variableDefSites
+            }
+            if (variableDefSites.isEmpty || variableDefSites.top() != pc) variableDefSites.push(pc)
+        }
+        val initialValues = new Array[Int](maxLocals)
+        var r = 0
+        while (r < maxLocals) {
+            val origins = parameterOrigins(r)
+            if (origins ne null) {
+                initialValues(r) = newValue(origins, null)
+                addDefSite(r, 0)
+            } else {
+                initialValues(r) = -1
+            }
+            r += 1
+        }
+        // (Initially, usedOriginsIndex stores the number of used operands and registers.)
+        var pc = 0
+        while (pc < codeSize) {
+            if (wasExecuted(pc)) {
+                val instruction = instructions(pc)
+                stackHeights(pc) = operandsArray(pc).size
+                exceptionHandlerSuccessorsOf(pc) foreach { handlerPC ⇒ handlerPCs += handlerPC }
+                usedOriginsIndex(pc) = usedOperandsCount(instruction)
+                if (instruction.isIINC) usedOriginsIndex(pc) += 1
+                val definingPC = pc
+                defineVariables(pc, (variable, _) ⇒ addDefSite(variable, definingPC), _ ⇒ -1)
+            }
+            pc = instructions(pc).indexOfNextInstruction(pc)(code)
+        }
+        // The stack of a handler only contains the exception which is (always) a new value;
+        // its origins are always stored.
+        handlerPCs foreach { handlerPC ⇒
+            if (usedOperandsCount(instructions(handlerPC)) == 0) usedOriginsIndex(handlerPC) += 1
+            addDefSite(stackVariable(0), handlerPC)
+        }
+        var usedValuesCount = 0
+        pc = 0
+        while (pc <= codeSize) {
+            val count = usedOriginsIndex(pc)
+            usedOriginsIndex(pc) = usedValuesCount
+            usedValuesCount += count
+            pc += 1
+        }
+
+        //
+        // 2. PLACE THE PHIS AT THE ITERATED DOMINANCE FRONTIERS
+        //
+        val dt = dominatorTree
+        val dfs = DominanceFrontiers(dt, wasExecuted)
+        val phiVariables = new Array[IntArrayStack](codeSize)
+        val phiValues = new Array[IntArrayStack](codeSize)
+        def addPhi(pc: PC, variable: Int): Unit = {
+            if (phiVariables(pc) eq null) {
+                phiVariables(pc) = new IntArrayStack(4)
+                phiValues(pc) = new IntArrayStack(4)
+            }
+            val phi = newValue(NoValueOrigins, IntTrieSet.empty)
+            if (pc == 0 && variable < maxLocals) addPhiOperand(phi, initialValues(variable))
+            phiVariables(pc).push(variable)
+            phiValues(pc).push(phi)
+        }
+        val hasPhi = new Array[Int](codeSize) // the last variable (+1) with a phi at the pc
+        val wasScheduled = new Array[Int](codeSize) // the last variable (+1) which scheduled the pc
+        var variable = 0
+        while (variable < variablesCount) {
+            val variableDefSites = defSites(variable)
+            if (variableDefSites ne null) {
+                val mark = variable + 1
+                if (variable == stackVariable(0)) {
+                    handlerPCs foreach { handlerPC ⇒ addPhi(handlerPC, variable); hasPhi(handlerPC) = mark }
+                }
+                val worklist = new IntArrayStack(variableDefSites.size)
+                variableDefSites foreach { pc ⇒ worklist.push(pc); wasScheduled(pc) = mark }
+                while (worklist.nonEmpty) {
+                    dfs.df(worklist.pop()) foreach { y ⇒
+                        if (hasPhi(y) != mark && {
+                            if (variable < maxLocals)
+                                localsArray(y)(variable) ne null
+                            else
+                                variable - maxLocals < stackHeights(y)
+                        }) {
+                            addPhi(y, variable)
+                            hasPhi(y) = mark
+                            if (wasScheduled(y) != mark) {
+                                wasScheduled(y) = mark
+                                worklist.push(y)
+                            }
+                        }
+                    }
+                }
+            }
+            variable += 1
+        }
+
+        //
+        // 3. RENAME THE VARIABLES ALONG THE DOMINATOR TREE
+        //
+        val children = new Array[IntArrayStack](codeSize)
+        pc = 1
+        while (pc < codeSize) {
+            if (wasExecuted(pc)) {
+                val parentPC = dt.dom(pc)
+                if (children(parentPC) eq null) children(parentPC) = new IntArrayStack(2)
+                children(parentPC).push(pc)
+            }
+            pc += 1
+        }
+        val usedValues = new Array[Int](usedOriginsIndex(codeSize))
+        val currentValues = Array.fill(variablesCount)(new IntArrayStack(4))
+        r = 0
+        while (r < maxLocals) {
+            if (initialValues(r) >= 0) currentValues(r).push(initialValues(r))
+            r += 1
+        }
+        val definedVariables = new IntArrayStack(maxLocals + codeSize)
+        def current(variable: Int): Int = {
+            val values = currentValues(variable)
+            if (values.isEmpty) -1 else values.top()
+        }
+        def define(variable: Int, value: ⇒ Int): Unit = {
+            val v = value
+            currentValues(variable).push(v)
+            definedVariables.push(variable)
+        }
+        def addPhiOperands(
+            pc:                       PC,
+            instruction:              Instruction,
+            successorPC:              PC,
+            isExceptionalControlFlow: Boolean
+        ): Unit = {
+            val variables = phiVariables(successorPC)
+            if (variables ne null) {
+                val phis = phiValues(successorPC)
+                var i = 0
+                while (i < variables.size) {
+                    val variable = variables(i)
+                    val phi = phis(i)
+                    if (isExceptionalControlFlow && variable == stackVariable(0)) {
+                        var isThrownValueUsed = false
+                        val origins = exceptionOrigins(pc, instruction, successorPC, {
+                            isThrownValueUsed = true
+                            NoValueOrigins
+                        })
+                        addPhiOperand(phi, newValue(origins, null))
+                        if (isThrownValueUsed) {
+                            addPhiOperand(phi, current(stackVariable(stackHeights(pc) - 1)))
+                        }
+                    } else {
+                        addPhiOperand(phi, current(variable))
+                    }
+                    i += 1
+                }
+            }
+        }
+
+        val worklist = new IntArrayStack(Math.max(8, codeSize / 4))
+        val definedVariablesCounts = new IntArrayStack(Math.max(8, codeSize / 4))
+        worklist.push(0)
+        while (worklist.nonEmpty) {
+            val pc = worklist.pop()
+            if (pc < 0) {
+                // all children were processed; i.e., we restore the values of the variables
+                val count = definedVariablesCounts.pop()
+                while (definedVariables.size > count) {
+                    currentValues(definedVariables.pop()).pop()
+                }
+            } else {
+                definedVariablesCounts.push(definedVariables.size)
+                worklist.push(~pc)
+                val instruction = instructions(pc)
+                val height = stackHeights(pc)
+
+                // (a) the phis
+                val variables = phiVariables(pc)
+                if (variables ne null) {
+                    val phis = phiValues(pc)
+                    var i = 0
+                    while (i < variables.size) { define(variables(i), phis(i)); i += 1 }
+                }
+
+                // (b) the uses
+                var index = usedOriginsIndex(pc)
+                val endIndex = usedOriginsIndex(pc + 1)
+                var stackIndex = 0
+                while (index < endIndex) {
+                    usedValues(index) =
+                        if (instruction.isIINC && index == endIndex - 1)
+                            current(instruction.asIINC.lvIndex)
+                        else
+                            current(stackVariable(height - 1 - stackIndex))
+                    stackIndex += 1
+                    index += 1
+                }
+
+                // (c) the exceptions; the registers are not affected by the instruction
+                exceptionHandlerSuccessorsOf(pc) foreach { handlerPC ⇒
+                    addPhiOperands(pc, instruction, handlerPC, isExceptionalControlFlow = true)
+                }
+
+                // (d) the definitions and the regular successors
+                defineVariables(pc, define, current)
+                regularSuccessorsOf(pc) foreach { successorPC ⇒
+                    addPhiOperands(pc, instruction, successorPC, isExceptionalControlFlow = false)
+                }
+
+                val pcChildren = children(pc)
+                if (pcChildren ne null) pcChildren foreach { child ⇒ worklist.push(child) }
+            }
+        }
+
+        //
+        // 4. COMPUTE THE ORIGINS OF THE PHIS
+        //
+        val users = new Array[IntTrieSet](valuesCount)
+        val phisWorklist = new IntArrayStack(Math.max(8, valuesCount / 2))
+        var value = 0
+        while (value < valuesCount) {
+            val operands = phiOperands(value)
+            if (operands ne null) {
+                val phi = value
+                phisWorklist.push(phi)
+                operands foreach { operand ⇒
+                    if (phiOperands(operand) ne null) {
+                        val operandUsers = users(operand)
+                        users(operand) = if (operandUsers eq null) IntTrieSet1(phi) else operandUsers + phi
+                    }
+                }
+            }
+            value += 1
+        }
+        while (phisWorklist.nonEmpty) {
+            val phi = phisWorklist.pop()
+            val oldOrigins = valueOrigins(phi)
+            var newOrigins = oldOrigins
+            phiOperands(phi) foreach { operand ⇒ newOrigins ++= valueOrigins(operand) }
+            if (newOrigins.size != oldOrigins.size) {
+                valueOrigins(phi) = newOrigins
+                val phiUsers = users(phi)
+                if (phiUsers ne null) phiUsers foreach { user ⇒ phisWorklist.push(user) }
+            }
+        }
+
+        //
+        // 5. STORE THE ORIGINS OF THE USED VALUES AND RECORD THE USAGES
+        //
+        val usedOrigins = new Array[ValueOrigins](usedValues.length)
+        pc = 0
+        while (pc < codeSize) {
+            if (wasExecuted(pc)) {
+                val instruction = instructions(pc)
+                var usesCount = if (instruction.isIINC) 1 else usedOperandsCount(instruction)
+                var index = usedOriginsIndex(pc)
+                val endIndex = usedOriginsIndex(pc + 1)
+                while (index < endIndex) {
+                    val value = usedValues(index)
+                    val origins = if (value >= 0) valueOrigins(value) else NoValueOrigins
+                    usedOrigins(index) = origins
+                    if (usesCount > 0 && (!instruction.isIINC || index == endIndex - 1)) {
+                        updateUsageInformation(origins, pc)
+                        usesCount -= 1
+                    }
+                    index += 1
+                }
+            }
+            pc = instructions(pc).indexOfNextInstruction(pc)(code)
+        }
+        this.usedOrigins = usedOrigins
+        this.usedOriginsIndex = usedOriginsIndex
+    }
+
+    override protected[this] def defSites: Set[ValueOrigin] = {
+        if (usedOriginsIndex eq null)
+            super.defSites
+        else {
+            var defSites: Set[ValueOrigin] = Set.empty
+            usedOrigins foreach { origins ⇒ origins foreach { defSites += _ } }
+            unused foreach { defSites += _ }
+            defSites
+        }
+    }
+
+    override def dumpDefUseTable(): Node = {
+        if (usedOriginsIndex eq null)
+            return super.dumpDefUseTable();
+
+        val instructions = code.instructions
+        val perInstruction =
+            code.programCounters.filter(wasExecuted).map { pc ⇒
+                val used = this.usedBy(pc)
+                val usedBy = if (used eq null) "N/A" else used.mkString("{", ", ", "}")
+                val usedValues =
+                    (usedOriginsIndex(pc) until usedOriginsIndex(pc + 1)).map { index ⇒
+                        <li>{ usedOrigins(index).mkString("{", ",", "}") }</li>
+                    }
+                <tr>
+                    <td>{ pc }<br/>{ instructions(pc).toString(pc) }</td>
+                    <td>{ usedBy }</td>
+                    <td><ul class="Stack">{ usedValues }</ul></td>
+                </tr>
+            }
+
+        <div>
+            <h1>Unused</h1>
+            { unused.mkString("", ", ", "") }
+            <h1>Overview</h1>
+            <table>
+                <tr>
+                    <th class="pc">PC</th>
+                    <th class="pc">Used By</th>
+                    <th class="stack">Used Values</th>
+                </tr>
+                { perInstruction.toList }
+            </table>
+        </div>
+    }
+}
+
+object RecordSparseDefUse {
+
+    // The effects of the stack management instructions: the number of popped values
+    // followed by the indexes of the popped values (top-most value first) which are
+    // pushed (the new top-most value first).
+    private final val Pop = Array(1)
+    private final val Pop2 = Array(2)
+    private final val Dup = Array(1, 0, 0)
+    private final val DupX1 = Array(2, 0, 1, 0)
+    private final val DupX2 = Array(3, 0, 1, 2, 0)
+    private final val Dup2 = Array(2, 0, 1, 0, 1)
+    private final val Dup2X1 = Array(3, 0, 1, 2, 0, 1)
+    private final val Dup2X2Form1 = Array(4, 0, 1, 2, 3, 0, 1)
+    private final val Swap = Array(2, 1, 0)
+}
@@ -58,3 +58,15 @@ class DefaultDomainWithCFGAndDefUse[Source](
         method:  Method
 ) extends DefaultDomainWithCFG[Source](project, method)
     with RefineDefUseUsingOrigins
+
+/**
+ * Configuration of a domain that uses the most capable `l1` domains and
+ * which also records the abstract-interpretation time control flow graph and the
+ * sparse def/use information (see [[org.opalj.ai.domain.RecordSparseDefUse]]).
+ */
+class DefaultDomainWithCFGAndSparseDefUse[Source](
+        project: Project[Source],
+        method:  Method
+) extends DefaultDomainWithCFG[Source](project, method)
+    with RefineDefUseUsingOrigins
+    with RecordSparseDefUse
@@ -0,0 +1,234 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+package domain
+package l2
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.LongAdder
+
+import scala.collection.mutable
+
+import org.opalj.collection.immutable.Chain
+import org.opalj.br.Method
+import org.opalj.br.analyses.Project
+import org.opalj.br.analyses.SomeProject
+import org.opalj.ai.domain.l2.CalledMethodsSummaries.Key
+import org.opalj.ai.domain.l2.CalledMethodsSummaries.SharedCoordinatingValuesDomain
+
+/**
+ * A thread-safe, project-wide cache of the summaries of the results of the abstract
+ * interpretations of called methods; see [[PerformInvocationsWithSummaries]] for details.
+ *
+ * A summary is identified by the called method, a domain specific context (e.g., the
+ * remaining length of the call chain) and the operands passed to the method. To make the
+ * operands of different calling domains comparable, the operands are adapted to a shared
+ * [[CoordinatingValuesDomain]]; two invocations share a summary if the adapted operands are
+ * equal.
+ *
+ * At most `maxEntries` summaries are cached (`0` = no bound); if the bound is exceeded the
+ * least recently used summaries are evicted (approximated using the CLOCK algorithm).
+ *
+ * @author agent
+ */
+final class CalledMethodsSummaries(
+        val project:    SomeProject,
+        val maxEntries: Long
+) {
+
+    /**
+     * The domain to which all operands and summarized values are adapted.
+     *
+     * The domain is shared by all threads; this is possible because the only mutable state
+     * of the domain that is used when values are adapted – the counter of the reference
+     * ids – is updated atomically.
+     */
+    val domain: CalledMethodsStore.BaseDomain = new SharedCoordinatingValuesDomain(project)
+
+    /**
+     * The summary of the result of an invocation; the values belong to the [[domain]].
+     *
+     * @param  returnedValue The summarized returned value; `null` if the returned value is
+     *         one of the operands or if the method does not return a value.
+     * @param  returnedOperand The index of the operand (w.r.t. the operand stack) that is
+     *         returned; `-1` if no operand is returned.
+     * @param  thrownExceptions The exceptions thrown by the called method; `null` if the
+     *         calling domain does not use the exceptions thrown by called methods.
+     */
+    final class Summary private[CalledMethodsSummaries] (
+            val computationFailed: Boolean,
+            val returnsNormally:   Boolean,
+            val hasResult:         Boolean,
+            val returnedValue:     ValuesDomain#DomainValue,
+            val returnedOperand:   Int,
+            val thrownExceptions:  Iterable[ValuesDomain#DomainValue]
+    ) {
+        @volatile private[CalledMethodsSummaries] var referenced: Boolean = false
+    }
+
+    private[this] val summaries = new ConcurrentHashMap[Key, Summary]()
+    private[this] val clock = new ConcurrentLinkedQueue[Key]()
+    private[this] val entriesCount = new AtomicLong(0L)
+
+    private[this] val hitsCounter = new LongAdder
+    private[this] val missesCounter = new LongAdder
+    private[this] val evictionsCounter = new LongAdder
+
+    /** The number of invocations which were answered using a cached summary. */
+    def hits: Long = hitsCounter.sum
+
+    /** The number of invocations for which no summary was available. */
+    def misses: Long = missesCounter.sum
+
+    /** The number of summaries which were removed from the cache to save memory. */
+    def evictions: Long = evictionsCounter.sum
+
+    /** The (approximated) number of cached summaries. */
+    def size: Int = summaries.size
+
+    /** The ratio of the hits and all requests; `0.0` if no summary was requested so far. */
+    def hitRate: Double = {
+        val hits = this.hits
+        val requests = hits + misses
+        if (requests == 0L) 0.0d else hits.toDouble / requests.toDouble
+    }
+
+    def statistics: Map[String, Long] = Map(
+        "hits" → hits,
+        "misses" → misses,
+        "evictions" → evictions,
+        "size" → size.toLong
+    )
+
+    override def toString: String = {
+        val hitRate = f"hitRate=${this.hitRate * 100.0d}%.1f%%"
+        statistics.map(e ⇒ e._1+"="+e._2).mkString(s"CalledMethodsSummaries($hitRate,", ",", ")")
+    }
+
+    /**
+     * Creates the key which identifies the summary of the invocation of the given method
+     * in the given context using the given operands.
+     */
+    def key(method: Method, context: Int, operands: Chain[ValuesDomain#DomainValue]): Key = {
+        val adaptedOperands = mapOperands(operands, domain)
+        Key(method, context, mutable.WrappedArray.make[AnyRef](adaptedOperands))
+    }
+
+    /**
+     * Returns the cached summary; `null` if no summary is available.
+     */
+    def get(key: Key): Summary = {
+        val summary = summaries.get(key)
+        if (summary ne null) {
+            hitsCounter.increment()
+            summary.referenced = true
+        } else {
+            missesCounter.increment()
+        }
+        summary
+    }
+
+    /**
+     * Summarizes and caches the result of an invocation.
+     *
+     * @param  withExceptions If `true`, the exceptions of the result are thrown by the called
+     *         method and are also summarized.
+     */
+    def put(
+        key:            Key,
+        operands:       Chain[ValuesDomain#DomainValue],
+        result:         Computation[ValuesDomain#DomainValue, Iterable[ValuesDomain#DomainValue]],
+        withExceptions: Boolean
+    ): Unit = {
+        val summary =
+            if (result eq ComputationFailed) {
+                new Summary(true, false, false, null, -1, null)
+            } else {
+                var returnedValue: ValuesDomain#DomainValue = null
+                var returnedOperand = -1
+                if (result.hasResult) {
+                    val value = result.result
+                    returnedOperand = operands.toIterator.indexWhere(_ eq value)
+                    if (returnedOperand == -1) {
+                        // the origin is irrelevant; the value is adapted again when used
+                        returnedValue = value.adapt(domain, -1)
+                    }
+                }
+                val thrownExceptions =
+                    if (withExceptions && result.throwsException)
+                        result.exceptions.map(e ⇒ e.adapt(domain, -1): ValuesDomain#DomainValue)
+                    else if (withExceptions)
+                        Nil
+                    else
+                        null
+                new Summary(
+                    false, result.returnsNormally, result.hasResult,
+                    returnedValue, returnedOperand,
+                    thrownExceptions
+                )
+            }
+
+        if (summaries.putIfAbsent(key, summary) eq null) {
+            entriesCount.incrementAndGet()
+            clock.offer(key)
+            evictIfNecessary()
+        }
+    }
+
+    private[this] def evictIfNecessary(): Unit = {
+        while (maxEntries > 0L && entriesCount.get > maxEntries) {
+            val key = clock.poll()
+            if (key eq null)
+                return ;
+
+            val summary = summaries.get(key)
+            if ((summary ne null) && summary.referenced) {
+                // second chance...
+                summary.referenced = false
+                clock.offer(key)
+            } else if ((summary ne null) && summaries.remove(key, summary)) {
+                entriesCount.decrementAndGet()
+                evictionsCounter.increment()
+            }
+        }
+    }
+
+    /** Removes all cached summaries; the statistics are not reset. */
+    def clear(): Unit = {
+        var key = clock.poll()
+        while (key ne null) {
+            if (summaries.remove(key) ne null) entriesCount.decrementAndGet()
+            key = clock.poll()
+        }
+    }
+}
+
+object CalledMethodsSummaries {
+
+    /**
+     * A coordinating domain which can be used concurrently to adapt values; i.e., which
+     * atomically creates new reference ids.
+     */
+    private class SharedCoordinatingValuesDomain[Source](
+            project: Project[Source]
+    ) extends CoordinatingValuesDomain[Source](project) {
+
+        private[this] val unusedRefId = new AtomicInteger(nullRefId + 1)
+
+        override def nextRefId(): RefId = unusedRefId.incrementAndGet()
+    }
+
+    /**
+     * Identifies the summary of an invocation of `method`; the operands belong to the
+     * coordinating domain of the respective cache.
+     */
+    final case class Key(
+            method:   Method,
+            context:  Int,
+            operands: mutable.WrappedArray[AnyRef]
+    )
+
+}
@@ -0,0 +1,36 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+package domain
+package l2
+
+import org.opalj.log.OPALLogger
+import org.opalj.br.analyses.ProjectInformationKey
+import org.opalj.br.analyses.SomeProject
+
+/**
+ * Key to get the project-wide cache of the summaries of called methods which is used by
+ * domains that mix in [[PerformInvocationsWithSummaries]].
+ *
+ * The maximum number of cached summaries is configured using the configuration key
+ * `org.opalj.ai.domain.l2.CalledMethodsSummariesKey.maxEntries` (`0` = no bound).
+ *
+ * @author agent
+ */
+object CalledMethodsSummariesKey extends ProjectInformationKey[CalledMethodsSummaries, Nothing] {
+
+    final val MaxEntriesConfigKey = "org.opalj.ai.domain.l2.CalledMethodsSummariesKey.maxEntries"
+
+    /**
+     * The CalledMethodsSummariesKey has no special prerequisites.
+     */
+    override protected def requirements: Seq[ProjectInformationKey[Nothing, Nothing]] = Nil
+
+    override protected def compute(project: SomeProject): CalledMethodsSummaries = {
+        val maxEntries = project.config.getLong(MaxEntriesConfigKey)
+        OPALLogger.info(
+            "analysis configuration", s"called methods summaries: maxEntries=$maxEntries"
+        )(project.logContext)
+        new CalledMethodsSummaries(project, maxEntries)
+    }
+}
@@ -27,6 +27,22 @@ class DefaultPerformInvocationsDomain[Source](
 
 }
 
+/**
+ * Performs a simple invocation of the immediately called methods and reuses the results of
+ * the invocations across all methods of the project (see [[CalledMethodsSummariesKey]]).
+ */
+class DefaultPerformInvocationsDomainWithSummaries[Source](
+        project: Project[Source],
+        method:  Method
+) extends DefaultPerformInvocationsDomain[Source](project, method)
+    with PerformInvocationsWithSummaries {
+
+    final def calledMethodsSummaries: CalledMethodsSummaries = {
+        project.get(CalledMethodsSummariesKey)
+    }
+
+}
+
 class DefaultPerformInvocationsDomainWithCFG[Source](
         project: Project[Source],
         method:  Method
@@ -0,0 +1,90 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+package domain
+package l2
+
+import org.opalj.br.Method
+
+/**
+ * Reuses the results of previous invocations of a method with the same operands – across
+ * all calling methods – instead of interpreting the called method again. The summaries of
+ * the results are stored in a shared [[CalledMethodsSummaries]] cache (see
+ * [[CalledMethodsSummariesKey]]).
+ *
+ * Only the results of invocations which were actually performed are cached; i.e., if the
+ * invocation was not performed (e.g., because a recursive call was detected by
+ * [[PerformInvocationsWithRecursionDetection]]), the result of the fallback is not cached.
+ * Exceptions which are not thrown by the called method (see
+ * [[PerformInvocations.useExceptionsThrownByCalledMethod]]) are always computed by the
+ * calling domain.
+ *
+ * @note   The result of the interpretation of a called method may also depend on the
+ *         calling domain (e.g., the remaining length of the call chain); the respective
+ *         information has to be encoded by the [[summaryContext]]. All domains which share
+ *         a cache have to be configured alike.
+ *
+ * @author agent
+ */
+trait PerformInvocationsWithSummaries extends PerformInvocations {
+    callingDomain: ValuesFactory with ReferenceValuesDomain with Configuration with TheProject with TheCode ⇒
+
+    def calledMethodsSummaries: CalledMethodsSummaries
+
+    /**
+     * Encodes the properties of this domain which influence the result of an invocation;
+     * the default is `0`.
+     */
+    def summaryContext: Int = 0
+
+    override protected[this] def doInvoke(
+        pc:       Int,
+        method:   Method,
+        operands: Operands,
+        fallback: () ⇒ MethodCallResult
+    ): MethodCallResult = {
+        val summaries = calledMethodsSummaries
+        val key = summaries.key(method, summaryContext, operands)
+        val summary = summaries.get(key)
+        if (summary ne null)
+            return methodCallResult(pc, operands, summary);
+
+        var invocationPerformed = true
+        val result = super.doInvoke(pc, method, operands, () ⇒ {
+            invocationPerformed = false
+            fallback()
+        })
+        if (invocationPerformed) {
+            summaries.put(key, operands, result, useExceptionsThrownByCalledMethod)
+        }
+        result
+    }
+
+    private[this] def methodCallResult(
+        pc:       Int,
+        operands: Operands,
+        summary:  CalledMethodsSummaries#Summary
+    ): MethodCallResult = {
+        if (summary.computationFailed)
+            return ComputationFailed;
+
+        val exceptions: Iterable[ExceptionValue] =
+            if (summary.thrownExceptions eq null)
+                getPotentialExceptions(pc)
+            else
+                summary.thrownExceptions.map(_.adapt(callingDomain, pc).asInstanceOf[ExceptionValue])
+
+        if (!summary.returnsNormally) {
+            ThrowsException(exceptions)
+        } else if (summary.hasResult) {
+            val returnedValue =
+                if (summary.returnedOperand >= 0)
+                    operands(summary.returnedOperand)
+                else
+                    summary.returnedValue.adapt(callingDomain, pc)
+            MethodCallResult(returnedValue, exceptions)
+        } else {
+            MethodCallResult(exceptions)
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+package util
+
+import org.opalj.collection.immutable.Chain
+import org.opalj.collection.mutable.FixedSizeBitSet
+
+/**
+ * A priority queue of program counters which contains each pc at most once; the pc with
+ * the smallest priority value is returned first.
+ *
+ * The queue is a binary heap; whether a pc is scheduled is stored in a bit set. Hence,
+ * adding a pc and polling the next pc is done in O(log n) and testing whether a pc is
+ * scheduled as well as removing a scheduled pc is done in O(1). A removed pc is only
+ * discarded when it reaches the top of the heap.
+ *
+ * ==Thread Safety==
+ * This class is not thread-safe.
+ *
+ * @param  priorities The priority of each pc; the array's length is the length of the
+ *         code array. (See [[org.opalj.ai.AI.schedulingPriorities]].)
+ *
+ * @author agent
+ */
+final class PCPriorityQueue(priorities: Array[Int]) {
+
+    private[this] val scheduledPCs: FixedSizeBitSet = FixedSizeBitSet.create(priorities.length)
+
+    private[this] var heap: Array[Int] = new Array[Int](16)
+
+    private[this] var heapSize: Int = 0
+
+    /** `true` if the given pc is scheduled. */
+    def contains(pc: Int): Boolean = scheduledPCs.contains(pc)
+
+    /**
+     * Schedules the given pc.
+     *
+     * @return `true` if the pc was not yet scheduled.
+     */
+    def add(pc: Int): Boolean = {
+        if (scheduledPCs.contains(pc))
+            return false;
+
+        scheduledPCs += pc
+        if (heapSize == heap.length) {
+            heap = java.util.Arrays.copyOf(heap, heapSize * 2)
+        }
+        val priority = priorities(pc)
+        var index = heapSize
+        heapSize += 1
+        var parentIndex = (index - 1) >> 1
+        while (index > 0 && priorities(heap(parentIndex)) > priority) {
+            heap(index) = heap(parentIndex)
+            index = parentIndex
+            parentIndex = (index - 1) >> 1
+        }
+        heap(index) = pc
+        true
+    }
+
+    /** Removes the given pc; if the pc is not scheduled, nothing happens. */
+    def remove(pc: Int): Unit = scheduledPCs -= pc
+
+    def isEmpty: Boolean = {
+        // discard the pcs which were removed in the meantime
+        while (heapSize > 0 && !scheduledPCs.contains(heap(0))) {
+            removeTop()
+        }
+        heapSize == 0
+    }
+
+    def nonEmpty: Boolean = !isEmpty
+
+    /**
+     * Removes the scheduled pc with the smallest priority value from this queue.
+     *
+     * @note   This queue must not be empty.
+     */
+    def poll(): Int = {
+        if (isEmpty)
+            throw new NoSuchElementException("the queue is empty")
+
+        val pc = heap(0)
+        removeTop()
+        scheduledPCs -= pc
+        pc
+    }
+
+    /** Removes all scheduled pcs from this queue and returns them in priority order. */
+    def drain(): Chain[Int] = {
+        val pcs = new Chain.ChainBuilder[Int]
+        while (nonEmpty) { pcs += poll() }
+        pcs.result
+    }
+
+    private[this] def removeTop(): Unit = {
+        heapSize -= 1
+        val pc = heap(heapSize)
+        val priority = priorities(pc)
+        var index = 0
+        var childIndex = 1
+        while (childIndex < heapSize) {
+            if (childIndex + 1 < heapSize &&
+                priorities(heap(childIndex + 1)) < priorities(heap(childIndex))) {
+                childIndex += 1
+            }
+            if (priorities(heap(childIndex)) >= priority) {
+                childIndex = heapSize // we are done
+            } else {
+                heap(index) = heap(childIndex)
+                index = childIndex
+                childIndex = 2 * index + 1
+            }
+        }
+        heap(index) = pc
+    }
+}
@@ -180,6 +180,13 @@ object DVar {
         new DVar[d.DomainValue](origin, value, useSites)
     }
 
+    def apply(origin: ValueOrigin, value: KnownTypedValue, useSites: IntTrieSet): DVar[KnownTypedValue] = {
+        assert(useSites != null, s"no uses (null) for $origin: $value")
+        assert(value != null)
+
+        new DVar(origin, value, useSites)
+    }
+
     def unapply[Value <: KnownTypedValue /* org.opalj.ai.ValuesDomain#DomainValue*/ ](
         d: DVar[Value]
     ): Some[(Value, IntTrieSet)] = {
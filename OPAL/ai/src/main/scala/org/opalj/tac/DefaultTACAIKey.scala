@@ -2,11 +2,10 @@
 package org.opalj
 package tac
 
-import scala.collection.concurrent.TrieMap
-
 import org.opalj.br.Method
 import org.opalj.br.analyses.SomeProject
 import org.opalj.br.analyses.ProjectInformationKey
+import org.opalj.ai.common.MethodResultsCache
 import org.opalj.ai.domain.RecordDefUse
 import org.opalj.ai.Domain
 import org.opalj.ai.AIResult
@@ -17,22 +16,29 @@ import org.opalj.value.KnownTypedValue
  * ''Key'' to get the 3-address based code of a method computed using the result of the
  * data-flow analysis performed by `SimpleAIKey`.
  *
+ * @note   The results of the `SimpleAIKey` are cached independently of the three-address code;
+ *         i.e., to bound the overall memory usage the caches of both keys have to be configured.
+ *
  * @example To get the index use the [[org.opalj.br.analyses.Project]]'s `get` method and
  *          pass in `this` object.
  * @author Michael Eichberg
  */
 object DefaultTACAIKey extends TACAIKey {
 
+    final val CacheConfigKey = "org.opalj.tac.DefaultTACAIKey.cache"
+
     /**
      * The TACAI code is created using the results of the abstract interpretation
      * of the underlying methods using the SimpleAIKey.
      */
-    override protected def requirements: Seq[ProjectInformationKey[Method ⇒ AIResult { val domain: Domain with RecordDefUse }, _ <: AnyRef]] = {
+    override protected def requirements: Seq[ProjectInformationKey[MethodResultsCache[AIResult { val domain: Domain with RecordDefUse }], _ <: AnyRef]] = {
         Seq(SimpleAIKey)
     }
 
     /**
      * Returns an object which computes and caches the 3-address code of a method when required.
+     * The caching policy is configured using the configuration key
+     * `org.opalj.tac.DefaultTACAIKey.cache` (see [[MethodResultsCache$.apply]] for details).
      *
      * All methods belonging to a project are converted using the same `domainFactory`. Hence,
      * the `domainFactory` needs to be set before compute is called/this key is passed to a
@@ -42,32 +48,15 @@ object DefaultTACAIKey extends TACAIKey {
      */
     override protected def compute(
         project: SomeProject
-    ): Method ⇒ TACode[TACMethodParameter, DUVar[KnownTypedValue]] = {
+    ): MethodResultsCache[TACode[TACMethodParameter, DUVar[KnownTypedValue]]] = {
         val aiResults = project.get(SimpleAIKey)
-        val taCodes = TrieMap.empty[Method, TACode[TACMethodParameter, DUVar[KnownTypedValue]]]
 
-        def computeAndCacheTAC(m: Method) = { // never executed concurrently
+        MethodResultsCache(project.config, CacheConfigKey) { m: Method ⇒
             val aiResult = aiResults(m)
             val code = TACAI(m, project.classHierarchy, aiResult)(Nil)
             // well... the following cast is safe, because the underlying
             // data structure is actually (at least conceptually) immutable
-            val taCode = code.asInstanceOf[TACode[TACMethodParameter, DUVar[KnownTypedValue]]]
-            taCodes.put(m, taCode)
-            taCode
-        }
-
-        (m: Method) ⇒ taCodes.get(m) match {
-            case Some(taCode) ⇒ taCode
-            case None ⇒
-                val brCode = m.body.get
-                // Basically, we use double checked locking; we really don't want to
-                // transform the code more than once!
-                brCode.synchronized {
-                    taCodes.get(m) match {
-                        case Some(taCode) ⇒ taCode
-                        case None         ⇒ computeAndCacheTAC(m)
-                    }
-                }
-        }
+            code.asInstanceOf[TACode[TACMethodParameter, DUVar[KnownTypedValue]]]
+        }(project.logContext)
     }
 }
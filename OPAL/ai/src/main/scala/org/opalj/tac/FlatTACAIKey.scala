@@ -0,0 +1,55 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package tac
+
+import org.opalj.br.Method
+import org.opalj.br.analyses.SomeProject
+import org.opalj.br.analyses.ProjectInformationKey
+import org.opalj.ai.common.MethodResultsCache
+import org.opalj.ai.domain.RecordDefUse
+import org.opalj.ai.Domain
+import org.opalj.ai.AIResult
+import org.opalj.ai.common.SimpleAIKey
+import org.opalj.value.KnownTypedValue
+
+/**
+ * ''Key'' to get the [[FlatTACode]] of a method computed using the result of the
+ * data-flow analysis performed by `SimpleAIKey`.
+ *
+ * In comparison to the [[DefaultTACAIKey]] only the flat representation is cached; hence,
+ * the memory required by the cached code is significantly lower if many methods are
+ * analyzed (e.g., by whole-program analyses), but the statements are created whenever they
+ * are requested using [[FlatTACode.stmt]] or [[FlatTACode.toTACode]].
+ *
+ * @note   The results of the `SimpleAIKey` are cached independently of the three-address code;
+ *         i.e., to bound the overall memory usage the caches of both keys have to be configured.
+ *
+ * @author agent
+ */
+object FlatTACAIKey extends ProjectInformationKey[MethodResultsCache[FlatTACode], Nothing] {
+
+    final val CacheConfigKey = "org.opalj.tac.FlatTACAIKey.cache"
+
+    /**
+     * The flat code is created using the results of the abstract interpretation
+     * of the underlying methods using the SimpleAIKey.
+     */
+    override protected def requirements: Seq[ProjectInformationKey[MethodResultsCache[AIResult { val domain: Domain with RecordDefUse }], _ <: AnyRef]] = {
+        Seq(SimpleAIKey)
+    }
+
+    /**
+     * Returns an object which computes and caches the flat 3-address code of a method when
+     * required. The caching policy is configured using the configuration key
+     * `org.opalj.tac.FlatTACAIKey.cache` (see [[MethodResultsCache$.apply]] for details).
+     */
+    override protected def compute(project: SomeProject): MethodResultsCache[FlatTACode] = {
+        val aiResults = project.get(SimpleAIKey)
+
+        MethodResultsCache(project.config, CacheConfigKey) { m: Method ⇒
+            val aiResult = aiResults(m)
+            val code = TACAI(m, project.classHierarchy, aiResult)(Nil)
+            FlatTACode(code.asInstanceOf[TACode[TACMethodParameter, DUVar[KnownTypedValue]]])
+        }(project.logContext)
+    }
+}
@@ -0,0 +1,729 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package tac
+
+import java.lang.Double.doubleToRawLongBits
+import java.lang.Double.longBitsToDouble
+import java.lang.Float.floatToRawIntBits
+import java.lang.Float.intBitsToFloat
+
+import scala.annotation.switch
+import scala.collection.mutable
+
+import org.opalj.collection.immutable.IntTrieSet
+import org.opalj.collection.immutable.RefArray
+import org.opalj.value.KnownTypedValue
+import org.opalj.br.ArrayType
+import org.opalj.br.BaseType
+import org.opalj.br.BootstrapMethod
+import org.opalj.br.ComputationalType
+import org.opalj.br.ExceptionHandlers
+import org.opalj.br.FieldType
+import org.opalj.br.LineNumberTable
+import org.opalj.br.MethodDescriptor
+import org.opalj.br.MethodHandle
+import org.opalj.br.ObjectType
+import org.opalj.br.ReferenceType
+import org.opalj.br.cfg.CFG
+
+/**
+ * A flat encoding of the data-flow based three-address code of a method (see [[TACAI]])
+ * which stores the statements and expressions in a few primitive arrays instead of as
+ * individual objects.
+ *
+ * The statements' abstract syntax trees are stored in pre-order; i.e., each statement is
+ * directly followed by its (transitive) sub expressions. For each node the kind
+ * (the `astID` of the node; [[DVar]]s are identified by [[FlatTACode$.DVarKind]]), the `pc`
+ * and a kind specific `int` payload (e.g., the target of a jump or the value of an
+ * [[IntConst]]) is stored. Additionally, a node may reference a number of objects
+ * (e.g., types, names and the values of variables) and a number of `int` values (e.g., the
+ * def-/use-sites of a variable; always prefixed by the number of sites).
+ *
+ * To analyze the code without creating any objects use a [[FlatTACode#Cursor]]. Clients that
+ * require the standard representation can create single statements on demand using
+ * [[stmt]] or the [[TACode]] of the method using [[toTACode]]; both are not cached.
+ *
+ * @param  cfg The control-flow graph of the code; the statements of the cfg's `code` are
+ *         not materialized (i.e., the array of instructions only contains `null` values).
+ *
+ * @author agent
+ */
+final class FlatTACode private[tac] (
+        val params:                   Parameters[TACMethodParameter],
+        val pcToIndex:                Array[Int],
+        val cfg:                      CFG[Stmt[DUVar[KnownTypedValue]], TACStmts[DUVar[KnownTypedValue]]],
+        val exceptionHandlers:        ExceptionHandlers,
+        val lineNumberTable:          Option[LineNumberTable],
+        private[tac] val stmtNodes:   Array[Int],
+        private[tac] val kinds:       Array[Byte],
+        private[tac] val pcs:         Array[Int],
+        private[tac] val payloads:    Array[Int],
+        private[tac] val refsIndexes: Array[Int],
+        private[tac] val refs:        Array[AnyRef],
+        private[tac] val dataIndexes: Array[Int],
+        private[tac] val data:        Array[Int]
+) {
+
+    import FlatTACode.DVarKind
+    import FlatTACode.UVarKind
+
+    private type V = DUVar[KnownTypedValue]
+
+    /** The number of statements. */
+    def stmtsCount: Int = stmtNodes.length - 1
+
+    /** The total number of statements and expressions. */
+    def nodesCount: Int = kinds.length
+
+    /** The index of the (root) node of the statement with the given index. */
+    def firstNode(stmtIndex: Int): Int = stmtNodes(stmtIndex)
+
+    /** The `astID` of the statement with the given index. */
+    def astID(stmtIndex: Int): Int = kinds(stmtNodes(stmtIndex))
+
+    /** The `pc` of the statement with the given index. */
+    def pc(stmtIndex: Int): Int = pcs(stmtNodes(stmtIndex))
+
+    /**
+     * Creates a cursor which is initially positioned before the first node; a cursor
+     * should be reused (see [[Cursor#moveTo]]) to traverse the code multiple times.
+     */
+    def cursor(): Cursor = new Cursor
+
+    /**
+     * A cursor to traverse the statements and expressions of this code in pre-order;
+     * the accessors always refer to the current node. A cursor is not thread-safe.
+     */
+    final class Cursor private[FlatTACode] () {
+
+        private[this] var currentNode: Int = -1
+        private[this] var currentStmt: Int = -1
+
+        /** The index of the current node. */
+        def node: Int = currentNode
+
+        /** The index of the statement to which the current node belongs. */
+        def stmt: Int = currentStmt
+
+        /** `true` if the current node is a statement and not an expression. */
+        def isStmt: Boolean = stmtNodes(currentStmt) == currentNode
+
+        /**
+         * Moves the cursor before the (root) node of the statement with the given index;
+         * i.e., `next` has to be called to move to the statement.
+         */
+        def moveTo(stmtIndex: Int): Unit = {
+            currentNode = stmtNodes(stmtIndex) - 1
+            currentStmt = if (stmtIndex == 0) -1 else stmtIndex - 1
+        }
+
+        /** Moves to the next node; returns `false` if the current node is the last node. */
+        def next(): Boolean = {
+            if (currentNode + 1 >= nodesCount)
+                return false;
+
+            currentNode += 1
+            while (stmtNodes(currentStmt + 1) <= currentNode) currentStmt += 1
+            true
+        }
+
+        /** Moves to the (root) node of the next statement; returns `false` if there is none. */
+        def nextStmt(): Boolean = {
+            if (currentStmt + 1 >= stmtsCount)
+                return false;
+
+            currentStmt += 1
+            currentNode = stmtNodes(currentStmt)
+            true
+        }
+
+        /** The `astID` of the current node; [[DVar]]s and [[UVar]]s have the id [[Var.ASTID]]. */
+        def astID: Int = {
+            val kind = kinds(currentNode)
+            if (kind == DVarKind) Var.ASTID else kind
+        }
+
+        def isDVar: Boolean = kinds(currentNode) == DVarKind
+
+        def isUVar: Boolean = kinds(currentNode) == UVarKind
+
+        def pc: Int = pcs(currentNode)
+
+        /**
+         * The target statement of an [[If]], [[Goto]] or [[JSR]] statement or the default
+         * target of a [[Switch]] statement.
+         */
+        def targetStmt: Int = payloads(currentNode)
+
+        /** The value of an [[IntConst]]. */
+        def intValue: Int = payloads(currentNode)
+
+        /** The origin of a [[DVar]]. */
+        def origin: Int = payloads(currentNode)
+
+        /** The value of a [[DVar]] or [[UVar]]. */
+        def value: KnownTypedValue = ref(0).asInstanceOf[KnownTypedValue]
+
+        /**
+         * The declaring class of a field access or method call; in case of an `invokedynamic`
+         * the first reference is the bootstrap method.
+         */
+        def declaringClass: ReferenceType = ref(0).asInstanceOf[ReferenceType]
+
+        /** The name of the accessed field or called method. */
+        def name: String = ref(1).asInstanceOf[String]
+
+        /** The descriptor of the called method. */
+        def descriptor: MethodDescriptor = ref(2).asInstanceOf[MethodDescriptor]
+
+        /** The `index`-th object referenced by the current node. */
+        def ref(index: Int): AnyRef = refs(refsIndexes(currentNode) + index)
+
+        /**
+         * The number of sites (the use-sites of a [[DVar]], the def-sites of a [[UVar]], the
+         * return addresses of a [[Ret]] or the origins of a [[CaughtException]]).
+         */
+        def sitesCount: Int = data(dataIndexes(currentNode))
+
+        /** The `index`-th site; see [[sitesCount]]. */
+        def site(index: Int): Int = data(dataIndexes(currentNode) + 1 + index)
+
+        override def toString: String = s"FlatTACode.Cursor(stmt=$currentStmt,node=$currentNode)"
+    }
+
+    /**
+     * Creates the statement with the given index; i.e., a new object is created whenever
+     * this method is called.
+     */
+    def stmt(index: Int): Stmt[V] = new Decoder(stmtNodes(index)).stmt()
+
+    /**
+     * A view of the statements; each statement is created when it is accessed.
+     */
+    def stmts: IndexedSeq[Stmt[V]] = new IndexedSeq[Stmt[V]] {
+        def length: Int = stmtsCount
+        def apply(index: Int): Stmt[V] = stmt(index)
+    }
+
+    /**
+     * Creates the standard three-address code representation.
+     */
+    def toTACode: TACode[TACMethodParameter, V] = {
+        val stmts = new Array[Stmt[V]](stmtsCount)
+        val decoder = new Decoder(0)
+        var i = 0
+        while (i < stmts.length) {
+            stmts(i) = decoder.stmt()
+            i += 1
+        }
+        val cfg = this.cfg.copy[Stmt[V], TACStmts[V]](code = TACStmts(stmts))
+        TACode(params, stmts, pcToIndex, cfg, exceptionHandlers, lineNumberTable)
+    }
+
+    /** Decodes the nodes starting with the given node. */
+    private[this] class Decoder(private[this] var node: Int) {
+
+        private[this] var pc: Int = _
+        private[this] var payload: Int = _
+        private[this] var refsIndex: Int = _
+        private[this] var dataIndex: Int = _
+
+        private[this] def advance(): Int = {
+            val kind: Int = kinds(node)
+            pc = pcs(node)
+            payload = payloads(node)
+            refsIndex = refsIndexes(node)
+            dataIndex = dataIndexes(node)
+            node += 1
+            kind
+        }
+
+        private[this] def ref[T <: AnyRef](index: Int): T = refs(refsIndex + index).asInstanceOf[T]
+
+        private[this] def sites(): IntTrieSet = {
+            var sites = IntTrieSet.empty
+            var i = dataIndex + 1
+            val endIndex = i + data(dataIndex)
+            while (i < endIndex) {
+                sites += data(i)
+                i += 1
+            }
+            sites
+        }
+
+        private[this] def long(): Long = {
+            (data(dataIndex).toLong << 32) | (data(dataIndex + 1).toLong & 0xFFFFFFFFL)
+        }
+
+        private[this] def exprs(count: Int): List[Expr[V]] = {
+            val exprs = List.newBuilder[Expr[V]]
+            var i = 0
+            while (i < count) {
+                exprs += expr()
+                i += 1
+            }
+            exprs.result()
+        }
+
+        def stmt(): Stmt[V] = {
+            val kind = advance()
+            val pc = this.pc
+            val payload = this.payload
+            (kind: @switch) match {
+                case If.ASTID ⇒
+                    val condition = ref[RelationalOperator](0)
+                    val left = expr()
+                    If(pc, left, condition, expr(), payload)
+                case Goto.ASTID ⇒ Goto(pc, payload)
+                case Ret.ASTID  ⇒ Ret(pc, sites())
+                case JSR.ASTID  ⇒ JSR(pc, payload)
+                case Switch.ASTID ⇒
+                    val npairs = new Array[AnyRef](data(dataIndex))
+                    var i = 0
+                    while (i < npairs.length) {
+                        val pairIndex = dataIndex + 1 + i * 2
+                        npairs(i) = (data(pairIndex), data(pairIndex + 1))
+                        i += 1
+                    }
+                    Switch(pc, payload, expr(), RefArray._UNSAFE_from[(Int, Int)](npairs))
+                case Assignment.ASTID ⇒
+                    val targetVar = expr().asVar
+                    Assignment(pc, targetVar, expr())
+                case ReturnValue.ASTID  ⇒ ReturnValue(pc, expr())
+                case Return.ASTID       ⇒ Return(pc)
+                case Nop.ASTID          ⇒ Nop(pc)
+                case MonitorEnter.ASTID ⇒ MonitorEnter(pc, expr())
+                case MonitorExit.ASTID  ⇒ MonitorExit(pc, expr())
+                case ArrayStore.ASTID ⇒
+                    val arrayRef = expr()
+                    val index = expr()
+                    ArrayStore(pc, arrayRef, index, expr())
+                case Throw.ASTID ⇒ Throw(pc, expr())
+                case PutStatic.ASTID ⇒
+                    PutStatic(pc, ref[ObjectType](0), ref[String](1), ref[FieldType](2), expr())
+                case PutField.ASTID ⇒
+                    val declaringClass = ref[ObjectType](0)
+                    val name = ref[String](1)
+                    val declaredFieldType = ref[FieldType](2)
+                    val objRef = expr()
+                    PutField(pc, declaringClass, name, declaredFieldType, objRef, expr())
+                case NonVirtualMethodCall.ASTID ⇒
+                    val declaringClass = ref[ObjectType](0)
+                    val name = ref[String](1)
+                    val descriptor = ref[MethodDescriptor](2)
+                    val receiver = expr()
+                    NonVirtualMethodCall(
+                        pc, declaringClass, payload == 1, name, descriptor,
+                        receiver, exprs(descriptor.parametersCount)
+                    )
+                case VirtualMethodCall.ASTID ⇒
+                    val declaringClass = ref[ReferenceType](0)
+                    val name = ref[String](1)
+                    val descriptor = ref[MethodDescriptor](2)
+                    val receiver = expr()
+                    VirtualMethodCall(
+                        pc, declaringClass, payload == 1, name, descriptor,
+                        receiver, exprs(descriptor.parametersCount)
+                    )
+                case StaticMethodCall.ASTID ⇒
+                    val descriptor = ref[MethodDescriptor](2)
+                    StaticMethodCall(
+                        pc, ref[ObjectType](0), payload == 1, ref[String](1), descriptor,
+                        exprs(descriptor.parametersCount)
+                    )
+                case InvokedynamicMethodCall.ASTID ⇒
+                    val descriptor = ref[MethodDescriptor](2)
+                    InvokedynamicMethodCall(
+                        pc, ref[BootstrapMethod](0), ref[String](1), descriptor,
+                        exprs(descriptor.parametersCount)
+                    )
+                case ExprStmt.ASTID ⇒ ExprStmt(pc, expr())
+                case CaughtException.ASTID ⇒
+                    CaughtException(pc, Option(ref[ObjectType](0)), sites())
+                case Checkcast.ASTID ⇒
+                    val cmpTpe = ref[ReferenceType](0)
+                    Checkcast(pc, expr(), cmpTpe)
+            }
+        }
+
+        def expr(): Expr[V] = {
+            val kind = advance()
+            val pc = this.pc
+            val payload = this.payload
+            (kind: @switch) match {
+                case UVarKind ⇒ UVar(ref[KnownTypedValue](0), sites())
+                case DVarKind ⇒ DVar(payload, ref[KnownTypedValue](0), sites())
+                case InstanceOf.ASTID ⇒
+                    val cmpTpe = ref[ReferenceType](0)
+                    InstanceOf(pc, expr(), cmpTpe)
+                case Compare.ASTID ⇒
+                    val condition = ref[RelationalOperator](0)
+                    val left = expr()
+                    Compare(pc, left, condition, expr())
+                case Param.ASTID             ⇒ Param(ref[ComputationalType](0), ref[String](1))
+                case MethodTypeConst.ASTID   ⇒ MethodTypeConst(pc, ref[MethodDescriptor](0))
+                case MethodHandleConst.ASTID ⇒ MethodHandleConst(pc, ref[MethodHandle](0))
+                case IntConst.ASTID          ⇒ IntConst(pc, payload)
+                case LongConst.ASTID         ⇒ LongConst(pc, long())
+                case FloatConst.ASTID        ⇒ FloatConst(pc, intBitsToFloat(payload))
+                case DoubleConst.ASTID       ⇒ DoubleConst(pc, longBitsToDouble(long()))
+                case StringConst.ASTID       ⇒ StringConst(pc, ref[String](0))
+                case ClassConst.ASTID        ⇒ ClassConst(pc, ref[ReferenceType](0))
+                case NullExpr.ASTID          ⇒ NullExpr(pc)
+                case BinaryExpr.ASTID ⇒
+                    val cTpe = ref[ComputationalType](0)
+                    val op = ref[BinaryArithmeticOperator](1)
+                    val left = expr()
+                    BinaryExpr(pc, cTpe, op, left, expr())
+                case PrefixExpr.ASTID ⇒
+                    val cTpe = ref[ComputationalType](0)
+                    PrefixExpr(pc, cTpe, ref[UnaryArithmeticOperator](1), expr())
+                case PrimitiveTypecastExpr.ASTID ⇒
+                    val targetTpe = ref[BaseType](0)
+                    PrimitiveTypecastExpr(pc, targetTpe, expr())
+                case New.ASTID ⇒ New(pc, ref[ObjectType](0))
+                case NewArray.ASTID ⇒
+                    val tpe = ref[ArrayType](0)
+                    NewArray(pc, exprs(payload), tpe)
+                case ArrayLoad.ASTID ⇒
+                    val index = expr()
+                    ArrayLoad(pc, index, expr())
+                case ArrayLength.ASTID ⇒ ArrayLength(pc, expr())
+                case GetField.ASTID ⇒
+                    GetField(pc, ref[ObjectType](0), ref[String](1), ref[FieldType](2), expr())
+                case GetStatic.ASTID ⇒
+                    GetStatic(pc, ref[ObjectType](0), ref[String](1), ref[FieldType](2))
+                case InvokedynamicFunctionCall.ASTID ⇒
+                    val descriptor = ref[MethodDescriptor](2)
+                    InvokedynamicFunctionCall(
+                        pc, ref[BootstrapMethod](0), ref[String](1), descriptor,
+                        exprs(descriptor.parametersCount)
+                    )
+                case NonVirtualFunctionCall.ASTID ⇒
+                    val declaringClass = ref[ObjectType](0)
+                    val name = ref[String](1)
+                    val descriptor = ref[MethodDescriptor](2)
+                    val receiver = expr()
+                    NonVirtualFunctionCall(
+                        pc, declaringClass, payload == 1, name, descriptor,
+                        receiver, exprs(descriptor.parametersCount)
+                    )
+                case VirtualFunctionCall.ASTID ⇒
+                    val declaringClass = ref[ReferenceType](0)
+                    val name = ref[String](1)
+                    val descriptor = ref[MethodDescriptor](2)
+                    val receiver = expr()
+                    VirtualFunctionCall(
+                        pc, declaringClass, payload == 1, name, descriptor,
+                        receiver, exprs(descriptor.parametersCount)
+                    )
+                case StaticFunctionCall.ASTID ⇒
+                    val descriptor = ref[MethodDescriptor](2)
+                    StaticFunctionCall(
+                        pc, ref[ObjectType](0), payload == 1, ref[String](1), descriptor,
+                        exprs(descriptor.parametersCount)
+                    )
+            }
+        }
+    }
+
+    override def toString: String = {
+        s"FlatTACode(stmts=$stmtsCount,nodes=$nodesCount,refs=${refs.length},data=${data.length})"
+    }
+}
+
+object FlatTACode {
+
+    private type V = DUVar[KnownTypedValue]
+
+    /** The kind of [[UVar]] nodes. */
+    final val UVarKind = Var.ASTID
+
+    /** The kind of [[DVar]] nodes. */
+    final val DVarKind = Var.ASTID - 1
+
+    /**
+     * Encodes the given data-flow based three-address code.
+     */
+    def apply(code: TACode[TACMethodParameter, DUVar[KnownTypedValue]]): FlatTACode = {
+        val encoder = new Encoder(code.stmts.length)
+        code.stmts foreach encoder.stmt
+        // the cfg must not reference the statements
+        val noStmts = new Array[Stmt[V]](code.stmts.length)
+        val cfg = code.cfg.copy[Stmt[V], TACStmts[V]](code = TACStmts(noStmts))
+        encoder.result(code.params, code.pcToIndex, cfg, code.exceptionHandlers, code.lineNumberTable)
+    }
+
+    private[this] class Encoder(stmtsCount: Int) {
+
+        private[this] val stmtNodes = new Array[Int](stmtsCount + 1)
+        private[this] var stmtIndex = 0
+
+        private[this] val kinds = mutable.ArrayBuilder.make[Byte]
+        private[this] val pcs = mutable.ArrayBuilder.make[Int]
+        private[this] val payloads = mutable.ArrayBuilder.make[Int]
+        private[this] val refsIndexes = mutable.ArrayBuilder.make[Int]
+        private[this] val refs = mutable.ArrayBuilder.make[AnyRef]
+        private[this] val dataIndexes = mutable.ArrayBuilder.make[Int]
+        private[this] val data = mutable.ArrayBuilder.make[Int]
+
+        private[this] var nodesCount = 0
+        private[this] var refsCount = 0
+        private[this] var dataCount = 0
+
+        private[this] def node(kind: Int, pc: Int, payload: Int = 0): Unit = {
+            kinds += kind.toByte
+            pcs += pc
+            payloads += payload
+            refsIndexes += refsCount
+            dataIndexes += dataCount
+            nodesCount += 1
+        }
+
+        private[this] def ref(ref: AnyRef): Unit = { refs += ref; refsCount += 1 }
+
+        private[this] def int(value: Int): Unit = { data += value; dataCount += 1 }
+
+        private[this] def long(value: Long): Unit = { int((value >>> 32).toInt); int(value.toInt) }
+
+        private[this] def sites(sites: IntTrieSet): Unit = { int(sites.size); sites foreach int }
+
+        private[this] def references(references: AnyRef*): Unit = references foreach ref
+
+        def stmt(stmt: Stmt[V]): Unit = {
+            stmtNodes(stmtIndex) = nodesCount
+            stmtIndex += 1
+
+            val pc = stmt.pc
+            (stmt.astID: @switch) match {
+                case If.ASTID ⇒
+                    val If(_, left, condition, right, target) = stmt
+                    node(If.ASTID, pc, target)
+                    ref(condition)
+                    expr(left)
+                    expr(right)
+                case Goto.ASTID ⇒ node(Goto.ASTID, pc, stmt.asGoto.targetStmt)
+                case Ret.ASTID ⇒
+                    node(Ret.ASTID, pc)
+                    sites(stmt.asRet.returnAddresses)
+                case JSR.ASTID ⇒ node(JSR.ASTID, pc, stmt.asJSR.targetStmt)
+                case Switch.ASTID ⇒
+                    val s = stmt.asSwitch
+                    node(Switch.ASTID, pc, s.defaultStmt)
+                    int(s.npairs.length)
+                    s.npairs foreach { pair ⇒ int(pair._1); int(pair._2) }
+                    expr(s.index)
+                case Assignment.ASTID ⇒
+                    val Assignment(_, targetVar, value) = stmt
+                    node(Assignment.ASTID, pc)
+                    expr(targetVar)
+                    expr(value)
+                case ReturnValue.ASTID ⇒
+                    node(ReturnValue.ASTID, pc)
+                    expr(stmt.asReturnValue.expr)
+                case Return.ASTID ⇒ node(Return.ASTID, pc)
+                case Nop.ASTID    ⇒ node(Nop.ASTID, pc)
+                case MonitorEnter.ASTID ⇒
+                    node(MonitorEnter.ASTID, pc)
+                    expr(stmt.asMonitorEnter.objRef)
+                case MonitorExit.ASTID ⇒
+                    node(MonitorExit.ASTID, pc)
+                    expr(stmt.asMonitorExit.objRef)
+                case ArrayStore.ASTID ⇒
+                    val ArrayStore(_, arrayRef, index, value) = stmt
+                    node(ArrayStore.ASTID, pc)
+                    expr(arrayRef)
+                    expr(index)
+                    expr(value)
+                case Throw.ASTID ⇒
+                    node(Throw.ASTID, pc)
+                    expr(stmt.asThrow.exception)
+                case PutStatic.ASTID ⇒
+                    val PutStatic(_, declaringClass, name, declaredFieldType, value) = stmt
+                    node(PutStatic.ASTID, pc)
+                    references(declaringClass, name, declaredFieldType)
+                    expr(value)
+                case PutField.ASTID ⇒
+                    val PutField(_, declaringClass, name, declaredFieldType, objRef, value) = stmt
+                    node(PutField.ASTID, pc)
+                    references(declaringClass, name, declaredFieldType)
+                    expr(objRef)
+                    expr(value)
+                case NonVirtualMethodCall.ASTID | VirtualMethodCall.ASTID ⇒
+                    val call = stmt.asInstanceMethodCall
+                    node(stmt.astID, pc, if (call.isInterface) 1 else 0)
+                    references(call.declaringClass, call.name, call.descriptor)
+                    expr(call.receiver)
+                    call.params foreach expr
+                case StaticMethodCall.ASTID ⇒
+                    val call = stmt.asStaticMethodCall
+                    node(StaticMethodCall.ASTID, pc, if (call.isInterface) 1 else 0)
+                    references(call.declaringClass, call.name, call.descriptor)
+                    call.params foreach expr
+                case InvokedynamicMethodCall.ASTID ⇒
+                    val call = stmt.asInvokedynamicMethodCall
+                    node(InvokedynamicMethodCall.ASTID, pc)
+                    references(call.bootstrapMethod, call.name, call.descriptor)
+                    call.params foreach expr
+                case ExprStmt.ASTID ⇒
+                    node(ExprStmt.ASTID, pc)
+                    expr(stmt.asExprStmt.expr)
+                case CaughtException.ASTID ⇒
+                    val caughtException = stmt.asCaughtException
+                    node(CaughtException.ASTID, pc)
+                    ref(caughtException.exceptionType.orNull)
+                    sites(caughtException.origins)
+                case Checkcast.ASTID ⇒
+                    val Checkcast(_, value, cmpTpe) = stmt
+                    node(Checkcast.ASTID, pc)
+                    ref(cmpTpe)
+                    expr(value)
+            }
+        }
+
+        def expr(expr: Expr[V]): Unit = {
+            (expr.astID: @switch) match {
+                case Var.ASTID ⇒
+                    expr.asVar match {
+                        case v: UVar[_] ⇒
+                            node(UVarKind, -1)
+                            ref(v.value)
+                            sites(v.definedBy)
+                        case v: DVar[_] ⇒
+                            node(DVarKind, -1, v.origin)
+                            ref(v.value)
+                            sites(v.usedBy)
+                    }
+                case InstanceOf.ASTID ⇒
+                    val InstanceOf(pc, value, cmpTpe) = expr
+                    node(InstanceOf.ASTID, pc)
+                    ref(cmpTpe)
+                    this.expr(value)
+                case Compare.ASTID ⇒
+                    val Compare(pc, left, condition, right) = expr
+                    node(Compare.ASTID, pc)
+                    ref(condition)
+                    this.expr(left)
+                    this.expr(right)
+                case Param.ASTID ⇒
+                    val Param(cTpe, name) = expr
+                    node(Param.ASTID, -1)
+                    references(cTpe, name)
+                case MethodTypeConst.ASTID ⇒
+                    val MethodTypeConst(pc, value) = expr
+                    node(MethodTypeConst.ASTID, pc)
+                    ref(value)
+                case MethodHandleConst.ASTID ⇒
+                    val MethodHandleConst(pc, value) = expr
+                    node(MethodHandleConst.ASTID, pc)
+                    ref(value)
+                case IntConst.ASTID ⇒
+                    val IntConst(pc, value) = expr
+                    node(IntConst.ASTID, pc, value)
+                case LongConst.ASTID ⇒
+                    val LongConst(pc, value) = expr
+                    node(LongConst.ASTID, pc)
+                    long(value)
+                case FloatConst.ASTID ⇒
+                    val FloatConst(pc, value) = expr
+                    node(FloatConst.ASTID, pc, floatToRawIntBits(value))
+                case DoubleConst.ASTID ⇒
+                    val DoubleConst(pc, value) = expr
+                    node(DoubleConst.ASTID, pc)
+                    long(doubleToRawLongBits(value))
+                case StringConst.ASTID ⇒
+                    val StringConst(pc, value) = expr
+                    node(StringConst.ASTID, pc)
+                    ref(value)
+                case ClassConst.ASTID ⇒
+                    val ClassConst(pc, value) = expr
+                    node(ClassConst.ASTID, pc)
+                    ref(value)
+                case NullExpr.ASTID ⇒ node(NullExpr.ASTID, expr.asNullExpr.pc)
+                case BinaryExpr.ASTID ⇒
+                    val BinaryExpr(pc, cTpe, op, left, right) = expr
+                    node(BinaryExpr.ASTID, pc)
+                    references(cTpe, op)
+                    this.expr(left)
+                    this.expr(right)
+                case PrefixExpr.ASTID ⇒
+                    val PrefixExpr(pc, cTpe, op, operand) = expr
+                    node(PrefixExpr.ASTID, pc)
+                    references(cTpe, op)
+                    this.expr(operand)
+                case PrimitiveTypecastExpr.ASTID ⇒
+                    val PrimitiveTypecastExpr(pc, targetTpe, operand) = expr
+                    node(PrimitiveTypecastExpr.ASTID, pc)
+                    ref(targetTpe)
+                    this.expr(operand)
+                case New.ASTID ⇒
+                    val New(pc, tpe) = expr
+                    node(New.ASTID, pc)
+                    ref(tpe)
+                case NewArray.ASTID ⇒
+                    val NewArray(pc, counts, tpe) = expr
+                    node(NewArray.ASTID, pc, counts.size)
+                    ref(tpe)
+                    counts foreach { count ⇒ this.expr(count) }
+                case ArrayLoad.ASTID ⇒
+                    val ArrayLoad(pc, index, arrayRef) = expr
+                    node(ArrayLoad.ASTID, pc)
+                    this.expr(index)
+                    this.expr(arrayRef)
+                case ArrayLength.ASTID ⇒
+                    val ArrayLength(pc, arrayRef) = expr
+                    node(ArrayLength.ASTID, pc)
+                    this.expr(arrayRef)
+                case GetField.ASTID ⇒
+                    val GetField(pc, declaringClass, name, declaredFieldType, objRef) = expr
+                    node(GetField.ASTID, pc)
+                    references(declaringClass, name, declaredFieldType)
+                    this.expr(objRef)
+                case GetStatic.ASTID ⇒
+                    val GetStatic(pc, declaringClass, name, declaredFieldType) = expr
+                    node(GetStatic.ASTID, pc)
+                    references(declaringClass, name, declaredFieldType)
+                case InvokedynamicFunctionCall.ASTID ⇒
+                    val call = expr.asInvokedynamicFunctionCall
+                    node(InvokedynamicFunctionCall.ASTID, call.pc)
+                    references(call.bootstrapMethod, call.name, call.descriptor)
+                    call.params foreach { param ⇒ this.expr(param) }
+                case NonVirtualFunctionCall.ASTID | VirtualFunctionCall.ASTID ⇒
+                    val call = expr.asInstanceFunctionCall
+                    val pc =
+                        if (expr.astID == VirtualFunctionCall.ASTID)
+                            expr.asVirtualFunctionCall.pc
+                        else
+                            expr.asNonVirtualFunctionCall.pc
+                    node(expr.astID, pc, if (call.isInterface) 1 else 0)
+                    references(call.declaringClass, call.name, call.descriptor)
+                    this.expr(call.receiver)
+                    call.params foreach { param ⇒ this.expr(param) }
+                case StaticFunctionCall.ASTID ⇒
+                    val call = expr.asStaticFunctionCall
+                    node(StaticFunctionCall.ASTID, call.pc, if (call.isInterface) 1 else 0)
+                    references(call.declaringClass, call.name, call.descriptor)
+                    call.params foreach { param ⇒ this.expr(param) }
+            }
+        }
+
+        def result(
+            params:            Parameters[TACMethodParameter],
+            pcToIndex:         Array[Int],
+            cfg:               CFG[Stmt[V], TACStmts[V]],
+            exceptionHandlers: ExceptionHandlers,
+            lineNumberTable:   Option[LineNumberTable]
+        ): FlatTACode = {
+            stmtNodes(stmtsCount) = nodesCount
+            refsIndexes += refsCount
+            dataIndexes += dataCount
+            new FlatTACode(
+                params, pcToIndex, cfg, exceptionHandlers, lineNumberTable,
+                stmtNodes,
+                kinds.result, pcs.result, payloads.result,
+                refsIndexes.result, refs.result,
+                dataIndexes.result, data.result
+            )
+        }
+    }
+}
@@ -0,0 +1,453 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package tac
+
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.nio.charset.StandardCharsets.UTF_8
+import java.util.IdentityHashMap
+
+import scala.collection.mutable
+
+import org.opalj.collection.immutable.IntTrieSet
+import org.opalj.collection.immutable.RefArray
+import org.opalj.collection.immutable.UIDSet
+import org.opalj.value.ABooleanValue
+import org.opalj.value.AByteValue
+import org.opalj.value.ACharValue
+import org.opalj.value.ADoubleValue
+import org.opalj.value.AFloaValue
+import org.opalj.value.ALongValue
+import org.opalj.value.AShortValue
+import org.opalj.value.AnIntegerValue
+import org.opalj.value.IsIntegerValue
+import org.opalj.value.IsPrimitiveValue
+import org.opalj.value.IsReferenceValue
+import org.opalj.value.KnownTypedValue
+import org.opalj.br.ComputationalType
+import org.opalj.br.ComputationalTypeDouble
+import org.opalj.br.ComputationalTypeFloat
+import org.opalj.br.ComputationalTypeInt
+import org.opalj.br.ComputationalTypeLong
+import org.opalj.br.ComputationalTypeReference
+import org.opalj.br.ComputationalTypeReturnAddress
+import org.opalj.br.ExceptionHandler
+import org.opalj.br.FieldType
+import org.opalj.br.LineNumberTable
+import org.opalj.br.MethodDescriptor
+import org.opalj.br.ObjectType
+import org.opalj.br.ReferenceType
+import org.opalj.br.cfg.BasicBlock
+import org.opalj.br.cfg.CatchNode
+import org.opalj.br.cfg.CFG
+import org.opalj.br.cfg.CFGNode
+import org.opalj.br.cfg.ExitNode
+
+/**
+ * Converts a [[FlatTACode]] to a self-contained sequence of bytes and back; used to persist
+ * the three-address code (see [[PersistentTACAIKey]]).
+ *
+ * The objects referenced by the code (types, names, descriptors, operators and values) are
+ * stored once per code in a constant pool. The values of the variables are domain specific
+ * and cannot be persisted as is; instead, only the domain independent information is stored
+ * (see [[IntegerRangeValue]] and [[PersistedReferenceValue]]). Hence, a deserialized value
+ * is less precise w.r.t. the (domain specific) operations it supports, but provides the same
+ * information w.r.t. the `org.opalj.value` API. Code which references bootstrap methods,
+ * method handles or return address values cannot be serialized.
+ *
+ * The line number table is not serialized; it is passed in when the code is deserialized.
+ *
+ * @author agent
+ */
+object FlatTACodeSerialization {
+
+    private type V = DUVar[KnownTypedValue]
+
+    /**
+     * The value of an `int` variable for which the range of values is known.
+     */
+    final case class IntegerRangeValue(lowerBound: Int, upperBound: Int) extends IsIntegerValue
+
+    /**
+     * A reference value which was deserialized; `isValueASubtypeOf` is not supported – i.e.,
+     * always returns `Unknown` – because the class hierarchy is not known.
+     */
+    final case class PersistedReferenceValue(
+            upperTypeBound:         UIDSet[_ <: ReferenceType],
+            valueType:              Option[ReferenceType],
+            override val isNull:    Answer,
+            override val isPrecise: Boolean
+    ) extends IsReferenceValue {
+        override type BaseReferenceValue = PersistedReferenceValue
+        override def asBaseReferenceValue: PersistedReferenceValue = this
+        override def baseValues: Traversable[PersistedReferenceValue] = Nil
+    }
+
+    // The tags of the entries of the constant pool.
+    private final val StringTag = 0
+    private final val FieldTypeTag = 1
+    private final val MethodDescriptorTag = 2
+    private final val ComputationalTypeTag = 3
+    private final val RelationalOperatorTag = 4
+    private final val BinaryArithmeticOperatorTag = 5
+    private final val UnaryArithmeticOperatorTag = 6
+    private final val PrimitiveValueTag = 7
+    private final val ReferenceValueTag = 8
+
+    private[this] final val PrimitiveValues: Map[String, IsPrimitiveValue[_]] = Map(
+        "Z" → ABooleanValue, "B" → AByteValue, "C" → ACharValue, "S" → AShortValue,
+        "F" → AFloaValue, "J" → ALongValue, "D" → ADoubleValue
+    )
+
+    private[this] final val ComputationalTypes: IndexedSeq[ComputationalType] = IndexedSeq(
+        ComputationalTypeInt, ComputationalTypeFloat, ComputationalTypeReference,
+        ComputationalTypeReturnAddress, ComputationalTypeLong, ComputationalTypeDouble
+    )
+
+    /**
+     * The operators are enumeration values; the values of different enumerations have to
+     * be distinguished by identity.
+     */
+    private[this] final val Operators: IdentityHashMap[AnyRef, Int] = {
+        val operators = new IdentityHashMap[AnyRef, Int]()
+        RelationalOperators.values foreach { op ⇒ operators.put(op, RelationalOperatorTag) }
+        BinaryArithmeticOperators.values foreach { op ⇒
+            operators.put(op, BinaryArithmeticOperatorTag)
+        }
+        UnaryArithmeticOperators.values foreach { op ⇒
+            operators.put(op, UnaryArithmeticOperatorTag)
+        }
+        operators
+    }
+
+    private[this] def isSerializable(ref: AnyRef): Boolean = ref match {
+        case null | _: String | _: FieldType | _: MethodDescriptor | _: ComputationalType ⇒ true
+        case _: IsPrimitiveValue[_] | _: IsReferenceValue ⇒ true
+        case _ ⇒ Operators.containsKey(ref)
+    }
+
+    /**
+     * Serializes the given code; `None` if the code references objects which cannot
+     * be serialized (see [[FlatTACodeSerialization$]] for details).
+     */
+    def serialize(code: FlatTACode): Option[Array[Byte]] = {
+        if (!code.refs.forall(isSerializable))
+            return None;
+
+        val bytes = new ByteArrayOutputStream(code.nodesCount * 16)
+        val out = new DataOutputStream(bytes)
+
+        // the constant pool; the values are replaced by their persisted representation
+        val pool = new mutable.LinkedHashMap[AnyRef, Int]()
+        def poolIndex(ref: AnyRef): Int = {
+            if (ref eq null) -1 else pool.getOrElseUpdate(ref, pool.size)
+        }
+        val refs = code.refs.map(ref ⇒ poolIndex(persistedRef(ref)))
+        val catchTypes = code.exceptionHandlers.map(eh ⇒ poolIndex(eh.catchType.orNull))
+        val cfg = code.cfg
+        val catchNodes = cfg.catchNodes.toArray
+        val catchNodeTypes = catchNodes.map(cn ⇒ poolIndex(cn.catchType.orNull))
+        pool.keys.toList foreach {
+            case v: PersistedReferenceValue ⇒
+                v.valueType foreach poolIndex
+                v.upperTypeBound foreach poolIndex
+            case _ ⇒ // nothing to do
+        }
+        out.writeInt(pool.size)
+        pool.keys foreach { ref ⇒ writeRef(out, ref, pool) }
+
+        // the parameters
+        // the parameters of methods without parameters are (not) stored using an array of vars
+        val params = code.params.asInstanceOf[Parameters[AnyRef]].parameters
+        out.writeInt(params.length)
+        params foreach { p ⇒
+            val param = p.asInstanceOf[TACMethodParameter]
+            if (param eq null) {
+                out.writeBoolean(false)
+            } else {
+                out.writeBoolean(true)
+                out.writeInt(param.origin)
+                writeInts(out, param.useSites.toChain.toArray)
+            }
+        }
+        writeInts(out, code.pcToIndex)
+        out.writeInt(code.exceptionHandlers.size)
+        code.exceptionHandlers.iterator.zip(catchTypes.iterator) foreach { ehAndCatchType ⇒
+            val (eh, catchType) = ehAndCatchType
+            out.writeInt(eh.startPC)
+            out.writeInt(eh.endPC)
+            out.writeInt(eh.handlerPC)
+            out.writeInt(catchType)
+        }
+
+        // the statements
+        writeInts(out, code.stmtNodes)
+        out.writeInt(code.kinds.length)
+        out.write(code.kinds)
+        writeInts(out, code.pcs)
+        writeInts(out, code.payloads)
+        writeInts(out, code.refsIndexes)
+        writeInts(out, refs)
+        writeInts(out, code.dataIndexes)
+        writeInts(out, code.data)
+
+        // the control-flow graph; the nodes are identified by their index in the sequence
+        // of all basic blocks, catch nodes and the normal and abnormal exit nodes
+        val bbs = cfg.allBBs.toArray
+        val nodes: Array[CFGNode] =
+            bbs ++ catchNodes ++ Array(cfg.normalReturnNode, cfg.abnormalReturnNode)
+        val nodeIds = new IdentityHashMap[CFGNode, Int]()
+        nodes.iterator.zipWithIndex foreach { nodeAndId ⇒ nodeIds.put(nodeAndId._1, nodeAndId._2) }
+        out.writeInt(bbs.length)
+        bbs foreach { bb ⇒
+            out.writeInt(bb.startPC)
+            out.writeInt(bb.endPC)
+            out.writeBoolean(bb.isStartOfSubroutine)
+        }
+        out.writeInt(catchNodes.length)
+        catchNodes.iterator.zip(catchNodeTypes.iterator) foreach { cnAndCatchType ⇒
+            val (cn, catchType) = cnAndCatchType
+            out.writeInt(cn.index)
+            out.writeInt(cn.startPC)
+            out.writeInt(cn.endPC)
+            out.writeInt(cn.handlerPC)
+            out.writeInt(catchType)
+        }
+        nodes foreach { node ⇒
+            writeInts(out, node.successors.iterator.map(nodeIds.get).toArray)
+            writeInts(out, node.predecessors.iterator.map(nodeIds.get).toArray)
+        }
+
+        out.flush()
+        Some(bytes.toByteArray)
+    }
+
+    private[this] def writeInts(out: DataOutputStream, values: Array[Int]): Unit = {
+        out.writeInt(values.length)
+        values foreach out.writeInt
+    }
+
+    private[this] def writeString(out: DataOutputStream, s: String): Unit = {
+        val bytes = s.getBytes(UTF_8)
+        out.writeInt(bytes.length)
+        out.write(bytes)
+    }
+
+    /**
+     * Replaces domain specific values by their domain independent representation.
+     */
+    private[this] def persistedRef(ref: AnyRef): AnyRef = ref match {
+        case v: IsIntegerValue if v.lowerBound == Int.MinValue && v.upperBound == Int.MaxValue ⇒
+            AnIntegerValue
+        case v: IsIntegerValue ⇒
+            IntegerRangeValue(v.lowerBound, v.upperBound)
+        case v: IsPrimitiveValue[_] ⇒
+            PrimitiveValues(v.primitiveType.toJVMTypeName)
+        case v: IsReferenceValue ⇒
+            PersistedReferenceValue(v.upperTypeBound, v.valueType, v.isNull, v.isPrecise)
+        case ref ⇒
+            ref
+    }
+
+    private[this] def writeRef(
+        out:  DataOutputStream,
+        ref:  AnyRef,
+        pool: scala.collection.Map[AnyRef, Int]
+    ): Unit = {
+        ref match {
+            case s: String ⇒
+                out.writeByte(StringTag)
+                writeString(out, s)
+            case ft: FieldType ⇒
+                out.writeByte(FieldTypeTag)
+                writeString(out, ft.toJVMTypeName)
+            case md: MethodDescriptor ⇒
+                out.writeByte(MethodDescriptorTag)
+                writeString(out, md.toJVMDescriptor)
+            case cTpe: ComputationalType ⇒
+                out.writeByte(ComputationalTypeTag)
+                out.writeByte(ComputationalTypes.indexOf(cTpe))
+            case v: IsPrimitiveValue[_] ⇒
+                out.writeByte(PrimitiveValueTag)
+                writeString(out, v.primitiveType.toJVMTypeName)
+                v match {
+                    case v: IsIntegerValue ⇒
+                        out.writeInt(v.lowerBound)
+                        out.writeInt(v.upperBound)
+                    case _ ⇒ // nothing to do
+                }
+            case v: PersistedReferenceValue ⇒
+                out.writeByte(ReferenceValueTag)
+                out.writeByte(v.isNull match { case Yes ⇒ 0; case No ⇒ 1; case _ ⇒ 2 })
+                out.writeBoolean(v.isPrecise)
+                out.writeInt(v.valueType.map(pool).getOrElse(-1))
+                writeInts(out, v.upperTypeBound.toArray[ReferenceType].map(pool))
+            case op ⇒
+                out.writeByte(Operators.get(op))
+                out.writeInt(op.asInstanceOf[Enumeration#Value].id)
+        }
+    }
+
+    /**
+     * Deserializes code which was serialized using [[serialize]].
+     */
+    def deserialize(bytes: Array[Byte], lineNumberTable: Option[LineNumberTable]): FlatTACode = {
+        val in = new DataInputStream(new ByteArrayInputStream(bytes))
+
+        // the constant pool
+        val pool = new Array[AnyRef](in.readInt())
+        var i = 0
+        while (i < pool.length) {
+            pool(i) = readRef(in)
+            i += 1
+        }
+        def poolEntry[T <: AnyRef](index: Int): T = {
+            if (index == -1) null.asInstanceOf[T] else pool(index).asInstanceOf[T]
+        }
+        // the reference values are created when all types are available
+        i = 0
+        while (i < pool.length) {
+            pool(i) match {
+                case (isNull: Answer, isPrecise: Boolean, valueType: Int, upperTypeBound: Array[Int]) ⇒
+                    pool(i) = PersistedReferenceValue(
+                        UIDSet(upperTypeBound.map(poolEntry[ReferenceType]): _*),
+                        Option(poolEntry[ReferenceType](valueType)),
+                        isNull,
+                        isPrecise
+                    )
+                case _ ⇒ // nothing to do
+            }
+            i += 1
+        }
+
+        // the parameters
+        val params = new Array[TACMethodParameter](in.readInt())
+        i = 0
+        while (i < params.length) {
+            if (in.readBoolean()) {
+                val origin = in.readInt()
+                params(i) = TACMethodParameter(origin, readInts(in).foldLeft(IntTrieSet.empty)(_ + _))
+            }
+            i += 1
+        }
+        val pcToIndex = readInts(in)
+        val exceptionHandlers = new Array[AnyRef](in.readInt())
+        i = 0
+        while (i < exceptionHandlers.length) {
+            exceptionHandlers(i) = ExceptionHandler(
+                in.readInt(), in.readInt(), in.readInt(), Option(poolEntry[ObjectType](in.readInt()))
+            )
+            i += 1
+        }
+
+        // the statements
+        val stmtNodes = readInts(in)
+        val kinds = new Array[Byte](in.readInt())
+        in.readFully(kinds)
+        val pcs = readInts(in)
+        val payloads = readInts(in)
+        val refsIndexes = readInts(in)
+        val refs = readInts(in).map(poolEntry[AnyRef])
+        val dataIndexes = readInts(in)
+        val data = readInts(in)
+
+        // the control-flow graph
+        val stmtsCount = stmtNodes.length - 1
+        val basicBlocks = new Array[BasicBlock](stmtsCount)
+        val bbs = new Array[BasicBlock](in.readInt())
+        i = 0
+        while (i < bbs.length) {
+            val bb = new BasicBlock(in.readInt(), in.readInt())
+            if (in.readBoolean()) bb.setIsStartOfSubroutine()
+            bbs(i) = bb
+            var pc = bb.startPC
+            while (pc <= bb.endPC) {
+                basicBlocks(pc) = bb
+                pc += 1
+            }
+            i += 1
+        }
+        val catchNodes = new Array[CatchNode](in.readInt())
+        i = 0
+        while (i < catchNodes.length) {
+            catchNodes(i) = new CatchNode(
+                in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                Option(poolEntry[ObjectType](in.readInt()))
+            )
+            i += 1
+        }
+        val normalReturnNode = new ExitNode(normalReturn = true)
+        val abnormalReturnNode = new ExitNode(normalReturn = false)
+        val nodes: Array[CFGNode] =
+            bbs ++ catchNodes ++ Array(normalReturnNode, abnormalReturnNode)
+        nodes foreach { node ⇒
+            readInts(in) foreach { successor ⇒ node.addSuccessor(nodes(successor)) }
+            readInts(in) foreach { predecessor ⇒ node.addPredecessor(nodes(predecessor)) }
+        }
+        val cfg = CFG[Stmt[V], TACStmts[V]](
+            TACStmts(new Array[Stmt[V]](stmtsCount)),
+            normalReturnNode,
+            abnormalReturnNode,
+            catchNodes,
+            basicBlocks
+        )
+
+        new FlatTACode(
+            new Parameters(params),
+            pcToIndex,
+            cfg,
+            RefArray._UNSAFE_from[ExceptionHandler](exceptionHandlers),
+            lineNumberTable,
+            stmtNodes, kinds, pcs, payloads, refsIndexes, refs, dataIndexes, data
+        )
+    }
+
+    private[this] def readInts(in: DataInputStream): Array[Int] = {
+        val values = new Array[Int](in.readInt())
+        var i = 0
+        while (i < values.length) {
+            values(i) = in.readInt()
+            i += 1
+        }
+        values
+    }
+
+    private[this] def readString(in: DataInputStream): String = {
+        val bytes = new Array[Byte](in.readInt())
+        in.readFully(bytes)
+        new String(bytes, UTF_8)
+    }
+
+    /**
+     * Reads the next entry of the constant pool; reference values are returned as tuples
+     * since the referenced types may not yet be available.
+     */
+    private[this] def readRef(in: DataInputStream): AnyRef = {
+        (in.readByte(): Int) match {
+            case StringTag            ⇒ readString(in)
+            case FieldTypeTag         ⇒ FieldType(readString(in))
+            case MethodDescriptorTag  ⇒ MethodDescriptor(readString(in))
+            case ComputationalTypeTag ⇒ ComputationalTypes(in.readByte())
+            case PrimitiveValueTag ⇒
+                readString(in) match {
+                    case "I" ⇒
+                        val lowerBound = in.readInt()
+                        val upperBound = in.readInt()
+                        if (lowerBound == Int.MinValue && upperBound == Int.MaxValue)
+                            AnIntegerValue
+                        else
+                            IntegerRangeValue(lowerBound, upperBound)
+                    case primitiveType ⇒
+                        PrimitiveValues(primitiveType)
+                }
+            case ReferenceValueTag ⇒
+                val isNull = in.readByte() match { case 0 ⇒ Yes; case 1 ⇒ No; case _ ⇒ Unknown }
+                (isNull, in.readBoolean(), in.readInt(), readInts(in))
+            case RelationalOperatorTag       ⇒ RelationalOperators(in.readInt())
+            case BinaryArithmeticOperatorTag ⇒ BinaryArithmeticOperators(in.readInt())
+            case UnaryArithmeticOperatorTag  ⇒ UnaryArithmeticOperators(in.readInt())
+        }
+    }
+}
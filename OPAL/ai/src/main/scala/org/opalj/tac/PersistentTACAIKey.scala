@@ -0,0 +1,188 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package tac
+
+import java.nio.charset.StandardCharsets.UTF_8
+import java.nio.file.Paths
+import java.security.MessageDigest
+
+import scala.collection.mutable
+
+import com.typesafe.config.ConfigRenderOptions
+
+import org.opalj.log.OPALLogger
+import org.opalj.value.KnownTypedValue
+import org.opalj.br.ArrayType
+import org.opalj.br.Method
+import org.opalj.br.ObjectType
+import org.opalj.br.ReferenceType
+import org.opalj.br.analyses.ProjectInformationKey
+import org.opalj.br.analyses.SomeProject
+import org.opalj.br.instructions.ANEWARRAY
+import org.opalj.br.instructions.CHECKCAST
+import org.opalj.br.instructions.FieldAccess
+import org.opalj.br.instructions.INSTANCEOF
+import org.opalj.br.instructions.LoadClass
+import org.opalj.br.instructions.LoadClass_W
+import org.opalj.br.instructions.MethodInvocationInstruction
+import org.opalj.br.instructions.MULTIANEWARRAY
+import org.opalj.br.instructions.NEW
+import org.opalj.ai.BaseAI
+import org.opalj.ai.Domain
+import org.opalj.ai.common.MethodResultsCache
+import org.opalj.ai.domain.RecordDefUse
+import org.opalj.ai.domain.l1.DefaultDomainWithCFGAndDefUse
+
+/**
+ * ''Key'' to get the 3-address based code of a method which is persisted across runs of the
+ * analyses; i.e., the code of a method is only computed if it was not computed by a previous
+ * run (or a parallel run on the same machine), otherwise it is loaded from a [[TACodeStore]].
+ *
+ * The code is identified by a hash of:
+ *  - the method's signature and its bytecode (including the exception handlers),
+ *  - the class hierarchy context; i.e., the supertypes of all types referenced by the
+ *    method and whether these types are interfaces or final, and
+ *  - the domain configuration; i.e., the class of the domain and the configuration of the
+ *    domains (`org.opalj.ai.domain`).
+ *
+ * To ensure that the code is independent of whether it was loaded or computed, the
+ * returned code is always created from the persisted representation; in particular, the
+ * values are only as precise as the values supported by [[FlatTACodeSerialization]]. The
+ * code of methods which cannot be serialized (e.g., methods which use `invokedynamic`) is
+ * always computed.
+ *
+ * The directory of the store is configured using the configuration key
+ * `org.opalj.tac.PersistentTACAIKey.directory` and the in-memory caching policy using
+ * `org.opalj.tac.PersistentTACAIKey.cache` (see [[MethodResultsCache$.apply]] for details).
+ * The domain is configured in the same way as for the [[org.opalj.ai.common.SimpleAIKey]].
+ *
+ * @note   The hash does not cover the code of called methods; i.e., if the domain analyzes
+ *         called methods (e.g., `l2` domains), the store has to be deleted when the
+ *         called methods change.
+ *
+ * @author agent
+ */
+object PersistentTACAIKey
+    extends ProjectInformationKey[MethodResultsCache[TACode[TACMethodParameter, DUVar[KnownTypedValue]]], /*DomainFactory*/ Method ⇒ Domain with RecordDefUse] {
+
+    final val DirectoryConfigKey = "org.opalj.tac.PersistentTACAIKey.directory"
+
+    final val CacheConfigKey = "org.opalj.tac.PersistentTACAIKey.cache"
+
+    /**
+     * The PersistentTACAIKey has no special prerequisites; the abstract interpretation of
+     * a method is only performed if the code is not yet persisted.
+     */
+    override protected def requirements: Seq[ProjectInformationKey[Nothing, Nothing]] = Nil
+
+    override protected def compute(
+        project: SomeProject
+    ): MethodResultsCache[TACode[TACMethodParameter, DUVar[KnownTypedValue]]] = {
+        implicit val logContext = project.logContext
+
+        val domainFactory = project.
+            getProjectInformationKeyInitializationData(this).
+            getOrElse((m: Method) ⇒ new DefaultDomainWithCFGAndDefUse(project, m))
+        val domainConfiguration =
+            if (project.config.hasPath("org.opalj.ai.domain"))
+                project.config.getConfig("org.opalj.ai.domain").root.render(ConfigRenderOptions.concise)
+            else
+                ""
+        val store = TACodeStore(Paths.get(project.config.getString(DirectoryConfigKey)))
+        OPALLogger.info("analysis configuration", s"persistent three-address code: $store")
+
+        MethodResultsCache(project.config, CacheConfigKey) { m: Method ⇒
+            val domain = domainFactory(m)
+            val hash = methodHash(project, m, domain.getClass.getName, domainConfiguration)
+            val lineNumberTable = m.body.get.lineNumberTable
+            val payload = store.get(hash)
+            if (payload ne null) {
+                FlatTACodeSerialization.deserialize(payload, lineNumberTable).toTACode
+            } else {
+                val aiResult = BaseAI(m, domain)
+                val code = TACAI(m, project.classHierarchy, aiResult)(Nil).
+                    asInstanceOf[TACode[TACMethodParameter, DUVar[KnownTypedValue]]]
+                FlatTACodeSerialization.serialize(FlatTACode(code)) match {
+                    case Some(payload) ⇒
+                        store.put(hash, payload)
+                        FlatTACodeSerialization.deserialize(payload, lineNumberTable).toTACode
+                    case None ⇒
+                        code
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the hash which identifies the code of the given method (see
+     * [[PersistentTACAIKey$]] for details).
+     */
+    def methodHash(
+        project:             SomeProject,
+        method:              Method,
+        domainClass:         String,
+        domainConfiguration: String
+    ): Array[Byte] = {
+        val digest = MessageDigest.getInstance("SHA-256")
+        def update(s: String): Unit = { digest.update(s.getBytes(UTF_8)); digest.update(0.toByte) }
+
+        update(TACodeStore.Version.toString)
+        update(domainClass)
+        update(domainConfiguration)
+
+        update(method.toJava)
+        update(if (method.isStatic) "static" else "instance")
+        val code = method.body.get
+        update(s"maxStack=${code.maxStack},maxLocals=${code.maxLocals}")
+        val referencedTypes = mutable.Set.empty[ObjectType]
+        def referencedType(rt: ReferenceType): Unit = rt match {
+            case ot: ObjectType ⇒ referencedTypes += ot
+            case at: ArrayType ⇒
+                val elementType = at.elementType
+                if (elementType.isObjectType) referencedTypes += elementType.asObjectType
+        }
+        referencedType(method.classFile.thisType)
+        method.descriptor.parameterTypes foreach { pt ⇒
+            if (pt.isReferenceType) referencedType(pt.asReferenceType)
+        }
+        code.iterate { (pc, instruction) ⇒
+            update(instruction.toString(pc))
+            instruction match {
+                case i: MethodInvocationInstruction ⇒
+                    update(i.isInterfaceCall.toString)
+                    referencedType(i.declaringClass)
+                    val rt = i.methodDescriptor.returnType
+                    if (rt.isReferenceType) referencedType(rt.asReferenceType)
+                case i: FieldAccess ⇒
+                    referencedType(i.declaringClass)
+                    if (i.fieldType.isReferenceType) referencedType(i.fieldType.asReferenceType)
+                case NEW(ot)               ⇒ referencedType(ot)
+                case CHECKCAST(rt)         ⇒ referencedType(rt)
+                case INSTANCEOF(rt)        ⇒ referencedType(rt)
+                case ANEWARRAY(rt)         ⇒ referencedType(rt)
+                case MULTIANEWARRAY(at, _) ⇒ referencedType(at)
+                case LoadClass(rt)         ⇒ referencedType(rt)
+                case LoadClass_W(rt)       ⇒ referencedType(rt)
+                case _                     ⇒ // nothing to do
+            }
+        }
+        code.exceptionHandlers foreach { eh ⇒
+            update(eh.toString)
+            eh.catchType foreach referencedType
+        }
+
+        val classHierarchy = project.classHierarchy
+        referencedTypes.toList.sortBy(_.fqn) foreach { ot ⇒
+            update(ot.fqn)
+            if (classHierarchy.isKnown(ot)) {
+                update(s"interface=${classHierarchy.isInterface(ot)}")
+                update(s"final=${classHierarchy.isKnownToBeFinal(ot)}")
+                update(classHierarchy.allSupertypes(ot).toList.map(_.fqn).sorted.mkString(","))
+            } else {
+                update("unknown")
+            }
+        }
+
+        digest.digest()
+    }
+}
@@ -2,10 +2,10 @@
 package org.opalj
 package tac
 
-import scala.collection.concurrent.TrieMap
 import org.opalj.br.Method
 import org.opalj.br.analyses.SomeProject
 import org.opalj.br.analyses.ProjectInformationKey
+import org.opalj.ai.common.MethodResultsCache
 import org.opalj.ai.domain.l1.DefaultDomainWithCFGAndDefUse
 import org.opalj.ai.BaseAI
 import org.opalj.value.KnownTypedValue
@@ -24,6 +24,8 @@ import org.opalj.value.KnownTypedValue
  */
 object SimpleTACAIKey extends TACAIKey {
 
+    final val CacheConfigKey = "org.opalj.tac.SimpleTACAIKey.cache"
+
     /**
      * TACAI code has no special prerequisites.
      */
@@ -31,6 +33,8 @@ object SimpleTACAIKey extends TACAIKey {
 
     /**
      * Returns an object which computes and caches the 3-address code of a method when required.
+     * The caching policy is configured using the configuration key
+     * `org.opalj.tac.SimpleTACAIKey.cache` (see [[MethodResultsCache$.apply]] for details).
      *
      * All methods belonging to a project are converted using the same `domainFactory`. Hence,
      * the `domainFactory` needs to be set before compute is called/this key is passed to a
@@ -40,37 +44,18 @@ object SimpleTACAIKey extends TACAIKey {
      */
     override protected def compute(
         project: SomeProject
-    ): Method ⇒ TACode[TACMethodParameter, DUVar[KnownTypedValue]] = {
+    ): MethodResultsCache[TACode[TACMethodParameter, DUVar[KnownTypedValue]]] = {
         val domainFactory = project.
             getProjectInformationKeyInitializationData(this).
             getOrElse((m: Method) ⇒ new DefaultDomainWithCFGAndDefUse(project, m))
 
-        val taCodes = TrieMap.empty[Method, TACode[TACMethodParameter, DUVar[KnownTypedValue]]]
-
-        def computeAndCacheTAC(m: Method) = {
+        MethodResultsCache(project.config, CacheConfigKey) { m: Method ⇒
             val domain = domainFactory(m)
             val aiResult = BaseAI(m, domain)
             val code = TACAI(m, project.classHierarchy, aiResult)(Nil)
             // well... the following cast safe is safe, because the underlying
             // datastructure is actually, conceptually immutable
-            val taCode = code.asInstanceOf[TACode[TACMethodParameter, DUVar[KnownTypedValue]]]
-            taCodes.put(m, taCode)
-            taCode
-        }
-
-        (m: Method) ⇒ taCodes.get(m) match {
-            case Some(taCode) ⇒ taCode
-            case None ⇒
-                val brCode = m.body.get
-                // Basically, we use double checked locking; we really don't want to
-                // transform the code more than once!
-                brCode.synchronized {
-                    taCodes.get(m) match {
-                        case Some(taCode) ⇒ taCode
-                        case None         ⇒ computeAndCacheTAC(m)
-                    }
-                }
-
-        }
+            code.asInstanceOf[TACode[TACMethodParameter, DUVar[KnownTypedValue]]]
+        }(project.logContext)
     }
 }
@@ -167,7 +167,7 @@ object Goto {
  *                        '''This information is only relevant in case of flow-sensitive
  *                        analyses.'''
  */
-case class Ret(pc: PC, private var returnAddresses: PCs) extends Stmt[Nothing] {
+case class Ret(pc: PC, private[tac] var returnAddresses: PCs) extends Stmt[Nothing] {
 
     final override def asRet: this.type = this
     final override def astID: Int = Ret.ASTID
@@ -235,7 +235,7 @@ case class Switch[+V <: Var[V]](
         pc:                        PC,
         private var defaultTarget: PC,
         index:                     Expr[V],
-        private var npairs:        RefArray[(Int, PC)] // IMPROVE use IntIntPair
+        private[tac] var npairs:   RefArray[(Int, PC)] // IMPROVE use IntIntPair
 ) extends Stmt[V] {
 
     final override def asSwitch: this.type = this
@@ -2,12 +2,12 @@
 package org.opalj
 package tac
 
-import org.opalj.br.Method
 import org.opalj.br.analyses.ProjectInformationKey
+import org.opalj.ai.common.MethodResultsCache
 import org.opalj.value.KnownTypedValue
 
 /**
  * @author Michael Eichberg
  */
 trait TACAIKey
-    extends ProjectInformationKey[Method ⇒ TACode[TACMethodParameter, DUVar[KnownTypedValue]], Nothing]
+    extends ProjectInformationKey[MethodResultsCache[TACode[TACMethodParameter, DUVar[KnownTypedValue]]], Nothing]
@@ -0,0 +1,271 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package tac
+
+import java.nio.ByteBuffer
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.FileAlreadyExistsException
+import java.nio.file.FileSystems
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption.CREATE
+import java.nio.file.StandardOpenOption.READ
+import java.nio.file.StandardOpenOption.WRITE
+import java.nio.file.attribute.PosixFilePermissions
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * A disk-backed, append-only store of serialized three-address code which is identified by
+ * the (SHA-256) hash of the underlying method (see [[PersistentTACAIKey]]).
+ *
+ * All entries are stored in a single segment file which starts with a header (the magic number
+ * and the version of the format) which is followed by the records. Each record consists of the
+ * length of the payload, the hash and the payload. The file is memory-mapped for reading and is
+ * mapped again when it has grown to more than twice the size of the mapped region; records
+ * which are not yet mapped are read using the file channel. When an entry is requested
+ * that is not yet known, the records appended since the file was scanned the last time –
+ * e.g., by another process – are indexed.
+ *
+ * Records are only appended while holding an exclusive lock on the file; hence, the store
+ * can be shared by multiple processes on the same machine. An incomplete record at the end of
+ * the file – i.e., a record of a process which was killed while appending the record – is
+ * removed before the next record is appended. Entries are never removed; to reset the store
+ * delete the file.
+ *
+ * @note   The size of the segment file is limited to 2 GB; if the limit is reached, new
+ *         entries are no longer stored.
+ *
+ * @note   Within a JVM, the store of a directory is shared (see [[TACodeStore$.apply]]).
+ *
+ * @author agent
+ */
+final class TACodeStore private (val file: Path) {
+
+    import TACodeStore.HashLength
+    import TACodeStore.HeaderLength
+    import TACodeStore.RecordHeaderLength
+
+    private[this] val channel = FileChannel.open(file, CREATE, READ, WRITE)
+
+    // maps the hash of an entry to the offset of its record
+    private[this] val index = new ConcurrentHashMap[ByteBuffer, java.lang.Long]()
+
+    // a prefix of the file; the mapping is replaced before the records of the mapped region
+    // are indexed
+    @volatile private[this] var mapped: MappedByteBuffer = _
+
+    // the end of the last complete record that was indexed or appended; guarded by this
+    private[this] var scannedSize: Long = HeaderLength
+
+    private[this] val hitsCounter = new LongAdder
+    private[this] val missesCounter = new LongAdder
+    private[this] val appendsCounter = new LongAdder
+
+    initialize()
+
+    /** The number of requested entries which were found. */
+    def hits: Long = hitsCounter.sum
+
+    /** The number of requested entries which were not found. */
+    def misses: Long = missesCounter.sum
+
+    /** The number of entries which were appended by this JVM. */
+    def appends: Long = appendsCounter.sum
+
+    /** The number of entries known to this store. */
+    def size: Int = index.size
+
+    private[this] def initialize(): Unit = {
+        val lock = channel.lock()
+        try {
+            if (channel.size() == 0L) {
+                val header = ByteBuffer.allocate(HeaderLength)
+                header.putInt(TACodeStore.Magic).putInt(TACodeStore.Version).flip()
+                while (header.hasRemaining) channel.write(header, header.position().toLong)
+            } else {
+                val header = ByteBuffer.allocate(HeaderLength)
+                while (header.hasRemaining && channel.read(header, header.position().toLong) >= 0) {}
+                header.flip()
+                if (header.remaining < HeaderLength ||
+                    header.getInt() != TACodeStore.Magic ||
+                    header.getInt() != TACodeStore.Version) {
+                    throw new IllegalArgumentException(s"$file is not a (compatible) segment file")
+                }
+            }
+        } finally {
+            lock.release()
+        }
+        refresh()
+    }
+
+    /**
+     * Maps the file again if it has grown to more than twice the size of the mapped region;
+     * the records which are not yet mapped are read using the channel. Hence, the file is
+     * mapped only a logarithmic number of times while it grows.
+     */
+    private[this] def remapIfNecessary(size: Long): Unit = {
+        val mapped = this.mapped
+        if ((mapped eq null) || size > 2L * mapped.capacity) {
+            this.mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size)
+        }
+    }
+
+    /**
+     * Reads `length` bytes starting at the given position either from the mapped region or –
+     * if the bytes are not (completely) mapped – from the file.
+     */
+    private[this] def read(position: Int, length: Int): ByteBuffer = {
+        val mapped = this.mapped
+        if ((mapped ne null) && position.toLong + length <= mapped.capacity) {
+            val buffer = mapped.duplicate()
+            buffer.position(position).limit(position + length)
+            buffer
+        } else {
+            val buffer = ByteBuffer.allocate(length)
+            while (buffer.hasRemaining &&
+                channel.read(buffer, position.toLong + buffer.position()) >= 0) {}
+            buffer.flip()
+            buffer
+        }
+    }
+
+    /**
+     * Indexes the records which were appended (by other processes) since the file was
+     * scanned the last time.
+     */
+    private[this] def refresh(): Unit = synchronized {
+        val size = Math.min(channel.size(), Int.MaxValue.toLong)
+        if (size > scannedSize) {
+            remapIfNecessary(size)
+            var position = scannedSize.toInt
+            var continue = true
+            while (continue && position + RecordHeaderLength <= size) {
+                val recordHeader = read(position, RecordHeaderLength)
+                val length = recordHeader.getInt()
+                if (length < 0 || position.toLong + RecordHeaderLength + length > size) {
+                    continue = false // the record is incomplete
+                } else {
+                    val hash = new Array[Byte](HashLength)
+                    recordHeader.get(hash)
+                    index.putIfAbsent(ByteBuffer.wrap(hash), position.toLong)
+                    position += RecordHeaderLength + length
+                }
+            }
+            scannedSize = position.toLong
+        }
+    }
+
+    /**
+     * Returns the payload of the entry with the given hash; `null` if the entry is not
+     * available.
+     */
+    def get(hash: Array[Byte]): Array[Byte] = {
+        val key = ByteBuffer.wrap(hash)
+        var offset = index.get(key)
+        if (offset eq null) {
+            refresh()
+            offset = index.get(key)
+            if (offset eq null) {
+                missesCounter.increment()
+                return null;
+            }
+        }
+        hitsCounter.increment()
+
+        val position = offset.intValue
+        val payload = new Array[Byte](read(position, 4).getInt())
+        read(position + RecordHeaderLength, payload.length).get(payload)
+        payload
+    }
+
+    /**
+     * Appends the given entry unless an entry with the same hash is already stored.
+     *
+     * @return `true` if the entry was appended.
+     */
+    def put(hash: Array[Byte], payload: Array[Byte]): Boolean = synchronized {
+        require(hash.length == HashLength)
+
+        val lock = channel.lock()
+        try {
+            refresh()
+            if (index.containsKey(ByteBuffer.wrap(hash)))
+                return false;
+
+            val recordLength = RecordHeaderLength + payload.length
+            if (scannedSize + recordLength > Int.MaxValue)
+                return false;
+
+            if (channel.size() > scannedSize) {
+                // the last record was not completely written
+                channel.truncate(scannedSize)
+            }
+            val record = ByteBuffer.allocate(recordLength)
+            record.putInt(payload.length).put(hash).put(payload).flip()
+            var position = scannedSize
+            while (record.hasRemaining) position += channel.write(record, position)
+            index.putIfAbsent(ByteBuffer.wrap(hash.clone()), scannedSize)
+            scannedSize = position
+            remapIfNecessary(position)
+            appendsCounter.increment()
+            true
+        } finally {
+            lock.release()
+        }
+    }
+
+    override def toString: String = {
+        s"TACodeStore(file=$file,size=$size,hits=$hits,misses=$misses,appends=$appends)"
+    }
+}
+
+object TACodeStore {
+
+    final val Magic = 0x0BA1AC0D
+
+    /** The version of the format of the segment file and of the serialized code. */
+    final val Version = 1
+
+    /** The length of the hashes which identify the entries. */
+    final val HashLength = 32
+
+    private final val HeaderLength = 8
+    private final val RecordHeaderLength = 4 + HashLength
+
+    private[this] val stores = new ConcurrentHashMap[Path, TACodeStore]()
+
+    /**
+     * Returns the store which uses the segment file in the given directory; the directory
+     * is created if necessary and – on POSIX file systems – is then only accessible by the
+     * current user.
+     *
+     * @throws IllegalArgumentException If the directory is not owned by the current user
+     *         (POSIX file systems only); i.e., if the stored code could have been created by
+     *         another user.
+     */
+    def apply(directory: Path): TACodeStore = {
+        val posix = FileSystems.getDefault.supportedFileAttributeViews.contains("posix")
+        if (posix && !Files.exists(directory)) {
+            Files.createDirectories(directory.toAbsolutePath.getParent)
+            try {
+                val ownerOnly = PosixFilePermissions.fromString("rwx------")
+                Files.createDirectory(directory, PosixFilePermissions.asFileAttribute(ownerOnly))
+            } catch {
+                case _: FileAlreadyExistsException ⇒ // created concurrently; checked below
+            }
+        } else {
+            Files.createDirectories(directory)
+        }
+        val realDirectory = directory.toRealPath()
+        if (posix) {
+            val owner = Files.getOwner(realDirectory).getName
+            if (owner != System.getProperty("user.name")) {
+                throw new IllegalArgumentException(s"the directory $realDirectory is owned by $owner")
+            }
+        }
+        val file = realDirectory.resolve(s"tacode-v$Version.seg")
+        stores.computeIfAbsent(file, file ⇒ new TACodeStore(file))
+    }
+}
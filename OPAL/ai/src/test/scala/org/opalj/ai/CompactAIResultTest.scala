@@ -0,0 +1,89 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+import org.scalatest.FunSpec
+import org.scalatest.Matchers
+
+import org.opalj.bi.TestResources.locateTestResources
+import org.opalj.br.analyses.Project
+import org.opalj.ai.domain.RecordDefUse
+import org.opalj.ai.domain.l1.DefaultDomainWithCFGAndDefUse
+import org.opalj.tac.TACAI
+
+/**
+ * Tests that compact [[AIResult]]s (see [[AIResultBuilder.compact]]) provide the same
+ * information as the original results w.r.t. the clients that only need the values used by
+ * the instructions.
+ *
+ * @author agent
+ */
+@RunWith(classOf[JUnitRunner])
+class CompactAIResultTest extends FunSpec with Matchers {
+
+    val project = Project(locateTestResources("classfiles/flashcards.jar", "ai"))
+
+    describe("a compact AIResult") {
+
+        it("should have evaluated the same instructions and produce the same three-address code") {
+            var compactedMethods = 0
+            project.allMethodsWithBody foreach { m ⇒
+                val result = BaseAI(m, new DefaultDomainWithCFGAndDefUse(project, m))
+                val completedResult = result.asInstanceOf[AICompleted { val domain: Domain with RecordDefUse }]
+                val compactResult = AIResultBuilder.compact(completedResult)
+                val code = m.body.get
+                if (compactResult.isCompact) {
+                    compactedMethods += 1
+                    var pc = 0
+                    while (pc < code.instructions.length) {
+                        if (compactResult.wasEvaluated(pc) != result.wasEvaluated(pc))
+                            fail(s"${m.toJava}: pc=$pc: the evaluated instructions differ")
+                        pc += 1
+                    }
+                }
+
+                val expectedStmts = TACAI(m, project.classHierarchy, result)(Nil).stmts
+                val stmts = TACAI(m, project.classHierarchy, compactResult)(Nil).stmts
+                if (!(stmts.map(_.toString) sameElements expectedStmts.map(_.toString)))
+                    fail(s"${m.toJava}: the three-address code differs")
+            }
+            compactedMethods should be > 0
+        }
+
+        it("should be expandable to the original result") {
+            project.allMethodsWithBody foreach { m ⇒
+                val domain = new DefaultDomainWithCFGAndDefUse(project, m)
+                val result = BaseAI(m, domain)
+                val expectedOperandsArray = result.operandsArray.clone
+                val expectedLocalsArray = result.localsArray.clone
+                val compactResult = AIResultBuilder.compact(result.asInstanceOf[AICompleted])
+                val expandedResult = compactResult.expand(BaseAI)
+                expandedResult.isCompact should be(false)
+
+                val code = m.body.get
+                var pc = 0
+                while (pc < code.instructions.length) {
+                    val expectedOperands = expectedOperandsArray(pc)
+                    val operands = expandedResult.operandsArray(pc)
+                    if (expectedOperands eq null) {
+                        if (operands ne null) fail(s"${m.toJava}: pc=$pc: unexpected operands")
+                    } else {
+                        if (operands.size != expectedOperands.size)
+                            fail(s"${m.toJava}: pc=$pc: $expectedOperands vs. $operands")
+                        operands.toIterator.zip(expectedOperands.toIterator) foreach { ops ⇒
+                            val op = ops._1.asInstanceOf[domain.DomainValue]
+                            val expectedOp = ops._2.asInstanceOf[domain.DomainValue]
+                            if (!op.abstractsOver(expectedOp) || !expectedOp.abstractsOver(op))
+                                fail(s"${m.toJava}: pc=$pc: $expectedOperands vs. $operands")
+                        }
+                        if (expandedResult.localsArray(pc).size != expectedLocalsArray(pc).size)
+                            fail(s"${m.toJava}: pc=$pc: the locals differ")
+                    }
+                    pc += 1
+                }
+            }
+        }
+    }
+}
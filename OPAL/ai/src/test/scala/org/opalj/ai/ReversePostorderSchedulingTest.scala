@@ -0,0 +1,93 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+
+import java.io.File
+
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+import org.scalatest.FunSpec
+import org.scalatest.Matchers
+
+import org.opalj.bi.TestResources.locateTestResources
+import org.opalj.br.Method
+import org.opalj.br.analyses.Project
+import org.opalj.ai.domain.l0.BaseDomain
+import org.opalj.ai.domain.l1.DefaultDomainWithCFGAndDefUse
+
+/**
+ * Tests that the abstract interpretation of methods using a worklist which is ordered
+ * in reverse postorder computes the same results as the default (depth-first) scheduling.
+ *
+ * @author agent
+ */
+@RunWith(classOf[JUnitRunner])
+class ReversePostorderSchedulingTest extends FunSpec with Matchers {
+
+    val project = Project(
+        Array(
+            locateTestResources("classfiles/flashcards.jar", "ai"),
+            locateTestResources("classfiles/cornercases.jar", "ai"),
+            locateTestResources("jsr_ret.jar", "bi") // uses subroutines
+        ),
+        Array.empty[File]
+    )
+
+    val ReversePostorderAI = new BaseAI(ScheduleInReversePostorder = true)
+
+    def evaluationsCount(result: AIResult): Int = result.evaluatedPCs.count(_ >= 0)
+
+    // The order in which the paths reach a join instruction determines whether a dead
+    // register is initialized with `null` or with an illegal value.
+    def locals(result: AIResult, pc: Int): Seq[String] = {
+        result.localsArray(pc).mapToVector { v ⇒
+            if ((v eq null) || (v eq result.domain.TheIllegalValue)) "<dead>" else v.toString
+        }
+    }
+
+    describe("the abstract interpretation using a reverse postorder scheduling") {
+
+        it("should compute the same type level results as the default scheduling") {
+            var defaultEvaluationsCount = 0
+            var evaluationsCount = 0
+            project.allMethodsWithBody foreach { m ⇒
+                val expected = BaseAI(m, BaseDomain(project, m))
+                val actual = ReversePostorderAI(m, BaseDomain(project, m))
+                defaultEvaluationsCount += this.evaluationsCount(expected)
+                evaluationsCount += this.evaluationsCount(actual)
+
+                m.body.get iterate { (pc, _) ⇒
+                    val expectedOperands = expected.operandsArray(pc)
+                    val actualOperands = actual.operandsArray(pc)
+                    if ((expectedOperands eq null) != (actualOperands eq null))
+                        fail(s"${m.toJava}: pc=$pc: the instruction's evaluation differs")
+                    if (expectedOperands ne null) {
+                        expectedOperands.toString should be(actualOperands.toString)
+                        locals(expected, pc) should be(locals(actual, pc))
+                    }
+                }
+            }
+            info(
+                s"evaluated $evaluationsCount instructions "+
+                    s"(depth-first scheduling: $defaultEvaluationsCount)"
+            )
+        }
+
+        it("should compute the same def/use information as the default scheduling") {
+            def analyze(ai: AI[Domain], m: Method) = {
+                ai(m, new DefaultDomainWithCFGAndDefUse(project, m))
+            }
+            project.allMethodsWithBody foreach { m ⇒
+                val expected = analyze(BaseAI, m)
+                val actual = analyze(ReversePostorderAI, m)
+                m.body.get iterate { (pc, _) ⇒
+                    if (expected.wasEvaluated(pc) != actual.wasEvaluated(pc))
+                        fail(s"${m.toJava}: pc=$pc: the instruction's evaluation differs")
+                    if (expected.wasEvaluated(pc)) {
+                        expected.domain.usedBy(pc) should be(actual.domain.usedBy(pc))
+                    }
+                }
+            }
+        }
+    }
+}
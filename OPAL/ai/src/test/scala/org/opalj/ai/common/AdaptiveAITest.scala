@@ -0,0 +1,86 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+package common
+
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+import org.scalatest.FunSpec
+import org.scalatest.Matchers
+
+import org.opalj.bi.TestResources.locateTestResources
+import org.opalj.br.analyses.Project
+
+/**
+ * Tests the [[AdaptiveAI]].
+ *
+ * @author agent
+ */
+@RunWith(classOf[JUnitRunner])
+class AdaptiveAITest extends FunSpec with Matchers {
+
+    val project = Project(locateTestResources("classfiles/flashcards.jar", "ai"))
+
+    val methodsCount = project.allMethodsWithBody.size
+
+    val adaptiveAI = new AdaptiveAI()
+
+    describe("an AdaptiveAI") {
+
+        it("should only use the first level if the results are precise") {
+            val results = adaptiveAI(project) { (m, r) ⇒ r.domain.getClass } { _ ⇒ false }
+            val l0 = results.statistics(0)
+            l0.analyzed should be(methodsCount)
+            l0.imprecise should be(0)
+            results.statistics.tail.foreach(_.analyzed should be(0))
+            results.results.size should be(methodsCount - l0.aborted)
+            results.results.values.foreach { r ⇒
+                r.level should be(adaptiveAI.levels(0))
+                r.value should be(classOf[domain.l0.BaseDomain[_]])
+            }
+        }
+
+        it("should use the next level for those methods with imprecise results") {
+            def isComplex(codeSize: Int): Boolean = codeSize > 50
+            val results = adaptiveAI(project) { (m, r) ⇒
+                m.body.get.instructions.length
+            } { codeSize ⇒ isComplex(codeSize) }
+
+            val complexMethods = project.allMethodsWithBody.count { m ⇒
+                isComplex(m.body.get.instructions.length)
+            }
+            val l0 = results.statistics(0)
+            val l1 = results.statistics(1)
+            l0.analyzed should be(methodsCount)
+            l0.imprecise should be(complexMethods)
+            l1.analyzed should be(complexMethods)
+            results.results foreach { e ⇒
+                val (m, r) = e
+                val expectedLevels =
+                    if (isComplex(m.body.get.instructions.length)) adaptiveAI.levels.tail
+                    else adaptiveAI.levels.take(1)
+                expectedLevels should contain(r.level)
+            }
+        }
+
+        it("should use all levels if the results are always imprecise") {
+            val results = adaptiveAI(project) { (m, r) ⇒ m } { _ ⇒ true }
+            results.statistics.foreach { s ⇒ s.analyzed should be > 0L }
+            val lastLevel = results.statistics.last
+            lastLevel.imprecise should be(lastLevel.analyzed - lastLevel.aborted)
+            results.results.values.count(_.level == adaptiveAI.levels.last) should be(
+                lastLevel.analyzed - lastLevel.aborted
+            )
+        }
+
+        it("should reuse the summaries of the methods called by the analyzed methods") {
+            val results = adaptiveAI(project) { (m, r) ⇒ m } { _ ⇒ true }
+            val summaries = results.calledMethodsSummaries
+            summaries.misses should be > 0L
+            summaries.hits should be > 0L
+            summaries.hitRate should be(
+                summaries.hits.toDouble / (summaries.hits + summaries.misses).toDouble
+            )
+        }
+    }
+}
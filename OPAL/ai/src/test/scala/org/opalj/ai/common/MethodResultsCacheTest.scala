@@ -0,0 +1,148 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+package common
+
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+import org.scalatest.FunSpec
+import org.scalatest.Matchers
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import com.typesafe.config.ConfigFactory
+
+import org.opalj.log.GlobalLogContext
+import org.opalj.bi.TestResources.locateTestResources
+import org.opalj.br.Method
+import org.opalj.br.analyses.Project
+
+/**
+ * Tests the [[MethodResultsCache]]s.
+ *
+ * @author agent
+ */
+@RunWith(classOf[JUnitRunner])
+class MethodResultsCacheTest extends FunSpec with Matchers {
+
+    implicit val logContext = GlobalLogContext
+
+    val project = Project(locateTestResources("classfiles/flashcards.jar", "ai"))
+
+    val methods: List[Method] = project.allMethodsWithBody.toList
+
+    def cache(
+        policy:      String,
+        maxEntries:  Long   = 0L,
+        maxCodeSize: Long   = 0L
+    )(
+        computation: Method ⇒ AnyRef
+    ): MethodResultsCache[AnyRef] = {
+        val config = ConfigFactory.parseString(
+            s"""cache { policy = "$policy", maxEntries = $maxEntries, maxCodeSize = $maxCodeSize }"""
+        )
+        MethodResultsCache(config, "cache")(computation)
+    }
+
+    describe("a MethodResultsCache") {
+
+        it("should reject unknown policies") {
+            an[IllegalArgumentException] should be thrownBy {
+                cache("LFU")(m ⇒ m.name)
+            }
+        }
+
+        for { policy ← List("Unbounded", "Bounded", "SoftReferences") } {
+            describe(s"using the policy $policy") {
+
+                it("should compute the result of a method only once when cached") {
+                    val computations = new AtomicInteger(0)
+                    val c = cache(policy, maxEntries = 1000000L) { m ⇒
+                        computations.incrementAndGet(); m.toJava
+                    }
+                    methods foreach { m ⇒ c(m) should be(m.toJava) }
+                    methods foreach { m ⇒ c(m) should be(m.toJava) }
+                    // soft references are only cleared if the memory is low...
+                    computations.get should be(methods.size)
+                    c.misses should be(methods.size)
+                    c.hits should be(methods.size)
+                }
+
+                it("should compute the result of a method only once if requested concurrently") {
+                    val computations = new AtomicInteger(0)
+                    val c = cache(policy, maxEntries = 1000000L) { m ⇒
+                        computations.incrementAndGet(); Thread.sleep(1); m.toJava
+                    }
+                    val ms = methods.take(50)
+                    (1 to 8).par foreach { _ ⇒ ms foreach { m ⇒ c(m) should be(m.toJava) } }
+                    computations.get should be(ms.size)
+                    c.hits + c.misses should be(ms.size * 8)
+                }
+
+                it("should rethrow the exception of a failed computation and then retry") {
+                    val m = methods.head
+                    val computations = new AtomicInteger(0)
+                    val c = cache(policy, maxEntries = 1000000L) { m ⇒
+                        if (computations.incrementAndGet() == 1)
+                            throw new UnsupportedOperationException()
+                        m.toJava
+                    }
+                    an[UnsupportedOperationException] should be thrownBy { c(m) }
+                    c(m) should be(m.toJava)
+                    computations.get should be(2)
+                }
+            }
+        }
+
+        describe("using the policy Bounded with small bounds") {
+
+            it("should evict results if the number of entries is exceeded") {
+                val c = cache("Bounded", maxEntries = 10L)(m ⇒ m.toJava)
+                methods foreach { m ⇒ c(m) }
+                c.size should be(10)
+                c.evictions should be(methods.size - 10)
+                c.misses should be(methods.size)
+            }
+
+            it("should evict results if the total code size is exceeded") {
+                val maxCodeSize = methods.map(_.body.get.codeSize).max.toLong
+                val c = cache("Bounded", maxCodeSize = maxCodeSize)(m ⇒ m.toJava)
+                methods foreach { m ⇒ c(m) }
+                c.size should be >= 1
+                c.evictions should be > 0L
+                c.evictions + c.size should be(methods.size)
+            }
+
+            it("should cache the results of methods without a body") {
+                val abstractMethods = project.allMethods.filter(_.body.isEmpty).toList
+                abstractMethods should not be (empty)
+                val c = cache("Bounded", maxCodeSize = 1L)(m ⇒ m.toJava)
+                abstractMethods foreach { m ⇒ c(m) should be(m.toJava) }
+                c.size should be(abstractMethods.size)
+                c.evictions should be(0L)
+            }
+
+            it("should keep recently used results") {
+                val c = cache("Bounded", maxEntries = 2L)(m ⇒ m.toJava)
+                val m1 :: m2 :: others = methods
+                c(m1); c(m2); c(m1)
+                c(others.head)
+                c(m1)
+                c.hits should be(2)
+                c.misses should be(3)
+            }
+        }
+
+        describe("using the policy None") {
+
+            it("should always compute the result") {
+                val computations = new AtomicInteger(0)
+                val c = cache("None") { m ⇒ computations.incrementAndGet(); m.toJava }
+                methods foreach { m ⇒ c(m); c(m) }
+                computations.get should be(methods.size * 2)
+                c.hits should be(0)
+                c.size should be(0)
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+package domain
+
+import java.io.File
+
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+import org.scalatest.FunSpec
+import org.scalatest.Matchers
+
+import org.opalj.bi.TestResources.locateTestResources
+import org.opalj.br.Method
+import org.opalj.br.analyses.Project
+import org.opalj.br.instructions.IINC
+import org.opalj.ai.domain.l1.DefaultDomainWithCFGAndDefUse
+import org.opalj.ai.domain.l1.DefaultDomainWithCFGAndSparseDefUse
+import org.opalj.tac.TACAI
+
+/**
+ * Tests that the sparse def/use information computed by [[RecordSparseDefUse]] is the same
+ * as the def/use information computed by [[RecordDefUse]].
+ *
+ * @author agent
+ */
+@RunWith(classOf[JUnitRunner])
+class RecordSparseDefUseTest extends FunSpec with Matchers {
+
+    val project = Project(
+        Array(
+            locateTestResources("classfiles/flashcards.jar", "ai"),
+            locateTestResources("classfiles/cornercases.jar", "ai")
+        ),
+        Array.empty[File]
+    )
+
+    type DefUseResult = AIResult { val domain: Domain with RecordDefUse }
+
+    def analyze(m: Method): (DefUseResult, DefUseResult) = {
+        val denseResult = BaseAI(m, new DefaultDomainWithCFGAndDefUse(project, m))
+        val sparseResult = BaseAI(m, new DefaultDomainWithCFGAndSparseDefUse(project, m))
+        (denseResult, sparseResult)
+    }
+
+    describe("the sparse def/use information") {
+
+        it("should be the same as the dense def/use information") {
+            project.allMethodsWithBody foreach { m ⇒
+                val (denseResult, sparseResult) = analyze(m)
+                val dense = denseResult.domain
+                val sparse = sparseResult.domain
+                val code = m.body.get
+                val handlerPCs = code.exceptionHandlers.map(_.handlerPC).toSet
+                def check(pc: Int, what: String, expected: Any, actual: Any): Unit = {
+                    if (expected != actual)
+                        fail(s"${m.toJava}: pc=$pc: $what: expected $expected; found $actual")
+                }
+
+                check(-1, "unused", dense.unused, sparse.unused)
+                (1 to m.actualArgumentsCount) foreach { p ⇒
+                    check(-p, "used by", dense.usedBy(-p), sparse.usedBy(-p))
+                }
+                code iterate { (pc, instruction) ⇒
+                    if (denseResult.wasEvaluated(pc)) {
+                        check(pc, "used by", dense.usedBy(pc), sparse.usedBy(pc))
+                        check(
+                            pc, "external exceptions used by",
+                            dense.safeExternalExceptionsUsedBy(pc),
+                            sparse.safeExternalExceptionsUsedBy(pc)
+                        )
+                        if (!instruction.isStackManagementInstruction &&
+                            !instruction.isStoreLocalVariableInstruction) {
+                            val usedOperands = instruction.numberOfPoppedOperands(NotRequired)
+                            (0 until usedOperands) foreach { i ⇒
+                                check(
+                                    pc, s"operand $i",
+                                    dense.operandOrigin(pc, i), sparse.operandOrigin(pc, i)
+                                )
+                            }
+                        }
+                        if (handlerPCs.contains(pc)) {
+                            check(
+                                pc, "caught exception",
+                                dense.operandOrigin(pc, 0), sparse.operandOrigin(pc, 0)
+                            )
+                        }
+                        instruction match {
+                            case IINC(index, _) ⇒
+                                check(
+                                    pc, s"register $index",
+                                    dense.localOrigin(pc, index), sparse.localOrigin(pc, index)
+                                )
+                            case _ ⇒
+                        }
+                    }
+                }
+            }
+        }
+
+        it("should result in the same three-address code") {
+            project.allMethodsWithBody foreach { m ⇒
+                val (denseResult, sparseResult) = analyze(m)
+                val expectedStmts = TACAI(m, project.classHierarchy, denseResult)(Nil).stmts
+                val stmts = TACAI(m, project.classHierarchy, sparseResult)(Nil).stmts
+                if (!(stmts.map(_.toString) sameElements expectedStmts.map(_.toString)))
+                    fail(s"${m.toJava}: the three-address code differs")
+            }
+        }
+
+        it("should reject queries for operands which are not used") {
+            var rejectedQueries = 0
+            project.allMethodsWithBody foreach { m ⇒
+                val (_, sparseResult) = analyze(m)
+                val sparse = sparseResult.domain
+                if (sparse.subroutineStartPCs.isEmpty) {
+                    val code = m.body.get
+                    code iterate { (pc, instruction) ⇒
+                        // (the origins of a caught exception are always available)
+                        if (instruction.isStoreLocalVariableInstruction &&
+                            sparseResult.wasEvaluated(pc) &&
+                            !code.exceptionHandlers.exists(_.handlerPC == pc)) {
+                            an[IllegalArgumentException] should be thrownBy {
+                                sparse.operandOrigin(pc, 0)
+                            }
+                            rejectedQueries += 1
+                        }
+                    }
+                }
+            }
+            rejectedQueries should be > 0
+        }
+    }
+}
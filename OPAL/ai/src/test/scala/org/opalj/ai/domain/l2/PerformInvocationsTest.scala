@@ -163,6 +163,66 @@ class PerformInvocationsTest extends FlatSpec with Matchers {
         domain.allReturnedValues.head should be((17, domain.IntegerRange(1)))
     }
 
+    it should ("be able to reuse the summaries of called methods") in {
+        val summaries = new CalledMethodsSummaries(PerformInvocationsTestFixture.project, 0L)
+        val method = StaticCalls.findMethod("aLongerCallChain").head
+        def analyze(): Unit = {
+            val domain = new LiSummariesInvocationDomain(project, method, summaries)
+            BaseAI(method, domain)
+            domain.returnedNormally should be(true)
+            domain.returnedValue(domain, -1).flatMap(domain.intValueOption(_)) should equal(Some(175))
+        }
+
+        analyze()
+        summaries.hits should be(0L)
+        val misses = summaries.misses
+        misses should be > 0L
+
+        analyze()
+        summaries.misses should be(misses)
+        summaries.hits should be > 0L
+    }
+
+    it should ("be able to share the summaries of called methods between concurrent analyses") in {
+        val summaries = new CalledMethodsSummaries(PerformInvocationsTestFixture.project, 0L)
+        val method = StaticCalls.findMethod("aLongerCallChain").head
+        def analyze(): Option[Int] = {
+            val domain = new LiSummariesInvocationDomain(project, method, summaries)
+            BaseAI(method, domain)
+            domain.returnedValue(domain, -1).flatMap(domain.intValueOption(_))
+        }
+
+        val results = new java.util.concurrent.ConcurrentLinkedQueue[Option[Int]]()
+        val threads = (1 to 4).map(_ ⇒ new Thread(() ⇒ results.add(analyze())))
+        threads.foreach(_.start())
+        threads.foreach(_.join())
+        results.toArray.toList should be(List.fill(4)(Some(175)))
+        val misses = summaries.misses
+        misses should be > 0L
+
+        analyze() should equal(Some(175))
+        summaries.misses should be(misses)
+        summaries.hits should be > 0L
+    }
+
+    it should ("be able to reuse the summaries of called methods that throw exceptions") in {
+        val summaries = new CalledMethodsSummaries(PerformInvocationsTestFixture.project, 0L)
+        val method = StaticCalls.findMethod("mayFail").head
+        for (_ ← 1 to 2) {
+            val domain = new LiSummariesInvocationDomain(project, method, summaries)
+            val result = BaseAI(method, domain)
+            domain.returnedNormally should be(true)
+
+            val exs = domain.thrownExceptions(result.domain, -1)
+            if (exs.size != 1) fail(exs.mkString("expected one exception: ", ", ", "."))
+            exs forall {
+                case domain.SObjectValue(ObjectType("java/lang/UnsupportedOperationException")) ⇒ true
+                case _ ⇒ false
+            } should be(true)
+        }
+        summaries.hits should be > 0L
+    }
+
 }
 
 object PerformInvocationsTestFixture {
@@ -248,6 +308,18 @@ object PerformInvocationsTestFixture {
         ): InvocationDomain = new LiInvocationDomain(project, method)
     }
 
+    class LiSummariesInvocationDomain(
+            project:                    Project[java.net.URL],
+            method:                     Method,
+            val calledMethodsSummaries: CalledMethodsSummaries
+    ) extends InvocationDomain(project, method) with LiDomain with PerformInvocationsWithSummaries {
+
+        protected[this] def createInvocationDomain(
+            project: Project[java.net.URL],
+            method:  Method
+        ): InvocationDomain = new LiSummariesInvocationDomain(project, method, calledMethodsSummaries)
+    }
+
     class L1InvocationDomain(project: Project[java.net.URL], method: Method)
         extends InvocationDomain(project, method) with L1Domain {
 
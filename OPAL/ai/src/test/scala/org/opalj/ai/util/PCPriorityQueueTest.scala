@@ -0,0 +1,72 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+package util
+
+import org.scalatest.Matchers
+import org.scalatest.FlatSpec
+import org.scalatest.junit.JUnitRunner
+import org.junit.runner.RunWith
+
+import org.opalj.collection.immutable.Chain
+
+/**
+ * Tests the [[PCPriorityQueue]].
+ *
+ * @author agent
+ */
+@RunWith(classOf[JUnitRunner])
+class PCPriorityQueueTest extends FlatSpec with Matchers {
+
+    // the priority of each pc is its value modulo 10
+    val priorities = Array.tabulate(100)(_ % 10)
+
+    behavior of "a PCPriorityQueue"
+
+    it should ("return the pcs ordered by their priority values") in {
+        val queue = new PCPriorityQueue(priorities)
+        List(1, 13, 5, 2, 24, 10, 99, 58) foreach queue.add
+        queue.drain() should be(Chain(10, 1, 2, 13, 24, 5, 58, 99))
+        queue.isEmpty should be(true)
+    }
+
+    it should ("contain each pc at most once") in {
+        val queue = new PCPriorityQueue(priorities)
+        queue.add(3) should be(true)
+        queue.add(7) should be(true)
+        queue.add(3) should be(false)
+        queue.contains(3) should be(true)
+        queue.poll() should be(3)
+        queue.contains(3) should be(false)
+        queue.add(3) should be(true)
+        queue.drain() should be(Chain(3, 7))
+    }
+
+    it should ("not return removed pcs") in {
+        val queue = new PCPriorityQueue(priorities)
+        List(1, 2, 3, 4) foreach queue.add
+        queue.remove(1)
+        queue.remove(4)
+        queue.remove(5) // not scheduled
+        queue.contains(1) should be(false)
+        queue.poll() should be(2)
+        queue.drain() should be(Chain(3))
+    }
+
+    it should ("return a pc that was removed and then rescheduled exactly once") in {
+        val queue = new PCPriorityQueue(priorities)
+        List(1, 2) foreach queue.add
+        queue.remove(1)
+        queue.add(1) should be(true)
+        queue.drain() should be(Chain(1, 2))
+        queue.nonEmpty should be(false)
+    }
+
+    it should ("grow if many pcs are scheduled") in {
+        val queue = new PCPriorityQueue(priorities)
+        (99 to 0 by -1) foreach queue.add
+        val pcs = queue.drain().toList
+        pcs.size should be(100)
+        pcs.map(priorities) should be(pcs.map(priorities).sorted)
+    }
+}
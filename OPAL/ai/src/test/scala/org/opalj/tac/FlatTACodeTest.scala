@@ -0,0 +1,104 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package tac
+
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+import org.scalatest.FunSpec
+import org.scalatest.Matchers
+
+import org.opalj.collection.immutable.IntTrieSet
+import org.opalj.value.KnownTypedValue
+import org.opalj.bi.TestResources.locateTestResources
+import org.opalj.br.analyses.Project
+
+/**
+ * Tests that the [[FlatTACode]] encodes the complete three-address code.
+ *
+ * @author agent
+ */
+@RunWith(classOf[JUnitRunner])
+class FlatTACodeTest extends FunSpec with Matchers {
+
+    for { projectName ← List("flashcards.jar", "cornercases.jar", "methodhandles.jar") } {
+        describe(s"the flat three-address code of the methods of $projectName") {
+
+            val project = Project(locateTestResources("classfiles/"+projectName, "ai"))
+
+            val codes = project.allMethodsWithBody.toList map { m ⇒
+                val code = TACAI(project, m)()
+                (m, code.asInstanceOf[TACode[TACMethodParameter, DUVar[KnownTypedValue]]])
+            }
+
+            it("should materialize the same statements") {
+                codes foreach { mc ⇒
+                    val (m, code) = mc
+                    val flatCode = FlatTACode(code)
+                    flatCode.stmtsCount should be(code.stmts.length)
+                    val materializedCode = flatCode.toTACode
+                    code.stmts.indices foreach { i ⇒
+                        val expected = code.stmts(i).toString
+                        if (materializedCode.stmts(i).toString != expected || flatCode.stmt(i).toString != expected)
+                            fail(s"${m.toJava}: $i: expected $expected; found ${flatCode.stmt(i)}")
+                    }
+                    materializedCode.pcToIndex should be(code.pcToIndex)
+                    materializedCode.cfg.toString should be(code.cfg.toString)
+                    materializedCode.cfg.code.instructions should be(materializedCode.stmts)
+                }
+            }
+
+            it("should provide the def-use information using a cursor") {
+                codes foreach { mc ⇒
+                    val (m, code) = mc
+                    val flatCode = FlatTACode(code)
+                    val cursor = flatCode.cursor()
+
+                    var stmtsCount = 0
+                    while (cursor.nextStmt()) {
+                        val stmt = code.stmts(cursor.stmt)
+                        cursor.isStmt should be(true)
+                        cursor.astID should be(stmt.astID)
+                        cursor.pc should be(stmt.pc)
+                        stmt match {
+                            case Assignment(_, targetVar, _) ⇒
+                                cursor.next() should be(true)
+                                cursor.isDVar should be(true)
+                                cursor.value should be theSameInstanceAs (targetVar.value)
+                                sites(cursor) should be(targetVar.usedBy)
+                            case _ ⇒
+                        }
+                        stmtsCount += 1
+                    }
+                    stmtsCount should be(code.stmts.length)
+
+                    var uses = List.empty[IntTrieSet]
+                    def collectUses(e: Expr[DUVar[KnownTypedValue]]): Boolean = {
+                        if (e.isVar)
+                            uses ::= e.asVar.definedBy
+                        else
+                            (0 until e.subExprCount) foreach { i ⇒ collectUses(e.subExpr(i)) }
+                        true
+                    }
+                    code.stmts foreach { stmt ⇒ stmt.forallSubExpressions(collectUses) }
+                    var flatUses = List.empty[IntTrieSet]
+                    cursor.moveTo(0)
+                    while (cursor.next()) {
+                        if (cursor.isUVar) flatUses ::= sites(cursor)
+                    }
+                    if (flatUses != uses)
+                        fail(s"${m.toJava}: expected the uses $uses; found $flatUses")
+                }
+            }
+        }
+    }
+
+    def sites(cursor: FlatTACode#Cursor): IntTrieSet = {
+        var sites = IntTrieSet.empty
+        var i = 0
+        while (i < cursor.sitesCount) {
+            sites += cursor.site(i)
+            i += 1
+        }
+        sites
+    }
+}
@@ -0,0 +1,117 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package tac
+
+import java.nio.file.Files
+
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+import org.scalatest.FunSpec
+import org.scalatest.Matchers
+
+import com.typesafe.config.ConfigFactory
+
+import org.opalj.log.GlobalLogContext
+import org.opalj.value.KnownTypedValue
+import org.opalj.bi.TestResources.locateTestResources
+import org.opalj.br.analyses.Project
+
+/**
+ * Tests that the three-address code is correctly persisted and reused across projects.
+ *
+ * @author agent
+ */
+@RunWith(classOf[JUnitRunner])
+class PersistentTACAIKeyTest extends FunSpec with Matchers {
+
+    private[this] val directory = Files.createTempDirectory("opal-tacode-test")
+
+    private[this] val config = ConfigFactory.parseString(
+        s"""org.opalj.tac.PersistentTACAIKey.directory = "${directory.toString.replace('\\', '/')}""""
+    ).withFallback(ConfigFactory.load())
+
+    private[this] val classFiles = locateTestResources("classfiles/flashcards.jar", "ai")
+
+    private[this] def project = Project(classFiles, GlobalLogContext, config)
+
+    describe("the PersistentTACAIKey") {
+
+        val project1 = project
+        val persistentCodes = project1.get(PersistentTACAIKey)
+        val codes1 = project1.allMethodsWithBody.toList.map(m ⇒ (m, persistentCodes(m)))
+        val store = TACodeStore(directory)
+
+        it("should compute the same code as the DefaultTACAIKey (except of the values)") {
+            val tacs = project1.get(DefaultTACAIKey)
+            codes1 foreach { mc ⇒
+                val (m, code) = mc
+                val expectedCode = tacs(m)
+                code.stmts.length should be(expectedCode.stmts.length)
+                code.stmts.indices foreach { i ⇒
+                    val stmt = code.stmts(i)
+                    val expectedStmt = expectedCode.stmts(i)
+                    stmt.astID should be(expectedStmt.astID)
+                    stmt.pc should be(expectedStmt.pc)
+                    stmt match {
+                        case Assignment(_, v: DVar[_], _) ⇒
+                            val expectedValue = expectedStmt.asAssignment.targetVar.value
+                            val value = v.value.asInstanceOf[KnownTypedValue]
+                            value.computationalType should be(expectedValue.computationalType)
+                            if (value.isReferenceValue) {
+                                val expectedRefValue = expectedValue.asReferenceValue
+                                value.asReferenceValue.upperTypeBound should be(expectedRefValue.upperTypeBound)
+                                value.asReferenceValue.isNull should be(expectedRefValue.isNull)
+                                value.asReferenceValue.isPrecise should be(expectedRefValue.isPrecise)
+                            }
+                        case _ ⇒
+                    }
+                }
+                code.pcToIndex should be(expectedCode.pcToIndex)
+                code.cfg.toString should be(expectedCode.cfg.toString)
+                code.exceptionHandlers should be(expectedCode.exceptionHandlers)
+                code.lineNumberTable should be(expectedCode.lineNumberTable)
+            }
+        }
+
+        it("should load the persisted code when the same project is analyzed again") {
+            val appends = store.appends
+            val hits = store.hits
+            appends should be > 0L
+
+            val project2 = project
+            val persistentCodes2 = project2.get(PersistentTACAIKey)
+            val codes2 = project2.allMethodsWithBody.toList.map(m ⇒ (m, persistentCodes2(m)))
+            store.appends should be(appends)
+            store.hits - hits should be(appends)
+
+            val loadedCodes = codes2.map(mc ⇒ (mc._1.toJava, mc._2)).toMap
+            codes1 foreach { mc ⇒
+                val (m, code) = mc
+                val loadedCode = loadedCodes(m.toJava)
+                if (code.stmts.map(_.toString).toList != loadedCode.stmts.map(_.toString).toList)
+                    fail(s"${m.toJava}: the loaded code differs from the computed code")
+            }
+        }
+    }
+
+    describe("the TACodeStore") {
+
+        it("should return the entries which were appended after the file was mapped") {
+            val store = TACodeStore(Files.createTempDirectory("opal-tacode-store-test"))
+            def hash(i: Int): Array[Byte] = {
+                val hash = new Array[Byte](TACodeStore.HashLength)
+                java.nio.ByteBuffer.wrap(hash).putInt(i)
+                hash
+            }
+            def payload(i: Int): Array[Byte] = Array.fill(i % 100)(i.toByte)
+
+            (0 until 1000) foreach { i ⇒
+                store.put(hash(i), payload(i)) should be(true)
+                store.get(hash(i)) should be(payload(i))
+            }
+            store.put(hash(0), payload(0)) should be(false)
+            (0 until 1000) foreach { i ⇒ store.get(hash(i)) should be(payload(i)) }
+            store.size should be(1000)
+        }
+    }
+}
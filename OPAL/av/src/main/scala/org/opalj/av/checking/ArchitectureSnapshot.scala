@@ -0,0 +1,455 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package av
+package checking
+
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.FileInputStream
+import java.io.FileOutputStream
+import java.io.IOException
+import java.net.URL
+import java.nio.ByteBuffer
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption.ATOMIC_MOVE
+import java.nio.file.StandardCopyOption.REPLACE_EXISTING
+import java.security.DigestInputStream
+import java.security.MessageDigest
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+
+import scala.util.control.NonFatal
+import scala.collection.{Set ⇒ ASet}
+import scala.collection.mutable.ArrayBuffer
+import scala.collection.mutable.LinkedHashMap
+
+import org.opalj.io.process
+import org.opalj.br._
+import org.opalj.br.analyses.SomeProject
+import org.opalj.de.DependencyType
+import org.opalj.de.DependencyTypes
+import org.opalj.de.DependencyTypesBitSet
+import org.opalj.de.DependencyProcessor
+import org.opalj.de.DependencyProcessorDecorator
+
+/**
+ * The results of an architecture check which are persisted between two runs to make it
+ * possible to re-validate the architecture incrementally (see
+ * [[Specification.analyze(snapshotFile:java\.io\.File)*]]).
+ *
+ * @param classes The dependencies of each class file (identified by the fully qualified
+ *        name of the class type) and the fingerprint of the class file.
+ * @param ensembles The fingerprints of the ensembles' extents.
+ * @param violations The violations found by each architecture checker (identified by its
+ *        textual representation).
+ *
+ * @author agent
+ */
+private[checking] class ArchitectureSnapshot(
+        val classes:    Map[String, ClassDependencies],
+        val ensembles:  Map[String, Array[Byte]],
+        val violations: Map[String, Seq[ViolationRecord]]
+)
+
+private[checking] object ArchitectureSnapshot {
+
+    final val Magic = 0x4F504156 // "OPAV"
+
+    final val Version = 2
+
+    final val NoFingerprint = new Array[Byte](0)
+
+    /**
+     * Computes the fingerprint of the class file stored at the given location.
+     *
+     * @return The fingerprint or `None` if the class file cannot be read.
+     */
+    def fingerprint(url: URL): Option[Array[Byte]] = {
+        try {
+            val digest = MessageDigest.getInstance("SHA-256")
+            process(new DigestInputStream(url.openStream(), digest)) { in ⇒
+                val buffer = new Array[Byte](8192)
+                while (in.read(buffer) != -1) { /* the digest is updated while reading */ }
+            }
+            Some(digest.digest())
+        } catch {
+            case _: IOException ⇒ None
+        }
+    }
+
+    /**
+     * Computes the fingerprint of the extent of an ensemble.
+     *
+     * Each key is prefixed by its length; otherwise, e.g., the extents {"ab","c"} and
+     * {"a","bc"} would have the same fingerprint.
+     */
+    def fingerprint(extent: ASet[VirtualSourceElement]): Array[Byte] = {
+        val digest = MessageDigest.getInstance("SHA-256")
+        val length = ByteBuffer.allocate(4)
+        extent.toSeq.map(key).sorted foreach { key ⇒
+            val bytes = key.getBytes("UTF-8")
+            length.clear()
+            digest.update(length.putInt(bytes.length).array())
+            digest.update(bytes)
+        }
+        digest.digest()
+    }
+
+    private[this] def typeName(rt: ReferenceType): String = {
+        if (rt.isObjectType) rt.asObjectType.fqn else rt.toJVMTypeName
+    }
+
+    private[this] def key(vse: VirtualSourceElement): String = vse match {
+        case VirtualClass(ot) ⇒
+            "C "+ot.fqn+"\n"
+        case VirtualField(ot, name, fieldType) ⇒
+            "F "+ot.fqn+" "+name+" "+fieldType.toJVMTypeName+"\n"
+        case VirtualMethod(rt, name, descriptor) ⇒
+            "M "+typeName(rt)+" "+name+" "+descriptor.toJVMDescriptor+"\n"
+    }
+
+    private[this] def writeElement(out: DataOutputStream, element: AnyRef): Unit = element match {
+        case VirtualClass(ot) ⇒
+            out.writeByte(0)
+            out.writeUTF(ot.fqn)
+        case VirtualField(ot, name, fieldType) ⇒
+            out.writeByte(1)
+            out.writeUTF(ot.fqn)
+            out.writeUTF(name)
+            out.writeUTF(fieldType.toJVMTypeName)
+        case VirtualMethod(rt, name, descriptor) ⇒
+            out.writeByte(2)
+            out.writeUTF(typeName(rt))
+            out.writeUTF(name)
+            out.writeUTF(descriptor.toJVMDescriptor)
+        case t: FieldType ⇒ // an array type or a base type
+            out.writeByte(3)
+            out.writeUTF(t.toJVMTypeName)
+    }
+
+    private[this] def readElement(in: DataInputStream): AnyRef = {
+        in.readByte() match {
+            case 0 ⇒ VirtualClass(ObjectType(in.readUTF()))
+            case 1 ⇒ VirtualField(ObjectType(in.readUTF()), in.readUTF(), FieldType(in.readUTF()))
+            case 2 ⇒ VirtualMethod(ReferenceType(in.readUTF()), in.readUTF(), MethodDescriptor(in.readUTF()))
+            case 3 ⇒ FieldType(in.readUTF())
+            case t ⇒ throw new IOException("unknown tag: "+t)
+        }
+    }
+
+    private[this] def readSourceElement(in: DataInputStream): VirtualSourceElement = {
+        readElement(in) match {
+            case vse: VirtualSourceElement ⇒ vse
+            case t                         ⇒ throw new IOException("unexpected type: "+t)
+        }
+    }
+
+    private[this] def writeBytes(out: DataOutputStream, bytes: Array[Byte]): Unit = {
+        out.writeShort(bytes.length)
+        out.write(bytes)
+    }
+
+    private[this] def readBytes(in: DataInputStream): Array[Byte] = {
+        val bytes = new Array[Byte](in.readUnsignedShort())
+        in.readFully(bytes)
+        bytes
+    }
+
+    /**
+     * Writes the snapshot to the given file. The file is replaced atomically; i.e., a
+     * concurrent reader either reads the old or the new snapshot.
+     *
+     * The source elements and types are stored once in a table and are referred to
+     * using their index.
+     */
+    def write(snapshot: ArchitectureSnapshot, file: File): Unit = {
+        val tmpFile = File.createTempFile(file.getName, ".tmp", file.getAbsoluteFile.getParentFile)
+        try {
+            val out = new DataOutputStream(
+                new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(tmpFile)))
+            )
+            process(out) { out ⇒
+                out.writeInt(Magic)
+                out.writeInt(Version)
+
+                val elements = LinkedHashMap.empty[AnyRef, Int]
+                def index(element: AnyRef): Int = elements.getOrElseUpdate(element, elements.size)
+                snapshot.classes.valuesIterator foreach { classDependencies ⇒
+                    classDependencies.sources foreach index
+                    classDependencies.targets foreach index
+                }
+                out.writeInt(elements.size)
+                elements.keysIterator foreach { element ⇒ writeElement(out, element) }
+
+                out.writeInt(snapshot.classes.size)
+                snapshot.classes foreach { e ⇒
+                    val (fqn, classDependencies) = e
+                    out.writeUTF(fqn)
+                    writeBytes(out, classDependencies.fingerprint)
+                    out.writeInt(classDependencies.size)
+                    var i = 0
+                    while (i < classDependencies.size) {
+                        out.writeInt(elements(classDependencies.sources(i)))
+                        out.writeInt(elements(classDependencies.targets(i)))
+                        out.writeLong(classDependencies.dependencyTypes(i))
+                        i += 1
+                    }
+                }
+
+                out.writeInt(snapshot.ensembles.size)
+                snapshot.ensembles foreach { e ⇒
+                    val (ensemble, fingerprint) = e
+                    out.writeUTF(ensemble)
+                    writeBytes(out, fingerprint)
+                }
+
+                out.writeInt(snapshot.violations.size)
+                snapshot.violations foreach { e ⇒
+                    val (checker, violations) = e
+                    out.writeUTF(checker)
+                    out.writeInt(violations.size)
+                    violations foreach { violation ⇒
+                        writeElement(out, violation.source)
+                        if (violation.target eq null) {
+                            out.writeBoolean(false)
+                            out.writeUTF(violation.propertyType)
+                        } else {
+                            out.writeBoolean(true)
+                            writeElement(out, violation.target)
+                            out.writeByte(violation.dependencyType.id)
+                        }
+                        out.writeUTF(violation.description)
+                    }
+                }
+            }
+            Files.move(tmpFile.toPath, file.toPath, REPLACE_EXISTING, ATOMIC_MOVE)
+        } finally {
+            tmpFile.delete()
+        }
+    }
+
+    /**
+     * Reads the snapshot stored in the given file.
+     *
+     * @throws IOException If the file cannot be read, was written by an incompatible
+     *         version or is corrupt.
+     */
+    @throws[IOException]
+    def read(file: File): ArchitectureSnapshot = {
+        val in = new DataInputStream(
+            new BufferedInputStream(new GZIPInputStream(new FileInputStream(file)))
+        )
+        process(in) { in ⇒
+            if (in.readInt() != Magic || in.readInt() != Version)
+                throw new IOException("unsupported architecture snapshot: "+file)
+
+            try {
+                readSnapshot(in)
+            } catch {
+                case e: IOException ⇒ throw e
+                case NonFatal(e)    ⇒ throw new IOException("corrupt architecture snapshot: "+file, e)
+            }
+        }
+    }
+
+    private[this] def readSnapshot(in: DataInputStream): ArchitectureSnapshot = {
+        val elements = new Array[AnyRef](in.readInt())
+        var e = 0
+        while (e < elements.length) {
+            elements(e) = readElement(in)
+            e += 1
+        }
+
+        val classes = Map.newBuilder[String, ClassDependencies]
+        var classesCount = in.readInt()
+        while (classesCount > 0) {
+            val fqn = in.readUTF()
+            val fingerprint = readBytes(in)
+            val size = in.readInt()
+            val sources = new Array[VirtualSourceElement](size)
+            val targets = new Array[AnyRef](size)
+            val dependencyTypes = new Array[DependencyTypesBitSet](size)
+            var i = 0
+            while (i < size) {
+                sources(i) = elements(in.readInt()).asInstanceOf[VirtualSourceElement]
+                targets(i) = elements(in.readInt())
+                dependencyTypes(i) = in.readLong()
+                i += 1
+            }
+            classes += ((fqn, new ClassDependencies(fingerprint, sources, targets, dependencyTypes)))
+            classesCount -= 1
+        }
+
+        val ensembles = Map.newBuilder[String, Array[Byte]]
+        var ensemblesCount = in.readInt()
+        while (ensemblesCount > 0) {
+            ensembles += ((in.readUTF(), readBytes(in)))
+            ensemblesCount -= 1
+        }
+
+        val violations = Map.newBuilder[String, Seq[ViolationRecord]]
+        var checkersCount = in.readInt()
+        while (checkersCount > 0) {
+            val checker = in.readUTF()
+            val records = (1 to in.readInt()) map { _ ⇒
+                val source = readSourceElement(in)
+                if (in.readBoolean()) {
+                    val target = readSourceElement(in)
+                    val dependencyType = DependencyTypes(in.readByte().toInt)
+                    ViolationRecord(source, target, dependencyType, null, in.readUTF())
+                } else {
+                    val propertyType = in.readUTF()
+                    ViolationRecord(source, null, null, propertyType, in.readUTF())
+                }
+            }
+            violations += ((checker, records))
+            checkersCount -= 1
+        }
+
+        new ArchitectureSnapshot(classes.result(), ensembles.result(), violations.result())
+    }
+}
+
+/**
+ * The dependencies of the source elements of a single class file. A target is either a
+ * [[org.opalj.br.VirtualSourceElement]], an [[org.opalj.br.ArrayType]] or a
+ * [[org.opalj.br.BaseType]]; each pair of a source and a target is stored once.
+ *
+ * @author agent
+ */
+private[checking] final class ClassDependencies(
+        val fingerprint:     Array[Byte],
+        val sources:         Array[VirtualSourceElement],
+        val targets:         Array[AnyRef],
+        val dependencyTypes: Array[DependencyTypesBitSet]
+) {
+
+    def size: Int = sources.length
+
+    /**
+     * Passes all dependencies to the given dependency processor.
+     */
+    def replay(dependencyProcessor: DependencyProcessor): Unit = {
+        var i = 0
+        while (i < size) {
+            val source = sources(i)
+            val target = targets(i)
+            DependencyTypes.toSet(dependencyTypes(i)) foreach { dType ⇒
+                target match {
+                    case target: VirtualSourceElement ⇒
+                        dependencyProcessor.processDependency(source, target, dType)
+                    case arrayType: ArrayType ⇒
+                        dependencyProcessor.processDependency(source, arrayType, dType)
+                    case baseType: BaseType ⇒
+                        dependencyProcessor.processDependency(source, baseType, dType)
+                }
+            }
+            i += 1
+        }
+    }
+
+    /**
+     * The dependencies between source elements.
+     */
+    def dependencies: Set[(VirtualSourceElement, VirtualSourceElement, DependencyTypesBitSet)] = {
+        (0 until size).iterator.collect {
+            case i if targets(i).isInstanceOf[VirtualSourceElement] ⇒
+                (sources(i), targets(i).asInstanceOf[VirtualSourceElement], dependencyTypes(i))
+        }.toSet
+    }
+}
+
+/**
+ * Records the dependencies of a single class file while passing them on to the given
+ * dependency processor.
+ *
+ * @author agent
+ */
+private[checking] class ClassDependenciesRecorder(
+        dependencyProcessor: DependencyProcessor
+) extends DependencyProcessorDecorator(dependencyProcessor) {
+
+    private[this] val dependencies = LinkedHashMap.empty[(VirtualSourceElement, AnyRef), DependencyTypesBitSet]
+
+    private[this] def record(source: VirtualSourceElement, target: AnyRef, dType: DependencyType): Unit = {
+        val key = (source, target)
+        dependencies.update(key, dependencies.getOrElse(key, 0L) | DependencyTypes.bitMask(dType))
+    }
+
+    override def processDependency(
+        source: VirtualSourceElement,
+        target: VirtualSourceElement,
+        dType:  DependencyType
+    ): Unit = {
+        record(source, target, dType)
+        super.processDependency(source, target, dType)
+    }
+
+    override def processDependency(
+        source:    VirtualSourceElement,
+        arrayType: ArrayType,
+        dType:     DependencyType
+    ): Unit = {
+        record(source, arrayType, dType)
+        super.processDependency(source, arrayType, dType)
+    }
+
+    override def processDependency(
+        source:   VirtualSourceElement,
+        baseType: BaseType,
+        dType:    DependencyType
+    ): Unit = {
+        record(source, baseType, dType)
+        super.processDependency(source, baseType, dType)
+    }
+
+    def classDependencies(fingerprint: Array[Byte]): ClassDependencies = {
+        val sources = new ArrayBuffer[VirtualSourceElement](dependencies.size)
+        val targets = new ArrayBuffer[AnyRef](dependencies.size)
+        val dependencyTypes = new ArrayBuffer[DependencyTypesBitSet](dependencies.size)
+        dependencies foreach { e ⇒
+            val ((source, target), dTypes) = e
+            sources += source
+            targets += target
+            dependencyTypes += dTypes
+        }
+        new ClassDependencies(fingerprint, sources.toArray, targets.toArray, dependencyTypes.toArray)
+    }
+}
+
+/**
+ * The persisted representation of a [[SpecificationViolation]]. In case of a
+ * [[PropertyViolation]] the `target` and the `dependencyType` are `null`.
+ *
+ * @author agent
+ */
+private[checking] case class ViolationRecord(
+        source:         VirtualSourceElement,
+        target:         VirtualSourceElement,
+        dependencyType: DependencyType,
+        propertyType:   String,
+        description:    String
+) {
+
+    def toViolation(project: SomeProject, checker: ArchitectureChecker): SpecificationViolation = {
+        checker match {
+            case dc: DependencyChecker ⇒
+                DependencyViolation(project, dc, source, target, dependencyType, description)
+            case pc: PropertyChecker ⇒
+                PropertyViolation(project, pc, source, propertyType, description)
+        }
+    }
+}
+
+private[checking] object ViolationRecord {
+
+    def apply(violation: SpecificationViolation): ViolationRecord = violation match {
+        case DependencyViolation(_, _, source, target, dependencyType, description) ⇒
+            ViolationRecord(source, target, dependencyType, null, description)
+        case PropertyViolation(_, _, source, propertyType, description) ⇒
+            ViolationRecord(source, null, null, propertyType, description)
+    }
+}
@@ -0,0 +1,258 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package av
+package checking
+
+import java.lang.Long.numberOfTrailingZeros
+
+import scala.collection.{Map ⇒ AMap, Set ⇒ ASet}
+import scala.collection.mutable.OpenHashMap
+import scala.collection.mutable.HashSet
+
+import org.opalj.br.VirtualSourceElement
+import org.opalj.de.DependencyType
+import org.opalj.de.DependencyTypes
+import org.opalj.de.DependencyTypesBitSet
+import org.opalj.de.DependencyGraph
+
+/**
+ * An index of the ensembles' extents and of the dependencies between the ensembles
+ * which is used to evaluate the dependency constraints of a [[Specification]].
+ *
+ * The source elements are identified using the dense ids assigned by the
+ * [[org.opalj.de.DependencyGraph]]. The extent of each ensemble is stored as a bit set
+ * over these ids and the dependencies between the source elements are aggregated into
+ * an ensemble-by-ensemble matrix, which stores for each pair of ensembles the kinds of
+ * the dependencies (as a [[org.opalj.de.DependencyTypesBitSet]]) between their elements.
+ * Source elements which do not belong to any ensemble are put in the pseudo-ensemble
+ * [[unmatched]].
+ *
+ * Hence, whether a constraint is violated can be decided using the matrix only;
+ * the dependencies between the source elements only have to be traversed to determine the
+ * concrete violations.
+ *
+ * ==Thread Safety==
+ * This class is thread-safe.
+ *
+ * @author agent
+ */
+private[checking] final class EnsembleIndex private (
+        val graph:                     DependencyGraph,
+        private[this] val ensembleIds: AMap[Symbol, Int],
+        private[this] val extents:     Array[Array[Long]],
+        private[this] val matrix:      Array[DependencyTypesBitSet]
+) {
+
+    import EnsembleIndex._
+
+    /** The number of ensembles (including the pseudo-ensemble of the unmatched elements). */
+    val ensemblesCount: Int = extents.length
+
+    /** The id of the pseudo-ensemble of the source elements which belong to no ensemble. */
+    def unmatched: Int = ensemblesCount - 1
+
+    /**
+     * Returns the ids of the given ensembles as a bit set.
+     *
+     * @throws SpecificationError If an ensemble is unknown.
+     */
+    def ensembles(ensembles: Seq[Symbol]): Array[Long] = {
+        val unknownEnsembles = ensembles.filterNot(ensembleIds.contains)
+        if (unknownEnsembles.nonEmpty)
+            throw SpecificationError(unknownEnsembles.mkString("unknown ensemble(s): ", ",", ""))
+
+        val set = newBitSet(ensemblesCount)
+        ensembles foreach { ensemble ⇒ add(set, ensembleIds(ensemble)) }
+        set
+    }
+
+    /**
+     * Returns the set of all ensembles that are not in the given set.
+     *
+     * @param withUnmatched If `true` the pseudo-ensemble of the unmatched source elements
+     *        is also included.
+     */
+    def complement(ensembles: Array[Long], withUnmatched: Boolean): Array[Long] = {
+        val set = newBitSet(ensemblesCount)
+        var e = 0
+        while (e < ensemblesCount) {
+            if (!contains(ensembles, e) && (withUnmatched || e != unmatched)) add(set, e)
+            e += 1
+        }
+        set
+    }
+
+    /**
+     * Returns the ids of the source elements belonging to any of the given ensembles.
+     */
+    def extent(ensembles: Array[Long]): Array[Long] = {
+        val set = newBitSet(graph.sourceElementsCount)
+        foreach(ensembles) { e ⇒
+            val extent = extents(e)
+            var i = 0
+            while (i < set.length) { set(i) |= extent(i); i += 1 }
+        }
+        set
+    }
+
+    /**
+     * Returns the ids of the source elements belonging to any of the given ensembles but
+     * not to any of the excluded ensembles.
+     */
+    def extent(ensembles: Array[Long], excludedEnsembles: Array[Long]): Array[Long] = {
+        val set = extent(ensembles)
+        foreach(excludedEnsembles) { e ⇒
+            val extent = extents(e)
+            var i = 0
+            while (i < set.length) { set(i) &= ~extent(i); i += 1 }
+        }
+        set
+    }
+
+    /**
+     * Returns the kinds of the dependencies between the elements of the source and the
+     * target ensembles.
+     */
+    def dependencyTypes(
+        sourceEnsembles: Array[Long],
+        targetEnsembles: Array[Long]
+    ): DependencyTypesBitSet = {
+        var dependencyTypes = 0L
+        foreach(sourceEnsembles) { s ⇒
+            foreach(targetEnsembles) { t ⇒ dependencyTypes |= matrix(s * ensemblesCount + t) }
+        }
+        dependencyTypes
+    }
+
+    /**
+     * Calls the given function for each dependency of the given kinds between a source
+     * element in `sources` and a target element in `targets`.
+     */
+    def foreachDependency[U](
+        sources:         Array[Long],
+        targets:         Array[Long],
+        dependencyTypes: DependencyTypesBitSet
+    )(
+        f: (VirtualSourceElement, VirtualSourceElement, DependencyType) ⇒ U
+    ): Unit = {
+        foreach(sources) { sourceId ⇒
+            graph.foreachDependency(sourceId) { (targetId, dTypes) ⇒
+                if (contains(targets, targetId)) {
+                    var currentDTypes = dTypes & dependencyTypes
+                    while (currentDTypes != 0L) {
+                        val dType = DependencyTypes(numberOfTrailingZeros(currentDTypes))
+                        f(graph.sourceElement(sourceId), graph.sourceElement(targetId), dType)
+                        currentDTypes &= currentDTypes - 1L
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The number of source elements which are the source or the target of a dependency,
+     * but which do not belong to any ensemble.
+     */
+    def unmatchedSourceElementsCount: Int = {
+        (0 /: extents(unmatched))((count, bits) ⇒ count + java.lang.Long.bitCount(bits))
+    }
+
+    /**
+     * Mapping between a source element and those source elements that depend on it.
+     */
+    lazy val incomingDependencies: AMap[VirtualSourceElement, ASet[(VirtualSourceElement, DependencyType)]] = {
+        val incomingDependencies =
+            OpenHashMap.empty[VirtualSourceElement, HashSet[(VirtualSourceElement, DependencyType)]]
+        var sourceId = 0
+        while (sourceId < graph.sourceElementsCount) {
+            val source = graph.sourceElement(sourceId)
+            graph.foreachDependency(sourceId) { (targetId, dTypes) ⇒
+                val sources = incomingDependencies.getOrElseUpdate(
+                    graph.sourceElement(targetId),
+                    HashSet.empty
+                )
+                DependencyTypes.toSet(dTypes) foreach { dType ⇒ sources += ((source, dType)) }
+            }
+            sourceId += 1
+        }
+        incomingDependencies
+    }
+}
+
+private[checking] object EnsembleIndex {
+
+    /**
+     * Creates the index for the given ensembles and their extents.
+     */
+    def apply(
+        graph:     DependencyGraph,
+        ensembles: AMap[Symbol, ASet[VirtualSourceElement]]
+    ): EnsembleIndex = {
+        val sourceElementsCount = graph.sourceElementsCount
+        val ensemblesCount = ensembles.size + 1 // + the pseudo-ensemble of unmatched elements
+        val unmatched = ensemblesCount - 1
+
+        val ensembleIds = ensembles.keys.zipWithIndex.toMap
+        val extents = Array.fill(ensemblesCount)(newBitSet(sourceElementsCount))
+        // the ensembles each source element belongs to
+        val memberships = new Array[List[Int]](sourceElementsCount)
+        for {
+            (ensemble, extent) ← ensembles
+            ensembleId = ensembleIds(ensemble)
+            sourceElement ← extent
+        } {
+            val id = graph.id(sourceElement)
+            if (id >= 0 && !contains(extents(ensembleId), id)) {
+                add(extents(ensembleId), id)
+                memberships(id) = if (memberships(id) eq null) List(ensembleId) else ensembleId :: memberships(id)
+            }
+        }
+        val unmatchedMemberships = List(unmatched)
+        var id = 0
+        while (id < sourceElementsCount) {
+            if (memberships(id) eq null) {
+                add(extents(unmatched), id)
+                memberships(id) = unmatchedMemberships
+            }
+            id += 1
+        }
+
+        val matrix = new Array[DependencyTypesBitSet](ensemblesCount * ensemblesCount)
+        var sourceId = 0
+        while (sourceId < sourceElementsCount) {
+            val sourceEnsembles = memberships(sourceId)
+            graph.foreachDependency(sourceId) { (targetId, dTypes) ⇒
+                val targetEnsembles = memberships(targetId)
+                sourceEnsembles foreach { s ⇒
+                    val row = s * ensemblesCount
+                    targetEnsembles foreach { t ⇒ matrix(row + t) |= dTypes }
+                }
+            }
+            sourceId += 1
+        }
+
+        new EnsembleIndex(graph, ensembleIds, extents, matrix)
+    }
+
+    def dependencyTypes(dependencyTypes: Set[DependencyType]): DependencyTypesBitSet = {
+        (0L /: dependencyTypes)((set, dType) ⇒ set | DependencyTypes.bitMask(dType))
+    }
+
+    private def newBitSet(size: Int): Array[Long] = new Array[Long]((size + 63) >>> 6)
+
+    private def add(set: Array[Long], i: Int): Unit = set(i >>> 6) |= 1L << i
+
+    def contains(set: Array[Long], i: Int): Boolean = (set(i >>> 6) & (1L << i)) != 0L
+
+    private def foreach[U](set: Array[Long])(f: Int ⇒ U): Unit = {
+        var word = 0
+        while (word < set.length) {
+            var bits = set(word)
+            while (bits != 0L) {
+                f((word << 6) + numberOfTrailingZeros(bits))
+                bits &= bits - 1L
+            }
+            word += 1
+        }
+    }
+}
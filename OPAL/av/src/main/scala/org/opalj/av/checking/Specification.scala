@@ -4,8 +4,14 @@ package av
 package checking
 
 import scala.language.implicitConversions
+import java.io.File
 import java.net.URL
+import java.util.Arrays
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import scala.collection.JavaConverters._
 import scala.util.matching.Regex
+import scala.util.control.NonFatal
 import scala.collection.{Map ⇒ AMap, Set ⇒ ASet}
 import scala.collection.mutable.{Map ⇒ MutableMap, HashSet}
 import scala.Console.{GREEN, RED, RESET}
@@ -112,8 +118,8 @@ class Specification(val project: Project[URL], val useAnsiColors: Boolean) { spe
         theEnsembles
 
     // calculated after all class files have been loaded
-    private[this] var theOutgoingDependencies: MutableMap[VirtualSourceElement, AMap[VirtualSourceElement, DependencyTypesSet]] =
-        scala.collection.mutable.OpenHashMap.empty
+    private[this] var theOutgoingDependencies: AMap[VirtualSourceElement, AMap[VirtualSourceElement, DependencyTypesSet]] =
+        AMap.empty
 
     /**
      * Mapping between a source element and those source elements it depends on/uses.
@@ -123,24 +129,18 @@ class Specification(val project: Project[URL], val useAnsiColors: Boolean) { spe
     def outgoingDependencies: AMap[VirtualSourceElement, AMap[VirtualSourceElement, DependencyTypesSet]] =
         theOutgoingDependencies
 
-    // calculated after all class files have been loaded
-    private[this] var theIncomingDependencies: MutableMap[VirtualSourceElement, ASet[(VirtualSourceElement, DependencyType)]] = {
-        scala.collection.mutable.OpenHashMap.empty
-    }
-
     /**
      * Mapping between a source element and those source elements that depend on it.
      *
-     * This mapping is automatically created when analyze is called.
+     * This mapping is created on demand after analyze was called.
      */
-    def incomingDependencies: AMap[VirtualSourceElement, ASet[(VirtualSourceElement, DependencyType)]] = theIncomingDependencies
+    def incomingDependencies: AMap[VirtualSourceElement, ASet[(VirtualSourceElement, DependencyType)]] = {
+        val index = this.index
+        if (index eq null) AMap.empty else index.incomingDependencies
+    }
 
     // calculated after the extension of all ensembles is determined
-    private[this] val matchedSourceElements: HashSet[VirtualSourceElement] = HashSet.empty
-
-    private[this] val allSourceElements: HashSet[VirtualSourceElement] = HashSet.empty
-
-    private[this] var unmatchedSourceElements: ASet[VirtualSourceElement] = _
+    @volatile private[this] var index: EnsembleIndex = _
 
     /**
      * Adds a new ensemble definition to this architecture specification.
@@ -225,27 +225,27 @@ class Specification(val project: Project[URL], val useAnsiColors: Boolean) { spe
         override def targetEnsembles: Seq[Symbol] = Seq(targetEnsemble)
 
         override def violations(): ASet[SpecificationViolation] = {
-            val sourceEnsembleElements =
-                (Set[VirtualSourceElement]() /: sourceEnsembles)(_ ++ ensembles(_)._2)
-            val (_, targetEnsembleElements) = ensembles(targetEnsemble)
-            for {
-                targetEnsembleElement ← targetEnsembleElements
-                if incomingDependencies.contains(targetEnsembleElement)
-                (incomingElement, dependencyType) ← incomingDependencies(targetEnsembleElement)
-                if !(
-                    sourceEnsembleElements.contains(incomingElement) ||
-                    targetEnsembleElements.contains(incomingElement)
-                )
-            } yield {
-                DependencyViolation(
-                    project,
-                    this,
-                    incomingElement,
-                    targetEnsembleElement,
-                    dependencyType,
-                    "not allowed global incoming dependency found"
-                )
+            val targetEnsembles = index.ensembles(this.targetEnsembles)
+            val allowedEnsembles = index.ensembles(targetEnsemble +: sourceEnsembles)
+            // elements belonging to an allowed ensemble may also belong to other ensembles
+            val otherEnsembles = index.complement(allowedEnsembles, withUnmatched = true)
+            if (index.dependencyTypes(otherEnsembles, targetEnsembles) == 0L)
+                return Set.empty;
+
+            val notAllowedElements = index.extent(otherEnsembles, allowedEnsembles)
+            val violations = HashSet.empty[SpecificationViolation]
+            index.foreachDependency(notAllowedElements, index.extent(targetEnsembles), -1L) {
+                (incomingElement, targetEnsembleElement, dependencyType) ⇒
+                    violations += DependencyViolation(
+                        project,
+                        this,
+                        incomingElement,
+                        targetEnsembleElement,
+                        dependencyType,
+                        "not allowed global incoming dependency found"
+                    )
             }
+            violations
         }
 
         override def toString: String = {
@@ -277,26 +277,21 @@ class Specification(val project: Project[URL], val useAnsiColors: Boolean) { spe
         override def sourceEnsembles: Seq[Symbol] = Seq(sourceEnsemble)
 
         override def violations(): ASet[SpecificationViolation] = {
-            val unknownEnsembles = targetEnsembles.filterNot(ensembles.contains(_))
-            if (unknownEnsembles.nonEmpty)
-                throw SpecificationError(
-                    unknownEnsembles.mkString("unknown ensemble(s): ", ",", "")
-                )
-
-            val (_ /*ensembleName*/ , sourceEnsembleElements) = ensembles(sourceEnsemble)
-            val notAllowedTargetSourceElements =
-                (Set.empty[VirtualSourceElement] /: targetEnsembles)(_ ++ ensembles(_)._2)
-
-            for {
-                sourceElement ← sourceEnsembleElements
-                targets = outgoingDependencies.get(sourceElement)
-                if targets.isDefined
-                (targetElement, currentDependencyTypes) ← targets.get
-                currentDependencyType ← currentDependencyTypes
-                if ((notAllowedTargetSourceElements contains targetElement) &&
-                    ((dependencyTypes equals USE) || (dependencyTypes contains currentDependencyType)))
-            } yield {
-                DependencyViolation(
+            val notAllowedTargetEnsembles = index.ensembles(targetEnsembles)
+            val sourceEnsembles = index.ensembles(this.sourceEnsembles)
+            val notAllowedDependencyTypes =
+                index.dependencyTypes(sourceEnsembles, notAllowedTargetEnsembles) &
+                    EnsembleIndex.dependencyTypes(dependencyTypes)
+            if (notAllowedDependencyTypes == 0L)
+                return Set.empty;
+
+            val violations = HashSet.empty[SpecificationViolation]
+            index.foreachDependency(
+                index.extent(sourceEnsembles),
+                index.extent(notAllowedTargetEnsembles),
+                notAllowedDependencyTypes
+            ) { (sourceElement, targetElement, currentDependencyType) ⇒
+                violations += DependencyViolation(
                     project,
                     this,
                     sourceElement,
@@ -305,6 +300,7 @@ class Specification(val project: Project[URL], val useAnsiColors: Boolean) { spe
                     "not allowed local outgoing dependency found"
                 )
             }
+            violations
         }
 
         override def toString: String = {
@@ -344,30 +340,28 @@ class Specification(val project: Project[URL], val useAnsiColors: Boolean) { spe
         override def sourceEnsembles: Seq[Symbol] = Seq(sourceEnsemble)
 
         override def violations(): ASet[SpecificationViolation] = {
-            val unknownEnsembles = targetEnsembles.filterNot(ensembles.contains(_))
-            if (unknownEnsembles.nonEmpty)
-                throw SpecificationError(
-                    unknownEnsembles.mkString("unknown ensemble(s): ", ",", "")
-                )
-
-            val (_ /*ensembleName*/ , sourceEnsembleElements) = ensembles(sourceEnsemble)
-            val allAllowedLocalTargetSourceElements =
-                // self references are allowed as well as references to source elements belonging
-                // to a target ensemble
-                (sourceEnsembleElements /: targetEnsembles)(_ ++ ensembles(_)._2)
-
-            for {
-                sourceElement ← sourceEnsembleElements
-                targets = outgoingDependencies.get(sourceElement)
-                if targets.isDefined
-                (targetElement, currentDependencyTypes) ← targets.get
-                currentDependencyType ← currentDependencyTypes
-                if (!(allAllowedLocalTargetSourceElements contains targetElement) &&
-                    ((dependencyTypes equals USE) || (dependencyTypes contains currentDependencyType)))
-                // references to unmatched source elements are ignored
-                if !(unmatchedSourceElements contains targetElement)
-            } yield {
-                DependencyViolation(
+            index.ensembles(targetEnsembles) // validates the target ensembles
+            val sourceEnsembles = index.ensembles(this.sourceEnsembles)
+            // self references are allowed as well as references to source elements belonging
+            // to a target ensemble
+            val allowedTargetEnsembles = index.ensembles(sourceEnsemble +: targetEnsembles)
+            // references to unmatched source elements are ignored
+            val otherTargetEnsembles = index.complement(allowedTargetEnsembles, withUnmatched = false)
+            val constrainedDependencyTypes =
+                index.dependencyTypes(sourceEnsembles, otherTargetEnsembles) &
+                    EnsembleIndex.dependencyTypes(dependencyTypes)
+            if (constrainedDependencyTypes == 0L)
+                return Set.empty;
+
+            val notAllowedTargetElements =
+                index.extent(otherTargetEnsembles, allowedTargetEnsembles)
+            val violations = HashSet.empty[SpecificationViolation]
+            index.foreachDependency(
+                index.extent(sourceEnsembles),
+                notAllowedTargetElements,
+                constrainedDependencyTypes
+            ) { (sourceElement, targetElement, currentDependencyType) ⇒
+                violations += DependencyViolation(
                     project,
                     this,
                     sourceElement,
@@ -376,6 +370,7 @@ class Specification(val project: Project[URL], val useAnsiColors: Boolean) { spe
                     "violation of a local outgoing dependency constraint"
                 )
             }
+            violations
         }
 
         override def toString: String = {
@@ -723,37 +718,19 @@ class Specification(val project: Project[URL], val useAnsiColors: Boolean) { spe
         s
     }
 
-    def analyze(): Set[SpecificationViolation] = {
-        val dependencyStore = time {
-            project.get(DependencyStoreWithoutSelfDependenciesKey)
-        } { ns ⇒ logProgress("2.1. preprocessing dependencies took "+ns.toSeconds) }
+    /**
+     * Determines the extents of the ensembles and creates the index of the dependencies
+     * between the ensembles.
+     */
+    private[this] def analyze(dependencyGraph: DependencyGraph): Unit = {
+        val dependencyStore = DependencyStore(dependencyGraph)
+        theOutgoingDependencies = dependencyStore.dependencies
 
         logInfo("Dependencies between source elements: "+dependencyStore.dependencies.size)
         logInfo("Dependencies on primitive types: "+dependencyStore.dependenciesOnBaseTypes.size)
         logInfo("Dependencies on array types: "+dependencyStore.dependenciesOnArrayTypes.size)
-
-        time {
-            for {
-                (source, targets) ← dependencyStore.dependencies
-                (target, dTypes) ← targets
-            } {
-                allSourceElements += source
-                allSourceElements += target
-
-                theOutgoingDependencies.update(source, targets)
-
-                for { dType ← dTypes } {
-                    theIncomingDependencies.update(
-                        target,
-                        theIncomingDependencies.getOrElse(target, Set.empty) +
-                            ((source, dType))
-                    )
-                }
-            }
-        } { ns ⇒ logProgress("2.2. postprocessing dependencies took "+ns.toSeconds) }
-        logInfo("Number of source elements: "+allSourceElements.size)
-        logInfo("Outgoing dependencies: "+theOutgoingDependencies.size)
-        logInfo("Incoming dependencies: "+theIncomingDependencies.size)
+        logInfo("Number of source elements: "+dependencyGraph.sourceElementsCount)
+        logInfo("Dependencies: "+dependencyGraph.dependenciesCount)
 
         // Calculate the extension of the ensembles
         //
@@ -769,19 +746,32 @@ class Specification(val project: Project[URL], val useAnsiColors: Boolean) { spe
                         else
                             logInfo(s"   $ensembleSymbol (${extension.size})")
 
-                        spec.synchronized { matchedSourceElements ++= extension }
                         (ensembleSymbol, (sourceElementMatcher, extension))
                     }
                 }
             theEnsembles = instantiatedEnsembles.seq
+        } { ns ⇒
+            logProgress("3. determing the extension of the ensembles took "+ns.toSeconds)
+        }
 
-            unmatchedSourceElements = allSourceElements -- matchedSourceElements
+        time {
+            index = EnsembleIndex(dependencyGraph, theEnsembles.mapValues(_._2))
 
-            logInfo("   => Matched source elements: "+matchedSourceElements.size)
-            logInfo("   => Other source elements: "+unmatchedSourceElements.size)
+            val unmatchedSourceElementsCount = index.unmatchedSourceElementsCount
+            logInfo("   => Matched source elements: "+
+                (dependencyGraph.sourceElementsCount - unmatchedSourceElementsCount))
+            logInfo("   => Other source elements: "+unmatchedSourceElementsCount)
         } { ns ⇒
-            logProgress("3. determing the extension of the ensembles took "+ns.toSeconds)
+            logProgress("3.1. indexing the dependencies between the ensembles took "+ns.toSeconds)
         }
+    }
+
+    def analyze(): Set[SpecificationViolation] = {
+        val dependencyGraph = time {
+            project.get(DependencyGraphWithoutSelfDependenciesKey)
+        } { ns ⇒ logProgress("2.1. preprocessing dependencies took "+ns.toSeconds) }
+
+        analyze(dependencyGraph)
 
         // Check all rules
         //
@@ -797,6 +787,187 @@ class Specification(val project: Project[URL], val useAnsiColors: Boolean) { spe
         }
     }
 
+    /**
+     * Checks the architecture incrementally w.r.t. the results of the previous check which
+     * are stored in the given file. If the file does not exist, cannot be read or is
+     * corrupt, all constraints are checked. Afterwards, the results are stored in the given
+     * file.
+     *
+     * The dependencies are only extracted from those class files that have changed (the
+     * class files are identified by their fully qualified name and their content is
+     * compared using a hash of the class file as stored at the source location).
+     * A constraint is only checked again if the extent of an ensemble it refers to has
+     * changed or if a changed dependency (a dependency that was added or removed) or a
+     * changed class (in case of constraints on properties) concerns an element of one of
+     * its ensembles; otherwise the violations found by the previous check are reported.
+     * Constraints that are not defined by this class are always checked.
+     *
+     * @note The results are only valid if the file was written by the same specification
+     *       (the ensembles' extents are always recomputed) and if the class files' source
+     *       locations are available.
+     */
+    def analyze(snapshotFile: File): Set[SpecificationViolation] = {
+        val previousSnapshot =
+            if (snapshotFile.exists) {
+                try {
+                    Some(ArchitectureSnapshot.read(snapshotFile))
+                } catch {
+                    case NonFatal(e) ⇒
+                        logWarn(s"ignoring the architecture snapshot: ${e.getMessage}")
+                        None
+                }
+            } else {
+                None
+            }
+        val previousClasses = previousSnapshot.map(_.classes).getOrElse(Map.empty)
+
+        val classes = new ConcurrentHashMap[String, ClassDependencies]()
+        val changedClasses = new ConcurrentLinkedQueue[String]()
+        val dependencyGraph = time {
+            val dc = new DependencyGraphCollectingDependencyProcessor(
+                Some(project.classFilesCount * 10)
+            )
+            project.allClassFiles.par foreach { classFile ⇒
+                val fqn = classFile.thisType.fqn
+                val fingerprint = project.source(classFile).flatMap(ArchitectureSnapshot.fingerprint)
+                val classDependencies = previousClasses.get(fqn) match {
+                    case Some(previous) if fingerprint.exists(Arrays.equals(_, previous.fingerprint)) ⇒
+                        previous.replay(dc)
+                        previous
+                    case _ ⇒
+                        val recorder = new ClassDependenciesRecorder(dc) with FilterSelfDependencies
+                        new DependencyExtractor(recorder).process(classFile)
+                        changedClasses.add(fqn)
+                        recorder.classDependencies(
+                            fingerprint.getOrElse(ArchitectureSnapshot.NoFingerprint)
+                        )
+                }
+                classes.put(fqn, classDependencies)
+            }
+            dc.toGraph
+        } { ns ⇒ logProgress("2.1. preprocessing dependencies took "+ns.toSeconds) }
+        val removedClasses = previousClasses.keySet.filterNot(classes.containsKey)
+        val allChangedClasses = changedClasses.asScala.toSet ++ removedClasses
+        logInfo("Changed class files: "+allChangedClasses.size)
+
+        analyze(dependencyGraph)
+
+        val changedDependencies =
+            allChangedClasses flatMap { fqn ⇒
+                val previousDependencies =
+                    previousClasses.get(fqn).map(_.dependencies).getOrElse(Set.empty)
+                val dependencies =
+                    Option(classes.get(fqn)).map(_.dependencies).getOrElse(Set.empty)
+                (previousDependencies -- dependencies) ++ (dependencies -- previousDependencies)
+            }
+        val ensembleFingerprints =
+            theEnsembles.map { e ⇒
+                val (ensembleSymbol, (_, extension)) = e
+                (ensembleSymbol.name, ArchitectureSnapshot.fingerprint(extension))
+            }.toMap
+        val previousEnsembleFingerprints =
+            previousSnapshot.map(_.ensembles).getOrElse(Map.empty[String, Array[Byte]])
+        val changedEnsembles =
+            ensembleFingerprints.keySet.filterNot { ensemble ⇒
+                previousEnsembleFingerprints.get(ensemble).exists { previousFingerprint ⇒
+                    Arrays.equals(previousFingerprint, ensembleFingerprints(ensemble))
+                }
+            } ++ (previousEnsembleFingerprints.keySet -- ensembleFingerprints.keySet)
+
+        def haveChangedExtents(ensembleSymbols: Seq[Symbol]): Boolean = {
+            ensembleSymbols exists { e ⇒ !ensembles.contains(e) || changedEnsembles.contains(e.name) }
+        }
+
+        def haveChangedDependencies(ensembleSymbols: Seq[Symbol]): Boolean = {
+            val extents = ensembleSymbols.map(ensembles(_)._2)
+            changedDependencies exists { dependency ⇒
+                val (source, target, _) = dependency
+                extents exists { extent ⇒ extent.contains(source) || extent.contains(target) }
+            }
+        }
+
+        def haveChangedClasses(ensembleSymbols: Seq[Symbol]): Boolean = {
+            allChangedClasses.nonEmpty && ensembleSymbols.exists { e ⇒
+                ensembles(e)._2 exists { sourceElement ⇒
+                    val classType = sourceElement.classType
+                    classType.isObjectType && allChangedClasses.contains(classType.asObjectType.fqn)
+                }
+            }
+        }
+
+        def isAffected(architectureChecker: ArchitectureChecker): Boolean = {
+            architectureChecker match {
+                case c: LocalOutgoingOnlyAllowedConstraint ⇒
+                    // depends on the extents of all ensembles (unmatched targets are ignored)
+                    val ensembleSymbols = c.sourceEnsembles ++ c.targetEnsembles
+                    changedEnsembles.nonEmpty ||
+                        haveChangedExtents(ensembleSymbols) ||
+                        haveChangedDependencies(ensembleSymbols)
+                case c: DependencyChecker ⇒
+                    val ensembleSymbols = c.sourceEnsembles ++ c.targetEnsembles
+                    haveChangedExtents(ensembleSymbols) || haveChangedDependencies(ensembleSymbols)
+                case c: LocalOutgoingShouldExtendConstraint ⇒
+                    haveChangedExtents(c.ensembles ++ c.targetEnsembles) ||
+                        haveChangedClasses(c.ensembles)
+                case c: PropertyChecker ⇒
+                    haveChangedExtents(c.ensembles) || haveChangedClasses(c.ensembles)
+            }
+        }
+
+        def isDefinedBySpecification(architectureChecker: ArchitectureChecker): Boolean = {
+            architectureChecker match {
+                case _: GlobalIncomingConstraint
+                    | _: LocalOutgoingNotAllowedConstraint
+                    | _: LocalOutgoingOnlyAllowedConstraint
+                    | _: LocalOutgoingAnnotatedWithConstraint
+                    | _: LocalOutgoingShouldImplementMethodConstraint
+                    | _: LocalOutgoingShouldExtendConstraint ⇒ true
+                case _ ⇒ false
+            }
+        }
+
+        // Check the affected rules
+        //
+        val results = time {
+            val results =
+                for { architectureChecker ← architectureCheckers.par } yield {
+                    val previousViolations = previousSnapshot.flatMap { snapshot ⇒
+                        snapshot.violations.get(architectureChecker.toString)
+                    }
+                    val violations =
+                        if (previousViolations.isEmpty ||
+                            !isDefinedBySpecification(architectureChecker) ||
+                            isAffected(architectureChecker)) {
+                            logProgress("   checking: "+architectureChecker)
+                            architectureChecker.violations
+                        } else {
+                            logInfo("   unaffected: "+architectureChecker)
+                            previousViolations.get.map(_.toViolation(project, architectureChecker))
+                        }
+                    (architectureChecker, violations)
+                }
+            results.seq
+        } { ns ⇒
+            logProgress("4. checking the specified dependency constraints took "+ns.toSeconds)
+        }
+
+        time {
+            val snapshot = new ArchitectureSnapshot(
+                classes.asScala.toMap,
+                ensembleFingerprints,
+                results.map { r ⇒
+                    val (architectureChecker, violations) = r
+                    (architectureChecker.toString, violations.toSeq.map(ViolationRecord(_)))
+                }.toMap
+            )
+            ArchitectureSnapshot.write(snapshot, snapshotFile)
+        } { ns ⇒
+            logProgress("5. storing the architecture snapshot took "+ns.toSeconds)
+        }
+
+        Set.empty ++ results.flatMap(_._2)
+    }
+
 }
 object Specification {
 
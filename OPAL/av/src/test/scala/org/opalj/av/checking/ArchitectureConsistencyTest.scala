@@ -171,6 +171,20 @@ class ArchitectureConsistencyTest extends FlatSpec with Matchers with BeforeAndA
         testEnsemblesAreNonEmpty(specification)
     }
 
+    it should ("take all ensembles into account to which a source element belongs") in {
+        val specification = new Specification(project) {
+            ensemble('Number) { "mathematics.Number*" }
+            ensemble('Rational) { "mathematics.Rational*" }
+            ensemble('Mathematics) { "mathematics.*" }
+
+            'Number allows_incoming_dependencies_from 'Mathematics
+            'Rational is_only_allowed_to (USE, 'Mathematics)
+        }
+        specification.analyze() should be(empty)
+
+        testEnsemblesAreNonEmpty(specification)
+    }
+
     /*
      * outgoing every_element_should_implement_method constraint
      */
@@ -0,0 +1,148 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj.av
+package checking
+
+import java.io.DataOutputStream
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.net.URL
+import java.util.zip.GZIPOutputStream
+
+import org.junit.runner.RunWith
+
+import org.opalj.bi.TestResources.locateTestResources
+import org.opalj.br.ClassFile
+import org.opalj.br.ObjectType
+import org.opalj.br.VirtualClass
+import org.opalj.br.VirtualSourceElement
+import org.opalj.br.reader.Java8Framework.ClassFiles
+
+import org.scalatest._
+import org.scalatest.junit.JUnitRunner
+
+/**
+ * Tests that checking an architecture incrementally (using an architecture snapshot)
+ * reports the same violations as checking the architecture from scratch.
+ *
+ * @author agent
+ */
+@RunWith(classOf[JUnitRunner])
+class IncrementalArchitectureCheckingTest extends FlatSpec with Matchers {
+
+    val project = ClassFiles(locateTestResources("classfiles/mathematics.jar", "av"))
+
+    def specification(classFiles: Seq[(ClassFile, URL)]): Specification = {
+        new Specification(classFiles) {
+            ensemble('Operations) { "mathematics.Operations*" }
+            ensemble('Number) { "mathematics.Number*" }
+            ensemble('Rational) { "mathematics.Rational*" }
+            ensemble('Mathematics) { "mathematics.Mathematics*" }
+            ensemble('Example) { "mathematics.Example*" }
+
+            'Mathematics is_only_allowed_to (USE, 'Rational)
+            'Example is_not_allowed_to (USE, 'Number)
+            'Number is_only_to_be_used_by ('Rational)
+            'Operations every_element_should_be_annotated_with AnnotatedWith("java.lang.Deprecated")
+        }
+    }
+
+    def violations(specification: Specification, snapshotFile: Option[File]): Seq[String] = {
+        val violations = snapshotFile match {
+            case Some(file) ⇒ specification.analyze(file)
+            case None       ⇒ specification.analyze()
+        }
+        violations.toSeq.map(_.toString).sorted
+    }
+
+    def withSnapshotFile[T](f: File ⇒ T): T = {
+        val snapshotFile = File.createTempFile("architecture", ".snapshot")
+        snapshotFile.delete()
+        try { f(snapshotFile) } finally { snapshotFile.delete() }
+    }
+
+    behavior of "the incremental architecture validation"
+
+    it should "report the same violations as a complete validation" in {
+        withSnapshotFile { snapshotFile ⇒
+            val expected = violations(specification(project), None)
+            expected should not be (empty)
+
+            violations(specification(project), Some(snapshotFile)) should be(expected)
+            snapshotFile should be a 'file
+            // the second run reuses all results
+            violations(specification(project), Some(snapshotFile)) should be(expected)
+        }
+    }
+
+    it should "report the same violations as a complete validation after class files were removed and added" in {
+        withSnapshotFile { snapshotFile ⇒
+            violations(specification(project), Some(snapshotFile))
+
+            val reducedProject = project.filterNot(_._1.thisType.fqn == "mathematics/Rational")
+            violations(specification(reducedProject), Some(snapshotFile)) should be(
+                violations(specification(reducedProject), None)
+            )
+
+            violations(specification(project), Some(snapshotFile)) should be(
+                violations(specification(project), None)
+            )
+        }
+    }
+
+    it should "extract the dependencies of class files with a changed fingerprint" in {
+        withSnapshotFile { snapshotFile ⇒
+            violations(specification(project), Some(snapshotFile))
+
+            // the class files are associated with the URL of another class file
+            val urls = project.map(_._2)
+            val changedProject = project.map(_._1).zip(urls.tail :+ urls.head)
+            violations(specification(changedProject), Some(snapshotFile)) should be(
+                violations(specification(changedProject), None)
+            )
+        }
+    }
+
+    it should "ignore an unreadable snapshot file" in {
+        withSnapshotFile { snapshotFile ⇒
+            org.opalj.io.write("no snapshot".getBytes, snapshotFile.toPath)
+            violations(specification(project), Some(snapshotFile)) should be(
+                violations(specification(project), None)
+            )
+        }
+    }
+
+    it should "ignore a snapshot file which is corrupt after the header" in {
+        withSnapshotFile { snapshotFile ⇒
+            val out = new DataOutputStream(new GZIPOutputStream(new FileOutputStream(snapshotFile)))
+            try {
+                out.writeInt(ArchitectureSnapshot.Magic)
+                out.writeInt(ArchitectureSnapshot.Version)
+                out.writeInt(1) // one element...
+                out.writeByte(0)
+                out.writeUTF("mathematics/Rational")
+                out.writeInt(1) // ... and one class which refers to a non-existing element
+                out.writeUTF("mathematics/Rational")
+                out.writeShort(0)
+                out.writeInt(1)
+                out.writeInt(42)
+            } finally {
+                out.close()
+            }
+
+            an[IOException] should be thrownBy { ArchitectureSnapshot.read(snapshotFile) }
+            violations(specification(project), Some(snapshotFile)) should be(
+                violations(specification(project), None)
+            )
+        }
+    }
+
+    it should "compute different fingerprints for extents whose concatenated keys are equal" in {
+        def extent(fqns: String*): Set[VirtualSourceElement] = {
+            fqns.map(fqn ⇒ VirtualClass(ObjectType(fqn))).toSet
+        }
+        val fingerprint = ArchitectureSnapshot.fingerprint(extent("a/b", "c")).toSeq
+        fingerprint should not be (ArchitectureSnapshot.fingerprint(extent("a", "b/c")).toSeq)
+        fingerprint should be(ArchitectureSnapshot.fingerprint(extent("c", "a/b")).toSeq)
+    }
+}
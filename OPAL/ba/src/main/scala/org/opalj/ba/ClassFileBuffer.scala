@@ -0,0 +1,151 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ba
+
+import java.io.DataOutput
+import java.io.DataOutputStream
+import java.io.OutputStream
+import java.io.UTFDataFormatException
+import java.nio.ByteBuffer
+
+/**
+ * A growable, reusable (heap) `ByteBuffer` which implements `java.io.DataOutput` and which
+ * additionally makes it possible to overwrite previously written (placeholder) values;
+ * e.g., the length of an attribute which is only known after the attribute was written.
+ *
+ * The binary representation of all values is the one used by `java.io.DataOutputStream`;
+ * in particular, `float` and `double` values are written using their canonical bit patterns
+ * (`floatToIntBits`/`doubleToLongBits`) and strings are written using the modified UTF-8
+ * encoding.
+ *
+ * ==Thread Safety==
+ * This class is not thread-safe.
+ *
+ * @author agent
+ */
+final class ClassFileBuffer(initialCapacity: Int = 4096) extends OutputStream with DataOutput {
+
+    private[this] var buffer: ByteBuffer = ByteBuffer.allocate(Math.max(initialCapacity, 16))
+
+    /** The number of bytes written so far. */
+    def size: Int = buffer.position()
+
+    /** Discards all bytes written so far; the underlying memory is retained. */
+    def reset(): Unit = buffer.clear()
+
+    private[this] def ensureCapacity(additionalBytes: Int): Unit = {
+        val requiredCapacity = buffer.position() + additionalBytes
+        if (requiredCapacity > buffer.capacity()) {
+            var newCapacity = buffer.capacity() * 2
+            while (newCapacity < requiredCapacity) newCapacity *= 2
+            val newBuffer = ByteBuffer.allocate(newCapacity)
+            buffer.flip()
+            newBuffer.put(buffer)
+            buffer = newBuffer
+        }
+    }
+
+    /**
+     * A `DataOutputStream` which writes to this buffer; required by APIs which expect a
+     * stream.
+     */
+    lazy val dataOutputStream: DataOutputStream = new DataOutputStream(this)
+
+    def write(b: Int): Unit = { ensureCapacity(1); buffer.put(b.toByte) }
+
+    override def write(b: Array[Byte]): Unit = write(b, 0, b.length)
+
+    override def write(b: Array[Byte], off: Int, len: Int): Unit = {
+        ensureCapacity(len)
+        buffer.put(b, off, len)
+    }
+
+    /** Appends all bytes written to the given buffer. */
+    def write(other: ClassFileBuffer): Unit = {
+        val otherBuffer = other.byteBuffer
+        ensureCapacity(otherBuffer.remaining())
+        buffer.put(otherBuffer)
+    }
+
+    def writeBoolean(v: Boolean): Unit = write(if (v) 1 else 0)
+
+    def writeByte(v: Int): Unit = write(v)
+
+    def writeShort(v: Int): Unit = { ensureCapacity(2); buffer.putShort(v.toShort) }
+
+    def writeChar(v: Int): Unit = { ensureCapacity(2); buffer.putChar(v.toChar) }
+
+    def writeInt(v: Int): Unit = { ensureCapacity(4); buffer.putInt(v) }
+
+    def writeLong(v: Long): Unit = { ensureCapacity(8); buffer.putLong(v) }
+
+    // ByteBuffer.putFloat/putDouble would use the raw bit patterns
+    def writeFloat(v: Float): Unit = writeInt(java.lang.Float.floatToIntBits(v))
+
+    def writeDouble(v: Double): Unit = writeLong(java.lang.Double.doubleToLongBits(v))
+
+    def writeBytes(s: String): Unit = {
+        val length = s.length
+        ensureCapacity(length)
+        var i = 0
+        while (i < length) { buffer.put(s.charAt(i).toByte); i += 1 }
+    }
+
+    def writeChars(s: String): Unit = {
+        val length = s.length
+        ensureCapacity(length * 2)
+        var i = 0
+        while (i < length) { buffer.putChar(s.charAt(i)); i += 1 }
+    }
+
+    @throws[UTFDataFormatException]("if the encoded string is longer than 65535 bytes")
+    def writeUTF(s: String): Unit = {
+        val length = s.length
+        var utfLength = 0
+        var i = 0
+        while (i < length) {
+            val c = s.charAt(i)
+            utfLength += (if (c >= 0x0001 && c <= 0x007F) 1 else if (c > 0x07FF) 3 else 2)
+            i += 1
+        }
+        if (utfLength > 65535)
+            throw new UTFDataFormatException(s"encoded string too long: $utfLength bytes")
+
+        ensureCapacity(2 + utfLength)
+        buffer.putShort(utfLength.toShort)
+        i = 0
+        while (i < length) {
+            val c = s.charAt(i)
+            if (c >= 0x0001 && c <= 0x007F) {
+                buffer.put(c.toByte)
+            } else if (c > 0x07FF) {
+                buffer.put((0xE0 | ((c >> 12) & 0x0F)).toByte)
+                buffer.put((0x80 | ((c >> 6) & 0x3F)).toByte)
+                buffer.put((0x80 | (c & 0x3F)).toByte)
+            } else {
+                buffer.put((0xC0 | ((c >> 6) & 0x1F)).toByte)
+                buffer.put((0x80 | (c & 0x3F)).toByte)
+            }
+            i += 1
+        }
+    }
+
+    /** Overwrites the unsigned short value at the given position. */
+    def writeShort(position: Int, v: Int): Unit = buffer.putShort(position, v.toShort)
+
+    /** Overwrites the int value at the given position. */
+    def writeInt(position: Int, v: Int): Unit = buffer.putInt(position, v)
+
+    /**
+     * A read-only view of the bytes written so far. The view is only valid until the next
+     * modification of this buffer.
+     */
+    def byteBuffer: ByteBuffer = {
+        val view = buffer.asReadOnlyBuffer()
+        view.flip()
+        view
+    }
+
+    /** Returns a copy of the bytes written so far. */
+    def toByteArray: Array[Byte] = java.util.Arrays.copyOf(buffer.array(), buffer.position())
+}
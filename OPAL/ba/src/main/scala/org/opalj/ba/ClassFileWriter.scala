@@ -0,0 +1,347 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ba
+
+import scala.annotation.switch
+
+import java.nio.ByteBuffer
+
+import org.opalj.bi.ConstantPoolTags.CONSTANT_Class_ID
+import org.opalj.bi.ConstantPoolTags.CONSTANT_Fieldref_ID
+import org.opalj.bi.ConstantPoolTags.CONSTANT_Methodref_ID
+import org.opalj.bi.ConstantPoolTags.CONSTANT_InterfaceMethodref_ID
+import org.opalj.bi.ConstantPoolTags.CONSTANT_String_ID
+import org.opalj.bi.ConstantPoolTags.CONSTANT_Integer_ID
+import org.opalj.bi.ConstantPoolTags.CONSTANT_Float_ID
+import org.opalj.bi.ConstantPoolTags.CONSTANT_Long_ID
+import org.opalj.bi.ConstantPoolTags.CONSTANT_Double_ID
+import org.opalj.bi.ConstantPoolTags.CONSTANT_NameAndType_ID
+import org.opalj.bi.ConstantPoolTags.CONSTANT_Utf8_ID
+import org.opalj.bi.ConstantPoolTags.CONSTANT_MethodHandle_ID
+import org.opalj.bi.ConstantPoolTags.CONSTANT_MethodType_ID
+import org.opalj.bi.ConstantPoolTags.CONSTANT_InvokeDynamic_ID
+import org.opalj.bi.ConstantPoolTags.CONSTANT_Module_ID
+import org.opalj.bi.ConstantPoolTags.CONSTANT_Package_ID
+import org.opalj.br.Attribute
+import org.opalj.br.Attributes
+import org.opalj.br.Code
+import org.opalj.br.cp._ // we need ALL of them...
+import org.opalj.bc.Assembler
+import org.opalj.ba.ClassFileWriter.NoSegmentInformation
+
+/**
+ * Creates the binary representation of [[org.opalj.br.ClassFile]]s without creating the
+ * intermediate [[org.opalj.da.ClassFile]] representation; i.e., the result is the same as
+ * the result of `org.opalj.bc.Assembler(ba.toDA(classFile))`, but the class file is directly
+ * serialized into a (growable) `ByteBuffer`. Only the attributes other than the `Code`
+ * attribute are still converted to their [[org.opalj.da]] representation, to share their
+ * encoding with the assembler.
+ *
+ * The constant pool is built using a [[org.opalj.br.cp.ConstantsBuffer]]; all entries are
+ * created in the same order as by [[toDA]] and, hence, get the same indexes.
+ * Because the constant pool precedes the other parts of the class file, but is only complete
+ * after the last attribute was processed, the other parts are first written to a second
+ * buffer. References to constant pool entries which are created after the referencing
+ * structure was written (e.g., the name of a `Code` attribute) and the lengths of the
+ * attributes are patched afterwards.
+ *
+ * The buffers are reused across all class files serialized by the same writer; hence,
+ * a writer should be (re)used to serialize many class files.
+ *
+ * ==Thread Safety==
+ * This class is not thread-safe; each thread has to use its own writer.
+ *
+ * @example
+ * {{{
+ * val writer = new ClassFileWriter
+ * val bytes = classFiles.map(writer(_))
+ * }}}
+ *
+ * @author agent
+ */
+final class ClassFileWriter(
+        initialCapacity: Int = 16 * 1024
+)(
+        implicit
+        config: ToDAConfig = ToDAConfig.RetainAllAttributes
+) {
+
+    // the binary representation of the serialized class file
+    private[this] val out = new ClassFileBuffer(initialCapacity)
+    // the part of the class file which follows the constant pool
+    private[this] val body = new ClassFileBuffer(initialCapacity)
+    // the attributes of a method which are created before the method's code attribute
+    private[this] val methodAttributes = new ClassFileBuffer(1024)
+
+    /**
+     * Returns the binary representation of the given class file.
+     */
+    def apply(classFile: br.ClassFile): Array[Byte] = {
+        write(classFile)
+        out.toByteArray
+    }
+
+    /**
+     * Serializes the given class file and returns a read-only view of this writer's internal
+     * buffer, which is only valid until the next class file is serialized.
+     */
+    def write(classFile: br.ClassFile): ByteBuffer = {
+        implicit val constantsBuffer = ConstantsBuffer(ConstantsBuffer.collectLDCs(classFile))
+        import constantsBuffer._
+
+        body.reset()
+        val thisTypeCPRef = CPEClass(classFile.thisType, false)
+        val superClassCPRef = classFile.superclassType match {
+            case Some(superclassType) ⇒ CPEClass(superclassType, false)
+            case None                 ⇒ 0
+        }
+        body.writeShort(classFile.accessFlags)
+        body.writeShort(thisTypeCPRef)
+        body.writeShort(superClassCPRef)
+        body.writeShort(classFile.interfaceTypes.size)
+        classFile.interfaceTypes foreach { i ⇒ body.writeShort(CPEClass(i, false)) }
+
+        body.writeShort(classFile.fields.size)
+        classFile.fields foreach { writeField(_, body) }
+
+        body.writeShort(classFile.methods.size)
+        classFile.methods foreach { writeMethod(_, body) }
+
+        val attributesCountPosition = body.size
+        body.writeShort(0)
+        var attributesCount = writeAttributes(classFile.attributes, body)
+        if (currentBootstrapMethods.nonEmpty) {
+            val (_, constantsPool) = build
+            writeAttribute(createBoostrapMethodTableAttribute(constantsPool), body)
+            attributesCount += 1
+        }
+        body.writeShort(attributesCountPosition, attributesCount)
+
+        out.reset()
+        out.writeInt(bi.ClassFileMagic)
+        out.writeShort(classFile.version.minor)
+        out.writeShort(classFile.version.major)
+        out.writeShort(constantPoolCount)
+        constantPoolEntries foreach { cpEntry ⇒ if (cpEntry ne null) writeCPEntry(cpEntry, out) }
+        out.write(body)
+        out.byteBuffer
+    }
+
+    private[this] def writeCPEntry(cpEntry: Constant_Pool_Entry, out: ClassFileBuffer): Unit = {
+        val tag = cpEntry.tag
+        out.writeByte(tag)
+        (tag: @switch) match {
+            case CONSTANT_Class_ID ⇒
+                out.writeShort(cpEntry.asInstanceOf[CONSTANT_Class_info].name_index)
+
+            case CONSTANT_Fieldref_ID ⇒
+                val CONSTANT_Fieldref_info(classIndex, nameAndTypeIndex) = cpEntry
+                out.writeShort(classIndex)
+                out.writeShort(nameAndTypeIndex)
+
+            case CONSTANT_Methodref_ID ⇒
+                val CONSTANT_Methodref_info(classIndex, nameAndTypeIndex) = cpEntry
+                out.writeShort(classIndex)
+                out.writeShort(nameAndTypeIndex)
+
+            case CONSTANT_InterfaceMethodref_ID ⇒
+                val CONSTANT_InterfaceMethodref_info(classIndex, nameAndTypeIndex) = cpEntry
+                out.writeShort(classIndex)
+                out.writeShort(nameAndTypeIndex)
+
+            case CONSTANT_String_ID ⇒
+                out.writeShort(cpEntry.asInstanceOf[CONSTANT_String_info].string_index)
+
+            case CONSTANT_Integer_ID ⇒
+                out.writeInt(cpEntry.asInstanceOf[CONSTANT_Integer_info].value.value)
+
+            case CONSTANT_Float_ID ⇒
+                out.writeFloat(cpEntry.asInstanceOf[CONSTANT_Float_info].value.value)
+
+            case CONSTANT_Long_ID ⇒
+                out.writeLong(cpEntry.asInstanceOf[CONSTANT_Long_info].value.value)
+
+            case CONSTANT_Double_ID ⇒
+                out.writeDouble(cpEntry.asInstanceOf[CONSTANT_Double_info].value.value)
+
+            case CONSTANT_NameAndType_ID ⇒
+                val CONSTANT_NameAndType_info(nameIndex, descriptorIndex) = cpEntry
+                out.writeShort(nameIndex)
+                out.writeShort(descriptorIndex)
+
+            case CONSTANT_Utf8_ID ⇒
+                out.writeUTF(cpEntry.asInstanceOf[CONSTANT_Utf8_info].value)
+
+            case CONSTANT_MethodHandle_ID ⇒
+                val CONSTANT_MethodHandle_info(referenceKind, referenceIndex) = cpEntry
+                out.writeByte(referenceKind)
+                out.writeShort(referenceIndex)
+
+            case CONSTANT_MethodType_ID ⇒
+                out.writeShort(cpEntry.asInstanceOf[CONSTANT_MethodType_info].descriptorIndex)
+
+            case CONSTANT_InvokeDynamic_ID ⇒
+                val CONSTANT_InvokeDynamic_info(bootstrapIndex, nameAndTypeIndex) = cpEntry
+                out.writeShort(bootstrapIndex)
+                out.writeShort(nameAndTypeIndex)
+
+            case CONSTANT_Module_ID ⇒
+                out.writeShort(cpEntry.asInstanceOf[CONSTANT_Module_info].name_index)
+
+            case CONSTANT_Package_ID ⇒
+                out.writeShort(cpEntry.asInstanceOf[CONSTANT_Package_info].name_index)
+        }
+    }
+
+    private[this] def writeField(
+        field: br.Field,
+        out:   ClassFileBuffer
+    )(
+        implicit
+        constantsBuffer: ConstantsBuffer
+    ): Unit = {
+        out.writeShort(field.accessFlags)
+        out.writeShort(constantsBuffer.CPEUtf8(field.name))
+        out.writeShort(constantsBuffer.CPEUtf8(field.fieldType.toJVMTypeName))
+        val attributesCountPosition = out.size
+        out.writeShort(0)
+        out.writeShort(attributesCountPosition, writeAttributes(field.attributes, out))
+    }
+
+    private[this] def writeMethod(
+        method: br.Method,
+        out:    ClassFileBuffer
+    )(
+        implicit
+        constantsBuffer: ConstantsBuffer
+    ): Unit = {
+        out.writeShort(method.accessFlags)
+        val namePosition = out.size
+        out.writeShort(0) // name_index
+        out.writeShort(0) // descriptor_index
+        out.writeShort(0) // attributes_count
+
+        // toDA creates the constant pool entries of the code attribute after those of the
+        // method's other attributes, but the code attribute is written first
+        methodAttributes.reset()
+        var attributesCount = writeAttributes(method.attributes, methodAttributes)
+        if (method.body.isDefined) {
+            writeCode(method.body.get, out)
+            attributesCount += 1
+        }
+        out.write(methodAttributes)
+
+        out.writeShort(namePosition, constantsBuffer.CPEUtf8(method.name))
+        out.writeShort(namePosition + 2, constantsBuffer.CPEUtf8(method.descriptor.toJVMDescriptor))
+        out.writeShort(namePosition + 4, attributesCount)
+    }
+
+    /**
+     * Writes the placeholders for the attribute's name and length and returns the
+     * position of the attribute.
+     */
+    private[this] def beginAttribute(out: ClassFileBuffer): Int = {
+        val attributePosition = out.size
+        out.writeShort(0) // attribute_name_index
+        out.writeInt(0) // attribute_length
+        attributePosition
+    }
+
+    private[this] def endAttribute(
+        attributePosition:  Int,
+        attributeNameIndex: Int,
+        out:                ClassFileBuffer
+    ): Unit = {
+        out.writeShort(attributePosition, attributeNameIndex)
+        out.writeInt(attributePosition + 2, out.size - attributePosition - 6)
+    }
+
+    private[this] def writeCode(
+        code: Code,
+        out:  ClassFileBuffer
+    )(
+        implicit
+        constantsBuffer: ConstantsBuffer
+    ): Unit = {
+        val attributePosition = beginAttribute(out)
+        out.writeShort(code.maxStack)
+        out.writeShort(code.maxLocals)
+        val codeLengthPosition = out.size
+        out.writeInt(0)
+        serializeInstructions(code, out)
+        out.writeInt(codeLengthPosition, out.size - codeLengthPosition - 4)
+        val attributeNameIndex = constantsBuffer.CPEUtf8(bi.CodeAttribute.Name)
+
+        out.writeShort(code.exceptionHandlers.size)
+        code.exceptionHandlers foreach { eh ⇒
+            out.writeShort(eh.startPC)
+            out.writeShort(eh.endPC)
+            out.writeShort(eh.handlerPC)
+            out.writeShort(
+                if (eh.catchType.isDefined) constantsBuffer.CPEClass(eh.catchType.get, false) else 0
+            )
+        }
+
+        val attributesCountPosition = out.size
+        out.writeShort(0)
+        out.writeShort(attributesCountPosition, writeAttributes(code.attributes, out))
+        endAttribute(attributePosition, attributeNameIndex, out)
+    }
+
+    /**
+     * Writes the given attributes and returns the number of written attributes; depending
+     * on the configuration some attributes are not written.
+     */
+    private[this] def writeAttributes(
+        attributes: Attributes,
+        out:        ClassFileBuffer
+    )(
+        implicit
+        constantsBuffer: ConstantsBuffer
+    ): Int = {
+        var attributesCount = 0
+        attributes foreach { a ⇒ if (writeAttribute(a, out)) attributesCount += 1 }
+        attributesCount
+    }
+
+    /**
+     * Writes the given attribute – unless the attribute is not retained given the current
+     * configuration.
+     *
+     * Only the `Code` attribute is written directly; all other attributes are converted
+     * using [[toDA]] and are then written using the [[org.opalj.bc.Assembler]]. Hence, the
+     * encoding of the attributes (and the order in which the constant pool entries are
+     * created) is shared with `Assembler(toDA(classFile))`.
+     *
+     * @return `true` if the attribute was written.
+     */
+    private[this] def writeAttribute(
+        attribute: Attribute,
+        out:       ClassFileBuffer
+    )(
+        implicit
+        constantsBuffer: ConstantsBuffer
+    ): Boolean = {
+        if (attribute.kindId == br.Code.KindId) {
+            writeCode(attribute.asInstanceOf[br.Code], out)
+            true
+        } else {
+            toDA(attribute) match {
+                case Some(daAttribute) ⇒ writeAttribute(daAttribute, out); true
+                case None              ⇒ false
+            }
+        }
+    }
+
+    private[this] def writeAttribute(attribute: da.Attribute, out: ClassFileBuffer): Unit = {
+        val dataOutputStream = out.dataOutputStream
+        Assembler.RichAttribute.write(attribute)(dataOutputStream, NoSegmentInformation)
+        dataOutputStream.flush()
+    }
+}
+
+object ClassFileWriter {
+
+    private final val NoSegmentInformation = (_: String, _: Int) ⇒ ()
+
+}
@@ -0,0 +1,552 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ba
+
+import java.io.File
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.FileInputStream
+import java.io.FileOutputStream
+import java.io.BufferedOutputStream
+import java.io.IOException
+import java.net.URL
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.nio.file.StandardOpenOption
+import java.security.MessageDigest
+import java.util.Arrays
+import java.util.IdentityHashMap
+import java.util.zip.CRC32
+
+import scala.collection.mutable
+import scala.util.control.NonFatal
+
+import com.typesafe.config.Config
+import com.typesafe.config.ConfigValueFactory
+
+import org.opalj.io.process
+import org.opalj.io.ByteBufferInputStream
+import org.opalj.log.LogContext
+import org.opalj.log.OPALLogger.info
+import org.opalj.log.OPALLogger.error
+import org.opalj.collection.immutable.ConstArray
+import org.opalj.collection.immutable.UIDSet
+import org.opalj.br.ClassFile
+import org.opalj.br.ClassHierarchy
+import org.opalj.br.Method
+import org.opalj.br.ObjectType
+import org.opalj.br.TypeDeclaration
+import org.opalj.br.VirtualTypeFlag
+import org.opalj.br.analyses.MethodDeclarationContext
+import org.opalj.br.analyses.Project
+import org.opalj.br.reader.BytecodeOptimizer
+import org.opalj.br.reader.InvokedynamicRewriting
+import org.opalj.bc.Assembler
+
+/**
+ * A memory-mapped, on-disk snapshot of a fully loaded [[org.opalj.br.analyses.Project]].
+ *
+ * The snapshot stores the project's and the library's class files – after all rewritings
+ * (e.g., the resolution of `invokedynamic` instructions) and bytecode optimizations were
+ * performed – along with their sources. Additionally, the project's class hierarchy, its
+ * instance methods and its overriding methods are stored. When the snapshot is loaded, the
+ * class files are parsed straight from the memory-mapped file and neither rewritten nor
+ * optimized again. Only the class files which are requested using [[classFile]] are
+ * materialized lazily; [[project]] materializes all class files up front (in parallel),
+ * because a project requires all of its class files when it is created, and then restores
+ * the project's derived data structures from the snapshot; they are not recomputed.
+ * Hence, a snapshot saves the rewriting, the optimization and the computation of the
+ * derived data structures, but not the parsing of the class files. Given that the ids of
+ * [[org.opalj.br.ObjectType]]s are not stable across JVM runs, the class hierarchy is stored
+ * in terms of its type declarations from which the hierarchy's (id-based) lookup tables are
+ * recreated.
+ *
+ * A snapshot is identified by the ''fingerprint'' of its inputs (see
+ * [[ProjectSnapshot$.fingerprint]]); i.e., the checksums of the project's and the library's
+ * files and the configuration of the class file reader.
+ *
+ * ==File Format==
+ * {{{
+ * int      magic
+ * int      format version
+ * short    fingerprint length; byte[] fingerprint
+ * boolean  libraryClassFilesAreInterfacesOnly
+ * int      class files count
+ * entries: byte flags; UTF fqn; UTF source; int offset; int length
+ * int      offset of the derived information (relative to the start of the data)
+ * data:    the serialized class files followed by the derived information
+ *
+ * derived information:
+ * int      type declarations count
+ * declarations: byte flags; UTF fqn; [UTF superclass fqn];
+ *               short superinterfaces count; UTF superinterface fqns
+ * int      instance methods count
+ * instance methods: UTF fqn; int methods count; method references
+ * int      overriding methods count
+ * overriding methods: method reference; int overriding methods count; method references
+ *
+ * method reference: int index of the class file's entry; short index of the method
+ * }}}
+ *
+ * @note     Snapshots are limited to 2GB.
+ *
+ * @author   agent
+ */
+final class ProjectSnapshot private (
+        val file:                               File,
+        val fingerprint:                        Array[Byte],
+        val libraryClassFilesAreInterfacesOnly: Boolean,
+        private[this] val data:                 ByteBuffer,
+        private[this] val entries:              Array[ProjectSnapshot.Entry],
+        private[this] val derivedDataOffset:    Int,
+        private[this] val config:               Config
+)(
+        implicit
+        logContext: LogContext
+) {
+
+    import ProjectSnapshot.Entry
+    import ProjectSnapshot.IsInterfaceFlag
+    import ProjectSnapshot.IsFinalFlag
+    import ProjectSnapshot.HasSuperclassFlag
+
+    private[this] val entriesByType: Map[ObjectType, Entry] = {
+        entries.iterator.map(e ⇒ (e.objectType, e)).toMap
+    }
+
+    private[this] val reader = {
+        val readerConfig = config.
+            withValue(
+                InvokedynamicRewriting.InvokedynamicRewritingConfigKey,
+                ConfigValueFactory.fromAnyRef(false)
+            ).
+            withValue(
+                BytecodeOptimizer.SimplifyControlFlowKey,
+                ConfigValueFactory.fromAnyRef(false)
+            )
+        Project.JavaClassFileReader(logContext, readerConfig)
+    }
+
+    def classFilesCount: Int = entries.length
+
+    /** The types of all class files stored in the snapshot. */
+    def objectTypes: Iterator[ObjectType] = entries.iterator.map(_.objectType)
+
+    /**
+     * Returns the class file of the given type; the class file is parsed on first access.
+     */
+    def classFile(objectType: ObjectType): Option[ClassFile] = {
+        entriesByType.get(objectType).map(materialize)
+    }
+
+    private[this] def materialize(e: Entry): ClassFile = e.synchronized {
+        var classFile = e.classFile
+        if (classFile eq null) {
+            classFile = reader.ClassFile(e.slice(data)).head
+            if (e.isVirtualType && !classFile.isVirtualType) {
+                classFile = classFile.copy(attributes = classFile.attributes :+ VirtualTypeFlag)
+            }
+            e.classFile = classFile
+        }
+        classFile
+    }
+
+    /**
+     * Materializes all class files and creates the project using the stored derived
+     * information.
+     *
+     * @note   All class files are parsed when this method is called (and not on first
+     *         access), because a [[org.opalj.br.analyses.Project]] requires all of its
+     *         class files when it is created. Class files which were already requested
+     *         using [[classFile]] are not parsed again.
+     */
+    def project(): Project[URL] = {
+        entries.par.foreach(materialize)
+
+        val in = {
+            val derivedData = data.duplicate()
+            derivedData.position(derivedDataOffset)
+            new DataInputStream(new ByteBufferInputStream(derivedData))
+        }
+        def readMethod(): Method = {
+            val classFile = entries(in.readInt()).classFile
+            classFile.methods(in.readUnsignedShort())
+        }
+
+        val typeDeclarations = new Array[TypeDeclaration](in.readInt())
+        var i = 0
+        while (i < typeDeclarations.length) {
+            val flags = in.readUnsignedByte()
+            val objectType = ObjectType(in.readUTF())
+            val superclassType =
+                if ((flags & HasSuperclassFlag) != 0) Some(ObjectType(in.readUTF())) else None
+            var superinterfaceTypes = UIDSet.empty[ObjectType]
+            var j = in.readUnsignedShort()
+            while (j > 0) { superinterfaceTypes += ObjectType(in.readUTF()); j -= 1 }
+            typeDeclarations(i) = TypeDeclaration(
+                objectType,
+                (flags & IsInterfaceFlag) != 0,
+                superclassType,
+                superinterfaceTypes,
+                (flags & IsFinalFlag) != 0
+            )
+            i += 1
+        }
+        val classHierarchy = ClassHierarchy.create(Traversable.empty, typeDeclarations)
+
+        val instanceMethodsCount = in.readInt()
+        val instanceMethods =
+            new mutable.AnyRefMap[ObjectType, ConstArray[MethodDeclarationContext]](instanceMethodsCount)
+        i = 0
+        while (i < instanceMethodsCount) {
+            val objectType = ObjectType(in.readUTF())
+            val methods = new Array[MethodDeclarationContext](in.readInt())
+            var j = 0
+            while (j < methods.length) { methods(j) = MethodDeclarationContext(readMethod()); j += 1 }
+            instanceMethods(objectType) = ConstArray._UNSAFE_from(methods)
+            i += 1
+        }
+
+        val overridingMethodsCount = in.readInt()
+        val overridingMethods = new mutable.AnyRefMap[Method, Set[Method]](overridingMethodsCount)
+        i = 0
+        while (i < overridingMethodsCount) {
+            val method = readMethod()
+            var methods = Set.empty[Method]
+            var j = in.readInt()
+            while (j > 0) { methods += readMethod(); j -= 1 }
+            overridingMethods(method) = methods
+            i += 1
+        }
+
+        val sourceOfSnapshot = file.toURI.toURL
+        val projectClassFiles = entries.filter(e ⇒ !e.isLibrary && e.source.nonEmpty)
+        val libraryClassFiles = entries.filter(_.isLibrary)
+        val virtualClassFiles = entries.filter(e ⇒ !e.isLibrary && e.source.isEmpty)
+        def withSource(e: Entry): (ClassFile, URL) = {
+            (e.classFile, e.source.map(new URL(_)).getOrElse(sourceOfSnapshot))
+        }
+        Project.restore(
+            projectClassFiles.map(withSource),
+            libraryClassFiles.map(withSource),
+            libraryClassFilesAreInterfacesOnly,
+            virtualClassFiles.map(_.classFile),
+            classHierarchy,
+            instanceMethods,
+            overridingMethods,
+            Project.defaultHandlerForInconsistentProjects,
+            config,
+            logContext
+        )
+    }
+
+    override def toString: String = {
+        s"ProjectSnapshot($file,classFiles=$classFilesCount,"+
+            s"libraryClassFilesAreInterfacesOnly=$libraryClassFilesAreInterfacesOnly)"
+    }
+}
+
+/**
+ * Functionality to create, to open and to validate [[ProjectSnapshot]]s.
+ *
+ * @example
+ * {{{
+ * val project = ProjectSnapshot.loadOrCreate(projectJARs, libraryJARs, new File("p.snapshot"))
+ * }}}
+ *
+ * @author agent
+ */
+object ProjectSnapshot {
+
+    final val Magic = 0x4F50414C // "OPAL"
+
+    final val FormatVersion = 2
+
+    private final val IsLibraryFlag = 1
+    private final val IsVirtualTypeFlag = 2
+    private final val HasSourceFlag = 4
+
+    // the flags of the stored type declarations
+    private final val IsInterfaceFlag = 1
+    private final val IsFinalFlag = 2
+    private final val HasSuperclassFlag = 4
+
+    private final class Entry(
+            val flags:      Int,
+            val objectType: ObjectType,
+            val source:     Option[String],
+            val offset:     Int,
+            val length:     Int
+    ) {
+        @volatile var classFile: ClassFile = null
+
+        def isLibrary: Boolean = (flags & IsLibraryFlag) != 0
+        def isVirtualType: Boolean = (flags & IsVirtualTypeFlag) != 0
+
+        def slice(data: ByteBuffer): ByteBuffer = {
+            val b = data.duplicate()
+            b.position(offset)
+            b.limit(offset + length)
+            b.slice()
+        }
+    }
+
+    /**
+     * Computes the fingerprint of the given files (a SHA-256 hash). The fingerprint is
+     * derived from the paths, the sizes and the CRC32 checksums of the given files (and of all
+     * files in the given directories) as well as from the configuration of OPAL's class file
+     * reader.
+     */
+    def fingerprint(
+        projectFiles: Traversable[File],
+        libraryFiles: Traversable[File],
+        config:       Config
+    ): Array[Byte] = {
+        val md = MessageDigest.getInstance("SHA-256")
+        def update(s: String): Unit = md.update(s.getBytes("UTF-8"))
+
+        def updateWithFile(kind: String, file: File): Unit = {
+            if (file.isDirectory) {
+                val files = file.listFiles()
+                if (files ne null) files.sortBy(_.getName).foreach(f ⇒ updateWithFile(kind, f))
+            } else {
+                val crc = new CRC32
+                process(new FileInputStream(file)) { in ⇒
+                    val buffer = new Array[Byte](64 * 1024)
+                    var read = in.read(buffer)
+                    while (read != -1) {
+                        crc.update(buffer, 0, read)
+                        read = in.read(buffer)
+                    }
+                }
+                update(s"$kind:${file.getAbsolutePath}:${file.length}:${crc.getValue};")
+            }
+        }
+        projectFiles.foreach(f ⇒ updateWithFile("P", f))
+        libraryFiles.foreach(f ⇒ updateWithFile("L", f))
+        update(config.getConfig("org.opalj.br.reader").root.render())
+        md.digest()
+    }
+
+    /**
+     * Writes the snapshot of the given project.
+     *
+     * The snapshot is first written to a temporary file which is then atomically moved to
+     * the final location; hence, concurrently running processes will never see a partially
+     * written snapshot.
+     */
+    def write(
+        project:      Project[URL],
+        fingerprint:  Array[Byte],
+        snapshotFile: File
+    ): Unit = {
+        val toDAConfig = ToDAConfig(retainOPALAttributes = false, retainUnknownAttributes = true)
+        val classFiles = project.allClassFiles.toArray
+        val serializedClassFiles = classFiles.par.map(cf ⇒ Assembler(toDA(cf)(toDAConfig))).seq
+        val derivedData = serializeDerivedInformation(project, classFiles)
+
+        val targetFolder = snapshotFile.getAbsoluteFile.getParentFile
+        val tmpFile = File.createTempFile(snapshotFile.getName, ".tmp", targetFolder)
+        try {
+            process(new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                out ⇒
+                    out.writeInt(Magic)
+                    out.writeInt(FormatVersion)
+                    out.writeShort(fingerprint.length)
+                    out.write(fingerprint)
+                    out.writeBoolean(project.libraryClassFilesAreInterfacesOnly)
+                    out.writeInt(classFiles.length)
+                    var offset = 0
+                    var i = 0
+                    while (i < classFiles.length) {
+                        val cf = classFiles(i)
+                        val source = project.source(cf)
+                        var flags = 0
+                        if (project.isLibraryType(cf)) flags |= IsLibraryFlag
+                        if (cf.isVirtualType) flags |= IsVirtualTypeFlag
+                        if (source.isDefined) flags |= HasSourceFlag
+                        out.writeByte(flags)
+                        out.writeUTF(cf.thisType.fqn)
+                        out.writeUTF(source.map(_.toExternalForm).getOrElse(""))
+                        out.writeInt(offset)
+                        out.writeInt(serializedClassFiles(i).length)
+                        offset += serializedClassFiles(i).length
+                        if (offset < 0)
+                            throw new IOException("the snapshot would be larger than 2GB")
+                        i += 1
+                    }
+                    out.writeInt(offset)
+                    if (offset + derivedData.length < 0)
+                        throw new IOException("the snapshot would be larger than 2GB")
+                    serializedClassFiles.foreach(out.write)
+                    out.write(derivedData)
+            }
+            Files.move(
+                tmpFile.toPath, snapshotFile.toPath,
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE
+            )
+        } finally {
+            tmpFile.delete()
+        }
+    }
+
+    /**
+     * Serializes the class hierarchy, the instance methods and the overriding methods of
+     * the given project; methods are referenced using the index of the declaring class file
+     * in the given array and the index of the method in the class file.
+     */
+    private[this] def serializeDerivedInformation(
+        project:    Project[URL],
+        classFiles: Array[ClassFile]
+    ): Array[Byte] = {
+        val classFileIndexes = new IdentityHashMap[ClassFile, Integer]()
+        var i = 0
+        while (i < classFiles.length) { classFileIndexes.put(classFiles(i), i); i += 1 }
+
+        val out = new ClassFileBuffer()
+        def writeMethod(method: Method): Unit = {
+            val classFile = method.classFile
+            val methodIndex = classFile.methods.indexWhere(_ eq method)
+            out.writeInt(classFileIndexes.get(classFile).intValue)
+            out.writeShort(methodIndex)
+        }
+
+        val typeDeclarations = project.classHierarchy.typeDeclarations.toList
+        out.writeInt(typeDeclarations.size)
+        typeDeclarations foreach { td ⇒
+            var flags = 0
+            if (td.isInterfaceType) flags |= IsInterfaceFlag
+            if (td.isFinal) flags |= IsFinalFlag
+            if (td.theSuperclassType.isDefined) flags |= HasSuperclassFlag
+            out.writeByte(flags)
+            out.writeUTF(td.objectType.fqn)
+            td.theSuperclassType foreach { t ⇒ out.writeUTF(t.fqn) }
+            out.writeShort(td.theSuperinterfaceTypes.size)
+            td.theSuperinterfaceTypes foreach { t ⇒ out.writeUTF(t.fqn) }
+        }
+
+        out.writeInt(project.instanceMethods.size)
+        project.instanceMethods foreach { e ⇒
+            val (objectType, methods) = e
+            out.writeUTF(objectType.fqn)
+            out.writeInt(methods.length)
+            methods foreach { mdc ⇒ writeMethod(mdc.method) }
+        }
+
+        out.writeInt(project.overridingMethods.size)
+        project.overridingMethods foreach { e ⇒
+            val (method, overridingMethods) = e
+            writeMethod(method)
+            out.writeInt(overridingMethods.size)
+            overridingMethods foreach writeMethod
+        }
+        out.toByteArray
+    }
+
+    /**
+     * Opens the given snapshot. The snapshot's file is memory-mapped and only the
+     * snapshot's header and index are read.
+     *
+     * @throws IOException If the file is not a valid snapshot.
+     */
+    def open(
+        snapshotFile: File
+    )(
+        implicit
+        logContext: LogContext,
+        config:     Config
+    ): ProjectSnapshot = {
+        val buffer = process(FileChannel.open(snapshotFile.toPath, StandardOpenOption.READ)) {
+            channel ⇒
+                if (channel.size > Int.MaxValue)
+                    throw new IOException(s"$snapshotFile: snapshots are limited to 2GB")
+                channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size)
+        }
+        val headerIn = new ByteBufferInputStream(buffer.duplicate())
+        val in = new DataInputStream(headerIn)
+        if (in.readInt() != Magic)
+            throw new IOException(s"$snapshotFile is not an OPAL project snapshot")
+        val formatVersion = in.readInt()
+        if (formatVersion != FormatVersion)
+            throw new IOException(s"$snapshotFile: unsupported format version $formatVersion")
+        val fingerprint = new Array[Byte](in.readUnsignedShort())
+        in.readFully(fingerprint)
+        val libraryClassFilesAreInterfacesOnly = in.readBoolean()
+        val entries = new Array[Entry](in.readInt())
+        var i = 0
+        while (i < entries.length) {
+            val flags = in.readUnsignedByte()
+            val objectType = ObjectType(in.readUTF())
+            val source = in.readUTF()
+            val offset = in.readInt()
+            val length = in.readInt()
+            entries(i) = new Entry(
+                flags,
+                objectType,
+                if ((flags & HasSourceFlag) != 0) Some(source) else None,
+                offset,
+                length
+            )
+            i += 1
+        }
+        val derivedDataOffset = in.readInt()
+        val dataOffset = buffer.capacity - headerIn.available()
+        buffer.position(dataOffset)
+        new ProjectSnapshot(
+            snapshotFile,
+            fingerprint,
+            libraryClassFilesAreInterfacesOnly,
+            buffer.slice(),
+            entries,
+            derivedDataOffset,
+            config
+        )
+    }
+
+    /**
+     * Loads the project from the given snapshot file if the snapshot exists and was created
+     * for the same inputs; otherwise the project is loaded from the given files and a new
+     * snapshot is written.
+     *
+     * Failures related to reading or writing the snapshot are logged, but are otherwise
+     * ignored (the snapshot is then simply not used).
+     */
+    def loadOrCreate(
+        projectFiles: Array[File],
+        libraryFiles: Array[File],
+        snapshotFile: File
+    )(
+        implicit
+        logContext: LogContext,
+        config:     Config
+    ): Project[URL] = {
+        val currentFingerprint = fingerprint(projectFiles, libraryFiles, config)
+
+        if (snapshotFile.exists()) {
+            try {
+                val snapshot = open(snapshotFile)
+                if (Arrays.equals(snapshot.fingerprint, currentFingerprint)) {
+                    info("project configuration", s"loading the project from $snapshot")
+                    return snapshot.project();
+                } else {
+                    info("project configuration", s"$snapshotFile is outdated")
+                }
+            } catch {
+                case NonFatal(t) ⇒
+                    error("project configuration", s"cannot load snapshot $snapshotFile", t)
+            }
+        }
+
+        val project = Project(projectFiles, libraryFiles, logContext, config)
+        try {
+            write(project, currentFingerprint, snapshotFile)
+            info("project configuration", s"wrote project snapshot $snapshotFile")
+        } catch {
+            case NonFatal(t) ⇒
+                error("project configuration", s"cannot write snapshot $snapshotFile", t)
+        }
+        project
+    }
+}
@@ -5,6 +5,7 @@ import scala.language.implicitConversions
 import scala.annotation.switch
 
 import java.io.ByteArrayOutputStream
+import java.io.DataOutput
 import java.io.DataOutputStream
 
 import org.opalj.collection.immutable.UShortPair
@@ -261,10 +262,33 @@ package object ba { ba ⇒
         constantsBuffer: ConstantsBuffer,
         config:          ToDAConfig
     ): da.Code_attribute = {
-        import constantsBuffer._
         val data = new ByteArrayOutputStream(code.instructions.length)
         val instructions = new DataOutputStream(data)
+        serializeInstructions(code, instructions)
+        instructions.flush
 
+        da.Code_attribute(
+            attribute_name_index = constantsBuffer.CPEUtf8(bi.CodeAttribute.Name),
+            max_stack = code.maxStack,
+            max_locals = code.maxLocals,
+            code = da.Code(data.toByteArray),
+            exceptionTable = code.exceptionHandlers.map[da.ExceptionTableEntry](toDA),
+            attributes = code.attributes.flatMap[da.Attribute](a ⇒ toDA(a))
+        )
+    }
+
+    /**
+     * Writes the binary representation of the given code's instructions to the given output.
+     * The required constant pool entries are created on demand.
+     */
+    def serializeInstructions(
+        code:         Code,
+        instructions: DataOutput
+    )(
+        implicit
+        constantsBuffer: ConstantsBuffer
+    ): Unit = {
+        import constantsBuffer._
         def writeMethodRef(i: Instruction): MethodInvocationInstruction = {
             val mi @ MethodInvocationInstruction(declaringClass, isInterface, name, descriptor) = i
             val cpeRef =
@@ -507,17 +531,6 @@ package object ba { ba ⇒
                     modifiedByWide = true
             }
         }
-
-        instructions.flush
-
-        da.Code_attribute(
-            attribute_name_index = constantsBuffer.CPEUtf8(bi.CodeAttribute.Name),
-            max_stack = code.maxStack,
-            max_locals = code.maxLocals,
-            code = da.Code(data.toByteArray),
-            exceptionTable = code.exceptionHandlers.map[da.ExceptionTableEntry](toDA),
-            attributes = code.attributes.flatMap[da.Attribute](a ⇒ toDA(a))
-        )
     }
 
     def toDA(
@@ -1105,11 +1118,9 @@ package object ba { ba ⇒
                 }
 
             case br.SynthesizedClassFiles.KindId ⇒
-                if (config.retainOPALAttributes) {
-                    ???
-                } else {
-                    None
-                }
+                // The attribute only references other (in-memory) class files which have
+                // to be serialized on their own; it has no binary representation.
+                None
 
             case br.UnknownAttribute.KindId ⇒
                 if (config.retainUnknownAttributes) {
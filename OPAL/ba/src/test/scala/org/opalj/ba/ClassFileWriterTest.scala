@@ -0,0 +1,89 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ba
+
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+import org.scalatest.FlatSpec
+import org.scalatest.Matchers
+
+import java.io.File
+import java.util.Arrays
+
+import org.opalj.bi.TestResources.locateTestResources
+import org.opalj.br.reader.Java9Framework.ClassFiles
+import org.opalj.bc.Assembler
+
+/**
+ * Tests that the [[ClassFileWriter]] creates the same binary representation as
+ * `Assembler(toDA(classFile))`.
+ *
+ * @author agent
+ */
+@RunWith(classOf[JUnitRunner])
+class ClassFileWriterTest extends FlatSpec with Matchers {
+
+    def testFile(name: String): File = locateTestResources("classfiles/"+name, "bi")
+
+    def assertSameBytes(
+        file:   File,
+        config: ToDAConfig = ToDAConfig.RetainAllAttributes
+    ): Unit = {
+        val writer = new ClassFileWriter(initialCapacity = 256)(config) // let the buffers grow
+        val classFiles = ClassFiles(file).map(_._1)
+        classFiles should not be (empty)
+        classFiles foreach { cf ⇒
+            val expected = Assembler(toDA(cf)(config))
+            if (!Arrays.equals(writer(cf), expected)) {
+                fail(s"${cf.thisType.toJava}: the binary representations are different")
+            }
+        }
+    }
+
+    behavior of "the ClassFileWriter"
+
+    it should "create the same bytes as the Assembler for Java 5 class files" in {
+        assertSameBytes(testFile("Apache ANT 1.7.1 - target 1.5.jar"))
+    }
+
+    it should "create the same bytes as the Assembler for class files with debug information" in {
+        assertSameBytes(testFile("Multithreaded RPN Calculator 2008_10_17 - Java 6 all debug info.jar"))
+    }
+
+    it should "create the same bytes as the Assembler for class files using invokedynamic" in {
+        assertSameBytes(testFile("jcg_lambda_expressions.jar"))
+        assertSameBytes(testFile("groovy-2.2.1-indy.jar"))
+    }
+
+    it should "create the same bytes as the Assembler for module-info class files" in {
+        assertSameBytes(testFile("Java9-selected-jmod-module-info.classes.zip"))
+    }
+
+    it should "create the same bytes as the Assembler if some attributes are not retained" in {
+        assertSameBytes(testFile("Apache ANT 1.7.1 - target 1.5.jar"), ToDAConfig())
+    }
+
+    it should "return the same bytes when a class file is serialized again" in {
+        val writer = new ClassFileWriter
+        val classFiles = ClassFiles(testFile("Apache ANT 1.7.1 - target 1.5.jar")).map(_._1)
+        val bytes = classFiles.map(writer(_))
+        classFiles.reverse.zip(bytes.reverse) foreach { e ⇒
+            val (cf, expected) = e
+            val buffer = writer.write(cf)
+            val actual = new Array[Byte](buffer.remaining())
+            buffer.get(actual)
+            actual should be(expected)
+        }
+    }
+
+    it should "ignore OPAL's SynthesizedClassFiles attribute" in {
+        val writer = new ClassFileWriter
+        val classFile = ClassFiles(testFile("jcg_lambda_expressions.jar")).head._1
+        val synthesizedClassFiles = br.SynthesizedClassFiles(List((classFile, None)))
+        val annotatedClassFile = classFile.copy(
+            attributes = classFile.attributes :+ synthesizedClassFiles
+        )
+        writer(annotatedClassFile) should be(writer(classFile))
+        writer(annotatedClassFile) should be(Assembler(toDA(annotatedClassFile)))
+    }
+}
@@ -0,0 +1,154 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ba
+
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+import org.scalatest.FunSpec
+import org.scalatest.Matchers
+
+import java.io.File
+import java.nio.file.Files
+
+import org.opalj.log.GlobalLogContext
+import org.opalj.bi.TestResources.locateTestResources
+import org.opalj.br.Method
+import org.opalj.br.analyses.Project
+
+/**
+ * Tests that a [[ProjectSnapshot]] is a faithful representation of a project.
+ *
+ * @author agent
+ */
+@RunWith(classOf[JUnitRunner])
+class ProjectSnapshotTest extends FunSpec with Matchers {
+
+    implicit val logContext = GlobalLogContext
+    implicit val config = org.opalj.br.BaseConfig
+
+    val projectFiles = Array(locateTestResources("classfiles/flashcards.jar", "ai"))
+    val libraryFiles = Array(locateTestResources("classfiles/Empty.jar", "bi"))
+
+    def withSnapshotFile[T](f: File ⇒ T): T = {
+        val folder = Files.createTempDirectory("OPAL-ProjectSnapshotTest").toFile
+        val snapshotFile = new File(folder, "project.snapshot")
+        try {
+            f(snapshotFile)
+        } finally {
+            snapshotFile.delete()
+            folder.delete()
+        }
+    }
+
+    describe("a ProjectSnapshot") {
+
+        it("should contain all class files of the project") {
+            withSnapshotFile { snapshotFile ⇒
+                val project = Project(projectFiles, libraryFiles, logContext, config)
+                val fingerprint = ProjectSnapshot.fingerprint(projectFiles, libraryFiles, config)
+                ProjectSnapshot.write(project, fingerprint, snapshotFile)
+
+                val snapshot = ProjectSnapshot.open(snapshotFile)
+                snapshot.fingerprint should be(fingerprint)
+                snapshot.classFilesCount should be(project.classFilesCount)
+                snapshot.objectTypes.toSet should be(project.allClassFiles.map(_.thisType).toSet)
+                project.allClassFiles foreach { cf ⇒
+                    val snapshotCF = snapshot.classFile(cf.thisType).get
+                    snapshotCF.methods.map(_.toJava) should be(cf.methods.map(_.toJava))
+                    snapshotCF.fields.map(_.toJava) should be(cf.fields.map(_.toJava))
+                    snapshotCF.methods.zip(cf.methods) foreach { ms ⇒
+                        val (snapshotM, m) = ms
+                        snapshotM.body.map(_.instructions.toList) should be(
+                            m.body.map(_.instructions.toList)
+                        )
+                    }
+                }
+            }
+        }
+
+        it("should restore the derived information without recomputing it") {
+            withSnapshotFile { snapshotFile ⇒
+                val project = Project(projectFiles, libraryFiles, logContext, config)
+                val fingerprint = ProjectSnapshot.fingerprint(projectFiles, libraryFiles, config)
+                ProjectSnapshot.write(project, fingerprint, snapshotFile)
+                val restoredProject = ProjectSnapshot.open(snapshotFile).project()
+
+                def signature(m: Method): String = m.toJava
+                def isRestored(m: Method): Boolean = {
+                    restoredProject.classFile(m.classFile.thisType).get.methods.exists(_ eq m)
+                }
+
+                val classHierarchy = project.classHierarchy
+                val restoredClassHierarchy = restoredProject.classHierarchy
+                restoredClassHierarchy should not be theSameInstanceAs(classHierarchy)
+                classHierarchy foreachKnownType { t ⇒
+                    restoredClassHierarchy.superclassType(t) should be(
+                        classHierarchy.superclassType(t)
+                    )
+                    restoredClassHierarchy.superinterfaceTypes(t) should be(
+                        classHierarchy.superinterfaceTypes(t)
+                    )
+                    restoredClassHierarchy.isKnownToBeFinal(t) should be(
+                        classHierarchy.isKnownToBeFinal(t)
+                    )
+                }
+                restoredClassHierarchy.leafTypes should be(classHierarchy.leafTypes)
+
+                restoredProject.instanceMethods.keySet should be(project.instanceMethods.keySet)
+                project.instanceMethods foreach { e ⇒
+                    val (objectType, methods) = e
+                    val restoredMethods = restoredProject.instanceMethods(objectType).map(_.method)
+                    restoredMethods.map(signature).toList should be(
+                        methods.map(mdc ⇒ signature(mdc.method)).toList
+                    )
+                    restoredMethods.forall(isRestored) should be(true)
+                }
+
+                restoredProject.overridingMethods.size should be(project.overridingMethods.size)
+                def overridingMethods(p: Project[_]): Map[String, Set[String]] = {
+                    p.overridingMethods.map(e ⇒ (signature(e._1), e._2.map(signature).toSet)).toMap
+                }
+                overridingMethods(restoredProject) should be(overridingMethods(project))
+                restoredProject.overridingMethods foreach { e ⇒
+                    val (method, overridingMethods) = e
+                    isRestored(method) should be(true)
+                    overridingMethods.forall(isRestored) should be(true)
+                }
+            }
+        }
+
+        it("should be used to recreate the project if the inputs are unchanged") {
+            withSnapshotFile { snapshotFile ⇒
+                val project = ProjectSnapshot.loadOrCreate(projectFiles, libraryFiles, snapshotFile)
+                snapshotFile should be('exists)
+
+                val recreatedProject =
+                    ProjectSnapshot.loadOrCreate(projectFiles, libraryFiles, snapshotFile)
+                recreatedProject.source(project.allProjectClassFiles.head) should be(
+                    project.source(project.allProjectClassFiles.head)
+                )
+                recreatedProject.projectClassFilesCount should be(project.projectClassFilesCount)
+                recreatedProject.libraryClassFilesCount should be(project.libraryClassFilesCount)
+                recreatedProject.methodsCount should be(project.methodsCount)
+                recreatedProject.classHierarchy.leafTypes should be(
+                    project.classHierarchy.leafTypes
+                )
+            }
+        }
+
+        it("should not be used if the configuration was changed") {
+            withSnapshotFile { snapshotFile ⇒
+                ProjectSnapshot.loadOrCreate(projectFiles, libraryFiles, snapshotFile)
+                val oldFingerprint = ProjectSnapshot.open(snapshotFile).fingerprint
+                val newConfig = config.withValue(
+                    org.opalj.br.reader.InvokedynamicRewriting.InvokedynamicRewritingConfigKey,
+                    com.typesafe.config.ConfigValueFactory.fromAnyRef(false)
+                )
+                ProjectSnapshot.loadOrCreate(projectFiles, Array.empty, snapshotFile)(
+                    logContext, newConfig
+                )
+                ProjectSnapshot.open(snapshotFile).fingerprint should not be (oldFingerprint)
+            }
+        }
+    }
+}
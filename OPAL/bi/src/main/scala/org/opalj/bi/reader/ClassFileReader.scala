@@ -10,13 +10,18 @@ import java.io.ByteArrayInputStream
 import java.io.DataInputStream
 import java.io.BufferedInputStream
 import java.io.IOException
-import java.io.ByteArrayOutputStream
 import java.nio.file.FileSystems
 import java.nio.file.Path
 import java.nio.file.Files
+import java.util.Arrays
 import java.util.zip.{ZipEntry, ZipFile}
 import java.net.URL
 import java.net.URI
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.channels.FileChannel
+import java.nio.charset.StandardCharsets
+import java.nio.file.StandardOpenOption
 import java.util.concurrent.ConcurrentLinkedQueue
 import java.util.concurrent.atomic.AtomicInteger
 import java.util.jar.JarInputStream
@@ -35,6 +40,7 @@ import org.opalj.log.OPALLogger.error
 import org.opalj.log.OPALLogger.info
 import org.opalj.control.fillArrayOfInt
 import org.opalj.io.process
+import org.opalj.io.ByteBufferInputStream
 import org.opalj.concurrent.OPALExecutionContextTaskSupport
 import org.opalj.concurrent.NumberOfThreadsForIOBoundTasks
 import org.opalj.bytecode.BytecodeProcessingFailedException
@@ -177,6 +183,35 @@ trait ClassFileReader extends ClassFileReaderConfiguration with Constant_PoolAbs
         error("class file reader", s"processing $source failed", t)
     }
 
+    /**
+     * If `true`, class files are parsed directly from `ByteBuffer`s; see
+     * [[ClassFileReader$.ZeroCopyReadingConfigKey]] for further details.
+     */
+    final val zeroCopyReading: Boolean = {
+        import ClassFileReader.{ZeroCopyReadingConfigKey ⇒ Key}
+        try {
+            config.getBoolean(Key)
+        } catch {
+            case t: Throwable ⇒
+                error("class file reader", s"couldn't read: $Key", t)
+                false
+        }
+    }
+
+    /**
+     * The minimum size of a class file stored in the file system that is memory mapped.
+     */
+    final val memoryMappingThreshold: Long = {
+        import ClassFileReader.{MemoryMappingThresholdConfigKey ⇒ Key}
+        try {
+            config.getBytes(Key)
+        } catch {
+            case t: Throwable ⇒
+                error("class file reader", s"couldn't read: $Key", t)
+                Long.MaxValue
+        }
+    }
+
     private[this] var classFilePostProcessors = RefArray.empty[List[ClassFile] ⇒ List[ClassFile]]
 
     /**
@@ -305,6 +340,16 @@ trait ClassFileReader extends ClassFileReaderConfiguration with Constant_PoolAbs
         }
     }
 
+    /**
+     * Reads in a class file from the remaining bytes of the given buffer; the data is not
+     * copied. The buffer's position is advanced to the end of the class file.
+     *
+     * @param   buffer A heap or a direct (e.g., memory-mapped) buffer.
+     */
+    def ClassFile(buffer: ByteBuffer): List[ClassFile] = {
+        ClassFile(new DataInputStream(new ByteBufferInputStream(buffer)))
+    }
+
     def isClassFileRepository(filename: String, containerName: Option[String]): Boolean = {
         if (containerName.isDefined) {
             // We don't want to extract inner jars,... from jmods (the default jmods contain
@@ -324,7 +369,12 @@ trait ClassFileReader extends ClassFileReaderConfiguration with Constant_PoolAbs
 
     protected[this] def ClassFile(jarFile: ZipFile, jarEntry: ZipEntry): List[ClassFile] = {
         process(jarFile.getInputStream(jarEntry)) { in ⇒
-            ClassFile(new DataInputStream(new BufferedInputStream(in)))
+            if (zeroCopyReading) {
+                // the entry is directly inflated into a buffer which has the required size
+                ClassFile(ByteBuffer.wrap(ClassFileReader.readAllBytes(in, jarEntry.getSize)))
+            } else {
+                ClassFile(new DataInputStream(new BufferedInputStream(in)))
+            }
         }
     }
 
@@ -411,19 +461,10 @@ trait ClassFileReader extends ClassFileReaderConfiguration with Constant_PoolAbs
         while (je != null) {
             val entryName = je.getName
             if (entryName.endsWith(".class") || entryName.endsWith(".jar")) {
-                val entryBytes = {
-                    val baos = new ByteArrayOutputStream()
-                    val buffer = new Array[Byte](32 * 1024)
-
-                    Stream.continually(in.read(buffer)).takeWhile(_ > 0).foreach { bytesRead ⇒
-                        baos.write(buffer, 0, bytesRead)
-                        baos.flush()
-                    }
-                    baos.toByteArray
-                }
+                val entryBytes = ClassFileReader.readAllBytes(in, je.getSize)
                 futures ::= Future[List[(ClassFile, String)]] {
                     if (entryName.endsWith(".class")) {
-                        val cfs = ClassFile(new DataInputStream(new ByteArrayInputStream(entryBytes)))
+                        val cfs = ClassFile(ByteBuffer.wrap(entryBytes))
                         cfs map { cf ⇒ (cf, entryName) }
                     } else { // ends with ".jar"
                         info("class file reader", s"reading inner jar $entryName")
@@ -481,6 +522,20 @@ trait ClassFileReader extends ClassFileReaderConfiguration with Constant_PoolAbs
         val innerJarEntries = new ConcurrentLinkedQueue[ZipEntry]
 
         val jarEntries = jarFile.entries.asScala.toArray
+        // the class files which are stored uncompressed are parsed from the mapped archive
+        val storedClassFiles: Map[String, ByteBuffer] =
+            if (zeroCopyReading && jarEntries.exists(_.getMethod == ZipEntry.STORED)) {
+                try {
+                    ClassFileReader.mapStoredClassFiles(new File(jarFile.getName))
+                } catch {
+                    case ct: ControlThrowable ⇒ throw ct
+                    case t: Throwable ⇒
+                        error("class file reader", s"mapping ${jarFile.getName} failed", t)
+                        Map.empty
+                }
+            } else {
+                Map.empty
+            }
         val nextEntryIndex = new AtomicInteger(jarEntries.length - 1)
         val parallelismLevel = NumberOfThreadsForIOBoundTasks
         val futures: Array[Future[Unit]] = new Array(parallelismLevel)
@@ -495,7 +550,10 @@ trait ClassFileReader extends ClassFileReaderConfiguration with Constant_PoolAbs
                         if (jarEntryName.endsWith(".class")) {
                             try {
                                 val url = new URL(jarFileURL + jarEntry.getName)
-                                val classFiles = ClassFile(jarFile, jarEntry)
+                                val classFiles = storedClassFiles.get(jarEntryName) match {
+                                    case Some(buffer) ⇒ ClassFile(buffer)
+                                    case None         ⇒ ClassFile(jarFile, jarEntry)
+                                }
                                 classFiles foreach (classFile ⇒ classFileHandler(classFile, url))
                             } catch {
                                 case ct: ControlThrowable ⇒ throw ct
@@ -573,9 +631,15 @@ trait ClassFileReader extends ClassFileReaderConfiguration with Constant_PoolAbs
         exceptionHandler: ExceptionHandler = defaultExceptionHandler
     ): List[(ClassFile, URL)] = {
         try {
-            process(
-                new DataInputStream(new BufferedInputStream(new FileInputStream(file)))
-            ) { in ⇒ ClassFile(in).map(classFile ⇒ (classFile, file.toURI.toURL)) }
+            val classFiles =
+                if (zeroCopyReading) {
+                    ClassFile(ClassFileReader.mapOrReadFile(file, memoryMappingThreshold))
+                } else {
+                    process(
+                        new DataInputStream(new BufferedInputStream(new FileInputStream(file)))
+                    ) { in ⇒ ClassFile(in) }
+                }
+            classFiles.map(classFile ⇒ (classFile, file.toURI.toURL))
         } catch {
             case e: Exception ⇒ { exceptionHandler(file, e); Nil }
         }
@@ -764,4 +828,138 @@ object ClassFileReader {
 
     type ExceptionHandler = (AnyRef, Throwable) ⇒ Unit
 
+    final val ConfigKeyPrefix = "org.opalj.bi.reader.ClassFileReader."
+
+    /**
+     * If `true`, class files are parsed directly from `ByteBuffer`s instead of using
+     * (buffered) streams. Class files which are stored uncompressed (`STORED`) in archives
+     * are parsed from the memory-mapped archive (see [[mapStoredClassFiles]]); compressed
+     * class files are inflated into buffers which have exactly the required size. Class
+     * files stored in the file system are either read using a single read operation or –
+     * if the file is at least as large as configured using the
+     * [[MemoryMappingThresholdConfigKey]] – memory mapped.
+     */
+    final val ZeroCopyReadingConfigKey = ConfigKeyPrefix+"zeroCopyReading"
+
+    final val MemoryMappingThresholdConfigKey = ConfigKeyPrefix+"memoryMappingThreshold"
+
+    /**
+     * Reads all remaining bytes of the given stream. If the `size` is known (i.e., not `-1`),
+     * the bytes are read directly into an array of the given size; otherwise the array is
+     * grown as necessary. The stream is not closed.
+     */
+    def readAllBytes(in: InputStream, size: Long): Array[Byte] = {
+        if (size > Int.MaxValue)
+            throw new IOException(s"the size of the entry is too large: $size")
+
+        var data = new Array[Byte](if (size >= 0L) size.toInt else 16 * 1024)
+        var length = 0
+        var read = 0
+        while (read != -1) {
+            if (length == data.length) {
+                if (size >= 0L && in.read() == -1)
+                    return data; // <= the common case
+
+                if (size >= 0L)
+                    throw new IOException(s"the entry is larger than its declared size: $size")
+                data = Arrays.copyOf(data, Math.max(data.length * 2, 1024))
+            }
+            read = in.read(data, length, data.length - length)
+            if (read > 0) length += read
+        }
+        if (length == data.length) data else Arrays.copyOf(data, length)
+    }
+
+    /**
+     * Memory maps the given zip file and returns for each `.class` entry which is stored
+     * uncompressed (`STORED`) a read-only view of the mapped file that contains exactly
+     * the entry's data. The entries are located using the archive's central directory.
+     *
+     * Archives which use ZIP64 extensions or whose central directory cannot be found are
+     * not mapped; in that case – as well as if the archive contains no stored class
+     * files – the returned map is empty.
+     *
+     * @note    Each view must only be used by a single thread.
+     */
+    def mapStoredClassFiles(file: File): Map[String, ByteBuffer] = {
+        process(FileChannel.open(file.toPath, StandardOpenOption.READ)) { channel ⇒
+            val size = channel.size
+            // 22 is the size of the end of central directory record (without a comment)
+            if (size < 22L || size > Int.MaxValue)
+                return Map.empty;
+
+            val archive = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size)
+            archive.order(ByteOrder.LITTLE_ENDIAN)
+            def u2(position: Int): Int = archive.getShort(position) & 0xFFFF
+            def u4(position: Int): Long = archive.getInt(position) & 0xFFFFFFFFL
+
+            // the end of central directory record is followed by a comment of at most 64KB
+            var eocd = size.toInt - 22
+            val minEOCD = Math.max(0, eocd - 0xFFFF)
+            while (eocd >= minEOCD && archive.getInt(eocd) != 0x06054b50) eocd -= 1
+            if (eocd < minEOCD)
+                return Map.empty;
+
+            val entriesCount = u2(eocd + 10)
+            val centralDirectoryOffset = u4(eocd + 16)
+            if (entriesCount == 0xFFFF || centralDirectoryOffset >= eocd)
+                return Map.empty; // ZIP64 or an invalid archive
+
+            var storedClassFiles = Map.empty[String, ByteBuffer]
+            var entry = centralDirectoryOffset.toInt
+            var i = 0
+            while (i < entriesCount) {
+                if (entry + 46 > eocd || archive.getInt(entry) != 0x02014b50)
+                    return Map.empty;
+
+                val method = u2(entry + 10)
+                val compressedSize = u4(entry + 20)
+                val nameLength = u2(entry + 28)
+                val localHeaderOffset = u4(entry + 42)
+                if (method == ZipEntry.STORED &&
+                    compressedSize > 0L && compressedSize != 0xFFFFFFFFL &&
+                    localHeaderOffset + 30L < eocd) {
+                    val nameBytes = new Array[Byte](nameLength)
+                    archive.position(entry + 46)
+                    archive.get(nameBytes)
+                    val name = new String(nameBytes, StandardCharsets.UTF_8)
+                    val localHeader = localHeaderOffset.toInt
+                    if (name.endsWith(".class") && archive.getInt(localHeader) == 0x04034b50) {
+                        val start = localHeader + 30 + u2(localHeader + 26) + u2(localHeader + 28)
+                        if (start + compressedSize <= eocd) {
+                            val data = archive.duplicate()
+                            data.limit(start + compressedSize.toInt)
+                            data.position(start)
+                            storedClassFiles += ((name, data.slice().order(ByteOrder.BIG_ENDIAN)))
+                        }
+                    }
+                }
+                entry += 46 + nameLength + u2(entry + 30) + u2(entry + 32)
+                i += 1
+            }
+            storedClassFiles
+        }
+    }
+
+    /**
+     * Reads the given file into a `ByteBuffer` which is memory mapped if the file is at
+     * least `memoryMappingThreshold` bytes large.
+     */
+    def mapOrReadFile(file: File, memoryMappingThreshold: Long): ByteBuffer = {
+        process(FileChannel.open(file.toPath, StandardOpenOption.READ)) { channel ⇒
+            val size = channel.size
+            if (size > Int.MaxValue)
+                throw new IOException(s"the file $file is too large: $size")
+
+            if (size >= memoryMappingThreshold) {
+                channel.map(FileChannel.MapMode.READ_ONLY, 0L, size)
+            } else {
+                val buffer = ByteBuffer.allocate(size.toInt)
+                while (buffer.hasRemaining && channel.read(buffer) != -1) { /* continue */ }
+                buffer.flip()
+                buffer
+            }
+        }
+    }
+
 }
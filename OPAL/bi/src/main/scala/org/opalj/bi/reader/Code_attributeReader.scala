@@ -96,6 +96,20 @@ trait Code_attributeReader extends AttributeReader {
         in: DataInputStream
     ) ⇒ {
         /*val attribute_length = */ in.readInt()
+        Code_attribute(cp, ap_name_index, ap_descriptor_index, attribute_name_index, in)
+    }
+
+    /**
+     * Reads the code attribute; the given stream has to be positioned directly after the
+     * attribute's `attribute_length` field.
+     */
+    protected def Code_attribute(
+        cp:                   Constant_Pool,
+        ap_name_index:        Constant_Pool_Index,
+        ap_descriptor_index:  Constant_Pool_Index,
+        attribute_name_index: Constant_Pool_Index,
+        in:                   DataInputStream
+    ): Code_attribute = {
         Code_attribute(
             cp,
             ap_name_index,
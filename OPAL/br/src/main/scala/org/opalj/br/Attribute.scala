@@ -58,6 +58,7 @@ trait Attribute {
      *  - 1001 OPAL's VirtualTypeFlag Attribute
      *  - 1002 OPAL's SynthesizedClassFiles Attribute
      *  - 1003 OPAL's TACode Attribute (the 3-Address Code)
+     *  - 1004 OPAL's DeferredCode Attribute (a not yet deserialized Code attribute)
      */
     def kindId: Int
 
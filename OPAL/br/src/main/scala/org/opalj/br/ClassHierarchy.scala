@@ -98,6 +98,9 @@ import org.opalj.br.ObjectType.Object
  *          as such is incomplete. Whether the type information is complete for a given type
  *          or not can be checked using `isSupertypeInformationComplete`.
  *
+ * @param   subtypeTestIndex The index derived from the supertype information which is used
+ *          to test in constant time whether a type is a subtype of another type.
+ *
  * @author Michael Eichberg
  */
 class ClassHierarchy private (
@@ -122,7 +125,8 @@ class ClassHierarchy private (
         private[this] val isSupertypeInformationCompleteMap: Array[Boolean],
 
         private[this] val supertypeInformationMap: Array[SupertypeInformation],
-        private[this] val subtypeInformationMap:   Array[SubtypeInformation]
+        private[this] val subtypeInformationMap:   Array[SubtypeInformation],
+        private[this] val subtypeTestIndex:        SubtypeTestIndex
 )(
         implicit
         val logContext: LogContext
@@ -142,7 +146,8 @@ class ClassHierarchy private (
             leafTypes,
             isSupertypeInformationCompleteMap,
             supertypeInformationMap,
-            subtypeInformationMap
+            subtypeInformationMap,
+            subtypeTestIndex
         )(
             newLogContext
         )
@@ -400,6 +405,28 @@ class ClassHierarchy private (
         foreachNonNullValue(knownTypesMap)((_ /*index*/ , t) ⇒ f(t))
     }
 
+    /**
+     * The declarations of all types for which the supertype information is available.
+     * Passing the declarations to [[ClassHierarchy$.create]] (without class files)
+     * recreates this class hierarchy; the types which are only known as supertypes are
+     * implied by the declarations.
+     */
+    def typeDeclarations: Iterator[TypeDeclaration] = {
+        val declaredTypes = knownTypesMap.iterator.filter { t ⇒
+            (t ne null) && (superinterfaceTypesMap(t.id) ne null)
+        }
+        declaredTypes map { t ⇒
+            val oid = t.id
+            TypeDeclaration(
+                t,
+                isInterfaceTypeMap(oid),
+                Option(superclassTypeMap(oid)),
+                superinterfaceTypesMap(oid),
+                isKnownToBeFinalMap(oid)
+            )
+        }
+    }
+
     /**
      * Returns `true` if the given type is `final`. I.e., the declaring class
      * was explicitly declared `final` and no subtypes exist.
@@ -1260,7 +1287,11 @@ class ClassHierarchy private (
         if (isUnknown(theSupertypeId))
             return false;
 
-        subtypeInformationMap(theSupertypeId).contains(subtype)
+        if (theSupertypeId == ObjectType.ObjectId)
+            return true;
+
+        val subtypeId = subtype.id
+        isKnown(subtypeId) && subtypeTestIndex.isSubtypeOf(subtypeId, theSupertypeId)
     }
 
     /**
@@ -1427,12 +1458,12 @@ class ClassHierarchy private (
             // and this is already checked before.
             return No;
 
-        val supertypeInformationMap = this.supertypeInformationMap
-        if (supertypeInformationMap(subtypeId).containsId(theSupertypeId))
+        val subtypeTestIndex = this.subtypeTestIndex
+        if (subtypeTestIndex.isSubtypeOf(subtypeId, theSupertypeId))
             Yes
         else if (isSupertypeInformationCompleteMap(subtypeId))
             No
-        else if (supertypeInformationMap(theSupertypeId).containsId(subtypeId))
+        else if (subtypeTestIndex.isSubtypeOf(theSupertypeId, subtypeId))
             No
         else
             Unknown
@@ -2627,6 +2658,7 @@ class ClassHierarchy private (
                 }.mkString("\n\t")
             s += "\n\t average number of supertypes: "+(overallDepth / (subtypeInformationMap.count(_ != null) - 1))
         }
+        s += "\n\t"+subtypeTestIndex
         s += "\n)"
         s
     }
@@ -2901,7 +2933,7 @@ object ClassHierarchy {
                     process(
                         objectType,
                         typeDeclaration.isInterfaceType,
-                        isFinal = false,
+                        typeDeclaration.isFinal,
                         typeDeclaration.theSuperclassType,
                         typeDeclaration.theSuperinterfaceTypes
                     )
@@ -3328,6 +3360,10 @@ object ClassHierarchy {
 
         val supertypes = await(supertypesFuture, Inf)
 
+        val subtypeTestIndex = SubtypeTestIndex(
+            knownTypesMap, isInterfaceTypeMap, subclassTypesMap, rootTypes, supertypes
+        )
+
         new ClassHierarchy(
             // BAREBONE INFORMATION
             knownTypesMap,
@@ -3343,7 +3379,8 @@ object ClassHierarchy {
             leafTypes,
             isSupertypeInformationCompleteMap,
             supertypes,
-            subtypes
+            subtypes,
+            subtypeTestIndex
         )
     }
 }
@@ -0,0 +1,44 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package br
+
+/**
+ * The serialized – not yet deserialized – body of a method.
+ *
+ * A `DeferredCode` attribute is created by the class file reader if the method bodies are
+ * deserialized lazily (see [[org.opalj.br.reader.DeferredCodeBinding]]). It is never
+ * part of a method's attributes; instead, the body is deserialized when the method's
+ * [[Method.body]] is accessed for the first time.
+ *
+ * @author agent
+ */
+abstract class DeferredCode extends Attribute {
+
+    /**
+     * Deserializes (and optimizes) the method's body; each call returns a new [[Code]] object.
+     */
+    def deserialize(): Code
+
+    /**
+     * The size of the method's bytecode in bytes; i.e., the `codeSize` of the
+     * deserialized [[Code]] object.
+     */
+    def codeSize: Int
+
+    final override def kindId: Int = DeferredCode.KindId
+
+    override def similar(other: Attribute, config: SimilarityTestConfiguration): Boolean = {
+        other match {
+            case that: DeferredCode ⇒ this.deserialize().similar(that.deserialize(), config)
+            case that: Code         ⇒ this.deserialize().similar(that, config)
+            case _                  ⇒ false
+        }
+    }
+
+}
+
+object DeferredCode {
+
+    final val KindId = 1004
+
+}
@@ -0,0 +1,88 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package br
+
+import java.lang.ref.ReferenceQueue
+import java.lang.ref.WeakReference
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * A concurrent table to intern (canonicalize) values; the values are only weakly referenced.
+ *
+ * Lookups of already interned values are lock-free. The creation of a new value is guaranteed
+ * to happen at most once per key (as long as the value is strongly reachable) and only
+ * synchronizes with concurrent creations of values with the same hash code (bin); i.e., no
+ * global lock is used. Hence, a creation function which assigns dense ids to the created
+ * values will never leave gaps.
+ *
+ * Entries whose values were garbage collected are removed when new values are created.
+ *
+ * @note   The creation function must not (directly or indirectly) intern values using the
+ *         same table.
+ *
+ * @author agent
+ */
+private[br] final class InterningTable[K <: AnyRef, V <: AnyRef](initialCapacity: Int) {
+
+    private[this] final class Entry(
+            val key: K,
+            value:   V,
+            queue:   ReferenceQueue[V]
+    ) extends WeakReference[V](value, queue)
+
+    private[this] val table = new ConcurrentHashMap[K, Entry](initialCapacity)
+
+    private[this] val collectedValues = new ReferenceQueue[V]()
+
+    /**
+     * Returns the interned value for the given key or `null` if no such value exists.
+     */
+    def get(key: K): V = {
+        val entry = table.get(key)
+        if (entry ne null) entry.get else null.asInstanceOf[V]
+    }
+
+    /**
+     * Returns the interned value for the given key; if no such value exists, the value is
+     * created using `create` and interned.
+     */
+    def getOrCreate(key: K, create: K ⇒ V): V = {
+        val v = get(key)
+        if (v ne null)
+            return v;
+
+        removeEntriesOfCollectedValues()
+        var value: V = null.asInstanceOf[V] // the value needs to be strongly referenced!
+        table.compute(
+            key,
+            (key: K, entry: Entry) ⇒ {
+                if (entry ne null) value = entry.get
+                if (value ne null) {
+                    entry
+                } else {
+                    value = create(key)
+                    new Entry(key, value, collectedValues)
+                }
+            }
+        )
+        value
+    }
+
+    /** Calls the given function for each value that is (currently) interned. */
+    def foreachValue[U](f: V ⇒ U): Unit = {
+        val entriesIterator = table.values().iterator()
+        while (entriesIterator.hasNext) {
+            val v = entriesIterator.next.get()
+            if (v ne null) f(v)
+        }
+    }
+
+    private[this] def removeEntriesOfCollectedValues(): Unit = {
+        var entry = collectedValues.poll()
+        while (entry ne null) {
+            val e = entry.asInstanceOf[Entry]
+            table.remove(e.key, e)
+            entry = collectedValues.poll()
+        }
+    }
+}
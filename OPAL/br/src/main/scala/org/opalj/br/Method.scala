@@ -66,6 +66,20 @@ sealed abstract class JVMMethod
     /** The body of the method if any. */
     def body: Option[Code]
 
+    /**
+     * `true` if this method has a body; a lazily deserialized body is not deserialized.
+     */
+    def hasBody: Boolean = body.isDefined
+
+    /**
+     * The size of this method's bytecode in bytes or 0 if the method has no body; a lazily
+     * deserialized body is not deserialized.
+     */
+    def codeSize: Int = {
+        val body = this.body
+        if (body.isDefined) body.get.codeSize else 0
+    }
+
     /**
      * This method's defined attributes. (Which attributes are available
      * generally depends on the configuration of the class file reader. However,
@@ -74,12 +88,22 @@ sealed abstract class JVMMethod
      */
     def attributes: Attributes
 
+    /**
+     * The not yet deserialized body of this method, if the body is deserialized lazily
+     * and was not yet accessed; `null` otherwise.
+     */
+    private[br] def deferredBody: DeferredCode = null
+
     // This method is only to be called by ..br.ClassFile to associate this method
     // with the respective class file.
     private[br] def prepareClassFileAttachement(): Method = {
+        val deferredBody = this.deferredBody
         new Method(
             null /*will be set by class file*/ ,
-            accessFlags, name, descriptor, body, attributes
+            accessFlags, name, descriptor,
+            if (deferredBody ne null) None else body,
+            attributes,
+            deferredBody
         )
     }
 
@@ -398,16 +422,52 @@ final class MethodTemplate private[br] (
  * using [[MethodTemplate]]s.
  *
  * @param declaringClassFile The declaring class file.
+ * @param initialDeferredBody The serialized body of the method if the body is deserialized
+ *        lazily (`initialBody` is then `None`); `null` otherwise.
  */
 final class Method private[br] (
         private[br] var declaringClassFile: ClassFile, // the back-link can be updated to enable efficient load-time transformations
         val accessFlags:                    Int,
         val name:                           String,
         val descriptor:                     MethodDescriptor,
-        val body:                           Option[Code],
-        val attributes:                     Attributes
+        initialBody:                        Option[Code],
+        val attributes:                     Attributes,
+        initialDeferredBody:                DeferredCode     = null
 ) extends JVMMethod {
 
+    private[this] var theBody: Option[Code] = initialBody
+
+    // The body is deserialized at most once; the volatile write/read of the deferred body
+    // ensures that the deserialized body is safely published.
+    @volatile private[this] var theDeferredBody: DeferredCode = initialDeferredBody
+
+    private[br] override def deferredBody: DeferredCode = theDeferredBody
+
+    def body: Option[Code] = {
+        val deferredBody = theDeferredBody
+        if (deferredBody ne null) {
+            deferredBody.synchronized {
+                if (theDeferredBody eq deferredBody) {
+                    theBody = Some(deferredBody.deserialize())
+                    theDeferredBody = null
+                }
+            }
+        }
+        theBody
+    }
+
+    override def hasBody: Boolean = (theDeferredBody ne null) || theBody.isDefined
+
+    override def codeSize: Int = {
+        val deferredBody = theDeferredBody
+        if (deferredBody ne null)
+            deferredBody.codeSize
+        else if (theBody.isDefined)
+            theBody.get.codeSize
+        else
+            0
+    }
+
     // see ClassFile._UNSAFE_replaceMethod for THE usage!
     private[br] def detach(): this.type = { declaringClassFile = null; this }
 
@@ -565,16 +625,28 @@ object Method {
     ): Method = {
 
         val (bodies, remainingAttributes) = attributes partitionByType classOf[Code]
-        val body = bodies.headOption
-
-        new Method(
-            null,
-            accessFlags,
-            name.intern(),
-            descriptor,
-            body,
-            remainingAttributes
-        )
+        if (bodies.isEmpty && remainingAttributes.exists(_.kindId == DeferredCode.KindId)) {
+            val (deferredBodies, otherAttributes) =
+                remainingAttributes partitionByType classOf[DeferredCode]
+            new Method(
+                null,
+                accessFlags,
+                name.intern(),
+                descriptor,
+                None,
+                otherAttributes,
+                deferredBodies.head
+            )
+        } else {
+            new Method(
+                null,
+                accessFlags,
+                name.intern(),
+                descriptor,
+                bodies.headOption,
+                remainingAttributes
+            )
+        }
     }
 
     /**
@@ -0,0 +1,167 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package br
+
+import scala.collection.mutable
+
+import org.opalj.collection.immutable.UIDSet
+
+/**
+ * A precomputed index which enables constant-time tests whether a known type is a
+ * ''proper'' subtype of another known type. The index is derived from the
+ * [[SupertypeInformation]] of a [[ClassHierarchy]] and gives exactly the same answers as
+ * `supertypeInformation(subtype).containsId(supertype)`, unless `supertype` is
+ * `java.lang.Object`; the latter case has to be handled by the caller.
+ *
+ * ==Class Types==
+ * The class types form a forest (each class has at most one superclass). The index assigns
+ * each class type its position in a pre-order traversal of its tree and stores the position
+ * of the last type of the respective subtree. A class type `C` is a proper subtype of the
+ * class type `S` iff `pre(S) < pre(C) <= end(S)`.
+ *
+ * ==Interface Types==
+ * Each interface type that is implemented by some type gets a dense index; the interfaces
+ * which are implemented by many types get the smallest indexes. For each type, the set of
+ * all implemented interfaces is stored as a bit set which is only as long as necessary to
+ * store the largest index; bit sets which are equal are shared.
+ *
+ * ==Memory Bounds==
+ * Let `n` be the number of type ids (i.e., the size of the class hierarchy's arrays),
+ * `i` the number of implemented interface types and `r` the number of distinct sets of
+ * implemented interfaces (`r <= n`). The index requires `3*n` ints, `n` references
+ * and at most `r * ceil(i/64)` longs.
+ *
+ * @author agent
+ */
+private[br] final class SubtypeTestIndex private (
+        private[this] val classPreorderMap:    Array[Int], // -1 if the type is not a class type
+        private[this] val classSubtreeEndMap:  Array[Int],
+        private[this] val interfaceIndexMap:   Array[Int], // -1 if the type is never implemented
+        private[this] val interfacesMap:       Array[Array[Long]], // null if no interfaces
+        val interfacesCount:                   Int,
+        val distinctInterfaceSetsCount:        Int,
+        val interfaceSetsSize:                 Int // the number of all longs
+) {
+
+    /**
+     * Returns `true` if the type with the id `subtypeId` is a proper subtype of the type with
+     * the id `supertypeId`. The ids do not need to identify known types.
+     *
+     * @note The relation is not reflexive and `java.lang.Object` is not handled specially!
+     */
+    def isSubtypeOf(subtypeId: Int, supertypeId: Int): Boolean = {
+        val classPreorderMap = this.classPreorderMap
+        if (subtypeId >= classPreorderMap.length || supertypeId >= classPreorderMap.length)
+            return false;
+
+        val interfaceIndex = interfaceIndexMap(supertypeId)
+        if (interfaceIndex >= 0) {
+            val interfaces = interfacesMap(subtypeId)
+            (interfaces ne null) && {
+                val index = interfaceIndex >>> 6
+                index < interfaces.length && (interfaces(index) & (1L << interfaceIndex)) != 0L
+            }
+        } else {
+            val preorder = classPreorderMap(subtypeId)
+            preorder >= 0 &&
+                classPreorderMap(supertypeId) < preorder &&
+                preorder <= classSubtreeEndMap(supertypeId)
+        }
+    }
+
+    /**
+     * The approximated number of bytes required by this index (ignoring object headers).
+     */
+    def estimatedSize: Long = {
+        val typesCount = classPreorderMap.length.toLong
+        typesCount * (3L * 4L + 8L) + interfaceSetsSize.toLong * 8L
+    }
+
+    override def toString: String = {
+        s"SubtypeTestIndex(types=${classPreorderMap.length},interfaces=$interfacesCount,"+
+            s"distinctInterfaceSets=$distinctInterfaceSetsCount,estimatedSize=$estimatedSize)"
+    }
+}
+
+private[br] object SubtypeTestIndex {
+
+    def apply(
+        knownTypesMap:      Array[ObjectType],
+        isInterfaceTypeMap: Array[Boolean],
+        subclassTypesMap:   Array[UIDSet[ObjectType]],
+        rootTypes:          UIDSet[ObjectType],
+        supertypes:         Array[SupertypeInformation]
+    ): SubtypeTestIndex = {
+        val typesCount = knownTypesMap.length
+
+        // 1. the class types
+        val classPreorderMap = Array.fill(typesCount)(-1)
+        val classSubtreeEndMap = Array.fill(typesCount)(-1)
+        var nextPreorder = 0
+        // The depth of the recursion is bounded by the depth of the class hierarchy.
+        def traverse(classType: ObjectType): Unit = {
+            val cid = classType.id
+            if (classPreorderMap(cid) == -1) {
+                classPreorderMap(cid) = nextPreorder
+                nextPreorder += 1
+                subclassTypesMap(cid) foreach traverse
+                classSubtreeEndMap(cid) = nextPreorder - 1
+            }
+        }
+        // The supertype information of class types is computed by traversing the class
+        // hierarchy starting with the root types; types not reachable this way have no
+        // supertype information.
+        rootTypes foreach { t ⇒ if (!isInterfaceTypeMap(t.id)) traverse(t) }
+
+        // 2. the interface types
+        val implementationsCounts = new Array[Int](typesCount)
+        supertypes foreach { supertypeInformation ⇒
+            if (supertypeInformation ne null) {
+                supertypeInformation.interfaceTypes foreach { i ⇒
+                    implementationsCounts(i.id) += 1
+                }
+            }
+        }
+        val interfaceIndexMap = Array.fill(typesCount)(-1)
+        val interfaceIds = implementationsCounts.indices.filter(implementationsCounts(_) > 0)
+        val sortedInterfaceIds = interfaceIds.sortBy(id ⇒ -implementationsCounts(id))
+        sortedInterfaceIds.iterator.zipWithIndex foreach { e ⇒
+            val (interfaceId, interfaceIndex) = e
+            interfaceIndexMap(interfaceId) = interfaceIndex
+        }
+
+        val interfacesMap = new Array[Array[Long]](typesCount)
+        val distinctInterfaces = mutable.HashMap.empty[mutable.WrappedArray[Long], Array[Long]]
+        var interfaceSetsSize = 0
+        var tid = 0
+        while (tid < typesCount) {
+            val supertypeInformation = supertypes(tid)
+            if ((supertypeInformation ne null) && supertypeInformation.interfaceTypes.nonEmpty) {
+                val interfaceTypes = supertypeInformation.interfaceTypes
+                val maxIndex = interfaceTypes.foldLeft(0) { (maxIndex, i) ⇒
+                    Math.max(maxIndex, interfaceIndexMap(i.id))
+                }
+                val interfaces = new Array[Long]((maxIndex >>> 6) + 1)
+                interfaceTypes foreach { i ⇒
+                    val interfaceIndex = interfaceIndexMap(i.id)
+                    interfaces(interfaceIndex >>> 6) |= (1L << interfaceIndex)
+                }
+                interfacesMap(tid) = distinctInterfaces.getOrElseUpdate(interfaces, {
+                    interfaceSetsSize += interfaces.length
+                    interfaces
+                })
+            }
+            tid += 1
+        }
+
+        new SubtypeTestIndex(
+            classPreorderMap,
+            classSubtreeEndMap,
+            interfaceIndexMap,
+            interfacesMap,
+            sortedInterfaceIds.size,
+            distinctInterfaces.size,
+            interfaceSetsSize
+        )
+    }
+}
@@ -2,10 +2,7 @@
 package org.opalj
 package br
 
-import java.lang.ref.WeakReference
-import java.util.WeakHashMap
 import java.util.concurrent.atomic.AtomicInteger
-import java.util.concurrent.locks.ReentrantReadWriteLock
 
 import scala.annotation.tailrec
 import scala.math.Ordered
@@ -1010,28 +1007,22 @@ final class ObjectType private ( // DO NOT MAKE THIS A CASE CLASS!
 object ObjectType {
 
     private[this] val nextId = new AtomicInteger(0)
-    private[this] val cacheRWLock = new ReentrantReadWriteLock();
-    private[this] val cache = new WeakHashMap[String, WeakReference[ObjectType]]()
+    private[this] val cache = new InterningTable[String, ObjectType](32768)
 
     @volatile private[this] var objectTypeCreationListener: ObjectType ⇒ Unit = null
 
     /**
      * Sets the listener and immediately calls it (multiple times) to inform the listener
      * about all known object types. It is guaranteed that the listener will not miss any
-     * object type creation. However, invocation may occur concurrently.
+     * object type creation. However, invocation may occur concurrently and the listener
+     * may be called multiple times for the same object type.
      */
     def setObjectTypeCreationListener(f: ObjectType ⇒ Unit): Unit = {
-        cacheRWLock.readLock().lock()
-        try {
-            objectTypeCreationListener = f
-            val objectTypesIterator = cache.values().iterator()
-            while (objectTypesIterator.hasNext) {
-                val objectType = objectTypesIterator.next.get()
-                if (objectType ne null) f(objectType)
-            }
-        } finally {
-            cacheRWLock.readLock().unlock()
-        }
+        // A new object type is always first added to the cache before the listener is
+        // (re)read; hence, we will either find the new object type or the creating thread
+        // calls f.
+        objectTypeCreationListener = f
+        cache.foreachValue(f)
     }
 
     /**
@@ -1048,43 +1039,35 @@ object ObjectType {
      *         requirements and to ensure that only one instance of an `ObjectType` exists
      *         per fully qualified name. Hence, comparing `ObjectTypes` using reference
      *         comparison is explicitly supported.
+     * @note   The lookup of an existing `ObjectType` is lock-free; the ids of the created
+     *         `ObjectType`s are always dense.
      */
     def apply(fqn: String): ObjectType = {
-        val readLock = cacheRWLock.readLock()
-        readLock.lock()
-        try {
-            val wrOT = cache.get(fqn)
-            if (wrOT != null) {
-                val OT = wrOT.get()
-                if (OT != null)
-                    return OT;
-            }
-        } finally {
-            readLock.unlock()
-        }
-
-        // Remember: Lock upgrading is not possible
-        val writeLock = cacheRWLock.writeLock()
-        writeLock.lock()
-        try {
-            // WE HAVE TO CHECK AGAIN
-            val wrOT = cache.get(fqn)
-            if (wrOT != null) {
-                val OT = wrOT.get()
-                if (OT != null)
-                    return OT;
+        val ot = cache.get(fqn)
+        if (ot ne null)
+            return ot;
+
+        var newOT: ObjectType = null
+        var notifiedListener: ObjectType ⇒ Unit = null
+        val theOT = cache.getOrCreate(
+            fqn,
+            (fqn: String) ⇒ {
+                newOT = new ObjectType(nextId.getAndIncrement(), fqn)
+                // We inform the listener before the object type is published to ensure that
+                // the listener is always informed before the object type can be used.
+                notifiedListener = objectTypeCreationListener
+                if (notifiedListener ne null) notifiedListener(newOT)
+                newOT
             }
-
-            val newOT = new ObjectType(nextId.getAndIncrement(), fqn)
-            val wrNewOT = new WeakReference(newOT)
-            cache.put(fqn, wrNewOT)
+        )
+        if (newOT ne null) {
+            // the listener may have been set concurrently to the creation of the object type
             val currentObjectTypeCreationListener = objectTypeCreationListener
-            if (currentObjectTypeCreationListener ne null)
+            if ((currentObjectTypeCreationListener ne null) &&
+                (currentObjectTypeCreationListener ne notifiedListener))
                 currentObjectTypeCreationListener(newOT)
-            newOT
-        } finally {
-            writeLock.unlock()
         }
+        theOT
     }
 
     def unapply(ot: ObjectType): Option[String] = Some(ot.fqn)
@@ -1399,7 +1382,7 @@ final class ArrayType private ( // DO NOT MAKE THIS A CASE CLASS!
  */
 object ArrayType {
 
-    private[this] val cache = new WeakHashMap[FieldType, WeakReference[ArrayType]]()
+    private[this] val cache = new InterningTable[FieldType, ArrayType](4096)
 
     private[this] val nextId = new AtomicInteger(-1)
 
@@ -1409,21 +1392,13 @@ object ArrayType {
      * ==Note==
      * `ArrayType` objects are cached internally to reduce the overall memory requirements
      * and to facilitate reference based comparisons. I.e., to `ArrayType`s are equal
-     * iff it is the same object.
+     * iff it is the same object. The lookup of an existing `ArrayType` is lock-free.
      */
     def apply(componentType: FieldType): ArrayType = {
-        cache.synchronized {
-            val wrAT = cache.get(componentType)
-            if (wrAT != null) {
-                val AT = wrAT.get()
-                if (AT != null)
-                    return AT;
-            }
-            val newAT = new ArrayType(nextId.getAndDecrement(), componentType)
-            val wrNewAT = new WeakReference(newAT)
-            cache.put(componentType, wrNewAT)
-            newAT
-        }
+        cache.getOrCreate(
+            componentType,
+            (componentType: FieldType) ⇒ new ArrayType(nextId.getAndDecrement(), componentType)
+        )
     }
 
     /**
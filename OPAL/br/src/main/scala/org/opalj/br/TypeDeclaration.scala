@@ -7,11 +7,15 @@ import org.opalj.collection.immutable.UIDSet
 /**
  * Stores information about a type's supertypes.
  *
+ * @param   isFinal `true` if the type is known to be final; type declarations which
+ *          are not derived from a class file generally use the default (`false`).
+ *
  * @author Michael Eichberg
  */
 case class TypeDeclaration(
         objectType:             ObjectType,
         isInterfaceType:        Boolean,
         theSuperclassType:      Option[ObjectType],
-        theSuperinterfaceTypes: UIDSet[ObjectType]
+        theSuperinterfaceTypes: UIDSet[ObjectType],
+        isFinal:                Boolean            = false
 )
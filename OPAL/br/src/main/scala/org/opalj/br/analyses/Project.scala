@@ -598,6 +598,71 @@ class Project[Source] private (
             None
     }
 
+    /**
+     * Associates the given information with the given key; used to carry over the information
+     * when the project is incrementally updated.
+     */
+    private def setProjectInformation(pikUId: Int, pi: AnyRef): Unit = this.synchronized {
+        val projectInformation = this.projectInformation
+        if (pikUId < projectInformation.length()) {
+            projectInformation.set(pikUId, pi)
+        } else {
+            val newLength = Math.max(projectInformation.length * 2, pikUId * 2)
+            val newProjectInformation = new AtomicReferenceArray[AnyRef](newLength)
+            org.opalj.control.iterateUntil(0, projectInformation.length()) { i ⇒
+                newProjectInformation.set(i, projectInformation.get(i))
+            }
+            newProjectInformation.set(pikUId, pi)
+            this.projectInformation = newProjectInformation
+        }
+    }
+
+    /**
+     * Associates the information available for this project with the given – incrementally
+     * updated – project if the respective key can update the information
+     * (see [[ProjectInformationKey]]`.update`) and if the information associated with all
+     * requirements was also carried over.
+     *
+     * @return The number of carried over project information.
+     */
+    private def carryOverProjectInformation(
+        newProject: Project[Source],
+        changes:    ProjectChanges
+    ): Int = this.synchronized {
+        val projectInformation = this.projectInformation
+        val carriedOver = new Array[Byte](projectInformation.length()) // 0 = unknown, 1 = yes, 2 = no
+        var carriedOverCount = 0
+
+        def carryOver(pik: ProjectInformationKey[_ <: AnyRef, _ <: AnyRef]): Boolean = {
+            val pikUId = pik.uniqueId
+            if (pikUId >= carriedOver.length)
+                return false;
+
+            (carriedOver(pikUId): @switch) match {
+                case 1 ⇒ true
+                case 2 ⇒ false
+                case _ ⇒
+                    carriedOver(pikUId) = 2 // prevents endless recursion...
+                    val pi = projectInformation.get(pikUId)
+                    if ((pi ne null) && pik.getRequirements.forall(carryOver)) {
+                        pik.doUpdate(newProject, pi, changes) foreach { newPI ⇒
+                            newProject.setProjectInformation(pikUId, newPI)
+                            carriedOver(pikUId) = 1
+                            carriedOverCount += 1
+                        }
+                    }
+                    carriedOver(pikUId) == 1
+            }
+        }
+
+        org.opalj.control.iterateUntil(0, projectInformation.length()) { i ⇒
+            if (projectInformation.get(i) ne null) {
+                carryOver(ProjectInformationKey(i))
+            }
+        }
+        carriedOverCount
+    }
+
     OPALLogger.debug("progress", s"project created (${logContext.logContextId})")
 
     /* ------------------------------------------------------------------------------------------ *\
@@ -633,6 +698,264 @@ class Project[Source] private (
         Project.extend[Source](this, otherClassFiles, otherLibraryClassFiles)
     }
 
+    /**
+     * Creates a new `Project` by incrementally updating this project.
+     *
+     * @see [[Project$.update]] for further details.
+     */
+    def update(
+        addedOrChangedClassFilesWithSources: Iterable[(ClassFile, Source)],
+        removedTypes:                        Iterable[ObjectType]
+    ): (Project[Source], ProjectChanges) = {
+        Project.update[Source](this, addedOrChangedClassFilesWithSources, removedTypes)
+    }
+
+    /**
+     * Creates the updated project by patching this project's state; only the information
+     * related to the modified types and their sub- and supertypes is recomputed.
+     *
+     * The class hierarchy is only rebuilt if the type declarations (supertypes, kind or
+     * finality) of some types were changed or if some types were added or removed.
+     *
+     * @param  addedOrChangedProjectClassFiles The added and the changed project class files.
+     * @param  changedLibraryClassFiles The changed library class files.
+     * @return The new project and `true` if the class hierarchy was rebuilt.
+     */
+    private def patch(
+        addedTypes:                      immutable.Set[ObjectType],
+        changedTypes:                    immutable.Set[ObjectType],
+        removedTypes:                    immutable.Set[ObjectType],
+        addedOrChangedProjectClassFiles: List[(ClassFile, Source)],
+        changedLibraryClassFiles:        List[(ClassFile, Source)]
+    ): (Project[Source], Boolean) = {
+        val newLogContext = logContext.successor
+
+        val modifiedTypes = addedTypes ++ changedTypes ++ removedTypes
+        def isRetained(classFile: ClassFile): Boolean = !modifiedTypes.contains(classFile.thisType)
+
+        val newObjectTypeToClassFile = OpenHashMap.empty[ObjectType, ClassFile]
+        newObjectTypeToClassFile ++= objectTypeToClassFile
+        newObjectTypeToClassFile --= removedTypes
+        val newSources = OpenHashMap.empty[ObjectType, Source]
+        newSources ++= sources
+        newSources --= removedTypes
+        val addedOrChangedClassFiles = addedOrChangedProjectClassFiles ++ changedLibraryClassFiles
+        for ((classFile, source) ← addedOrChangedClassFiles) {
+            newObjectTypeToClassFile(classFile.thisType) = classFile
+            newSources(classFile.thisType) = source
+        }
+        val newProjectTypes = projectTypes -- removedTypes ++ addedTypes
+
+        val newProjectClassFiles =
+            projectClassFiles.filter(isRetained) ++ addedOrChangedProjectClassFiles.map(_._1)
+        val newLibraryClassFiles =
+            libraryClassFiles.filter(isRetained) ++ changedLibraryClassFiles.map(_._1)
+        val removedClassFiles = modifiedTypes.iterator.flatMap(objectTypeToClassFile.get).toList
+        val addedClassFiles = addedOrChangedClassFiles.map(_._1)
+
+        var newProjectClassFilesCount = projectClassFilesCount
+        var newProjectMethodsCount = projectMethodsCount
+        var newProjectFieldsCount = projectFieldsCount
+        var newLibraryClassFilesCount = libraryClassFilesCount
+        var newLibraryMethodsCount = libraryMethodsCount
+        var newLibraryFieldsCount = libraryFieldsCount
+        var newCodeSize = codeSize
+        var newVirtualMethodsCount = virtualMethodsCount
+        def count(classFile: ClassFile, delta: Int, isProjectType: Boolean): Unit = {
+            val methodsCount = classFile.methods.size * delta
+            val fieldsCount = classFile.fields.size * delta
+            if (isProjectType) {
+                newProjectClassFilesCount += delta
+                newProjectMethodsCount += methodsCount
+                newProjectFieldsCount += fieldsCount
+            } else {
+                newLibraryClassFilesCount += delta
+                newLibraryMethodsCount += methodsCount
+                newLibraryFieldsCount += fieldsCount
+            }
+            classFile.methods foreach { method ⇒
+                newCodeSize += method.codeSize * delta
+                if (method.isVirtualMethodDeclaration) newVirtualMethodsCount += delta
+            }
+        }
+        removedClassFiles foreach { cf ⇒ count(cf, -1, projectTypes.contains(cf.thisType)) }
+        addedClassFiles foreach { cf ⇒ count(cf, 1, newProjectTypes.contains(cf.thisType)) }
+
+        // The class hierarchy only depends on the declarations of the types.
+        val isClassHierarchyUnchanged =
+            addedTypes.isEmpty && removedTypes.isEmpty && changedTypes.forall { t ⇒
+                val oldClassFile = objectTypeToClassFile(t)
+                val newClassFile = newObjectTypeToClassFile(t)
+                oldClassFile.isInterfaceDeclaration == newClassFile.isInterfaceDeclaration &&
+                    oldClassFile.isFinal == newClassFile.isFinal &&
+                    oldClassFile.superclassType == newClassFile.superclassType &&
+                    oldClassFile.interfaceTypes.toSet == newClassFile.interfaceTypes.toSet
+            }
+        val newClassHierarchy =
+            if (isClassHierarchyUnchanged) {
+                classHierarchy.updatedLogContext(newLogContext)
+            } else {
+                val typeHierarchyDefinitions =
+                    if (ObjectClassFile.isDefined)
+                        ClassHierarchy.noDefaultTypeHierarchyDefinitions
+                    else
+                        ClassHierarchy.defaultTypeHierarchyDefinitions
+                ClassHierarchy(
+                    newProjectClassFiles.view ++ newLibraryClassFiles.view,
+                    typeHierarchyDefinitions
+                )(newLogContext)
+            }
+
+        val affectedTypes = Project.affectedTypes(
+            addedTypes ++ changedTypes, removedTypes, classHierarchy, newClassHierarchy
+        )
+
+        // The instance methods of a type only depend on the type's supertypes; however,
+        // the computation has to start with the root types.
+        val newInstanceMethods = {
+            val knownAffectedTypes = affectedTypes.filter(newClassHierarchy.isKnown)
+            val relevantTypes = newClassHierarchy.allSupertypesOf(
+                UIDSet.empty[ObjectType] ++ knownAffectedTypes, reflexive = true
+            )
+            val newInstanceMethods =
+                AnyRefMap.empty[ObjectType, ConstArray[MethodDeclarationContext]]
+            instanceMethods foreach { e ⇒
+                val objectType = e._1
+                if (!affectedTypes.contains(objectType) && !relevantTypes.contains(objectType))
+                    newInstanceMethods += e
+            }
+            newInstanceMethods ++= Project.instanceMethods(
+                newClassHierarchy,
+                newObjectTypeToClassFile.get,
+                relevantTypes.contains
+            )(newLogContext)
+            newInstanceMethods.repack
+            newInstanceMethods
+        }
+
+        // The overriding methods of a method only depend on the subtypes of the declaring type.
+        val newOverridingMethods = {
+            val knownModifiedTypes = modifiedTypes.filter(classHierarchy.isKnown)
+            val supertypesOfModifiedTypes = classHierarchy.allSupertypesOf(
+                UIDSet.empty[ObjectType] ++ knownModifiedTypes, reflexive = true
+            )
+            val relevantTypes = newClassHierarchy.allSupertypesOf(
+                (supertypesOfModifiedTypes ++ modifiedTypes).filter(newClassHierarchy.isKnown),
+                reflexive = true
+            )
+            val knownOverridingMethods = overridingMethods filter { e ⇒
+                val declaringType = e._1.classFile.thisType
+                !relevantTypes.contains(declaringType) && !modifiedTypes.contains(declaringType)
+            }
+            Project.overridingMethods(
+                newClassHierarchy,
+                newVirtualMethodsCount,
+                newObjectTypeToClassFile,
+                relevantTypes.contains,
+                knownOverridingMethods
+            )(newLogContext)
+        }
+
+        // Recall that the methods are sorted by their size in descending order.
+        val newMethodsWithBodyAndContext: Array[MethodInfo[Source]] = {
+            def codeSize(mi: MethodInfo[Source]): Int = mi.method.codeSize
+            val retainedMethods =
+                methodsWithBodyAndContext.filter(mi ⇒ isRetained(mi.method.classFile))
+            val addedMethods =
+                addedClassFiles.iterator.flatMap(_.methods).
+                    filter(m ⇒ m.hasBody).
+                    map(m ⇒ MethodInfo(newSources(m.classFile.thisType), m)).
+                    toArray.
+                    sortWith { (v1, v2) ⇒ codeSize(v1) > codeSize(v2) }
+            val retainedMethodsCount = retainedMethods.length
+            val addedMethodsCount = addedMethods.length
+            val methods = new Array[MethodInfo[Source]](retainedMethodsCount + addedMethodsCount)
+            var r = 0
+            var a = 0
+            while (r + a < methods.length) {
+                if (a == addedMethodsCount || (
+                    r < retainedMethodsCount && codeSize(retainedMethods(r)) >= codeSize(addedMethods(a))
+                )) {
+                    methods(r + a) = retainedMethods(r)
+                    r += 1
+                } else {
+                    methods(r + a) = addedMethods(a)
+                    a += 1
+                }
+            }
+            methods
+        }
+
+        val newMethodHandleSubtypes =
+            if (isClassHierarchyUnchanged)
+                MethodHandleSubtypes
+            else
+                newClassHierarchy.allSubtypes(ObjectType.MethodHandle, reflexive = true)
+
+        val allNewMethods: Iterable[Method] = {
+            new Iterable[Method] {
+                def iterator: Iterator[Method] = {
+                    newProjectClassFiles.toIterator.flatMap { cf ⇒ cf.methods } ++
+                        newLibraryClassFiles.toIterator.flatMap { cf ⇒ cf.methods }
+                }
+            }
+        }
+        val allNewFields: Iterable[Field] = {
+            new Iterable[Field] {
+                def iterator: Iterator[Field] = {
+                    newProjectClassFiles.toIterator.flatMap { cf ⇒ cf.fields } ++
+                        newLibraryClassFiles.toIterator.flatMap { cf ⇒ cf.fields }
+                }
+            }
+        }
+        val allNewClassFiles: Iterable[ClassFile] = {
+            new Iterable[ClassFile] {
+                def iterator: Iterator[ClassFile] = {
+                    newProjectClassFiles.toIterator ++ newLibraryClassFiles.toIterator
+                }
+            }
+        }
+
+        val newProject = new Project(
+            projectModules,
+            newProjectClassFiles,
+            libraryModules,
+            newLibraryClassFiles,
+            libraryClassFilesAreInterfacesOnly,
+            newMethodsWithBodyAndContext.map(mi ⇒ mi.method),
+            newMethodsWithBodyAndContext,
+            newProjectTypes,
+            newObjectTypeToClassFile,
+            newSources,
+            newProjectClassFilesCount,
+            newProjectMethodsCount,
+            newProjectFieldsCount,
+            newLibraryClassFilesCount,
+            newLibraryMethodsCount,
+            newLibraryFieldsCount,
+            newCodeSize,
+            newMethodHandleSubtypes,
+            newProjectClassFilesCount + newLibraryClassFilesCount,
+            newProjectMethodsCount + newLibraryMethodsCount,
+            newProjectFieldsCount + newLibraryFieldsCount,
+            ConstArray._UNSAFE_from(newProjectClassFiles),
+            ConstArray._UNSAFE_from(newLibraryClassFiles),
+            allNewClassFiles,
+            allNewMethods,
+            allNewFields,
+            allNewMethods ++ allNewFields ++ allNewClassFiles,
+            newVirtualMethodsCount,
+            newClassHierarchy,
+            newInstanceMethods,
+            newOverridingMethods,
+            projectType
+        )(
+            newLogContext,
+            config
+        )
+        (newProject, !isClassHierarchyUnchanged)
+    }
+
     /**
      * The number of all source elements (fields, methods and class files).
      */
@@ -818,7 +1141,7 @@ class Project[Source] private (
         }
         for {
             classFile ← projectClassFiles
-            if classFile.methods.exists(_.body.isDefined)
+            if classFile.methods.exists(_.hasBody)
         } {
             // we distribute the classfiles among the different bins
             // to avoid that one bin accidentally just contains
@@ -1051,8 +1374,17 @@ object Project {
     /**
      * Performs some fundamental validations to make sure that subsequent analyses don't have
      * to deal with completely broken projects/that the user is aware of the issues!
+     *
+     * Methods whose bodies are deserialized lazily and were not yet deserialized are not
+     * validated; otherwise all bodies would be deserialized when the project is created.
+     *
+     * @param isRelevant Restricts the validation to the methods for which the predicate is
+     *        `true`; used when a project is incrementally updated.
      */
-    private[this] def validate(project: SomeProject): Seq[InconsistentProjectException] = {
+    private[this] def validate(
+        project:    SomeProject,
+        isRelevant: Method ⇒ Boolean = _ ⇒ true
+    ): Seq[InconsistentProjectException] = {
 
         implicit val logContext = project.logContext
 
@@ -1070,80 +1402,82 @@ object Project {
         try {
             project.parForeachMethodWithBody(() ⇒ Thread.interrupted()) { mi ⇒
                 val m: Method = mi.method
-                val cf = m.classFile
-
-                def completeSupertypeInformation =
-                    classHierarchy.isSupertypeInformationComplete(cf.thisType)
-
-                def missingSupertypeClassFile =
-                    classHierarchy.allSupertypes(cf.thisType, false).find { t ⇒
-                        project.classFile(t).isEmpty
-                    }.map { ot ⇒
-                        (classHierarchy.isInterface(ot) match {
-                            case Yes     ⇒ "interface "
-                            case No      ⇒ "class "
-                            case Unknown ⇒ "interface/class "
-                        }) + ot.toJava
-                    }.getOrElse("<None>")
-
-                m.body.get iterate { (pc: Int, instruction: Instruction) ⇒
-                    try {
-                        (instruction.opcode: @switch) match {
-
-                            case NEW.opcode ⇒
-                                val NEW(objectType) = instruction
-                                if (isInterface(objectType).isYes) {
-                                    val ex = InconsistentProjectException(
-                                        s"cannot create an instance of interface ${objectType.toJava} in "+
-                                            m.toJava(s"pc=$pc $disclaimer"),
-                                        Error
-                                    )
-                                    addException(ex)
-                                }
-
-                            case INVOKESTATIC.opcode ⇒
-                                val invokestatic = instruction.asInstanceOf[INVOKESTATIC]
-                                project.staticCall(invokestatic) match {
-                                    case _: Success[_] ⇒ /*OK*/
-                                    case Empty         ⇒ /*OK - partial project*/
-                                    case Failure ⇒
+                if (isRelevant(m) && (m.deferredBody eq null)) {
+                    val cf = m.classFile
+
+                    def completeSupertypeInformation =
+                        classHierarchy.isSupertypeInformationComplete(cf.thisType)
+
+                    def missingSupertypeClassFile =
+                        classHierarchy.allSupertypes(cf.thisType, false).find { t ⇒
+                            project.classFile(t).isEmpty
+                        }.map { ot ⇒
+                            (classHierarchy.isInterface(ot) match {
+                                case Yes     ⇒ "interface "
+                                case No      ⇒ "class "
+                                case Unknown ⇒ "interface/class "
+                            }) + ot.toJava
+                        }.getOrElse("<None>")
+
+                    m.body.get iterate { (pc: Int, instruction: Instruction) ⇒
+                        try {
+                            (instruction.opcode: @switch) match {
+
+                                case NEW.opcode ⇒
+                                    val NEW(objectType) = instruction
+                                    if (isInterface(objectType).isYes) {
                                         val ex = InconsistentProjectException(
-                                            s"target method of invokestatic call in "+
-                                                m.toJava(s"pc=$pc; $invokestatic - $disclaimer")+
-                                                " cannot be resolved; supertype information is complete="+
-                                                completeSupertypeInformation+
-                                                "; missing supertype class file: "+missingSupertypeClassFile,
+                                            s"cannot create an instance of interface ${objectType.toJava} in "+
+                                                m.toJava(s"pc=$pc $disclaimer"),
                                             Error
                                         )
                                         addException(ex)
-                                }
+                                    }
 
-                            case INVOKESPECIAL.opcode ⇒
-                                val invokespecial = instruction.asInstanceOf[INVOKESPECIAL]
-                                project.specialCall(cf.thisType, invokespecial) match {
-                                    case _: Success[_] ⇒ /*OK*/
-                                    case Empty         ⇒ /*OK - partial project*/
-                                    case Failure ⇒
-                                        val ex = InconsistentProjectException(
-                                            s"target method of invokespecial call in "+
-                                                m.toJava(s"pc=$pc; $invokespecial - $disclaimer")+
-                                                " cannot be resolved; supertype information is complete="+
-                                                completeSupertypeInformation+
-                                                "; missing supertype class file: "+missingSupertypeClassFile,
-                                            Error
-                                        )
-                                        addException(ex)
-                                }
+                                case INVOKESTATIC.opcode ⇒
+                                    val invokestatic = instruction.asInstanceOf[INVOKESTATIC]
+                                    project.staticCall(invokestatic) match {
+                                        case _: Success[_] ⇒ /*OK*/
+                                        case Empty         ⇒ /*OK - partial project*/
+                                        case Failure ⇒
+                                            val ex = InconsistentProjectException(
+                                                s"target method of invokestatic call in "+
+                                                    m.toJava(s"pc=$pc; $invokestatic - $disclaimer")+
+                                                    " cannot be resolved; supertype information is complete="+
+                                                    completeSupertypeInformation+
+                                                    "; missing supertype class file: "+missingSupertypeClassFile,
+                                                Error
+                                            )
+                                            addException(ex)
+                                    }
 
-                            case _ ⇒ // Nothing special is checked (so far)
+                                case INVOKESPECIAL.opcode ⇒
+                                    val invokespecial = instruction.asInstanceOf[INVOKESPECIAL]
+                                    project.specialCall(cf.thisType, invokespecial) match {
+                                        case _: Success[_] ⇒ /*OK*/
+                                        case Empty         ⇒ /*OK - partial project*/
+                                        case Failure ⇒
+                                            val ex = InconsistentProjectException(
+                                                s"target method of invokespecial call in "+
+                                                    m.toJava(s"pc=$pc; $invokespecial - $disclaimer")+
+                                                    " cannot be resolved; supertype information is complete="+
+                                                    completeSupertypeInformation+
+                                                    "; missing supertype class file: "+missingSupertypeClassFile,
+                                                Error
+                                            )
+                                            addException(ex)
+                                    }
+
+                                case _ ⇒ // Nothing special is checked (so far)
+                            }
+                        } catch {
+                            case t: Throwable ⇒
+                                OPALLogger.error(
+                                    "OPAL",
+                                    s"project validation of ${m.toJava(s"pc=$pc/$instruction")} failed unexpectedly",
+                                    t
+                                )
                         }
-                    } catch {
-                        case t: Throwable ⇒
-                            OPALLogger.error(
-                                "OPAL",
-                                s"project validation of ${m.toJava(s"pc=$pc/$instruction")} failed unexpectedly",
-                                t
-                            )
                     }
                 }
             }
@@ -1173,9 +1507,17 @@ object Project {
         OPALLogger.log(ex.severity("project configuration", ex.message))(logContext)
     }
 
+    /**
+     * Computes the instance methods of the known types.
+     *
+     * @param isRelevant Restricts the computation to the types for which the predicate is
+     *        `true`; the set of relevant types has to contain all supertypes of a relevant
+     *        type. Used when a project is incrementally updated.
+     */
     def instanceMethods(
         classHierarchy:        ClassHierarchy,
-        objectTypeToClassFile: ObjectType ⇒ Option[ClassFile]
+        objectTypeToClassFile: ObjectType ⇒ Option[ClassFile],
+        isRelevant:            ObjectType ⇒ Boolean            = _ ⇒ true
     )(
         implicit
         logContext: LogContext
@@ -1384,11 +1726,13 @@ object Project {
                     )
             }
             methods(objectType) = definedMethods
-            classHierarchy.foreachDirectSubtypeOf(objectType)(tasks.submit)
+            classHierarchy.foreachDirectSubtypeOf(objectType) { t ⇒
+                if (isRelevant(t)) tasks.submit(t)
+            }
         }
 
         val tasks = new SequentialTasks[ObjectType](computeDefinedMethods, abortOnExceptions = true)
-        classHierarchy.rootTypes.foreach(tasks.submit)
+        classHierarchy.rootTypes.foreach { t ⇒ if (isRelevant(t)) tasks.submit(t) }
         try {
             tasks.join()
         } catch {
@@ -1424,11 +1768,19 @@ object Project {
      * @see     [[Method]]`.isVirtualMethodDeclaration` for further details.
      * @note    The map only contains those methods which have at least one concrete
      *          implementation.
+     *
+     * @param   isRelevant Restricts the computation to the methods declared by the types for
+     *          which the predicate is `true`; the set of relevant types has to contain all
+     *          supertypes of a relevant type. Used when a project is incrementally updated.
+     * @param   knownOverridingMethods The overriding methods of the methods declared by the
+     *          types which are not relevant.
      */
     def overridingMethods(
-        classHierarchy:        ClassHierarchy,
-        virtualMethodsCount:   Int,
-        objectTypeToClassFile: Map[ObjectType, ClassFile]
+        classHierarchy:         ClassHierarchy,
+        virtualMethodsCount:    Int,
+        objectTypeToClassFile:  Map[ObjectType, ClassFile],
+        isRelevant:             ObjectType ⇒ Boolean       = _ ⇒ true,
+        knownOverridingMethods: Map[Method, Set[Method]]   = Map.empty[Method, Set[Method]]
     )(
         implicit
         theLogContext: LogContext
@@ -1458,12 +1810,20 @@ object Project {
 
         // Stores foreach type the number of subtypes that still need to be processed.
         val subtypesToProcessCounts = new Array[Int](ObjectType.objectTypesCount)
+        var typesWithoutSubtypesToProcess = List.empty[ObjectType]
         classHierarchy.foreachKnownType { objectType ⇒
-            val oid = objectType.id
-            subtypesToProcessCounts(oid) = classHierarchy.directSubtypesCount(oid)
+            if (isRelevant(objectType)) {
+                var count = 0
+                classHierarchy.foreachDirectSubtypeOf(objectType) { t ⇒
+                    if (isRelevant(t)) count += 1
+                }
+                subtypesToProcessCounts(objectType.id) = count
+                if (count == 0) typesWithoutSubtypesToProcess ::= objectType
+            }
         }
 
         val methods = new AnyRefMap[Method, Set[Method]](virtualMethodsCount)
+        methods ++= knownOverridingMethods
 
         def computeOverridingMethods(tasks: Tasks[ObjectType], objectType: ObjectType): Unit = {
             val declaredMethodPackageName = objectType.packageName
@@ -1516,7 +1876,7 @@ object Project {
         }
 
         val tasks = new SequentialTasks[ObjectType](computeOverridingMethods)
-        classHierarchy.leafTypes foreach { t ⇒ tasks.submit(t) }
+        typesWithoutSubtypesToProcess foreach { t ⇒ tasks.submit(t) }
         try {
             tasks.join()
         } catch {
@@ -1679,6 +2039,167 @@ object Project {
         )(project.config, OPALLogger.logger(project.logContext.successor))
     }
 
+    /**
+     * Creates a new `Project` by incrementally updating the given project; i.e., the
+     * class files of the given project which are neither removed nor changed are reused
+     * and the project information which can be updated (see
+     * [[ProjectInformationKey]]`.update`) is carried over. All other project information
+     * is recomputed on demand.
+     *
+     * A given class file which defines a type that is defined by a library of the project
+     * replaces the respective library class file; all other given class files are
+     * considered to belong to the project. Given class files which are similar to the
+     * class files of the project (see [[ClassFile.similar]]) are ignored.
+     *
+     * @note   The derived data structures (e.g., the instance methods and the overriding
+     *         methods) are only recomputed for the types related to the modified types; the
+     *         class hierarchy is only rebuilt if the declaration of a type changed. If a
+     *         module declaration or `java.lang.Object` is modified, the project is recreated
+     *         using the class files which are already loaded.
+     *
+     * @param  addedOrChangedClassFilesWithSources The added or changed class files.
+     * @param  removedTypes The types whose class files were removed.
+     * @return The updated project and the changes w.r.t. the given project. If nothing
+     *         was changed, the given project is returned.
+     */
+    def update[Source](
+        project:                             Project[Source],
+        addedOrChangedClassFilesWithSources: Iterable[(ClassFile, Source)],
+        removedTypes:                        Iterable[ObjectType]
+    ): (Project[Source], ProjectChanges) = {
+        val updatedClassFiles = {
+            addedOrChangedClassFilesWithSources.map(e ⇒ (e._1.thisType, e)).toMap
+        }
+
+        var addedTypes = immutable.Set.empty[ObjectType]
+        var changedTypes = immutable.Set.empty[ObjectType]
+        var newProjectClassFiles = List.empty[(ClassFile, Source)]
+        var newLibraryClassFiles = List.empty[(ClassFile, Source)]
+        var isModuleDeclarationModified = false
+        updatedClassFiles.valuesIterator foreach { e ⇒
+            val classFile = e._1
+            val objectType = classFile.thisType
+            isModuleDeclarationModified ||= classFile.isModuleDeclaration
+            project.classFile(objectType) match {
+                case None ⇒
+                    addedTypes += objectType
+                    newProjectClassFiles ::= e
+                case Some(oldClassFile) if !oldClassFile.similar(classFile) ⇒
+                    changedTypes += objectType
+                    if (project.isProjectType(objectType))
+                        newProjectClassFiles ::= e
+                    else
+                        newLibraryClassFiles ::= e
+                case _ ⇒
+                /* the class file is unchanged */
+            }
+        }
+        val theRemovedTypes = removedTypes.filter { objectType ⇒
+            !updatedClassFiles.contains(objectType) && project.classFile(objectType).isDefined
+        }.toSet
+
+        if (addedTypes.isEmpty && changedTypes.isEmpty && theRemovedTypes.isEmpty) {
+            val noTypes = immutable.Set.empty[ObjectType]
+            val changes = new ProjectChanges(noTypes, noTypes, noTypes, noTypes, noTypes)
+            return (project, changes);
+        }
+
+        val newProject =
+            if (isModuleDeclarationModified ||
+                changedTypes.contains(ObjectType.Object) ||
+                theRemovedTypes.contains(ObjectType.Object)) {
+                def isRetained(classFile: ClassFile): Boolean = {
+                    val objectType = classFile.thisType
+                    !changedTypes.contains(objectType) && !theRemovedTypes.contains(objectType)
+                }
+                apply(
+                    project.projectClassFilesWithSources.filter(e ⇒ isRetained(e._1)) ++
+                        newProjectClassFiles,
+                    project.libraryClassFilesWithSources.filter(e ⇒ isRetained(e._1)) ++
+                        newLibraryClassFiles,
+                    project.libraryClassFilesAreInterfacesOnly,
+                    virtualClassFiles = Traversable.empty
+                )(project.config, OPALLogger.logger(project.logContext.successor))
+            } else {
+                val (newProject, isClassHierarchyRebuilt) = project.patch(
+                    addedTypes, changedTypes, theRemovedTypes,
+                    newProjectClassFiles, newLibraryClassFiles
+                )
+                // If the class hierarchy was rebuilt, the resolution of every call may
+                // have changed.
+                val issues =
+                    if (isClassHierarchyRebuilt) {
+                        validate(newProject)
+                    } else {
+                        // ... no types were added or removed
+                        validate(newProject, m ⇒ changedTypes.contains(m.classFile.thisType))
+                    }
+                issues.foreach { defaultHandlerForInconsistentProjects(newProject.logContext, _) }
+                newProject
+            }
+
+        val affectedTypes = this.affectedTypes(
+            addedTypes ++ changedTypes, theRemovedTypes,
+            project.classHierarchy, newProject.classHierarchy
+        )
+
+        val supertypesOfModifiedTypes = this.supertypesOfModifiedTypes(
+            addedTypes ++ changedTypes ++ theRemovedTypes,
+            project.classHierarchy, newProject.classHierarchy
+        )
+
+        val changes = new ProjectChanges(
+            addedTypes, theRemovedTypes, changedTypes,
+            affectedTypes, supertypesOfModifiedTypes
+        )
+        val carriedOverCount = project.carryOverProjectInformation(newProject, changes)
+        info(
+            "project update",
+            s"$changes; carried over $carriedOverCount project information"
+        )(newProject.logContext)
+        (newProject, changes)
+    }
+
+    /**
+     * The given modified types and all their subtypes w.r.t. the old and the new
+     * class hierarchy.
+     */
+    private def affectedTypes(
+        addedOrChangedTypes: immutable.Set[ObjectType],
+        removedTypes:        immutable.Set[ObjectType],
+        oldClassHierarchy:   ClassHierarchy,
+        newClassHierarchy:   ClassHierarchy
+    ): immutable.Set[ObjectType] = {
+        var affectedTypes = immutable.Set.empty[ObjectType]
+        for {
+            objectType ← addedOrChangedTypes.iterator ++ removedTypes.iterator
+            classHierarchy ← Iterator(oldClassHierarchy, newClassHierarchy)
+            if classHierarchy.isKnown(objectType)
+        } {
+            affectedTypes ++= classHierarchy.allSubtypes(objectType, reflexive = true)
+        }
+        affectedTypes ++ removedTypes
+    }
+
+    /**
+     * All supertypes of the given modified types w.r.t. the old and the new class hierarchy.
+     */
+    private def supertypesOfModifiedTypes(
+        modifiedTypes:     immutable.Set[ObjectType],
+        oldClassHierarchy: ClassHierarchy,
+        newClassHierarchy: ClassHierarchy
+    ): immutable.Set[ObjectType] = {
+        var supertypes = immutable.Set.empty[ObjectType]
+        for {
+            objectType ← modifiedTypes.iterator
+            classHierarchy ← Iterator(oldClassHierarchy, newClassHierarchy)
+            if classHierarchy.isKnown(objectType)
+        } {
+            supertypes ++= classHierarchy.allSupertypes(objectType, reflexive = false)
+        }
+        supertypes
+    }
+
     def apply[Source](
         projectClassFilesWithSources:       Traversable[(ClassFile, Source)],
         libraryClassFilesWithSources:       Traversable[(ClassFile, Source)],
@@ -1778,6 +2299,68 @@ object Project {
         handleInconsistentProject:          HandleInconsistentProject,
         config:                             Config,
         logContext:                         LogContext
+    ): Project[Source] = {
+        create(
+            projectClassFilesWithSources,
+            libraryClassFilesWithSources,
+            libraryClassFilesAreInterfacesOnly,
+            virtualClassFiles,
+            handleInconsistentProject,
+            config,
+            logContext,
+            knownClassHierarchy = None,
+            knownInstanceMethods = None,
+            knownOverridingMethods = None
+        )
+    }
+
+    /**
+     * Creates a new project using the given – previously computed – class hierarchy,
+     * instance methods and overriding methods; i.e., this information is not recomputed
+     * and the project is not validated (again).
+     *
+     * This method is intended to be used to restore a project whose derived information was
+     * serialized (see `org.opalj.ba.ProjectSnapshot`); the given information has to be the
+     * information that was computed for a project which consists of exactly the given class
+     * files.
+     */
+    def restore[Source](
+        projectClassFilesWithSources:       Traversable[(ClassFile, Source)],
+        libraryClassFilesWithSources:       Traversable[(ClassFile, Source)],
+        libraryClassFilesAreInterfacesOnly: Boolean,
+        virtualClassFiles:                  Traversable[ClassFile],
+        classHierarchy:                     ClassHierarchy,
+        instanceMethods:                    Map[ObjectType, ConstArray[MethodDeclarationContext]],
+        overridingMethods:                  Map[Method, Set[Method]],
+        handleInconsistentProject:          HandleInconsistentProject,
+        config:                             Config,
+        logContext:                         LogContext
+    ): Project[Source] = {
+        create(
+            projectClassFilesWithSources,
+            libraryClassFilesWithSources,
+            libraryClassFilesAreInterfacesOnly,
+            virtualClassFiles,
+            handleInconsistentProject,
+            config,
+            logContext,
+            Some(classHierarchy),
+            Some(instanceMethods),
+            Some(overridingMethods)
+        )
+    }
+
+    private[this] def create[Source](
+        projectClassFilesWithSources:       Traversable[(ClassFile, Source)],
+        libraryClassFilesWithSources:       Traversable[(ClassFile, Source)],
+        libraryClassFilesAreInterfacesOnly: Boolean,
+        virtualClassFiles:                  Traversable[ClassFile],
+        handleInconsistentProject:          HandleInconsistentProject,
+        config:                             Config,
+        logContext:                         LogContext,
+        knownClassHierarchy:                Option[ClassHierarchy],
+        knownInstanceMethods:               Option[Map[ObjectType, ConstArray[MethodDeclarationContext]]],
+        knownOverridingMethods:             Option[Map[Method, Set[Method]]]
     ): Project[Source] = time {
         implicit val projectConfig = config
         implicit val projectLogContext = logContext
@@ -1788,31 +2371,34 @@ object Project {
             import scala.concurrent.duration.Duration
             import ExecutionContext.Implicits.{global ⇒ ScalaExecutionContext}
 
-            val classHierarchyFuture: Future[ClassHierarchy] = Future {
-                time {
-                    val OTObject = ObjectType.Object
-                    val typeHierarchyDefinitions =
-                        if (projectClassFilesWithSources.exists(_._1.thisType == OTObject) ||
-                            libraryClassFilesWithSources.exists(_._1.thisType == OTObject)) {
-                            info("project configuration", "the JDK is part of the analysis")
-                            ClassHierarchy.noDefaultTypeHierarchyDefinitions
-                        } else {
-                            val alternative =
-                                "(using the preconfigured type hierarchy (based on Java 7) "+
-                                    "for classes belonging java.lang)"
-                            info("project configuration", "JDK classes not found "+alternative)
-                            ClassHierarchy.defaultTypeHierarchyDefinitions
-                        }
-                    ClassHierarchy(
-                        projectClassFilesWithSources.view.map(_._1) ++
-                            libraryClassFilesWithSources.view.map(_._1) ++
-                            virtualClassFiles,
-                        typeHierarchyDefinitions
-                    )
-                } { t ⇒
-                    info("project setup", s"computing type hierarchy took ${t.toSeconds}")
-                }
-            }(ScalaExecutionContext)
+            val classHierarchyFuture: Future[ClassHierarchy] = knownClassHierarchy match {
+                case Some(classHierarchy) ⇒ Future.successful(classHierarchy)
+                case None ⇒ Future {
+                    time {
+                        val OTObject = ObjectType.Object
+                        val typeHierarchyDefinitions =
+                            if (projectClassFilesWithSources.exists(_._1.thisType == OTObject) ||
+                                libraryClassFilesWithSources.exists(_._1.thisType == OTObject)) {
+                                info("project configuration", "the JDK is part of the analysis")
+                                ClassHierarchy.noDefaultTypeHierarchyDefinitions
+                            } else {
+                                val alternative =
+                                    "(using the preconfigured type hierarchy (based on Java 7) "+
+                                        "for classes belonging java.lang)"
+                                info("project configuration", "JDK classes not found "+alternative)
+                                ClassHierarchy.defaultTypeHierarchyDefinitions
+                            }
+                        ClassHierarchy(
+                            projectClassFilesWithSources.view.map(_._1) ++
+                                libraryClassFilesWithSources.view.map(_._1) ++
+                                virtualClassFiles,
+                            typeHierarchyDefinitions
+                        )
+                    } { t ⇒
+                        info("project setup", s"computing type hierarchy took ${t.toSeconds}")
+                    }
+                }(ScalaExecutionContext)
+            }
 
             val projectModules = AnyRefMap.empty[String, ModuleDefinition[Source]]
             var projectClassFiles = List.empty[ClassFile]
@@ -1883,7 +2469,7 @@ object Project {
                     projectClassFilesCount += 1
                     for (method ← classFile.methods) {
                         projectMethodsCount += 1
-                        method.body.foreach(codeSize += _.instructions.length)
+                        codeSize += method.codeSize
                     }
                     projectFieldsCount += classFile.fields.size
                     objectTypeToClassFile(projectType) = classFile
@@ -1951,7 +2537,7 @@ object Project {
                     libraryClassFilesCount += 1
                     for (method ← libClassFile.methods) {
                         libraryMethodsCount += 1
-                        method.body.foreach(codeSize += _.instructions.length)
+                        codeSize += method.codeSize
                     }
                     libraryFieldsCount += libClassFile.fields.size
                     objectTypeToClassFile(libraryType) = libClassFile
@@ -1961,8 +2547,11 @@ object Project {
 
             val classHierarchy = Await.result(classHierarchyFuture, Duration.Inf)
 
-            val instanceMethodsFuture = Future {
-                this.instanceMethods(classHierarchy, objectTypeToClassFile.get)
+            val instanceMethodsFuture = knownInstanceMethods match {
+                case Some(instanceMethods) ⇒ Future.successful(instanceMethods)
+                case None ⇒ Future {
+                    this.instanceMethods(classHierarchy, objectTypeToClassFile.get)
+                }
             }
 
             val projectClassFilesArray = projectClassFiles.toArray
@@ -1977,17 +2566,20 @@ object Project {
             }
             val virtualMethodsCount: Int = allMethods.count(m ⇒ m.isVirtualMethodDeclaration)
 
-            val overridingMethodsFuture = Future {
-                this.overridingMethods(classHierarchy, virtualMethodsCount, objectTypeToClassFile)
+            val overridingMethodsFuture = knownOverridingMethods match {
+                case Some(overridingMethods) ⇒ Future.successful(overridingMethods)
+                case None ⇒ Future {
+                    this.overridingMethods(classHierarchy, virtualMethodsCount, objectTypeToClassFile)
+                }
             }
 
             val methodsWithBodySortedBySizeWithContext =
                 (projectClassFiles.iterator.flatMap(_.methods) ++
                     libraryClassFiles.iterator.flatMap(_.methods)).
-                    filter(m ⇒ m.body.isDefined).
+                    filter(m ⇒ m.hasBody).
                     map(m ⇒ MethodInfo(sources(m.classFile.thisType), m)).
                     toArray.
-                    sortWith { (v1, v2) ⇒ v1.method.body.get.codeSize > v2.method.body.get.codeSize }
+                    sortWith { (v1, v2) ⇒ v1.method.codeSize > v2.method.codeSize }
 
             val methodsWithBodySortedBySize: Array[Method] =
                 methodsWithBodySortedBySizeWithContext.map(mi ⇒ mi.method)
@@ -2060,7 +2652,7 @@ object Project {
                 ProjectTypes.withName(config.as[String](ProjectType.ConfigKey))
             )
 
-            time {
+            if (knownClassHierarchy.isEmpty) time {
                 val issues = validate(project)
                 issues.foreach { handleInconsistentProject(logContext, _) }
                 info(
@@ -0,0 +1,66 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package br
+package analyses
+
+/**
+ * Describes the differences between a project and its incrementally updated successor
+ * (see [[Project.update]]).
+ *
+ * @param addedTypes The types which are only defined by the updated project.
+ * @param removedTypes The types which are only defined by the previous project.
+ * @param changedTypes The types which are defined by both projects, but for which the
+ *        class files are not similar (see [[ClassFile.similar]]).
+ * @param affectedTypes The added, removed and changed types and all their subtypes in the
+ *        previous as well as in the updated project. I.e., all types for which the set of
+ *        visible (inherited) members may have changed.
+ * @param supertypesOfModifiedTypes All (transitive) supertypes of the added, removed and
+ *        changed types in the previous as well as in the updated project. I.e., all types
+ *        for which the set of subtypes or the members of a subtype may have changed.
+ *
+ * @author agent
+ */
+final class ProjectChanges private[analyses] (
+        val addedTypes:    Set[ObjectType],
+        val removedTypes:  Set[ObjectType],
+        val changedTypes:  Set[ObjectType],
+        val affectedTypes: Set[ObjectType],
+        val supertypesOfModifiedTypes: Set[ObjectType]
+) {
+
+    /**
+     * The types whose class files were added, removed or changed.
+     */
+    def modifiedTypes: Set[ObjectType] = addedTypes ++ removedTypes ++ changedTypes
+
+    def isEmpty: Boolean = addedTypes.isEmpty && removedTypes.isEmpty && changedTypes.isEmpty
+
+    def nonEmpty: Boolean = !isEmpty
+
+    /**
+     * Returns `true` if the class file which defines the given type was added, removed
+     * or changed.
+     */
+    def isModified(objectType: ObjectType): Boolean = {
+        addedTypes.contains(objectType) ||
+            removedTypes.contains(objectType) ||
+            changedTypes.contains(objectType)
+    }
+
+    /**
+     * Returns `true` if the given method is declared by a class file which was added, removed
+     * or changed; i.e., if the method's body may have changed.
+     */
+    def isModified(method: Method): Boolean = isModified(method.classFile.thisType)
+
+    /**
+     * Returns `true` if the set of the members (including the inherited ones) of the given
+     * type may have changed.
+     */
+    def isAffected(objectType: ObjectType): Boolean = affectedTypes.contains(objectType)
+
+    override def toString: String = {
+        s"ProjectChanges(added=${addedTypes.size},removed=${removedTypes.size},"+
+            s"changed=${changedTypes.size},affected=${affectedTypes.size})"
+    }
+}
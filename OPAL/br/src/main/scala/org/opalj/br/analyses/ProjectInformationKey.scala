@@ -3,6 +3,7 @@ package org.opalj
 package br
 package analyses
 
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -45,6 +46,11 @@ import java.util.concurrent.atomic.AtomicInteger;
  * [[Project]] takes care of the caching of the result of the computation of the
  * information.
  *
+ * ===Incremental Updates===
+ * When a project is incrementally updated (see [[Project.update]]), the information is
+ * by default discarded and recomputed on demand. Keys which can derive the information for
+ * the updated project from the previous information override [[update]].
+ *
  * @tparam T The type of the information object that is derived.
  * @tparam I The type of information used at initialization time.
  *
@@ -56,7 +62,7 @@ trait ProjectInformationKey[T <: AnyRef, I <: AnyRef] {
      * The unique id of this key. The key is used to enable efficient access and
      * is automatically assigned by OPAL and will not change after that.
      */
-    final val uniqueId: Int = ProjectInformationKey.nextId
+    final val uniqueId: Int = ProjectInformationKey.register(this)
 
     // Only (intended to be) used by ProjectLike.
     // "Solves" the issue that Scala has no "package protected" visibility;
@@ -95,11 +101,38 @@ trait ProjectInformationKey[T <: AnyRef, I <: AnyRef] {
      */
     /*ABSTRACT*/ protected def compute(project: SomeProject): T
 
+    // Only (intended to be) used by Project.
+    final private[analyses] def doUpdate(
+        project:     SomeProject,
+        information: AnyRef,
+        changes:     ProjectChanges
+    ): Option[T] = {
+        update(project, information.asInstanceOf[T], changes)
+    }
+
+    /**
+     * Derives the information for the given – incrementally updated – project from the
+     * information computed for the previous version of the project. This method is only
+     * called if the information associated with all [[requirements]] was also carried over.
+     *
+     * By default, `None` is returned and the information is recomputed on demand.
+     *
+     * @param project The updated project.
+     * @param information The information computed for the previous version of the project.
+     * @param changes The differences between both versions of the project.
+     * @return `Some` information if the information could be updated.
+     */
+    protected def update(
+        project:     SomeProject,
+        information: T,
+        changes:     ProjectChanges
+    ): Option[T] = None
+
 }
 
 /**
  * Private companion object of ProjectInformationKey that is required to associate
- * project information objects with unique ids.
+ * project information objects with unique ids and to look up keys by their ids.
  *
  * @author Michael Eichberg
  */
@@ -107,6 +140,23 @@ private object ProjectInformationKey {
 
     private[this] val idGenerator = new AtomicInteger(0)
 
-    private[ProjectInformationKey] def nextId: Int = idGenerator.getAndIncrement()
+    private[this] val keys = {
+        new ConcurrentHashMap[Int, ProjectInformationKey[_ <: AnyRef, _ <: AnyRef]]()
+    }
+
+    private[ProjectInformationKey] def register(
+        key: ProjectInformationKey[_ <: AnyRef, _ <: AnyRef]
+    ): Int = {
+        val id = idGenerator.getAndIncrement()
+        keys.put(id, key)
+        id
+    }
+
+    /**
+     * Returns the key with the given unique id.
+     */
+    private[analyses] def apply(uniqueId: Int): ProjectInformationKey[_ <: AnyRef, _ <: AnyRef] = {
+        keys.get(uniqueId)
+    }
 
 }
@@ -42,25 +42,7 @@ object StringConstantsInformationKey
         val map = new ConcurrentHashMap[String, ConcurrentLinkedQueue[PCInMethod]](estimatedSize)
 
         project.parForeachMethodWithBody(defaultIsInterrupted) { methodInfo ⇒
-            val method = methodInfo.method
-
-            method.body.get foreach { i: PCAndInstruction ⇒
-                val pc = i.pc
-                val instruction = i.instruction
-                if (instruction.opcode == LDC.opcode || instruction.opcode == LDC_W.opcode) {
-                    instruction match {
-                        case LDCString(value) ⇒
-                            var list: ConcurrentLinkedQueue[PCInMethod] = map.get(value)
-                            if (list eq null) {
-                                list = new ConcurrentLinkedQueue[PCInMethod]()
-                                val previousList = map.putIfAbsent(value, list)
-                                if (previousList != null) list = previousList
-                            }
-                            list.add(PCInMethod(method, pc))
-                        case _ ⇒ /*other type of constant*/
-                    }
-                }
-            }
+            collectStringConstants(methodInfo.method, map)
         }
 
         var result: Map[String, ConstArray[PCInMethod]] = Map.empty
@@ -70,4 +52,65 @@ object StringConstantsInformationKey
         }
         result
     }
+
+    /**
+     * Updates the string constants information by removing the string constants of the
+     * methods of the modified class files and adding those of the methods of the added and
+     * changed class files; the code of all other methods is not analyzed again.
+     */
+    override protected def update(
+        project:     SomeProject,
+        information: StringConstantsInformation,
+        changes:     ProjectChanges
+    ): Option[StringConstantsInformation] = {
+        val map = new ConcurrentHashMap[String, ConcurrentLinkedQueue[PCInMethod]]()
+        for {
+            typeName ← changes.addedTypes.iterator ++ changes.changedTypes.iterator
+            classFile ← project.classFile(typeName).iterator
+            method ← classFile.methods
+            if method.body.isDefined
+        } {
+            collectStringConstants(method, map)
+        }
+
+        var result: Map[String, ConstArray[PCInMethod]] = Map.empty
+        information foreach { kv ⇒
+            val (name, locations) = kv
+            val unmodifiedLocations = locations.filterNot(l ⇒ changes.isModified(l.method))
+            val newLocations = map.remove(name)
+            if (newLocations ne null) {
+                result += ((name, unmodifiedLocations ++ newLocations.asScala))
+            } else if (unmodifiedLocations.nonEmpty) {
+                result += ((name, unmodifiedLocations))
+            }
+        }
+        map.asScala foreach { kv ⇒
+            val (name, locations) = kv
+            result += ((name, ConstArray._UNSAFE_from(locations.asScala.toArray)))
+        }
+        Some(result)
+    }
+
+    private[this] def collectStringConstants(
+        method: Method,
+        map:    ConcurrentHashMap[String, ConcurrentLinkedQueue[PCInMethod]]
+    ): Unit = {
+        method.body.get foreach { i: PCAndInstruction ⇒
+            val pc = i.pc
+            val instruction = i.instruction
+            if (instruction.opcode == LDC.opcode || instruction.opcode == LDC_W.opcode) {
+                instruction match {
+                    case LDCString(value) ⇒
+                        var list: ConcurrentLinkedQueue[PCInMethod] = map.get(value)
+                        if (list eq null) {
+                            list = new ConcurrentLinkedQueue[PCInMethod]()
+                            val previousList = map.putIfAbsent(value, list)
+                            if (previousList != null) list = previousList
+                        }
+                        list.add(PCInMethod(method, pc))
+                    case _ ⇒ /*other type of constant*/
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,225 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package br
+package analyses
+package cg
+
+import java.util.Arrays
+import java.util.IdentityHashMap
+
+/**
+ * A call graph which stores its edges in compressed sparse row (CSR) arrays.
+ *
+ * Each method of the project (including the library methods) has a dense id; the call
+ * sites of a method (sorted by their pcs) are stored in the range
+ * `[callSitesOffsets(id), callSitesOffsets(id+1))` of the `callSitePCs` array and the callees
+ * of a call site with the (global) index `cs` are stored in the range
+ * `[calleesOffsets(cs), calleesOffsets(cs+1))` of the `calleeIds` array. The reverse edges
+ * (i.e., the callers of a method) are computed on demand and are then stored in the same way.
+ *
+ * The callees of an `invokedynamic` call site are the methods referenced by its bootstrap
+ * method (see [[CallGraphKey]] for details).
+ *
+ * @see [[CallGraphKey]] to get the call graph of a project.
+ *
+ * @author agent
+ */
+final class CallGraph private[cg] (
+        val algorithm:                      CallGraphAlgorithm,
+        val entryPoints:                    Set[Method],
+        private[this] val methods:          Array[Method],
+        private[this] val methodIds:        IdentityHashMap[Method, Integer],
+        private[this] val reachable:        Array[Boolean],
+        private[this] val callSitesOffsets: Array[Int],
+        private[this] val callSitePCs:      Array[Int],
+        private[this] val calleesOffsets:   Array[Int],
+        private[this] val calleeIds:        Array[Int]
+) {
+
+    private[this] class ReverseEdges(
+            val callersOffsets: Array[Int],
+            val callerIds:      Array[Int],
+            val callerPCs:      Array[Int]
+    )
+
+    private[this] lazy val reverseEdges: ReverseEdges = {
+        val methodsCount = methods.length
+        val callersOffsets = new Array[Int](methodsCount + 1)
+        calleeIds foreach { calleeId ⇒ callersOffsets(calleeId + 1) += 1 }
+        var id = 0
+        while (id < methodsCount) {
+            callersOffsets(id + 1) += callersOffsets(id)
+            id += 1
+        }
+        val nextIndex = Arrays.copyOf(callersOffsets, methodsCount)
+        val callerIds = new Array[Int](calleeIds.length)
+        val callerPCs = new Array[Int](calleeIds.length)
+        var callerId = 0
+        while (callerId < methodsCount) {
+            var callSite = callSitesOffsets(callerId)
+            while (callSite < callSitesOffsets(callerId + 1)) {
+                var calleeIndex = calleesOffsets(callSite)
+                while (calleeIndex < calleesOffsets(callSite + 1)) {
+                    val calleeId = calleeIds(calleeIndex)
+                    val index = nextIndex(calleeId)
+                    callerIds(index) = callerId
+                    callerPCs(index) = callSitePCs(callSite)
+                    nextIndex(calleeId) = index + 1
+                    calleeIndex += 1
+                }
+                callSite += 1
+            }
+            callerId += 1
+        }
+        new ReverseEdges(callersOffsets, callerIds, callerPCs)
+    }
+
+    /** The number of methods (including the library methods) of the project. */
+    def methodsCount: Int = methods.length
+
+    def callSitesCount: Int = callSitePCs.length
+
+    def edgesCount: Int = calleeIds.length
+
+    /**
+     * The id of the given method; `-1` if the method does not belong to the project.
+     */
+    def methodId(method: Method): Int = {
+        val id = methodIds.get(method)
+        if (id eq null) -1 else id.intValue
+    }
+
+    def method(methodId: Int): Method = methods(methodId)
+
+    /**
+     * Returns `true` if the method is reachable from the entry points; in case of a CHA
+     * based call graph all methods with a body are considered to be reachable.
+     */
+    def isReachable(method: Method): Boolean = {
+        val id = methodId(method)
+        id >= 0 && reachable(id)
+    }
+
+    def reachableMethods: Iterator[Method] = {
+        methods.iterator.zip(reachable.iterator).collect { case (m, true) ⇒ m }
+    }
+
+    /**
+     * Calls the function `f` for each call site of the given method and passes the call
+     * site's pc and the potential callees to it. The call sites are processed in ascending
+     * order of their pcs.
+     */
+    def foreachCallSite[U](caller: Method)(f: (PC, Iterator[Method]) ⇒ U): Unit = {
+        val id = methodId(caller)
+        if (id >= 0) {
+            var callSite = callSitesOffsets(id)
+            val end = callSitesOffsets(id + 1)
+            while (callSite < end) {
+                f(callSitePCs(callSite), calleesOfCallSite(callSite))
+                callSite += 1
+            }
+        }
+    }
+
+    /**
+     * The methods which may be called by the given method; a method which is called by
+     * multiple call sites is returned multiple times.
+     */
+    def callees(caller: Method): Iterator[Method] = {
+        val id = methodId(caller)
+        if (id < 0)
+            return Iterator.empty;
+
+        val firstCallee = calleesOffsets(callSitesOffsets(id))
+        val lastCallee = calleesOffsets(callSitesOffsets(id + 1))
+        Iterator.range(firstCallee, lastCallee).map(i ⇒ methods(calleeIds(i)))
+    }
+
+    /**
+     * The methods which may be called by the call site with the given pc.
+     */
+    def callees(caller: Method, pc: PC): Iterator[Method] = {
+        val id = methodId(caller)
+        if (id < 0)
+            return Iterator.empty;
+
+        val callSite = Arrays.binarySearch(
+            callSitePCs, callSitesOffsets(id), callSitesOffsets(id + 1), pc
+        )
+        if (callSite < 0) Iterator.empty else calleesOfCallSite(callSite)
+    }
+
+    private[this] def calleesOfCallSite(callSite: Int): Iterator[Method] = {
+        Iterator.range(calleesOffsets(callSite), calleesOffsets(callSite + 1)).map { i ⇒
+            methods(calleeIds(i))
+        }
+    }
+
+    /**
+     * Calls the function `f` for each call site which may call the given method.
+     *
+     * @note The reverse edges are computed when required for the first time.
+     */
+    def foreachCaller[U](callee: Method)(f: (Method, PC) ⇒ U): Unit = {
+        val id = methodId(callee)
+        if (id >= 0) {
+            val reverseEdges = this.reverseEdges
+            var index = reverseEdges.callersOffsets(id)
+            val end = reverseEdges.callersOffsets(id + 1)
+            while (index < end) {
+                f(methods(reverseEdges.callerIds(index)), reverseEdges.callerPCs(index))
+                index += 1
+            }
+        }
+    }
+
+    /**
+     * The methods which may call the given method; each method is returned once.
+     */
+    def callers(callee: Method): Set[Method] = {
+        var callers = Set.empty[Method]
+        foreachCaller(callee) { (caller, _) ⇒ callers += caller }
+        callers
+    }
+
+    /**
+     * The number of call sites which may call the given method.
+     */
+    def callersCount(callee: Method): Int = {
+        val id = methodId(callee)
+        if (id < 0)
+            0
+        else {
+            val callersOffsets = reverseEdges.callersOffsets
+            callersOffsets(id + 1) - callersOffsets(id)
+        }
+    }
+
+    override def toString: String = {
+        s"CallGraph(algorithm=$algorithm,methods=$methodsCount,"+
+            s"reachableMethods=${reachable.count(r ⇒ r)},"+
+            s"callSites=$callSitesCount,edges=$edgesCount)"
+    }
+}
+
+/**
+ * The algorithm that was used to construct a [[CallGraph]].
+ *
+ * @author agent
+ */
+sealed abstract class CallGraphAlgorithm(val name: String) {
+    override def toString: String = name
+}
+
+/**
+ * Class hierarchy analysis: all methods with a body are analyzed and the targets of virtual
+ * calls are all methods which may be called given the project's class hierarchy.
+ */
+case object CHA extends CallGraphAlgorithm("CHA")
+
+/**
+ * Rapid type analysis: only the methods reachable from the entry points are analyzed and the
+ * targets of virtual calls are restricted to the methods of those types for which a subtype
+ * is instantiated by a reachable method.
+ */
+case object RTA extends CallGraphAlgorithm("RTA")
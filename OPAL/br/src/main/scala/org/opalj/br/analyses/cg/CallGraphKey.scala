@@ -0,0 +1,390 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package br
+package analyses
+package cg
+
+import java.util.BitSet
+import java.util.IdentityHashMap
+import java.util.concurrent.ConcurrentHashMap
+
+import scala.collection.mutable
+
+import net.ceedubs.ficus.Ficus._
+
+import org.opalj.log.OPALLogger.info
+import org.opalj.log.OPALLogger.error
+import org.opalj.br.instructions.DEFAULT_INVOKEDYNAMIC
+import org.opalj.br.instructions.INVOKEDYNAMIC
+import org.opalj.br.instructions.INVOKEINTERFACE
+import org.opalj.br.instructions.INVOKESPECIAL
+import org.opalj.br.instructions.INVOKESTATIC
+import org.opalj.br.instructions.INVOKEVIRTUAL
+import org.opalj.br.instructions.NEW
+
+/**
+ * The ''key'' object to get the project's [[CallGraph]].
+ *
+ * The call graph is either computed using a class hierarchy analysis ([[CHA]]) or a rapid
+ * type analysis ([[RTA]]). In both cases, the call sites are resolved in parallel and the
+ * targets of (virtual) calls with the same signature (and, if relevant, the same calling
+ * context) are resolved only once.
+ *
+ * @example
+ *      {{{
+ *      org.opalj.br.analyses.cg {
+ *          CallGraphKey {
+ *              algorithm = "RTA" // "CHA" or "RTA"
+ *              entryPoints = "application" // "application" or "library"
+ *          }
+ *      }
+ *      }}}
+ *
+ * ==Entry Points==
+ * In case of an ''application'', the entry points are all `main` methods and all static
+ * initializers of the project's types. In case of a ''library'', all non-private methods of
+ * the project's types are entry points. The entry points are only relevant w.r.t. [[RTA]].
+ *
+ * ==Soundness==
+ * Given that library methods are usually not analyzed, all types defined by the library
+ * are considered to be instantiated by RTA. Methods which are implicitly called by the JVM
+ * (e.g., `finalize` or static initializers of other types) and call-backs from
+ * library methods are only reachable if they are entry points.
+ *
+ * ==Invokedynamic==
+ * The callees of an `invokedynamic` call site are the bootstrap method and the methods
+ * referenced by the method handles which are passed as bootstrap arguments; e.g., the
+ * methods which implement lambda expressions or the methods referenced by method
+ * references.
+ *
+ * @author agent
+ */
+object CallGraphKey extends ProjectInformationKey[CallGraph, Nothing] {
+
+    final val ConfigKeyPrefix = "org.opalj.br.analyses.cg.CallGraphKey."
+
+    final val AlgorithmKey = ConfigKeyPrefix+"algorithm"
+
+    final val EntryPointsKey = ConfigKeyPrefix+"entryPoints"
+
+    /**
+     * The [[CallGraphKey]] has no special prerequisites.
+     *
+     * @return `Nil`.
+     */
+    override protected def requirements: Seq[ProjectInformationKey[Nothing, Nothing]] = Nil
+
+    override protected def compute(project: SomeProject): CallGraph = {
+        implicit val logContext = project.logContext
+
+        val algorithm = project.config.as[Option[String]](AlgorithmKey).getOrElse("CHA") match {
+            case "CHA" ⇒ CHA
+            case "RTA" ⇒ RTA
+            case unknown ⇒
+                error("project configuration", s"unknown call graph algorithm $unknown; using CHA")
+                CHA
+        }
+        val isLibrary = project.config.as[Option[String]](EntryPointsKey) match {
+            case Some("library") ⇒ true
+            case _               ⇒ false
+        }
+
+        val callGraph = apply(project, algorithm, entryPoints(project, isLibrary))
+        info("call graph", callGraph.toString)
+        callGraph
+    }
+
+    /**
+     * The entry points of the given project; see [[CallGraphKey]] for details.
+     */
+    def entryPoints(project: SomeProject, isLibrary: Boolean): Set[Method] = {
+        val MainMethodDescriptor = MethodDescriptor.JustTakes(ArrayType(ObjectType.String))
+        val entryPoints = for {
+            classFile ← project.allProjectClassFiles.iterator
+            method ← classFile.methods.iterator
+            if method.body.isDefined
+            if method.isStaticInitializer ||
+                (isLibrary && !method.isPrivate) ||
+                (method.isStatic && method.isPublic && method.name == "main" &&
+                    method.descriptor == MainMethodDescriptor)
+        } yield {
+            method
+        }
+        entryPoints.toSet
+    }
+
+    /**
+     * The resolved call sites of a single method; the pcs are sorted in ascending order.
+     */
+    private[this] class CallSites(
+            val pcs:      Array[Int],
+            val callees:  Array[Array[Int]],
+            val newTypes: Set[ObjectType]
+    )
+
+    /**
+     * The signature of a call site; `context` is the calling context which is relevant for
+     * resolving the call (the caller's package for virtual calls and the caller's type for
+     * super calls; `null` otherwise).
+     */
+    private[this] case class CallSiteSignature(
+            opcode:         Int,
+            context:        AnyRef,
+            declaringClass: ReferenceType,
+            name:           String,
+            descriptor:     MethodDescriptor
+    )
+
+    /**
+     * Computes the call graph of the given project using the given algorithm.
+     */
+    def apply(
+        project:     SomeProject,
+        algorithm:   CallGraphAlgorithm,
+        entryPoints: Set[Method]
+    ): CallGraph = {
+        val methods: Array[Method] = project.allMethods.toArray
+        val methodsCount = methods.length
+        val methodIds = new IdentityHashMap[Method, Integer](methodsCount)
+        var id = 0
+        while (id < methodsCount) {
+            methodIds.put(methods(id), id)
+            id += 1
+        }
+
+        // 1. resolve all call sites in parallel
+        def toIds(callTargets: Iterator[Method]): Array[Int] = {
+            callTargets.map(m ⇒ methodIds.get(m)).filter(_ ne null).
+                map(_.intValue).toArray.distinct.sorted
+        }
+        val resolvedCallTargets = new ConcurrentHashMap[CallSiteSignature, Array[Int]]()
+        def resolve(signature: CallSiteSignature, callTargets: ⇒ Iterable[Method]): Array[Int] = {
+            var targets = resolvedCallTargets.get(signature)
+            if (targets eq null) {
+                targets = toIds(callTargets.iterator)
+                resolvedCallTargets.put(signature, targets)
+            }
+            targets
+        }
+
+        val allCallSites = new Array[CallSites](methodsCount)
+        project.parForeachMethodWithBody() { methodInfo ⇒
+            val method = methodInfo.method
+            val callerType = method.classFile.thisType
+            val pcs = mutable.ArrayBuilder.make[Int]
+            val callees = mutable.ArrayBuilder.make[Array[Int]]
+            var newTypes = Set.empty[ObjectType]
+            method.body.get iterate { (pc, instruction) ⇒
+                val targets = (instruction.opcode: @annotation.switch) match {
+                    case INVOKESTATIC.opcode ⇒
+                        val i = instruction.asInstanceOf[INVOKESTATIC]
+                        val signature = CallSiteSignature(
+                            i.opcode, null, i.declaringClass, i.name, i.methodDescriptor
+                        )
+                        resolve(signature, project.staticCall(i).toSet)
+                    case INVOKESPECIAL.opcode ⇒
+                        val i = instruction.asInstanceOf[INVOKESPECIAL]
+                        val signature = CallSiteSignature(
+                            i.opcode, callerType, i.declaringClass, i.name, i.methodDescriptor
+                        )
+                        resolve(signature, project.specialCall(callerType, i).toSet)
+                    case INVOKEVIRTUAL.opcode ⇒
+                        val i = instruction.asInstanceOf[INVOKEVIRTUAL]
+                        val callerPackage = callerType.packageName
+                        val signature = CallSiteSignature(
+                            i.opcode, callerPackage, i.declaringClass, i.name, i.methodDescriptor
+                        )
+                        resolve(signature, project.virtualCall(callerPackage, i))
+                    case INVOKEINTERFACE.opcode ⇒
+                        val i = instruction.asInstanceOf[INVOKEINTERFACE]
+                        val signature = CallSiteSignature(
+                            i.opcode, null, i.declaringClass, i.name, i.methodDescriptor
+                        )
+                        resolve(signature, project.interfaceCall(i))
+                    case INVOKEDYNAMIC.opcode ⇒
+                        instruction match {
+                            case DEFAULT_INVOKEDYNAMIC(bootstrapMethod, _, _) ⇒
+                                val handles = bootstrapMethod.handle :: bootstrapMethod.arguments.toList.collect {
+                                    case handle: MethodHandle ⇒ handle
+                                }
+                                toIds(handles.iterator.flatMap { handle ⇒
+                                    resolveMethodHandle(project, callerType, handle)
+                                })
+                            case _ ⇒
+                                null
+                        }
+                    case NEW.opcode ⇒
+                        newTypes += instruction.asNEW.objectType
+                        null
+                    case _ ⇒
+                        null
+                }
+                if (targets ne null) {
+                    pcs += pc
+                    callees += targets
+                }
+            }
+            val callSites = new CallSites(pcs.result, callees.result, newTypes)
+            allCallSites(methodIds.get(method)) = callSites
+        }
+
+        // 2. determine the reachable methods
+        val reachable = new Array[Boolean](methodsCount)
+        val isCallable: Method ⇒ Boolean = algorithm match {
+            case CHA ⇒
+                id = 0
+                while (id < methodsCount) {
+                    reachable(id) = allCallSites(id) ne null
+                    id += 1
+                }
+                (_: Method) ⇒ true
+
+            case RTA ⇒
+                val hasInstantiatedSubtype = computeReachableMethods(
+                    project, methods, methodIds, entryPoints, allCallSites, reachable
+                )
+                (m: Method) ⇒ {
+                    !isVirtualCallTarget(m) || hasInstantiatedSubtype.get(m.classFile.thisType.id)
+                }
+        }
+
+        // 3. create the compressed sparse rows
+        val callSitesOffsets = new Array[Int](methodsCount + 1)
+        val callSitePCs = mutable.ArrayBuilder.make[Int]
+        val calleesOffsets = mutable.ArrayBuilder.make[Int]
+        val calleeIds = mutable.ArrayBuilder.make[Int]
+        var callSitesCount = 0
+        var edgesCount = 0
+        id = 0
+        while (id < methodsCount) {
+            callSitesOffsets(id) = callSitesCount
+            val callSites = allCallSites(id)
+            if (reachable(id) && (callSites ne null)) {
+                var i = 0
+                while (i < callSites.pcs.length) {
+                    val targets = callSites.callees(i)
+                    val callableTargets =
+                        if (algorithm eq CHA) targets
+                        else targets.filter(t ⇒ isCallable(methods(t)))
+                    if (callableTargets.nonEmpty) {
+                        callSitePCs += callSites.pcs(i)
+                        calleesOffsets += edgesCount
+                        calleeIds ++= callableTargets
+                        callSitesCount += 1
+                        edgesCount += callableTargets.length
+                    }
+                    i += 1
+                }
+            }
+            id += 1
+        }
+        callSitesOffsets(methodsCount) = callSitesCount
+        calleesOffsets += edgesCount
+
+        new CallGraph(
+            algorithm,
+            entryPoints,
+            methods,
+            methodIds,
+            reachable,
+            callSitesOffsets,
+            callSitePCs.result,
+            calleesOffsets.result,
+            calleeIds.result
+        )
+    }
+
+    /**
+     * The methods which may be called when the given method handle is invoked.
+     */
+    private[this] def resolveMethodHandle(
+        project:    SomeProject,
+        callerType: ObjectType,
+        handle:     MethodHandle
+    ): Iterator[Method] = {
+        handle match {
+            case InvokeStaticMethodHandle(receiverType: ObjectType, isInterface, name, md) ⇒
+                project.staticCall(receiverType, isInterface, name, md).toSet.iterator
+            case InvokeSpecialMethodHandle(receiverType: ObjectType, isInterface, name, md) ⇒
+                project.specialCall(callerType, receiverType, isInterface, name, md).toSet.iterator
+            case NewInvokeSpecialMethodHandle(receiverType: ObjectType, name, md) ⇒
+                project.specialCall(callerType, receiverType, false, name, md).toSet.iterator
+            case InvokeVirtualMethodHandle(receiverType, name, md) ⇒
+                project.virtualCall(callerType.packageName, receiverType, name, md).iterator
+            case InvokeInterfaceMethodHandle(receiverType: ObjectType, name, md) ⇒
+                project.interfaceCall(receiverType, name, md).iterator
+            case _ ⇒
+                Iterator.empty
+        }
+    }
+
+    /**
+     * Returns `true` if the given method is (potentially) called using virtual method
+     * call resolution.
+     */
+    private[this] def isVirtualCallTarget(method: Method): Boolean = {
+        !method.isStatic && !method.isPrivate && !method.isInitializer
+    }
+
+    /**
+     * Computes the methods reachable from the given entry points using RTA and returns the
+     * ids of the types which have an instantiated (reflexive) subtype.
+     */
+    private[this] def computeReachableMethods(
+        project:      SomeProject,
+        methods:      Array[Method],
+        methodIds:    IdentityHashMap[Method, Integer],
+        entryPoints:  Set[Method],
+        allCallSites: Array[CallSites],
+        reachable:    Array[Boolean]
+    ): BitSet = {
+        val classHierarchy = project.classHierarchy
+        val hasInstantiatedSubtype = new BitSet(ObjectType.objectTypesCount)
+        // the methods which become callable when a subtype of the key type is instantiated
+        val waitingCallees = mutable.HashMap.empty[Int, List[Int]]
+        val worklist = mutable.ArrayStack.empty[Int]
+
+        def makeReachable(methodId: Int): Unit = {
+            if (!reachable(methodId)) {
+                reachable(methodId) = true
+                worklist.push(methodId)
+            }
+        }
+
+        def instantiated(objectType: ObjectType): Unit = {
+            if (!hasInstantiatedSubtype.get(objectType.id)) {
+                hasInstantiatedSubtype.set(objectType.id)
+                waitingCallees.remove(objectType.id).foreach(_.foreach(makeReachable))
+                classHierarchy.foreachSupertype(objectType)(instantiated)
+            }
+        }
+
+        project.allLibraryClassFiles foreach { cf ⇒ instantiated(cf.thisType) }
+        entryPoints foreach { m ⇒
+            val id = methodIds.get(m)
+            if (id ne null) makeReachable(id.intValue)
+        }
+
+        while (worklist.nonEmpty) {
+            val callSites = allCallSites(worklist.pop())
+            if (callSites ne null) {
+                callSites.newTypes foreach instantiated
+                callSites.callees foreach { targets ⇒
+                    targets foreach { targetId ⇒
+                        val target = methods(targetId)
+                        val targetTypeId = target.classFile.thisType.id
+                        if (!isVirtualCallTarget(target) ||
+                            hasInstantiatedSubtype.get(targetTypeId)) {
+                            makeReachable(targetId)
+                        } else if (!reachable(targetId)) {
+                            val waiting = waitingCallees.getOrElse(targetTypeId, Nil)
+                            waitingCallees(targetTypeId) = targetId :: waiting
+                        }
+                    }
+                }
+            }
+        }
+
+        hasInstantiatedSubtype
+    }
+}
@@ -3,7 +3,7 @@ package org.opalj
 package br
 package cp
 
-import scala.collection.mutable
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap
 
 import org.opalj.br.instructions.LDC
 import org.opalj.br.instructions.LoadInt
@@ -25,21 +25,22 @@ import org.opalj.br.instructions.LoadMethodType
  */
 class ConstantsBuffer private (
         private var nextIndex:    Int,
-        private val constantPool: mutable.Map[Constant_Pool_Entry, Constant_Pool_Index] // IMPROVE[L3] Use ObjectToIntMap
+        private val constantPool: Object2IntOpenHashMap[Constant_Pool_Entry] // open addressing
 ) extends ConstantsPoolLike {
 
     private[this] val bootstrapMethods = new BootstrapMethodsBuffer()
     private[this] var bootstrapMethodAttributeNameIndex: Int = _
 
     private[this] def getOrElseUpdate(cpEntry: Constant_Pool_Entry, entry_size: Int): Int = {
-        constantPool.getOrElseUpdate(
-            cpEntry,
-            {
-                val index = nextIndex
-                nextIndex += entry_size
-                index
-            }
-        )
+        val index = constantPool.getInt(cpEntry)
+        if (index != -1) {
+            index
+        } else {
+            val index = nextIndex
+            nextIndex += entry_size
+            constantPool.put(cpEntry, index)
+            index
+        }
     }
 
     @throws[ConstantPoolException]
@@ -215,6 +216,32 @@ class ConstantsBuffer private (
         validateIndex(cpEntryIndex, false)
     }
 
+    /**
+     * The number of slots of the constant pool (including the unused slot `0` and the
+     * second slots of `long` and `double` constants).
+     */
+    def constantPoolCount: Int = nextIndex
+
+    /**
+     * Returns the current constant pool entries in the order of their indexes; unused slots
+     * are `null`.
+     */
+    def constantPoolEntries: Array[Constant_Pool_Entry] = {
+        val cp = new Array[Constant_Pool_Entry](nextIndex)
+        val entriesIterator = constantPool.object2IntEntrySet.fastIterator
+        while (entriesIterator.hasNext) {
+            val e = entriesIterator.next
+            cp(e.getIntValue) = e.getKey
+        }
+        cp
+    }
+
+    /**
+     * The bootstrap methods referenced by the `CONSTANT_InvokeDynamic_info` entries
+     * created so far.
+     */
+    def currentBootstrapMethods: IndexedSeq[BootstrapMethod] = bootstrapMethods.toIndexedSeq
+
     /**
      * Converts this constant pool buffer to an array and also returns an immutable view of the
      * current state of the constants pool. This in particular enables the creation of the
@@ -223,12 +250,14 @@ class ConstantsBuffer private (
      * the constant pool, but there is also no need to add the attribute.
      */
     def build: (Array[Constant_Pool_Entry], ConstantsPool) = {
-        val cp = new Array[Constant_Pool_Entry](nextIndex)
-        constantPool foreach { e ⇒
-            val (cpe, index) = e
-            cp(index) = cpe
+        val cp = constantPoolEntries
+        val constantsPool = Map.newBuilder[Constant_Pool_Entry, Constant_Pool_Index]
+        var index = 0
+        while (index < cp.length) {
+            if ((cp(index) ne null) || index == 0) constantsPool += ((cp(index), index))
+            index += 1
         }
-        (cp, new ConstantsPool(constantPool.toMap, bootstrapMethods.toIndexedSeq))
+        (cp, new ConstantsPool(constantsPool.result, currentBootstrapMethods))
     }
 }
 
@@ -289,10 +318,10 @@ object ConstantsBuffer {
      */
     @throws[ConstantPoolException]("if it is impossible to create a valid constant pool")
     def apply(ldcs: Set[LDC[_]]): ConstantsBuffer = {
-        // IMPROVE Use Object2IntMap..
-        val buffer = mutable.HashMap.empty[Constant_Pool_Entry, Constant_Pool_Index]
+        val buffer = new Object2IntOpenHashMap[Constant_Pool_Entry]()
+        buffer.defaultReturnValue(-1)
         //the first item is null because the constant_pool starts with the index 1
-        buffer(null) = 0
+        buffer.put(null, 0)
 
         /*
         The basic idea is to first add the referenced constant pool entries (which always use two
@@ -342,7 +371,8 @@ object ConstantsBuffer {
             buffer.size == constantsBuffer.nextIndex,
             "constant pool contains holes:\n\t"+
                 ldcs.mkString("LDCs={", ", ", "}\n\t") +
-                buffer.toList.map(_.swap).sortBy(e ⇒ e._1).mkString("Buffer=[\n\t", "\n\t", "]\n")
+                constantsBuffer.constantPoolEntries.zipWithIndex.map(_.swap).
+                mkString("Buffer=[\n\t", "\n\t", "]\n")
         )
         constantsBuffer
     }
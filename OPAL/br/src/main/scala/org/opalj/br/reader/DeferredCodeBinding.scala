@@ -0,0 +1,182 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package br
+package reader
+
+import scala.annotation.switch
+
+import java.io.DataInputStream
+import java.io.ByteArrayInputStream
+
+import net.ceedubs.ficus.Ficus._
+
+import org.opalj.log.OPALLogger.info
+import org.opalj.bi.AttributeParent
+
+/**
+ * If configured (see [[DeferredCodeBinding$.DeserializeCodeLazilyKey]]), the bodies of methods
+ * are deserialized lazily; i.e., the raw code attribute is kept along with a reference to the
+ * class file's constant pool and the instructions are decoded and optimized (see
+ * [[BytecodeOptimizer]]) when the method's body is accessed for the first time.
+ *
+ * The bodies of methods which contain `invokedynamic` instructions are always deserialized
+ * eagerly, because resolving – and in particular rewriting (see [[InvokedynamicRewriting]]) –
+ * `invokedynamic` instructions may change the declaring class file and may create new
+ * class files.
+ *
+ * @author agent
+ */
+trait DeferredCodeBinding extends CodeAttributeBinding {
+    this: BytecodeOptimizer with ClassFileBinding ⇒
+
+    final val DeserializeCodeLazily: Boolean = {
+        val key = DeferredCodeBinding.DeserializeCodeLazilyKey
+        val deserializeCodeLazily: Boolean = config.as[Option[Boolean]](key).getOrElse(false)
+        if (deserializeCodeLazily) {
+            info("class file reader", "method bodies are deserialized lazily")
+        }
+        deserializeCodeLazily
+    }
+
+    private[this] class DeferredCodeAttribute(
+            cp:                   Constant_Pool,
+            ap_name_index:        Constant_Pool_Index,
+            ap_descriptor_index:  Constant_Pool_Index,
+            attribute_name_index: Constant_Pool_Index,
+            data:                 Array[Byte]
+    ) extends DeferredCode {
+
+        // the data starts with max_stack (u2) and max_locals (u2) followed by code_length (u4)
+        def codeSize: Int = {
+            ((data(4) & 0xFF) << 24) | ((data(5) & 0xFF) << 16) |
+                ((data(6) & 0xFF) << 8) | (data(7) & 0xFF)
+        }
+
+        def deserialize(): Code = {
+            val in = new DataInputStream(new ByteArrayInputStream(data))
+            val code = Code_attribute(
+                cp, ap_name_index, ap_descriptor_index, attribute_name_index, in
+            )
+            val isSimplified = optimizeInstructions(code.exceptionHandlers, code.instructions)
+            if (isSimplified && LogControlFlowSimplifications) {
+                val methodSignature = cp(ap_name_index).asString + cp(ap_descriptor_index).asString
+                info("class file reader", s"simplified control flow of $methodSignature")
+            }
+            code
+        }
+    }
+
+    if (DeserializeCodeLazily) {
+        registerAttributeReader(
+            bi.CodeAttribute.Name → (
+                (
+                    cp: Constant_Pool,
+                    ap: AttributeParent,
+                    ap_name_index: Constant_Pool_Index,
+                    ap_descriptor_index: Constant_Pool_Index,
+                    attribute_name_index: Constant_Pool_Index,
+                    in: DataInputStream
+                ) ⇒ {
+                    val data = new Array[Byte](in.readInt())
+                    in.readFully(data)
+                    if (DeferredCodeBinding.mayContainInvokedynamic(data)) {
+                        val dataIn = new DataInputStream(new ByteArrayInputStream(data))
+                        Code_attribute(
+                            cp, ap_name_index, ap_descriptor_index, attribute_name_index, dataIn
+                        )
+                    } else {
+                        new DeferredCodeAttribute(
+                            cp, ap_name_index, ap_descriptor_index, attribute_name_index, data
+                        )
+                    }
+                }
+            )
+        )
+    }
+}
+
+object DeferredCodeBinding {
+
+    final val DeserializeCodeLazilyKey = {
+        ClassFileReaderConfiguration.ConfigKeyPrefix+"deserializeCodeLazily"
+    }
+
+    /**
+     * Scans the instructions of the given (serialized) code attribute – starting with the
+     * `max_stack` field – for `invokedynamic` instructions. If the code is malformed, `true`
+     * is returned to ensure that the code is deserialized eagerly and that the issue is
+     * reported while the class file is loaded.
+     */
+    def mayContainInvokedynamic(data: Array[Byte]): Boolean = {
+        def u1(index: Int): Int = data(index) & 0xFF
+        def s4(index: Int): Int = {
+            (u1(index) << 24) | (u1(index + 1) << 16) | (u1(index + 2) << 8) | u1(index + 3)
+        }
+
+        if (data.length < 8)
+            return true;
+
+        val codeStart = 8 // max_stack (u2), max_locals (u2) and code_length (u4)
+        val codeLength = s4(4)
+        if (codeLength < 0 || codeStart + codeLength > data.length)
+            return true;
+
+        val codeEnd = codeStart + codeLength
+        var index = codeStart
+        while (index < codeEnd) {
+            val pc = index - codeStart
+            (u1(index): @switch) match {
+                case 186 /*invokedynamic*/ ⇒
+                    return true;
+
+                case 16 | 18 | 21 | 22 | 23 | 24 | 25 |
+                    54 | 55 | 56 | 57 | 58 | 169 | 188 ⇒
+                    index += 2
+
+                case 17 | 19 | 20 | 132 |
+                    153 | 154 | 155 | 156 | 157 | 158 | 159 | 160 |
+                    161 | 162 | 163 | 164 | 165 | 166 | 167 | 168 |
+                    178 | 179 | 180 | 181 | 182 | 183 | 184 |
+                    187 | 189 | 192 | 193 | 198 | 199 ⇒
+                    index += 3
+
+                case 197 /*multianewarray*/ ⇒
+                    index += 4
+
+                case 185 /*invokeinterface*/ | 200 /*goto_w*/ | 201 /*jsr_w*/ ⇒
+                    index += 5
+
+                case 196 /*wide*/ ⇒
+                    if (index + 1 >= codeEnd)
+                        return true;
+                    index += (if (u1(index + 1) == 132 /*iinc*/ ) 6 else 4)
+
+                case 170 /*tableswitch*/ ⇒
+                    val defaultIndex = index + 1 + (3 - (pc % 4))
+                    if (defaultIndex + 12 > codeEnd)
+                        return true;
+                    val low = s4(defaultIndex + 4)
+                    val high = s4(defaultIndex + 8)
+                    val jumpOffsetsCount = high.toLong - low.toLong + 1L
+                    if (jumpOffsetsCount < 0L || jumpOffsetsCount > codeLength)
+                        return true;
+                    index = defaultIndex + 12 + jumpOffsetsCount.toInt * 4
+
+                case 171 /*lookupswitch*/ ⇒
+                    val defaultIndex = index + 1 + (3 - (pc % 4))
+                    if (defaultIndex + 8 > codeEnd)
+                        return true;
+                    val npairs = s4(defaultIndex + 4)
+                    if (npairs < 0 || npairs > codeLength)
+                        return true;
+                    index = defaultIndex + 8 + npairs * 8
+
+                case opcode ⇒
+                    if (opcode > 201)
+                        return true;
+                    index += 1
+            }
+        }
+        false
+    }
+}
@@ -27,6 +27,7 @@ trait Java7Framework
     with BytecodeReaderAndBinding
     with BytecodeOptimizer
     with CodeReader
+    with DeferredCodeBinding
 
 object Java7Framework extends Java7Framework {
 
@@ -27,7 +27,8 @@ class Java8FrameworkWithCaching(
     with Exceptions_attributeBinding
     with CachedBytecodeReaderAndBinding
     with BytecodeOptimizer
-    with CodeReader {
+    with CodeReader
+    with DeferredCodeBinding {
 
     final override def loadsInterfacesOnly: Boolean = false
 }
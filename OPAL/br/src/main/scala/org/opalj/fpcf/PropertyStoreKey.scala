@@ -3,7 +3,13 @@ package org.opalj
 package fpcf
 
 import org.opalj.concurrent.NumberOfThreadsForCPUBoundTasks
+import org.opalj.br.ClassFile
+import org.opalj.br.DeclaredMethod
+import org.opalj.br.Field
+import org.opalj.br.Method
+import org.opalj.br.ObjectType
 import org.opalj.br.analyses.SomeProject
+import org.opalj.br.analyses.ProjectChanges
 import org.opalj.br.analyses.ProjectInformationKey
 import org.opalj.log.OPALLogger
 
@@ -13,6 +19,10 @@ import org.opalj.log.OPALLogger
  * @note   It is possible to set the project's `debug` flag using the project's
  *         `org.opalj.br.analyses.PropertyStore.debug` config key.
  *
+ * @note   The scheduler used by the (default) parallel property store is selected using
+ *         the project's `org.opalj.fpcf.par.PKEParallelTasksPropertyStore.TasksScheduler`
+ *         config key.
+ *
  * @author Michael Eichberg
  */
 object PropertyStoreKey
@@ -52,8 +62,55 @@ object PropertyStoreKey
                 psFactory(context)
             case None ⇒
                 // val ps = seq.PKESequentialPropertyStore(context: _*)
-                val ps = par.PKEParallelTasksPropertyStore(context: _*)
+                val tasksSchedulerKey = par.TasksSchedulerFactory.TasksSchedulerKey
+                val tasksScheduler = par.TasksSchedulerFactory(project.config.getString(tasksSchedulerKey))
+                OPALLogger.info(
+                    "analysis configuration",
+                    s"the PropertyStore uses the tasks scheduler: ${tasksScheduler.name}"
+                )(project.logContext)
+                val ps = par.PKEParallelTasksPropertyStore(tasksScheduler)(context: _*)
                 ps
         }
     }
+
+    /**
+     * Carries over a [[seq.PKESequentialPropertyStore]] which records the dependencies
+     * between its computations (see `incrementalComputations`); the properties of all
+     * entities which belong to an affected type or to a supertype of a modified type – and
+     * all properties which depend on them – are invalidated. The latter is necessary,
+     * because some properties of a type are derived from the class hierarchy (e.g., a type's
+     * extensibility or immutability) or from the overriding methods of its subtypes instead
+     * of from properties of the store. All other stores are recreated on demand.
+     */
+    override protected def update(
+        project:       SomeProject,
+        propertyStore: PropertyStore,
+        changes:       ProjectChanges
+    ): Option[PropertyStore] = {
+        propertyStore match {
+            case ps: seq.PKESequentialPropertyStore if ps.incrementalComputations ⇒
+                val affectedTypes = changes.affectedTypes ++ changes.supertypesOfModifiedTypes
+                def isAffected(e: Entity): Boolean = e match {
+                    case m: Method      ⇒ affectedTypes.contains(m.classFile.thisType)
+                    case f: Field       ⇒ affectedTypes.contains(f.classFile.thisType)
+                    case cf: ClassFile  ⇒ affectedTypes.contains(cf.thisType)
+                    case ot: ObjectType ⇒ affectedTypes.contains(ot)
+                    case dm: DeclaredMethod ⇒
+                        val declaringClassType = dm.declaringClassType
+                        declaringClassType.isObjectType &&
+                            affectedTypes.contains(declaringClassType.asObjectType)
+                    case _ ⇒ false
+                }
+                val affectedEntities = ps.entities(_ ⇒ true).filter(isAffected).toSet
+                val invalidatedEPKs = ps.invalidate(affectedEntities)
+                ps.updateContext(classOf[SomeProject], project)
+                OPALLogger.info(
+                    "project update",
+                    s"carried over the PropertyStore; invalidated ${invalidatedEPKs.size} properties"
+                )(project.logContext)
+                Some(ps)
+            case _ ⇒
+                None
+        }
+    }
 }
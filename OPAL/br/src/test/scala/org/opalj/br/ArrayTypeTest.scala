@@ -68,4 +68,15 @@ class ArrayTypeTest extends FunSuite {
                 assert(className === "java/lang/Object")
         }
     }
+
+    test("Concurrent creation") {
+        val componentTypes = (0 until 1000).map(i ⇒ ObjectType(s"opal/test/ArrayComponent$i"))
+        val arrayTypes = (1 to 8).par.map(_ ⇒ componentTypes.map(ArrayType(3, _))).seq
+
+        // all threads have to get the same (reference equal) array types
+        arrayTypes.tail foreach { ats ⇒
+            ats.zip(arrayTypes.head) foreach { case (at1, at2) ⇒ assert(at1 eq at2) }
+        }
+        assert(arrayTypes.head.map(_.id).toSet.size == componentTypes.size)
+    }
 }
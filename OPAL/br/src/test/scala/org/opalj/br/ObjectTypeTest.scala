@@ -87,4 +87,17 @@ class ObjectTypeTest extends FunSuite {
             case _             ⇒ fail(s"pattern match on ObjectType ($ot1) failed")
         }
     }
+
+    test("concurrent creation of ObjectTypes") {
+        val fqns = (0 until 10000).map(i ⇒ s"opal/test/ConcurrentlyCreated$i")
+        val objectTypes = (1 to 8).par.map(_ ⇒ fqns.map(ObjectType(_))).seq
+
+        // all threads have to get the same (reference equal) object types
+        objectTypes.tail foreach { ots ⇒
+            ots.zip(objectTypes.head) foreach { case (ot1, ot2) ⇒ assert(ot1 eq ot2) }
+        }
+        val ids = objectTypes.head.map(_.id)
+        assert(ids.toSet.size == fqns.size)
+        assert(ids.max < ObjectType.objectTypesCount)
+    }
 }
@@ -421,6 +421,30 @@ class ClassHierarchyTest extends FlatSpec with Matchers {
 
     }
 
+    behavior of "the ClassHierarchy's is(A)SubtypeOf method w.r.t. the subtype test index"
+
+    it should "be consistent with the supertype information of all known types" in {
+        for {
+            classHierarchy ← List(jlsCH, preInitCH, javaLangCH, clusteringProject.classHierarchy)
+        } {
+            var knownTypes = List.empty[ObjectType]
+            classHierarchy.foreachKnownType(knownTypes ::= _)
+            for {
+                subtype ← knownTypes
+                supertypeInformation = classHierarchy.supertypeInformation(subtype)
+                supertype ← knownTypes
+            } {
+                val isSubtype =
+                    (subtype eq supertype) || (supertype eq Object) ||
+                        supertypeInformation.exists(_.contains(supertype))
+                if (classHierarchy.isSubtypeOf(subtype, supertype) != isSubtype ||
+                    classHierarchy.isASubtypeOf(subtype, supertype).isYes != isSubtype) {
+                    fail(s"${subtype.toJava} <: ${supertype.toJava} is expected to be $isSubtype")
+                }
+            }
+        }
+    }
+
     behavior of "the ClassHierarchy's is(A)SubtypeOf method w.r.t. Arrays"
 
     it should "correctly reflect the basic type hierarchy related to Arrays" in {
@@ -824,6 +848,33 @@ class ClassHierarchyTest extends FlatSpec with Matchers {
         foundSomeEnumerationClass should be(true)
     }
 
+    behavior of "the ClassHierarchy's type declarations"
+
+    it should "be sufficient to recreate the class hierarchy" in {
+        val project = Project(locateTestResources("classfiles/OPAL-SNAPSHOT-0.3.jar", "bi"))
+        val classHierarchy = project.classHierarchy
+        val recreatedClassHierarchy = ClassHierarchy.create(
+            Traversable.empty,
+            classHierarchy.typeDeclarations.toList
+        )(GlobalLogContext)
+
+        recreatedClassHierarchy.rootTypes should be(classHierarchy.rootTypes)
+        recreatedClassHierarchy.leafTypes should be(classHierarchy.leafTypes)
+        classHierarchy foreachKnownType { t ⇒
+            recreatedClassHierarchy.isKnown(t) should be(true)
+            recreatedClassHierarchy.isInterface(t) should be(classHierarchy.isInterface(t))
+            recreatedClassHierarchy.isKnownToBeFinal(t) should be(classHierarchy.isKnownToBeFinal(t))
+            recreatedClassHierarchy.superclassType(t) should be(classHierarchy.superclassType(t))
+            recreatedClassHierarchy.superinterfaceTypes(t) should be(
+                classHierarchy.superinterfaceTypes(t)
+            )
+            recreatedClassHierarchy.allSubtypes(t, reflexive = true) should be(
+                classHierarchy.allSubtypes(t, reflexive = true)
+            )
+        }
+        classHierarchy.typeDeclarations.exists(_.isFinal) should be(true)
+    }
+
 }
 
 object ClassHierarchyTest {
@@ -8,8 +8,14 @@ import org.scalatest.junit.JUnitRunner
 import org.scalatest.FlatSpec
 import org.scalatest.Matchers
 
+import org.opalj.collection.immutable.RefArray
 import org.opalj.bi.TestResources.locateTestResources
 import org.opalj.br.reader.Java8Framework.ClassFiles
+import org.opalj.fpcf.PropertyStoreContext
+import org.opalj.fpcf.PropertyStoreKey
+import org.opalj.fpcf.properties.MutableType
+import org.opalj.fpcf.properties.TypeImmutability
+import org.opalj.fpcf.seq.PKESequentialPropertyStore
 
 /**
  * Tests the support for "project" related functionality.
@@ -429,6 +435,173 @@ class ProjectTest extends FlatSpec with Matchers {
             )
         }
     }
+
+    // -----------------------------------------------------------------------------------
+    //
+    // TESTING THE INCREMENTAL UPDATE OF PROJECTS
+    //
+    // -----------------------------------------------------------------------------------
+
+    {
+        val classHierarchy = opalProject.classHierarchy
+
+        val leafClassFile = opalProject.allProjectClassFiles.find { cf ⇒
+            !cf.isInterfaceDeclaration && classHierarchy.directSubtypesOf(cf.thisType).isEmpty
+        }.get
+
+        val superClassFile = opalProject.allProjectClassFiles.find { cf ⇒
+            !cf.isInterfaceDeclaration && classHierarchy.directSubtypesOf(cf.thisType).nonEmpty
+        }.get
+
+        def withSource(classFile: ClassFile): (ClassFile, java.net.URL) = {
+            (classFile, opalProject.source(classFile).get)
+        }
+
+        behavior of "the incremental update of a Project"
+
+        it should "return the same project if the given class files are unchanged" in {
+            val unchangedClassFiles = opalProject.allProjectClassFiles.take(5).map(withSource)
+            val (updatedProject, changes) = opalProject.update(unchangedClassFiles, Nil)
+            updatedProject should be theSameInstanceAs (opalProject)
+            changes.isEmpty should be(true)
+        }
+
+        it should "remove the class files of removed types and reuse all other class files" in {
+            val removedType = leafClassFile.thisType
+            val (updatedProject, changes) = opalProject.update(Nil, List(removedType))
+            changes.removedTypes should be(Set(removedType))
+            changes.affectedTypes should be(Set(removedType))
+            updatedProject.classFile(removedType) should be(None)
+            updatedProject.projectClassFilesCount should be(opalProject.projectClassFilesCount - 1)
+            opalProject.allProjectClassFiles.filter(_ ne leafClassFile) foreach { cf ⇒
+                updatedProject.classFile(cf.thisType).get should be theSameInstanceAs (cf)
+            }
+        }
+
+        it should "replace changed class files and determine the affected types" in {
+            val changedType = superClassFile.thisType
+            val changedClassFile = superClassFile.copy(methods = RefArray.empty)
+            val (updatedProject, changes) =
+                opalProject.update(List(withSource(changedClassFile)), Nil)
+            changes.changedTypes should be(Set(changedType))
+            changes.addedTypes should be('empty)
+            changes.affectedTypes should be(classHierarchy.allSubtypes(changedType, true))
+            updatedProject.classFile(changedType).get should be theSameInstanceAs (changedClassFile)
+            updatedProject.source(changedType) should be(opalProject.source(changedType))
+            updatedProject.methodsCount should be(
+                opalProject.methodsCount - superClassFile.methods.size
+            )
+        }
+
+        def assertSameDerivedInformation(updatedProject: SomeProject): Unit = {
+            val newProject = Project(
+                updatedProject.projectClassFilesWithSources,
+                updatedProject.libraryClassFilesWithSources,
+                updatedProject.libraryClassFilesAreInterfacesOnly
+            )
+            def instanceMethods(p: SomeProject) = p.instanceMethods.mapValues(_.map(_.method).toList)
+            instanceMethods(updatedProject) should be(instanceMethods(newProject))
+            updatedProject.overridingMethods should be(newProject.overridingMethods)
+            updatedProject.allMethodsWithBody.toSet should be(newProject.allMethodsWithBody.toSet)
+            updatedProject.codeSize should be(newProject.codeSize)
+            updatedProject.classFilesCount should be(newProject.classFilesCount)
+            updatedProject.methodsCount should be(newProject.methodsCount)
+            updatedProject.fieldsCount should be(newProject.fieldsCount)
+            updatedProject.virtualMethodsCount should be(newProject.virtualMethodsCount)
+            val codeSizes = updatedProject.allMethodsWithBody.map(_.body.get.codeSize).toList
+            codeSizes should be(codeSizes.sortWith(_ > _))
+        }
+
+        it should "derive the same information as a new project if a type is removed" in {
+            val (updatedProject, _) = opalProject.update(Nil, List(superClassFile.thisType))
+            assertSameDerivedInformation(updatedProject)
+        }
+
+        it should "derive the same information as a new project if a class file is changed" in {
+            val changedClassFile = superClassFile.copy(methods = RefArray.empty)
+            val (updatedProject, _) = opalProject.update(List(withSource(changedClassFile)), Nil)
+            assertSameDerivedInformation(updatedProject)
+        }
+
+        it should "only recompute the instance methods of the types related to the changed types" in {
+            val changedClassFile = leafClassFile.copy(methods = RefArray.empty)
+            val (updatedProject, changes) =
+                opalProject.update(List(withSource(changedClassFile)), Nil)
+            val relatedTypes = classHierarchy.allSupertypes(leafClassFile.thisType, true)
+            opalProject.instanceMethods foreach { e ⇒
+                val (objectType, methods) = e
+                if (!relatedTypes.contains(objectType))
+                    updatedProject.instanceMethods(objectType) should be theSameInstanceAs (methods)
+            }
+            changes.affectedTypes should be(Set(leafClassFile.thisType))
+            assertSameDerivedInformation(updatedProject)
+        }
+
+        it should "invalidate the properties of the supertypes of an added subclass" in {
+            val project = Project.recreate(opalProject)
+            project.getOrCreateProjectInformationKeyInitializationData(
+                PropertyStoreKey,
+                (context: List[PropertyStoreContext[AnyRef]]) ⇒ {
+                    val ps = PKESequentialPropertyStore(context: _*)(project.logContext)
+                    ps.incrementalComputations = true
+                    ps
+                }
+            )
+            val ps = project.get(PropertyStoreKey)
+
+            val extensibleClassFile = opalProject.allProjectClassFiles.find { cf ⇒
+                !cf.isInterfaceDeclaration && !cf.isFinal &&
+                    classHierarchy.directSubtypesOf(cf.thisType).isEmpty
+            }.get
+            val supertype = extensibleClassFile.thisType
+            val unrelatedType = opalProject.allProjectClassFiles.map(_.thisType).find { t ⇒
+                !classHierarchy.allSupertypes(supertype, reflexive = true).contains(t)
+            }.get
+            ps.set(supertype, MutableType)
+            ps.set(unrelatedType, MutableType)
+
+            val subclassFile = extensibleClassFile.copy(
+                thisType = ObjectType("org/opalj/br/analyses/ProjectTest$AddedSubclass"),
+                superclassType = Some(supertype),
+                interfaceTypes = RefArray.empty,
+                fields = RefArray.empty,
+                methods = RefArray.empty,
+                attributes = RefArray.empty
+            )
+            val (updatedProject, changes) = project.update(
+                List((subclassFile, opalProject.source(extensibleClassFile).get)), Nil
+            )
+            updatedProject.classHierarchy.directSubtypesOf(supertype).toSet should be(
+                Set(subclassFile.thisType)
+            )
+            changes.affectedTypes should be(Set(subclassFile.thisType))
+            changes.supertypesOfModifiedTypes should be(
+                updatedProject.classHierarchy.allSupertypes(subclassFile.thisType)
+            )
+            ps.hasProperty(supertype, TypeImmutability.key) should be(false)
+            ps.hasProperty(unrelatedType, TypeImmutability.key) should be(true)
+        }
+
+        it should "only carry over the project information that can be updated" in {
+            val project = Project.recreate(opalProject)
+            val updatableKey = new TestUpdatableProjectInformationKey(Nil)
+            val keyWithUpdatableRequirement =
+                new TestUpdatableProjectInformationKey(List(updatableKey))
+            val key = new TestProjectInformationKey
+            val keyWithNonUpdatableRequirement =
+                new TestUpdatableProjectInformationKey(List(key))
+            project.get(keyWithUpdatableRequirement)
+            project.get(keyWithNonUpdatableRequirement)
+
+            val (updatedProject, _) = project.update(Nil, List(leafClassFile.thisType))
+            updatedProject.has(updatableKey) should be(Some(updatableKey.theResult))
+            updatedProject.has(keyWithUpdatableRequirement) should be(
+                Some(keyWithUpdatableRequirement.theResult)
+            )
+            updatedProject.has(key) should be(None)
+            updatedProject.has(keyWithNonUpdatableRequirement) should be(None)
+        }
+    }
 }
 
 private class TestProjectInformationKey extends ProjectInformationKey[Object, Nothing] {
@@ -453,6 +626,26 @@ private class TestProjectInformationWithDependenciesKey extends ProjectInformati
 
 }
 
+private class TestUpdatableProjectInformationKey(
+        val dependencies: Seq[ProjectInformationKey[_ <: AnyRef, _ <: AnyRef]]
+) extends ProjectInformationKey[Object, Nothing] {
+
+    val theResult = new Object()
+
+    protected def compute(project: SomeProject): Object = theResult
+
+    protected def requirements: Seq[ProjectInformationKey[_ <: AnyRef, _ <: AnyRef]] = dependencies
+
+    override protected def update(
+        project:     SomeProject,
+        information: Object,
+        changes:     ProjectChanges
+    ): Option[Object] = {
+        Some(information)
+    }
+
+}
+
 private object ProjectTest {
 
     //
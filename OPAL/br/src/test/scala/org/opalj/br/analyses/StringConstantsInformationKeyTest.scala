@@ -42,4 +42,30 @@ class StringConstantsInformationKeyTest extends FlatSpec with Matchers {
         assert(stringsProject.get(StringConstantsInformationKey).keys.nonEmpty)
     }
 
+    it should "incrementally update the Strings if class files are changed and removed" in {
+        val project = Project.recreate(opalProject)
+        val stringConstants = project.get(StringConstantsInformationKey)
+        val Seq(changedClassFile, removedClassFile) =
+            stringConstants.values.flatMap(_.map(_.method.classFile)).toSeq.distinct.take(2)
+        val newMethods = changedClassFile.methods.filter(_.body.isEmpty)
+        val newClassFile = changedClassFile.copy(methods = newMethods.map[MethodTemplate](_.copy()))
+
+        val (updatedProject, _) = project.update(
+            List((newClassFile, project.source(changedClassFile).get)),
+            List(removedClassFile.thisType)
+        )
+        val updatedStringConstants = updatedProject.has(StringConstantsInformationKey).get
+        val recomputedStringConstants =
+            Project.recreate(updatedProject).get(StringConstantsInformationKey)
+
+        def normalize(information: StringConstantsInformation): Map[String, Set[(String, Int)]] = {
+            information.map { e ⇒
+                val (value, locations) = e
+                (value, locations.map(l ⇒ (l.method.toJava, l.pc)).toSet)
+            }.toMap
+        }
+        normalize(updatedStringConstants) should be(normalize(recomputedStringConstants))
+        normalize(updatedStringConstants) should not be (normalize(stringConstants))
+    }
+
 }
@@ -0,0 +1,134 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package br
+package analyses
+package cg
+
+import org.junit.runner.RunWith
+import org.scalatest.FunSpec
+import org.scalatest.Matchers
+import org.scalatest.junit.JUnitRunner
+import com.typesafe.config.ConfigFactory
+import com.typesafe.config.ConfigValueFactory
+
+import org.opalj.log.GlobalLogContext
+import org.opalj.bi.TestResources.locateTestResources
+import org.opalj.br.reader.Java8Framework.ClassFiles
+import org.opalj.br.instructions.MethodInvocationInstruction
+import org.opalj.br.reader.InvokedynamicRewriting
+
+/**
+ * Tests the [[CallGraphKey]] by comparing the computed call graphs with the call targets
+ * which are directly resolved using the project.
+ *
+ * @author agent
+ */
+@RunWith(classOf[JUnitRunner])
+class CallGraphKeyTest extends FunSpec with Matchers {
+
+    val opal = locateTestResources("classfiles/OPAL-SNAPSHOT-0.3.jar", "bi")
+    val project = Project(ClassFiles(opal), Traversable.empty, true)
+
+    val cha = CallGraphKey(project, CHA, CallGraphKey.entryPoints(project, isLibrary = true))
+
+    val rta = CallGraphKey(project, RTA, CallGraphKey.entryPoints(project, isLibrary = false))
+
+    describe("a CHA based call graph") {
+
+        it("should contain the same call edges as those resolved directly") {
+            var callSitesCount = 0
+            for {
+                method ← project.allMethodsWithBody
+                PCAndInstruction(pc, i: MethodInvocationInstruction) ← method.body.get
+                if !i.isInstanceOf[instructions.INVOKEDYNAMIC]
+            } {
+                val callerType = method.classFile.thisType
+                val callerPackage = callerType.packageName
+                val expectedCallees: scala.collection.Set[Method] = i match {
+                    case i: instructions.INVOKESTATIC    ⇒ project.staticCall(i).toSet
+                    case i: instructions.INVOKESPECIAL   ⇒ project.specialCall(callerType, i).toSet
+                    case i: instructions.INVOKEVIRTUAL   ⇒ project.virtualCall(callerPackage, i)
+                    case i: instructions.INVOKEINTERFACE ⇒ project.interfaceCall(i)
+                    case _                               ⇒ fail(s"unexpected instruction: $i")
+                }
+                val callees = cha.callees(method, pc).toSet
+                if (callees != expectedCallees) {
+                    fail(s"${method.toJava}: pc=$pc: expected $expectedCallees; found $callees")
+                }
+                if (callees.nonEmpty) callSitesCount += 1
+            }
+            cha.callSitesCount should be(callSitesCount)
+        }
+
+        it("should have reverse edges which are consistent with the call edges") {
+            var edgesCount = 0
+            project.allMethods foreach { callee ⇒
+                cha.foreachCaller(callee) { (caller, pc) ⇒
+                    cha.callees(caller, pc).contains(callee) should be(true)
+                    edgesCount += 1
+                }
+                cha.callers(callee).size should be <= cha.callersCount(callee)
+            }
+            edgesCount should be(cha.edgesCount)
+        }
+    }
+
+    describe("a CHA based call graph of a project which uses invokedynamic") {
+
+        val lambdasProject = {
+            val jarFile = locateTestResources("classfiles/jcg_lambda_expressions.jar", "bi")
+            val rewritingConfigKey = InvokedynamicRewriting.InvokedynamicRewritingConfigKey
+            val config = ConfigFactory.load().
+                withValue(rewritingConfigKey, ConfigValueFactory.fromAnyRef(java.lang.Boolean.FALSE))
+            Project(jarFile, GlobalLogContext, config)
+        }
+
+        val lambdasCHA = CallGraphKey(
+            lambdasProject, CHA, CallGraphKey.entryPoints(lambdasProject, isLibrary = true)
+        )
+
+        it("should contain call edges to the methods which implement lambda expressions") {
+            val lambdaMethods = lambdasProject.allMethods.filter(_.name.startsWith("lambda$"))
+            lambdaMethods should not be (empty)
+            lambdaMethods foreach { m ⇒
+                if (lambdasCHA.callers(m).isEmpty) fail(s"${m.toJava}: no callers")
+            }
+        }
+
+        it("should only have invokedynamic call sites whose callees are referenced by method handles") {
+            var indyCallSitesCount = 0
+            for {
+                method ← lambdasProject.allMethodsWithBody
+                PCAndInstruction(pc, i: instructions.DEFAULT_INVOKEDYNAMIC) ← method.body.get
+            } {
+                val bootstrapMethod = i.bootstrapMethod
+                val referencedMethods = (bootstrapMethod.handle :: bootstrapMethod.arguments.toList).collect {
+                    case handle: MethodCallMethodHandle ⇒ handle.name
+                }
+                val callees = lambdasCHA.callees(method, pc)
+                if (callees.nonEmpty) indyCallSitesCount += 1
+                callees foreach { callee ⇒ referencedMethods should contain(callee.name) }
+            }
+            indyCallSitesCount should be > 0
+        }
+    }
+
+    describe("an RTA based call graph") {
+
+        it("should only contain edges which are also contained in the CHA based call graph") {
+            rta.edgesCount should be <= cha.edgesCount
+            rta.reachableMethods foreach { caller ⇒
+                rta.foreachCallSite(caller) { (pc, callees) ⇒
+                    val chaCallees = cha.callees(caller, pc).toSet
+                    callees foreach { callee ⇒ chaCallees should contain(callee) }
+                }
+            }
+        }
+
+        it("should consider all callees of reachable methods to be reachable") {
+            rta.reachableMethods foreach { caller ⇒
+                rta.callees(caller) foreach { callee ⇒ rta.isReachable(callee) should be(true) }
+            }
+        }
+    }
+}
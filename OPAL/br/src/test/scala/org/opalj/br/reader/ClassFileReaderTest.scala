@@ -6,7 +6,25 @@ package reader
 import org.scalatest.Matchers
 import org.scalatest.FlatSpec
 
+import java.io.File
+import java.io.FileInputStream
+import java.io.FileOutputStream
+import java.util.jar.JarInputStream
+import java.util.zip.CRC32
+import java.util.zip.ZipEntry
+import java.util.zip.ZipFile
+import java.util.zip.ZipOutputStream
+
+import scala.collection.JavaConverters._
+
+import com.typesafe.config.Config
+import com.typesafe.config.ConfigValueFactory
+
 import org.opalj.bi.TestResources.locateTestResources
+import org.opalj.io.process
+import org.opalj.bi.reader.ClassFileReader.ZeroCopyReadingConfigKey
+import org.opalj.bi.reader.ClassFileReader.mapStoredClassFiles
+import org.opalj.bi.reader.ClassFileReader.readAllBytes
 
 /**
  * Tests the reading of class files.
@@ -18,6 +36,18 @@ class ClassFileReaderTest extends FlatSpec with Matchers {
 
     import Java8Framework.ClassFiles
 
+    val streamsBasedReader = new {
+        override implicit val config: Config = BaseConfig.withValue(
+            ZeroCopyReadingConfigKey, ConfigValueFactory.fromAnyRef(false)
+        )
+    } with Java8Framework {
+        override def loadsInterfacesOnly: Boolean = false
+    }
+
+    def describe(classFiles: Traversable[ClassFile]): Set[String] = {
+        classFiles.map(cf ⇒ cf.fqn + cf.methods.map(_.toJava).mkString("{", ";", "}")).toSet
+    }
+
     behavior of "ClassFile reader"
 
     it should "be able to read class files stored in jar files stored within jar files (nested jar files)" in {
@@ -35,4 +65,55 @@ class ClassFileReaderTest extends FlatSpec with Matchers {
         ClassFiles(emptyJARFile) should be(empty)
     }
 
+    it should "read the same class files when using streams and when using ByteBuffers" in {
+        Java8Framework.zeroCopyReading should be(true)
+        streamsBasedReader.zeroCopyReading should be(false)
+
+        val jarFile = locateTestResources("classfiles/JarsInAJar.jar", "bi")
+        val classFiles = describe(ClassFiles(jarFile).map(_._1))
+        classFiles should not be (empty)
+        describe(streamsBasedReader.ClassFiles(jarFile).map(_._1)) should be(classFiles)
+        describe(ClassFiles(new JarInputStream(new FileInputStream(jarFile))).map(_._1)) should be(
+            classFiles
+        )
+    }
+
+    it should "parse the class files which are stored uncompressed from the mapped archive" in {
+        val jarFile = locateTestResources(
+            "classfiles/Multithreaded RPN Calculator 2008_10_17 - Java 6 all debug info.jar", "bi"
+        )
+        // every second entry is stored uncompressed
+        val storedJarFile = File.createTempFile("stored", ".jar")
+        storedJarFile.deleteOnExit()
+        var storedClassFileNames = Set.empty[String]
+        process(new ZipFile(jarFile)) { zf ⇒
+            process(new ZipOutputStream(new FileOutputStream(storedJarFile))) { out ⇒
+                zf.entries.asScala.filterNot(_.isDirectory).zipWithIndex foreach { e ⇒
+                    val (entry, index) = e
+                    val data = process(zf.getInputStream(entry))(readAllBytes(_, entry.getSize))
+                    val newEntry = new ZipEntry(entry.getName)
+                    if (index % 2 == 0) {
+                        val crc = new CRC32()
+                        crc.update(data)
+                        newEntry.setMethod(ZipEntry.STORED)
+                        newEntry.setSize(data.length.toLong)
+                        newEntry.setCompressedSize(data.length.toLong)
+                        newEntry.setCrc(crc.getValue)
+                        if (entry.getName.endsWith(".class")) storedClassFileNames += entry.getName
+                    }
+                    out.putNextEntry(newEntry)
+                    out.write(data)
+                    out.closeEntry()
+                }
+            }
+        }
+        storedClassFileNames should not be (empty)
+        mapStoredClassFiles(storedJarFile).keySet should be(storedClassFileNames)
+        mapStoredClassFiles(jarFile) should be(empty)
+
+        val classFiles = describe(ClassFiles(jarFile).map(_._1))
+        describe(ClassFiles(storedJarFile).map(_._1)) should be(classFiles)
+        describe(streamsBasedReader.ClassFiles(storedJarFile).map(_._1)) should be(classFiles)
+    }
+
 }
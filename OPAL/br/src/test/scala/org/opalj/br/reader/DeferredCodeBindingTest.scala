@@ -0,0 +1,105 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package br
+package reader
+
+import org.scalatest.Matchers
+import org.scalatest.FunSpec
+
+import com.typesafe.config.Config
+import com.typesafe.config.ConfigValueFactory
+
+import org.opalj.bi.TestResources.locateTestResources
+
+/**
+ * Tests that methods whose bodies are deserialized lazily have the same bodies as methods
+ * whose bodies are deserialized eagerly.
+ *
+ * @author agent
+ */
+@org.junit.runner.RunWith(classOf[org.scalatest.junit.JUnitRunner])
+class DeferredCodeBindingTest extends FunSpec with Matchers {
+
+    val lazyReader = new {
+        override implicit val config: Config = BaseConfig.withValue(
+            DeferredCodeBinding.DeserializeCodeLazilyKey, ConfigValueFactory.fromAnyRef(true)
+        )
+    } with Java8FrameworkWithInvokedynamicSupportAndCaching(new BytecodeInstructionsCache)
+
+    val eagerReader = new {
+        override implicit val config: Config = BaseConfig.withValue(
+            DeferredCodeBinding.DeserializeCodeLazilyKey, ConfigValueFactory.fromAnyRef(false)
+        )
+    } with Java8FrameworkWithInvokedynamicSupportAndCaching(new BytecodeInstructionsCache)
+
+    def methodsWithBodies(classFiles: Traversable[ClassFile]): Map[String, Method] = {
+        classFiles.flatMap(_.methods).filter(m ⇒ !m.isAbstract && !m.isNative).map { m ⇒
+            (m.toJava, m)
+        }.toMap
+    }
+
+    describe("the lazy deserialization of method bodies") {
+
+        for {
+            jarName ← List(
+                "classfiles/Flashcards 0.4 - target 1.6.jar",
+                "classfiles/jcg_lambda_expressions.jar",
+                "classfiles/string_concat.jar"
+            )
+        } {
+            val jarFile = locateTestResources(jarName, "bi")
+
+            it(s"should deserialize the same bodies as the eager deserialization ($jarName)") {
+                lazyReader.DeserializeCodeLazily should be(true)
+                eagerReader.DeserializeCodeLazily should be(false)
+
+                val lazilyLoadedMethods = methodsWithBodies(lazyReader.ClassFiles(jarFile).map(_._1))
+                val eagerlyLoadedMethods =
+                    methodsWithBodies(eagerReader.ClassFiles(jarFile).map(_._1))
+                lazilyLoadedMethods.keySet should be(eagerlyLoadedMethods.keySet)
+                lazilyLoadedMethods.values.exists(_.deferredBody ne null) should be(true)
+
+                lazilyLoadedMethods foreach { e ⇒
+                    val (signature, lazilyLoadedMethod) = e
+                    val eagerlyLoadedMethod = eagerlyLoadedMethods(signature)
+                    val lazyBody = lazilyLoadedMethod.body
+                    lazilyLoadedMethod.deferredBody should be(null)
+                    lazyBody.isDefined should be(eagerlyLoadedMethod.body.isDefined)
+                    val eagerBody = eagerlyLoadedMethod.body
+                    if (lazyBody.isDefined &&
+                        !lazyBody.get.similar(eagerBody.get, CompareAllConfiguration)) {
+                        fail(s"the bodies of $signature are different")
+                    }
+                    lazilyLoadedMethod.body.get should be theSameInstanceAs (lazyBody.get)
+                }
+            }
+        }
+
+        it("should not deserialize any body when a project is created") {
+            val jarFile = locateTestResources("classfiles/Flashcards 0.4 - target 1.6.jar", "bi")
+            val classFiles = lazyReader.ClassFiles(jarFile)
+            val lazilyLoadedMethods = classFiles.flatMap(_._1.methods).filter(_.deferredBody ne null)
+            lazilyLoadedMethods should not be (empty)
+
+            val project = analyses.Project(classFiles, Traversable.empty, true)
+            lazilyLoadedMethods.forall(_.deferredBody ne null) should be(true)
+
+            val eagerlyLoadedProject =
+                analyses.Project(eagerReader.ClassFiles(jarFile), Traversable.empty, true)
+            project.codeSize should be(eagerlyLoadedProject.codeSize)
+            val codeSizes = project.allMethodsWithBody.map(_.codeSize).toList
+            codeSizes should be(eagerlyLoadedProject.allMethodsWithBody.map(_.codeSize).toList)
+            lazilyLoadedMethods.forall(_.deferredBody ne null) should be(true)
+            lazilyLoadedMethods foreach { m ⇒ m.codeSize should be(m.body.get.codeSize) }
+        }
+
+        it("should deserialize the body of a method only once if accessed concurrently") {
+            val jarFile = locateTestResources("classfiles/Flashcards 0.4 - target 1.6.jar", "bi")
+            val methods = methodsWithBodies(lazyReader.ClassFiles(jarFile).map(_._1)).values
+            methods.par foreach { m ⇒
+                val bodies = (1 to 4).par.map(_ ⇒ m.body.get).seq
+                bodies.forall(_ eq bodies.head) should be(true)
+            }
+        }
+    }
+}
@@ -4,7 +4,10 @@ package fpcf
 
 import org.junit.runner.RunWith
 import org.opalj.br.TestSupport.biProject
+import org.opalj.br.analyses.Project
 import org.opalj.br.analyses.SomeProject
+import org.opalj.fpcf.properties.AllocationFreeness
+import org.opalj.fpcf.properties.AllocationFreeMethod
 import org.scalatest.FunSpec
 import org.scalatest.Matchers
 import org.scalatest.junit.JUnitRunner
@@ -24,4 +27,43 @@ class PropertyStoreKeyTest extends FunSpec with Matchers {
             assert(p == ps.context(classOf[SomeProject]))
         }
     }
+
+    describe("updating a project which uses a PropertyStore that supports incremental computations") {
+        val p: SomeProject = Project.recreate(biProject("ai.jar"))
+        p.getOrCreateProjectInformationKeyInitializationData(
+            PropertyStoreKey,
+            (context: List[PropertyStoreContext[AnyRef]]) ⇒ {
+                val ps = seq.PKESequentialPropertyStore(context: _*)(p.logContext)
+                ps.incrementalComputations = true
+                ps
+            }
+        )
+        val ps = p.get(PropertyStoreKey)
+
+        val classHierarchy = p.classHierarchy
+        val removedClassFile = p.allProjectClassFiles.find { cf ⇒
+            !cf.isInterfaceDeclaration &&
+                classHierarchy.directSubtypesOf(cf.thisType).isEmpty &&
+                cf.methods.nonEmpty
+        }.get
+        val removedMethod = removedClassFile.methods.head
+        val otherMethod = p.allMethods.find(_.classFile ne removedClassFile).get
+        ps.set(removedMethod, AllocationFreeMethod)
+        ps.set(otherMethod, AllocationFreeMethod)
+
+        val (updatedProject, _) = p.update(Nil, List(removedClassFile.thisType))
+
+        it("the PropertyStore should be carried over") {
+            updatedProject.has(PropertyStoreKey) should be(Some(ps))
+        }
+
+        it("the context of the PropertyStore should contain the updated project") {
+            ps.context(classOf[SomeProject]) should be theSameInstanceAs (updatedProject)
+        }
+
+        it("the properties of the entities of the affected types should be invalidated") {
+            ps.hasProperty(removedMethod, AllocationFreeness.key) should be(false)
+            ps.hasProperty(otherMethod, AllocationFreeness.key) should be(true)
+        }
+    }
 }
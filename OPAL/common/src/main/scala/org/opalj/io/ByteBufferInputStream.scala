@@ -0,0 +1,44 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package io
+
+import java.io.InputStream
+import java.nio.ByteBuffer
+
+/**
+ * An `InputStream` which reads the remaining bytes of the given `ByteBuffer`; the buffer's
+ * position is advanced accordingly.
+ *
+ * Unlike a `java.io.BufferedInputStream` or a `java.io.ByteArrayInputStream`, the stream
+ * is not thread-safe and does not copy the data; hence, it is well suited to read
+ * (memory-mapped) files which are processed by a single thread.
+ *
+ * @author agent
+ */
+final class ByteBufferInputStream(val buffer: ByteBuffer) extends InputStream {
+
+    override def read(): Int = if (buffer.hasRemaining) buffer.get & 0xFF else -1
+
+    override def read(bytes: Array[Byte], off: Int, len: Int): Int = {
+        if (len == 0)
+            return 0;
+        if (!buffer.hasRemaining)
+            return -1;
+
+        val n = Math.min(len, buffer.remaining)
+        buffer.get(bytes, off, n)
+        n
+    }
+
+    override def skip(n: Long): Long = {
+        if (n <= 0L)
+            return 0L;
+
+        val skipped = Math.min(n, buffer.remaining.toLong).toInt
+        buffer.position(buffer.position() + skipped)
+        skipped.toLong
+    }
+
+    override def available(): Int = buffer.remaining
+
+}
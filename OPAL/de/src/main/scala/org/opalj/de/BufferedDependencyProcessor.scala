@@ -0,0 +1,184 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package de
+
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.ConcurrentLinkedQueue
+
+import scala.collection.JavaConverters._
+
+import org.opalj.br._
+
+/**
+ * A dependency processor which forwards all dependencies to the given (base) dependency
+ * processor using a single thread. Hence, the base dependency processor does not have to be
+ * thread-safe.
+ *
+ * The dependencies are forwarded in batches using a bounded queue. If the queue is full –
+ * i.e., the base dependency processor is slower than the dependency extractors – the
+ * threads which extract the dependencies are blocked until the base dependency processor
+ * has processed the next batch (back pressure). Hence, the number of dependencies which
+ * are buffered is bounded by `(capacity + number of extracting threads) * batchSize`.
+ *
+ * ==Usage==
+ * After all dependencies are extracted, [[close]] has to be called to forward the remaining
+ * dependencies and to wait until the base dependency processor has processed them.
+ *
+ * ==Thread Safety==
+ * This class is thread-safe. However, it does not make sense to call [[close]] unless all
+ * dependency extractors that use this processor have completed.
+ *
+ * @param baseDependencyProcessor The processor to which all dependencies are forwarded.
+ * @param batchSize The number of dependencies that are forwarded at once.
+ * @param capacity The maximum number of batches which are waiting to be processed.
+ *
+ * @author agent
+ */
+class BufferedDependencyProcessor(
+        val baseDependencyProcessor: DependencyProcessor,
+        val batchSize:               Int                 = 1024,
+        val capacity:                Int                 = 16
+) extends DependencyProcessor {
+
+    /**
+     * A batch of dependencies; the target is either a [[VirtualSourceElement]], an
+     * [[ArrayType]] or a [[BaseType]].
+     */
+    private[this] class Batch {
+        val sources = new Array[VirtualSourceElement](batchSize)
+        val targets = new Array[AnyRef](batchSize)
+        val dTypes = new Array[DependencyType](batchSize)
+        var size = 0
+
+        def isFull: Boolean = size == batchSize
+
+        def add(source: VirtualSourceElement, target: AnyRef, dType: DependencyType): Unit = {
+            sources(size) = source
+            targets(size) = target
+            dTypes(size) = dType
+            size += 1
+        }
+
+        def forward(): Unit = {
+            var i = 0
+            while (i < size) {
+                val source = sources(i)
+                val dType = dTypes(i)
+                targets(i) match {
+                    case target: VirtualSourceElement ⇒
+                        baseDependencyProcessor.processDependency(source, target, dType)
+                    case arrayType: ArrayType ⇒
+                        baseDependencyProcessor.processDependency(source, arrayType, dType)
+                    case baseType: BaseType ⇒
+                        baseDependencyProcessor.processDependency(source, baseType, dType)
+                }
+                i += 1
+            }
+        }
+    }
+
+    private[this] val NoMoreBatches = new Batch
+
+    private[this] val queue = new ArrayBlockingQueue[Batch](capacity)
+
+    // The current batches of all threads.
+    private[this] class BatchHolder { var batch: Batch = new Batch }
+    private[this] val batchHolders = new ConcurrentLinkedQueue[BatchHolder]()
+    private[this] val threadBatchHolder = ThreadLocal.withInitial[BatchHolder] { () ⇒
+        val batchHolder = new BatchHolder
+        batchHolders.add(batchHolder)
+        batchHolder
+    }
+
+    @volatile private[this] var exception: Throwable = null
+
+    private[this] val forwarder = new Thread("BufferedDependencyProcessor") {
+        override def run(): Unit = {
+            var batch = queue.take()
+            while (batch ne NoMoreBatches) {
+                if (exception eq null) {
+                    try {
+                        batch.forward()
+                    } catch {
+                        case t: Throwable ⇒ exception = t
+                    }
+                }
+                batch = queue.take()
+            }
+        }
+    }
+    forwarder.setDaemon(true)
+    forwarder.start()
+
+    private[this] def add(source: VirtualSourceElement, target: AnyRef, dType: DependencyType): Unit = {
+        val batchHolder = threadBatchHolder.get
+        val batch = batchHolder.batch
+        batch.add(source, target, dType)
+        if (batch.isFull) {
+            queue.put(batch) // blocks if the queue is full
+            batchHolder.batch = new Batch
+        }
+    }
+
+    def processDependency(
+        source: VirtualSourceElement,
+        target: VirtualSourceElement,
+        dType:  DependencyType
+    ): Unit = {
+        add(source, target, dType)
+    }
+
+    def processDependency(
+        source:    VirtualSourceElement,
+        arrayType: ArrayType,
+        dType:     DependencyType
+    ): Unit = {
+        add(source, arrayType, dType)
+    }
+
+    def processDependency(
+        source:   VirtualSourceElement,
+        baseType: BaseType,
+        dType:    DependencyType
+    ): Unit = {
+        add(source, baseType, dType)
+    }
+
+    override def asVirtualClass(objectType: ObjectType): VirtualClass = {
+        baseDependencyProcessor.asVirtualClass(objectType)
+    }
+
+    override def asVirtualField(
+        declaringClassType: ObjectType,
+        name:               String,
+        fieldType:          FieldType
+    ): VirtualField = {
+        baseDependencyProcessor.asVirtualField(declaringClassType, name, fieldType)
+    }
+
+    override def asVirtualMethod(
+        declaringClassType: ReferenceType,
+        name:               String,
+        descriptor:         MethodDescriptor
+    ): VirtualMethod = {
+        baseDependencyProcessor.asVirtualMethod(declaringClassType, name, descriptor)
+    }
+
+    /**
+     * Forwards the remaining dependencies and waits until the base dependency processor
+     * has processed all dependencies. If the base dependency processor has thrown an
+     * exception, the (first) exception is rethrown.
+     */
+    def close(): Unit = {
+        batchHolders.asScala foreach { batchHolder ⇒
+            val batch = batchHolder.batch
+            if (batch.size > 0) {
+                queue.put(batch)
+                batchHolder.batch = new Batch
+            }
+        }
+        queue.put(NoMoreBatches)
+        forwarder.join()
+        if (exception ne null) throw exception
+    }
+}
@@ -0,0 +1,250 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package de
+
+import java.util.Arrays.sort
+import java.util.Arrays.binarySearch
+
+import org.opalj.util.PerformanceEvaluation.time
+import org.opalj.log.LogContext
+import org.opalj.log.OPALLogger
+import org.opalj.br.ClassFile
+import org.opalj.br.Type
+import org.opalj.br.VirtualSourceElement
+
+/**
+ * A compact representation of the dependencies between source elements.
+ *
+ * Every source element which is the source or the target of a dependency has a dense
+ * int id (`0 until sourceElementsCount`). The dependencies are stored in compressed
+ * sparse row format: the targets of the dependencies of a source element are stored
+ * – sorted by their id – in one array and the kinds of the dependencies between a source
+ * and a target element are stored in a [[DependencyTypesBitSet]].
+ * The dependencies on array and base types are stored in the same way; the targets are
+ * the ids of the types in `types`.
+ *
+ * Use a [[DependencyGraphCollectingDependencyProcessor]] to create a dependency graph.
+ *
+ * ==Thread Safety==
+ * This class is immutable and therefore thread safe.
+ *
+ * @author agent
+ */
+final class DependencyGraph private[de] (
+        private[this] val sourceElements:      Array[VirtualSourceElement],
+        private[this] val sourceElementIds:    java.util.Map[VirtualSourceElement, Integer],
+        private[this] val types:               Array[Type],
+        private[this] val offsets:             Array[Int],
+        private[this] val targets:             Array[Int],
+        private[this] val dependencyTypes:     Array[DependencyTypesBitSet],
+        private[this] val typeOffsets:         Array[Int],
+        private[this] val typeTargets:         Array[Int],
+        private[this] val typeDependencyTypes: Array[DependencyTypesBitSet]
+) {
+
+    def sourceElementsCount: Int = sourceElements.length
+
+    def sourceElement(id: Int): VirtualSourceElement = sourceElements(id)
+
+    /**
+     * Returns the id of the given source element or `-1` if the source element is neither
+     * the source nor the target of a dependency.
+     */
+    def id(sourceElement: VirtualSourceElement): Int = {
+        val id = sourceElementIds.get(sourceElement)
+        if (id eq null) -1 else id.intValue
+    }
+
+    /**
+     * The number of pairs of source elements which have at least one dependency.
+     */
+    def dependenciesCount: Int = targets.length
+
+    /**
+     * The number of pairs of source elements and array/base types which have at least one
+     * dependency.
+     */
+    def dependenciesOnTypesCount: Int = typeTargets.length
+
+    /**
+     * Returns the number of the source elements on which the given source element depends.
+     */
+    def dependenciesCount(sourceId: Int): Int = offsets(sourceId + 1) - offsets(sourceId)
+
+    /**
+     * Returns the number of the array and base types on which the given source element
+     * depends.
+     */
+    def dependenciesOnTypesCount(sourceId: Int): Int = {
+        typeOffsets(sourceId + 1) - typeOffsets(sourceId)
+    }
+
+    /**
+     * Calls the given function for each source element the given source element depends on.
+     */
+    def foreachDependency[U](sourceId: Int)(f: (Int, DependencyTypesBitSet) ⇒ U): Unit = {
+        var i = offsets(sourceId)
+        val end = offsets(sourceId + 1)
+        while (i < end) {
+            f(targets(i), dependencyTypes(i))
+            i += 1
+        }
+    }
+
+    /**
+     * Calls the given function for each array and base type the given source element
+     * depends on.
+     */
+    def foreachDependencyOnType[U](sourceId: Int)(f: (Type, DependencyTypesBitSet) ⇒ U): Unit = {
+        var i = typeOffsets(sourceId)
+        val end = typeOffsets(sourceId + 1)
+        while (i < end) {
+            f(types(typeTargets(i)), typeDependencyTypes(i))
+            i += 1
+        }
+    }
+
+    /**
+     * Returns the ids of the source elements the given source element depends on along with
+     * the kinds of the dependencies.
+     */
+    def dependencies(sourceId: Int): Iterator[(Int, DependencyTypesBitSet)] = {
+        (offsets(sourceId) until offsets(sourceId + 1)).iterator map { i ⇒
+            (targets(i), dependencyTypes(i))
+        }
+    }
+
+    /**
+     * Returns the array and base types the given source element depends on along with
+     * the kinds of the dependencies.
+     */
+    def dependenciesOnTypes(sourceId: Int): Iterator[(Type, DependencyTypesBitSet)] = {
+        (typeOffsets(sourceId) until typeOffsets(sourceId + 1)).iterator map { i ⇒
+            (types(typeTargets(i)), typeDependencyTypes(i))
+        }
+    }
+
+    /**
+     * Returns the kinds of the dependencies between the given source and target element;
+     * `0` if the source element does not depend on the target element.
+     */
+    def dependencyTypes(sourceId: Int, targetId: Int): DependencyTypesBitSet = {
+        val index = binarySearch(targets, offsets(sourceId), offsets(sourceId + 1), targetId)
+        if (index >= 0) dependencyTypes(index) else 0L
+    }
+}
+
+object DependencyGraph {
+
+    /**
+     * Extracts the dependencies of the given class files in parallel and creates the
+     * dependency graph.
+     */
+    def apply(
+        classFiles:                Traversable[ClassFile],
+        createDependencyExtractor: (DependencyProcessor) ⇒ DependencyExtractor
+    )(
+        implicit
+        logContext: LogContext
+    ): DependencyGraph = {
+        val dc = time {
+            val dc = new DependencyGraphCollectingDependencyProcessor(Some(classFiles.size * 10))
+            val de = createDependencyExtractor(dc)
+            classFiles.par.foreach { de.process(_) }
+            dc
+        } { ns ⇒
+            OPALLogger.info("progress", "collecting dependencies took "+ns.toSeconds)
+        }
+
+        time {
+            dc.toGraph
+        } { ns ⇒
+            OPALLogger.info("progress", "creating the dependency graph took "+ns.toSeconds)
+        }
+    }
+
+    /**
+     * Creates the compressed sparse row representation of the given edges.
+     *
+     * @param edgeBuffers The buffers with the edges. Each buffer consists of the ids of the
+     *        sources of the edges, the edges and the number of edges. An edge encodes the id
+     *        of the target (the highest 58 bits) and the id of the dependency type (the
+     *        lowest 6 bits).
+     * @return The offsets, the targets and the (merged) dependency types.
+     */
+    private[de] def toCSR(
+        sourcesCount: Int,
+        edgesCount:   Int,
+        edgeBuffers:  Iterator[(Array[Int], Array[Long], Int)]
+    ): (Array[Int], Array[Int], Array[DependencyTypesBitSet]) = {
+        // 1. sort the edges by their source (counting sort)
+        val offsets = new Array[Int](sourcesCount + 1)
+        val buffers = edgeBuffers.toList
+        buffers foreach { buffer ⇒
+            val (sources, _, size) = buffer
+            var i = 0
+            while (i < size) { offsets(sources(i) + 1) += 1; i += 1 }
+        }
+        var sourceId = 0
+        while (sourceId < sourcesCount) {
+            offsets(sourceId + 1) += offsets(sourceId)
+            sourceId += 1
+        }
+        val sortedEdges = new Array[Long](edgesCount)
+        val nextIndex = java.util.Arrays.copyOf(offsets, sourcesCount)
+        buffers foreach { buffer ⇒
+            val (sources, edges, size) = buffer
+            var i = 0
+            while (i < size) {
+                val sourceId = sources(i)
+                sortedEdges(nextIndex(sourceId)) = edges(i)
+                nextIndex(sourceId) += 1
+                i += 1
+            }
+        }
+
+        // 2. sort the edges of each source by their target and merge the dependency types
+        val newOffsets = new Array[Int](sourcesCount + 1)
+        var targetsCount = 0
+        sourceId = 0
+        while (sourceId < sourcesCount) {
+            val start = offsets(sourceId)
+            val end = offsets(sourceId + 1)
+            sort(sortedEdges, start, end)
+            var i = start
+            var lastTarget = -1L
+            while (i < end) {
+                val target = sortedEdges(i) >>> 6
+                if (target != lastTarget) {
+                    targetsCount += 1
+                    lastTarget = target
+                }
+                i += 1
+            }
+            newOffsets(sourceId + 1) = targetsCount
+            sourceId += 1
+        }
+        val targets = new Array[Int](targetsCount)
+        val dependencyTypes = new Array[DependencyTypesBitSet](targetsCount)
+        var targetIndex = -1
+        sourceId = 0
+        while (sourceId < sourcesCount) {
+            var i = offsets(sourceId)
+            val end = offsets(sourceId + 1)
+            var lastTarget = -1
+            while (i < end) {
+                val edge = sortedEdges(i)
+                val target = (edge >>> 6).toInt
+                if (target != lastTarget) {
+                    targetIndex += 1
+                    targets(targetIndex) = target
+                    lastTarget = target
+                }
+                dependencyTypes(targetIndex) |= 1L << (edge & 63L)
+                i += 1
+            }
+            sourceId += 1
+        }
+        (newOffsets, targets, dependencyTypes)
+    }
+}
@@ -0,0 +1,178 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package de
+
+import java.util.concurrent.{ConcurrentHashMap ⇒ CMap}
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.collection.JavaConverters._
+
+import org.opalj.br._
+
+/**
+ * Collects all dependencies extracted by a [[DependencyExtractor]] and stores them in a
+ * [[DependencyGraph]].
+ *
+ * Compared to the [[DependencyCollectingDependencyProcessor]], this processor only stores
+ * one instance of every source element and associates it with an int id.
+ * The dependencies are recorded in per-thread buffers of primitive values which are
+ * merged when the graph is created. Hence, the threads which extract the dependencies
+ * do not contend for shared data structures – except when a new source element is found.
+ *
+ * ==Thread Safety==
+ * This class is thread-safe. However, it does not make sense to call the method
+ * [[toGraph]] unless the dependency extractor that uses this processor has completed.
+ *
+ * @param virtualSourceElementsCountHint An estimation of the number of
+ *      "VirtualSourceElements" that will be analyzed; see
+ *      [[DependencyCollectingDependencyProcessor]] for further details.
+ *
+ * @author agent
+ */
+class DependencyGraphCollectingDependencyProcessor(
+        val virtualSourceElementsCountHint: Option[Int]
+) extends DependencyProcessor {
+
+    private[this] val sourceElementIds =
+        new CMap[VirtualSourceElement, Integer](virtualSourceElementsCountHint.getOrElse(16000))
+    private[this] val nextSourceElementId = new AtomicInteger(0)
+
+    private[this] val typeIds = new CMap[Type, Integer](256)
+    private[this] val nextTypeId = new AtomicInteger(0)
+
+    /**
+     * Stores the edges found by a single thread.
+     */
+    private[this] class EdgeBuffer {
+        var sources: Array[Int] = new Array[Int](256)
+        var edges: Array[Long] = new Array[Long](256)
+        var size: Int = 0
+
+        def add(sourceId: Int, targetId: Int, dType: DependencyType): Unit = {
+            if (size == sources.length) {
+                val newLength = size * 2
+                sources = java.util.Arrays.copyOf(sources, newLength)
+                edges = java.util.Arrays.copyOf(edges, newLength)
+            }
+            sources(size) = sourceId
+            edges(size) = (targetId.toLong << 6) | dType.id
+            size += 1
+        }
+
+        def toTuple: (Array[Int], Array[Long], Int) = (sources, edges, size)
+    }
+
+    private[this] class EdgeBuffers {
+        // The source element of the last dependency and its id; the dependencies of a
+        // source element are typically reported one after another.
+        var lastSource: VirtualSourceElement = null
+        var lastSourceId: Int = -1
+        val edges = new EdgeBuffer
+        val edgesOnTypes = new EdgeBuffer
+    }
+
+    private[this] val allEdgeBuffers = new ConcurrentLinkedQueue[EdgeBuffers]()
+
+    private[this] val threadEdgeBuffers = ThreadLocal.withInitial[EdgeBuffers] { () ⇒
+        val edgeBuffers = new EdgeBuffers
+        allEdgeBuffers.add(edgeBuffers)
+        edgeBuffers
+    }
+
+    private[this] def sourceElementId(sourceElement: VirtualSourceElement): Int = {
+        val id = sourceElementIds.get(sourceElement)
+        if (id ne null)
+            id.intValue
+        else
+            sourceElementIds.computeIfAbsent(
+                sourceElement,
+                (_) ⇒ Integer.valueOf(nextSourceElementId.getAndIncrement())
+            ).intValue
+    }
+
+    private[this] def typeId(t: Type): Int = {
+        typeIds.computeIfAbsent(t, (_) ⇒ Integer.valueOf(nextTypeId.getAndIncrement())).intValue
+    }
+
+    private[this] def sourceId(
+        edgeBuffers: EdgeBuffers,
+        source:      VirtualSourceElement
+    ): Int = {
+        if (edgeBuffers.lastSource eq source) {
+            edgeBuffers.lastSourceId
+        } else {
+            val sourceId = sourceElementId(source)
+            edgeBuffers.lastSource = source
+            edgeBuffers.lastSourceId = sourceId
+            sourceId
+        }
+    }
+
+    def processDependency(
+        source: VirtualSourceElement,
+        target: VirtualSourceElement,
+        dType:  DependencyType
+    ): Unit = {
+        val edgeBuffers = threadEdgeBuffers.get
+        val sourceId = this.sourceId(edgeBuffers, source)
+        edgeBuffers.edges.add(sourceId, sourceElementId(target), dType)
+    }
+
+    def processDependency(
+        source:    VirtualSourceElement,
+        arrayType: ArrayType,
+        dType:     DependencyType
+    ): Unit = {
+        val edgeBuffers = threadEdgeBuffers.get
+        val sourceId = this.sourceId(edgeBuffers, source)
+        edgeBuffers.edgesOnTypes.add(sourceId, typeId(arrayType), dType)
+    }
+
+    def processDependency(
+        source:   VirtualSourceElement,
+        baseType: BaseType,
+        dType:    DependencyType
+    ): Unit = {
+        val edgeBuffers = threadEdgeBuffers.get
+        val sourceId = this.sourceId(edgeBuffers, source)
+        edgeBuffers.edgesOnTypes.add(sourceId, typeId(baseType), dType)
+    }
+
+    /**
+     * Creates a [[DependencyGraph]] using the extracted dependencies.
+     */
+    def toGraph: DependencyGraph = {
+        val sourceElementsCount = nextSourceElementId.get
+        val sourceElements = new Array[VirtualSourceElement](sourceElementsCount)
+        sourceElementIds.forEach { (sourceElement, id) ⇒ sourceElements(id) = sourceElement }
+        val types = new Array[Type](nextTypeId.get)
+        typeIds.forEach { (t, id) ⇒ types(id) = t }
+
+        val allEdgeBuffers = this.allEdgeBuffers.asScala.toList
+        val (offsets, targets, dependencyTypes) =
+            DependencyGraph.toCSR(
+                sourceElementsCount,
+                allEdgeBuffers.map(_.edges.size).sum,
+                allEdgeBuffers.iterator.map(_.edges.toTuple)
+            )
+        val (typeOffsets, typeTargets, typeDependencyTypes) =
+            DependencyGraph.toCSR(
+                sourceElementsCount,
+                allEdgeBuffers.map(_.edgesOnTypes.size).sum,
+                allEdgeBuffers.iterator.map(_.edgesOnTypes.toTuple)
+            )
+
+        new DependencyGraph(
+            sourceElements, sourceElementIds,
+            types,
+            offsets, targets, dependencyTypes,
+            typeOffsets, typeTargets, typeDependencyTypes
+        )
+    }
+
+    /**
+     * Creates a [[DependencyStore]] which provides a view on the extracted dependencies.
+     */
+    def toStore: DependencyStore = DependencyStore(toGraph)
+}
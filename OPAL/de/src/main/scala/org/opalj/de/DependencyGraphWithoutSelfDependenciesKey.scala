@@ -0,0 +1,31 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package de
+
+import org.opalj.br.analyses.SomeProject
+import org.opalj.br.analyses.ProjectInformationKey
+
+/**
+ * Key that can be used to get a [[DependencyGraph]] that contains all dependencies
+ * except self dependencies.
+ *
+ * ==Usage==
+ * Just pass this object to a `Project` to get the [[DependencyGraph]].
+ *
+ * @author Michael Eichberg
+ * @author agent
+ */
+object DependencyGraphWithoutSelfDependenciesKey
+    extends ProjectInformationKey[DependencyGraph, Nothing] {
+
+    override protected def requirements: Seq[ProjectInformationKey[_ <: AnyRef, Nothing]] = Nil
+
+    override protected def compute(project: SomeProject): DependencyGraph = {
+        def createDependencyProcessor(dp: DependencyProcessor) = {
+            val baseProcessor = new DependencyProcessorDecorator(dp) with FilterSelfDependencies
+            new DependencyExtractor(baseProcessor)
+        }
+
+        DependencyGraph(project.allClassFiles, createDependencyProcessor)(project.logContext)
+    }
+}
@@ -4,10 +4,9 @@ package de
 
 import scala.collection.Map
 import scala.collection.Set
+import scala.reflect.ClassTag
 
-import org.opalj.util.PerformanceEvaluation.time
 import org.opalj.log.LogContext
-import org.opalj.log.OPALLogger
 import org.opalj.br._
 
 /**
@@ -26,6 +25,18 @@ class DependencyStore(
 
 object DependencyStore {
 
+    /**
+     * Creates a dependency store which provides a read-only view on the given dependency
+     * graph. The maps are not materialized; i.e., all queries are answered using the graph.
+     */
+    def apply(graph: DependencyGraph): DependencyStore = {
+        new DependencyStore(
+            new DependenciesView(graph),
+            new DependenciesOnTypesView[ArrayType](graph),
+            new DependenciesOnTypesView[BaseType](graph)
+        )
+    }
+
     def apply[Source](
         classFiles:                Traversable[ClassFile],
         createDependencyExtractor: (DependencyProcessor) ⇒ DependencyExtractor
@@ -33,21 +44,7 @@ object DependencyStore {
         implicit
         logContext: LogContext
     ): DependencyStore = {
-
-        val dc = time {
-            val dc = new DependencyCollectingDependencyProcessor(Some(classFiles.size * 10))
-            val de = createDependencyExtractor(dc)
-            classFiles.par.foreach { de.process(_) }
-            dc
-        } { ns ⇒
-            OPALLogger.info("progress", "collecting dependencies took "+ns.toSeconds)
-        }
-
-        time {
-            dc.toStore
-        } { ns ⇒
-            OPALLogger.info("progress", "creating the dependencies store took "+ns.toSeconds)
-        }
+        DependencyStore(DependencyGraph(classFiles, createDependencyExtractor))
     }
 
     def apply[Source](
@@ -60,3 +57,127 @@ object DependencyStore {
         apply(classFiles, createDependencyExtractor)
     }
 }
+
+private[de] class DependenciesView(
+        graph: DependencyGraph
+) extends Map[VirtualSourceElement, Map[VirtualSourceElement, Set[DependencyType]]] {
+
+    def get(source: VirtualSourceElement): Option[Map[VirtualSourceElement, Set[DependencyType]]] = {
+        val sourceId = graph.id(source)
+        if (sourceId == -1 || graph.dependenciesCount(sourceId) == 0)
+            None
+        else
+            Some(new TargetsView(graph, sourceId))
+    }
+
+    def iterator: Iterator[(VirtualSourceElement, Map[VirtualSourceElement, Set[DependencyType]])] = {
+        (0 until graph.sourceElementsCount).iterator collect {
+            case sourceId if graph.dependenciesCount(sourceId) > 0 ⇒
+                (graph.sourceElement(sourceId), new TargetsView(graph, sourceId))
+        }
+    }
+
+    override lazy val size: Int = {
+        (0 until graph.sourceElementsCount).count(graph.dependenciesCount(_) > 0)
+    }
+
+    def +[V >: Map[VirtualSourceElement, Set[DependencyType]]](
+        kv: (VirtualSourceElement, V)
+    ): Map[VirtualSourceElement, V] = {
+        Map.empty[VirtualSourceElement, V] ++ this + kv
+    }
+
+    def -(source: VirtualSourceElement): Map[VirtualSourceElement, Map[VirtualSourceElement, Set[DependencyType]]] = {
+        Map.empty ++ this - source
+    }
+}
+
+private[de] class TargetsView(
+        graph:    DependencyGraph,
+        sourceId: Int
+) extends Map[VirtualSourceElement, Set[DependencyType]] {
+
+    def get(target: VirtualSourceElement): Option[Set[DependencyType]] = {
+        val targetId = graph.id(target)
+        if (targetId == -1)
+            None
+        else {
+            val dependencyTypes = graph.dependencyTypes(sourceId, targetId)
+            if (dependencyTypes == 0L) None else Some(DependencyTypes.toValueSet(dependencyTypes))
+        }
+    }
+
+    def iterator: Iterator[(VirtualSourceElement, Set[DependencyType])] = {
+        graph.dependencies(sourceId) map { targetAndDependencyTypes ⇒
+            val (targetId, dependencyTypes) = targetAndDependencyTypes
+            (graph.sourceElement(targetId), DependencyTypes.toValueSet(dependencyTypes))
+        }
+    }
+
+    override def size: Int = graph.dependenciesCount(sourceId)
+
+    def +[V >: Set[DependencyType]](kv: (VirtualSourceElement, V)): Map[VirtualSourceElement, V] = {
+        Map.empty[VirtualSourceElement, V] ++ this + kv
+    }
+
+    def -(target: VirtualSourceElement): Map[VirtualSourceElement, Set[DependencyType]] = {
+        Map.empty ++ this - target
+    }
+}
+
+private[de] class DependenciesOnTypesView[T <: Type: ClassTag](
+        graph: DependencyGraph
+) extends Map[VirtualSourceElement, Map[T, Set[DependencyType]]] {
+
+    def get(source: VirtualSourceElement): Option[Map[T, Set[DependencyType]]] = {
+        val sourceId = graph.id(source)
+        if (sourceId == -1 || !hasDependencies(sourceId))
+            None
+        else
+            Some(new TypeTargetsView[T](graph, sourceId))
+    }
+
+    private[this] def hasDependencies(sourceId: Int): Boolean = {
+        graph.dependenciesOnTypesCount(sourceId) > 0 &&
+            graph.dependenciesOnTypes(sourceId).exists(_._1 match { case _: T ⇒ true; case _ ⇒ false })
+    }
+
+    def iterator: Iterator[(VirtualSourceElement, Map[T, Set[DependencyType]])] = {
+        (0 until graph.sourceElementsCount).iterator collect {
+            case sourceId if hasDependencies(sourceId) ⇒
+                (graph.sourceElement(sourceId), new TypeTargetsView[T](graph, sourceId))
+        }
+    }
+
+    override lazy val size: Int = (0 until graph.sourceElementsCount).count(hasDependencies)
+
+    def +[V >: Map[T, Set[DependencyType]]](kv: (VirtualSourceElement, V)): Map[VirtualSourceElement, V] = {
+        Map.empty[VirtualSourceElement, V] ++ this + kv
+    }
+
+    def -(source: VirtualSourceElement): Map[VirtualSourceElement, Map[T, Set[DependencyType]]] = {
+        Map.empty ++ this - source
+    }
+}
+
+private[de] class TypeTargetsView[T <: Type: ClassTag](
+        graph:    DependencyGraph,
+        sourceId: Int
+) extends Map[T, Set[DependencyType]] {
+
+    def get(target: T): Option[Set[DependencyType]] = {
+        graph.dependenciesOnTypes(sourceId) collectFirst {
+            case (`target`, dependencyTypes) ⇒ DependencyTypes.toValueSet(dependencyTypes)
+        }
+    }
+
+    def iterator: Iterator[(T, Set[DependencyType])] = {
+        graph.dependenciesOnTypes(sourceId) collect {
+            case (t: T, dependencyTypes) ⇒ (t, DependencyTypes.toValueSet(dependencyTypes))
+        }
+    }
+
+    def +[V >: Set[DependencyType]](kv: (T, V)): Map[T, V] = Map.empty[T, V] ++ this + kv
+
+    def -(target: T): Map[T, Set[DependencyType]] = Map.empty ++ this - target
+}
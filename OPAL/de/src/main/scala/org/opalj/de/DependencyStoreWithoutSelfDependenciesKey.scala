@@ -7,7 +7,8 @@ import org.opalj.br.analyses.ProjectInformationKey
 
 /**
  * Key that can be used to get a `DependencyStore` that contains all dependencies
- * except self dependencies.
+ * except self dependencies. The store is a view on the
+ * [[DependencyGraphWithoutSelfDependenciesKey]]'s dependency graph.
  *
  * ==Usage==
  * Just pass this object to a `Project` to get the [[DependencyStore]].
@@ -17,14 +18,11 @@ import org.opalj.br.analyses.ProjectInformationKey
 object DependencyStoreWithoutSelfDependenciesKey
     extends ProjectInformationKey[DependencyStore, Nothing] {
 
-    override protected def requirements: Seq[ProjectInformationKey[_ <: AnyRef, Nothing]] = Nil
+    override protected def requirements: Seq[ProjectInformationKey[_ <: AnyRef, Nothing]] = {
+        Seq(DependencyGraphWithoutSelfDependenciesKey)
+    }
 
     override protected def compute(project: SomeProject): DependencyStore = {
-        def createDependencyProcessor(dp: DependencyProcessor) = {
-            val baseProcessor = new DependencyProcessorDecorator(dp) with FilterSelfDependencies
-            new DependencyExtractor(baseProcessor)
-        }
-
-        DependencyStore(project.allClassFiles, createDependencyProcessor)(project.logContext)
+        DependencyStore(project.get(DependencyGraphWithoutSelfDependenciesKey))
     }
 }
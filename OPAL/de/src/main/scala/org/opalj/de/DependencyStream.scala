@@ -0,0 +1,64 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package de
+
+import org.opalj.br.ClassFile
+
+/**
+ * Streams the dependencies of a set of class files to a [[DependencyProcessor]] without
+ * storing them.
+ *
+ * The dependencies are extracted in parallel (one class file at a time per thread).
+ * Hence, the memory required to extract the dependencies is independent of the number of
+ * dependencies; it only depends on the memory required by the given dependency processor.
+ * Aggregating processors – e.g., the [[DependencyTypesCountingDependencyProcessor]] or
+ * the [[PackageDependenciesCollectingDependencyProcessor]] – can be used to compute
+ * summaries. To filter self dependencies, decorate the processor:
+ * {{{
+ * new DependencyProcessorDecorator(processor) with FilterSelfDependencies
+ * }}}
+ *
+ * @author agent
+ */
+object DependencyStream {
+
+    /**
+     * Extracts the dependencies of the given class files in parallel and passes them to the
+     * given (thread-safe) dependency processor.
+     *
+     * @return The given dependency processor.
+     */
+    def apply[DP <: DependencyProcessor](
+        classFiles:                Traversable[ClassFile],
+        dependencyProcessor:       DP,
+        createDependencyExtractor: (DependencyProcessor) ⇒ DependencyExtractor = (dp) ⇒ new DependencyExtractor(dp)
+    ): DP = {
+        val de = createDependencyExtractor(dependencyProcessor)
+        classFiles.par.foreach { de.process(_) }
+        dependencyProcessor
+    }
+
+    /**
+     * Extracts the dependencies of the given class files in parallel and passes them to the
+     * given dependency processor using a single thread. I.e., the dependency processor
+     * does not have to be thread-safe. If the dependency processor is slower than the
+     * extraction, the extraction is paused (see [[BufferedDependencyProcessor]]).
+     *
+     * @return The given dependency processor.
+     */
+    def buffered[DP <: DependencyProcessor](
+        classFiles:                Traversable[ClassFile],
+        dependencyProcessor:       DP,
+        batchSize:                 Int                                            = 1024,
+        capacity:                  Int                                            = 16,
+        createDependencyExtractor: (DependencyProcessor) ⇒ DependencyExtractor = (dp) ⇒ new DependencyExtractor(dp)
+    ): DP = {
+        val bdp = new BufferedDependencyProcessor(dependencyProcessor, batchSize, capacity)
+        try {
+            apply(classFiles, bdp, createDependencyExtractor)
+        } finally {
+            bdp.close()
+        }
+        dependencyProcessor
+    }
+}
@@ -80,6 +80,11 @@ object DependencyTypes extends Enumeration(0 /* <= value of first enumeration va
         dependencies
     }
 
+    /**
+     * Returns a (compact) set which contains the dependency types of the given bit set.
+     */
+    def toValueSet(set: DependencyTypesBitSet): ValueSet = ValueSet.fromBitMask(Array(set))
+
     def toUsageDescription(dependencyType: DependencyType): String = {
         dependencyType match {
             case EXTENDS                           ⇒ "extend class type"
@@ -0,0 +1,63 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package de
+
+import java.util.concurrent.atomic.AtomicLongArray
+
+import org.opalj.br._
+
+/**
+ * A dependency processor that counts the number of dependencies per kind of dependency.
+ *
+ * The memory required by this processor is independent of the number of dependencies.
+ *
+ * @author agent
+ */
+class DependencyTypesCountingDependencyProcessor extends DependencyCountingDependencyProcessor {
+
+    protected[this] val dependencyTypesCount = new AtomicLongArray(DependencyTypes.maxId)
+
+    override def processDependency(
+        source: VirtualSourceElement,
+        target: VirtualSourceElement,
+        dType:  DependencyType
+    ): Unit = {
+        super.processDependency(source, target, dType)
+        dependencyTypesCount.incrementAndGet(dType.id)
+    }
+
+    override def processDependency(
+        source:    VirtualSourceElement,
+        arrayType: ArrayType,
+        dType:     DependencyType
+    ): Unit = {
+        super.processDependency(source, arrayType, dType)
+        dependencyTypesCount.incrementAndGet(dType.id)
+    }
+
+    override def processDependency(
+        source:   VirtualSourceElement,
+        baseType: BaseType,
+        dType:    DependencyType
+    ): Unit = {
+        super.processDependency(source, baseType, dType)
+        dependencyTypesCount.incrementAndGet(dType.id)
+    }
+
+    /**
+     * The number of dependencies of the given kind found so far.
+     */
+    def currentDependencyTypeCount(dType: DependencyType): Long = {
+        dependencyTypesCount.get(dType.id)
+    }
+
+    /**
+     * The number of dependencies per kind of dependency; kinds of dependencies that were
+     * not found are not included.
+     */
+    def currentDependencyTypesCount: Map[DependencyType, Long] = {
+        DependencyTypes.values.iterator.map { dType ⇒
+            (dType, dependencyTypesCount.get(dType.id))
+        }.filter(_._2 > 0L).toMap
+    }
+}
@@ -0,0 +1,70 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package de
+
+import java.util.concurrent.{ConcurrentHashMap ⇒ CMap}
+import java.util.concurrent.atomic.AtomicLong
+
+import scala.collection.JavaConverters._
+
+import org.opalj.br._
+
+/**
+ * A dependency processor that aggregates the dependencies between source elements at the
+ * package level; i.e., it counts the number of dependencies between the packages of the
+ * source and the target elements.
+ *
+ * The memory required by this processor only depends on the number of pairs of packages
+ * with dependencies between them and is independent of the number of dependencies.
+ * Dependencies on array and base types (and on the methods of array types) are ignored;
+ * the dependency on the element type of an array type is always reported separately.
+ *
+ * ==Thread Safety==
+ * This class is thread-safe.
+ *
+ * @author agent
+ */
+class PackageDependenciesCollectingDependencyProcessor extends DependencyProcessorAdapter {
+
+    private[this] val packageDependencies = new CMap[String, CMap[String, AtomicLong]]()
+
+    override def processDependency(
+        source: VirtualSourceElement,
+        target: VirtualSourceElement,
+        dType:  DependencyType
+    ): Unit = {
+        (source.classType, target.classType) match {
+            case (sourceType: ObjectType, targetType: ObjectType) ⇒
+                countDependency(sourceType.packageName, targetType.packageName)
+            case _ ⇒
+            // the target is a method of an array type (e.g., "clone"); the dependency
+            // on the array's element type is reported separately
+        }
+    }
+
+    private[this] def countDependency(sourcePackage: String, targetPackage: String): Unit = {
+        var targetPackages = packageDependencies.get(sourcePackage)
+        if (targetPackages eq null) {
+            targetPackages = packageDependencies.computeIfAbsent(
+                sourcePackage,
+                (_) ⇒ new CMap[String, AtomicLong]()
+            )
+        }
+        var count = targetPackages.get(targetPackage)
+        if (count eq null) {
+            count = targetPackages.computeIfAbsent(targetPackage, (_) ⇒ new AtomicLong(0L))
+        }
+        count.incrementAndGet()
+    }
+
+    /**
+     * The number of dependencies between the packages found so far. The package names are
+     * given in binary notation (e.g., `java/lang`).
+     */
+    def currentPackageDependencies: Map[String, Map[String, Long]] = {
+        packageDependencies.asScala.iterator.map { e ⇒
+            val (sourcePackage, targetPackages) = e
+            (sourcePackage, targetPackages.asScala.iterator.map(e ⇒ (e._1, e._2.get)).toMap)
+        }.toMap
+    }
+}
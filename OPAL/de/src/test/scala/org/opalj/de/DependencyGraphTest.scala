@@ -0,0 +1,74 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package de
+
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+import org.scalatest.FlatSpec
+import org.scalatest.Matchers
+
+import org.opalj.bi.TestResources.locateTestResources
+import org.opalj.br.reader.Java8Framework.ClassFiles
+
+/**
+ * Tests that the dependencies stored in a [[DependencyGraph]] are the same as the
+ * dependencies collected by the [[DependencyCollectingDependencyProcessor]].
+ *
+ * @author agent
+ */
+@RunWith(classOf[JUnitRunner])
+class DependencyGraphTest extends FlatSpec with Matchers {
+
+    val classFiles = {
+        val antJAR = locateTestResources("classfiles/Apache ANT 1.7.1 - target 1.5.jar", "bi")
+        ClassFiles(antJAR).map(_._1)
+    }
+
+    val expectedStore = {
+        val dp = new DependencyCollectingDependencyProcessor(None)
+        val de = new DependencyExtractor(dp)
+        classFiles.par foreach { de.process(_) }
+        dp.toStore
+    }
+
+    val dp = new DependencyGraphCollectingDependencyProcessor(None)
+    val de = new DependencyExtractor(dp)
+    classFiles.par foreach { de.process(_) }
+    val graph = dp.toGraph
+    val store = DependencyStore(graph)
+
+    behavior of "a DependencyGraph"
+
+    it should "contain the same dependencies between source elements" in {
+        graph.dependenciesCount should be(expectedStore.dependencies.valuesIterator.map(_.size).sum)
+        store.dependencies.size should be(expectedStore.dependencies.size)
+        for { (source, targets) ← expectedStore.dependencies } {
+            store.dependencies(source).size should be(targets.size)
+            for { (target, dTypes) ← targets } {
+                store.dependencies(source)(target) should be(dTypes)
+            }
+        }
+    }
+
+    it should "contain the same dependencies on array types" in {
+        store.dependenciesOnArrayTypes.toMap should be(expectedStore.dependenciesOnArrayTypes.toMap)
+    }
+
+    it should "contain the same dependencies on base types" in {
+        store.dependenciesOnBaseTypes.toMap should be(expectedStore.dependenciesOnBaseTypes.toMap)
+    }
+
+    it should "provide the dependencies using the ids of the source elements" in {
+        for { (source, targets) ← expectedStore.dependencies } {
+            val sourceId = graph.id(source)
+            graph.sourceElement(sourceId) should be(source)
+            var dependenciesCount = 0
+            graph.foreachDependency(sourceId) { (targetId, dTypes) ⇒
+                DependencyTypes.toSet(dTypes) should be(targets(graph.sourceElement(targetId)))
+                graph.dependencyTypes(sourceId, targetId) should be(dTypes)
+                dependenciesCount += 1
+            }
+            dependenciesCount should be(targets.size)
+        }
+    }
+}
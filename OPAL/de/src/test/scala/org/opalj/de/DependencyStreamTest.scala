@@ -0,0 +1,141 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package de
+
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+import org.scalatest.FlatSpec
+import org.scalatest.Matchers
+
+import org.opalj.log.GlobalLogContext
+import org.opalj.bi.TestResources.locateTestResources
+import org.opalj.br._
+import org.opalj.br.reader.Java8Framework.ClassFiles
+
+/**
+ * Tests that streaming the dependencies to aggregating (and buffered) dependency
+ * processors yields the same results as collecting all dependencies.
+ *
+ * @author agent
+ */
+@RunWith(classOf[JUnitRunner])
+class DependencyStreamTest extends FlatSpec with Matchers {
+
+    val classFiles = {
+        val antJAR = locateTestResources("classfiles/Apache ANT 1.7.1 - target 1.5.jar", "bi")
+        ClassFiles(antJAR).map(_._1)
+    }
+
+    val expectedCounts = DependencyStream(classFiles, new DependencyCountingDependencyProcessor)
+
+    /**
+     * A dependency processor which is not thread-safe and which fails if it is used
+     * concurrently.
+     */
+    class SingleThreadedDependencyTypesCountingDependencyProcessor
+        extends DependencyProcessorAdapter {
+
+        @volatile private[this] var isProcessing = false
+        val counts = new Array[Long](DependencyTypes.maxId)
+
+        private[this] def count(dType: DependencyType): Unit = {
+            if (isProcessing) throw new IllegalStateException("concurrent use")
+            isProcessing = true
+            counts(dType.id) += 1
+            isProcessing = false
+        }
+
+        override def processDependency(
+            source: VirtualSourceElement,
+            target: VirtualSourceElement,
+            dType:  DependencyType
+        ): Unit = count(dType)
+
+        override def processDependency(
+            source:    VirtualSourceElement,
+            arrayType: ArrayType,
+            dType:     DependencyType
+        ): Unit = count(dType)
+
+        override def processDependency(
+            source:   VirtualSourceElement,
+            baseType: BaseType,
+            dType:    DependencyType
+        ): Unit = count(dType)
+    }
+
+    behavior of "streaming the dependencies"
+
+    it should "count the same number of dependencies per kind as overall" in {
+        val dp = DependencyStream(classFiles, new DependencyTypesCountingDependencyProcessor)
+        dp.currentDependencyCount should be(expectedCounts.currentDependencyCount)
+        dp.currentDependencyTypesCount.values.sum should be(
+            expectedCounts.currentDependencyCount.toLong +
+                expectedCounts.currentDependencyOnArraysCount +
+                expectedCounts.currentDependencyOnPrimitivesCount
+        )
+    }
+
+    it should "aggregate the dependencies between source elements at the package level" in {
+        val store = DependencyStore(classFiles)(GlobalLogContext)
+        // the store records each kind of dependency between two source elements only once
+        val expectedMinPackageDependencies =
+            (for {
+                (source, targets) ← store.dependencies.toSeq
+                sourceType = source.classType
+                if sourceType.isObjectType
+                (target, dTypes) ← targets.toSeq
+                targetType = target.classType
+                if targetType.isObjectType
+            } yield {
+                (sourceType.asObjectType.packageName, targetType.asObjectType.packageName, dTypes.size)
+            }).groupBy(e ⇒ (e._1, e._2)).map(e ⇒ (e._1, e._2.map(_._3.toLong).sum))
+
+        val dp = DependencyStream(classFiles, new PackageDependenciesCollectingDependencyProcessor)
+        val packageDependencies =
+            for {
+                (sourcePackage, targetPackages) ← dp.currentPackageDependencies
+                (targetPackage, count) ← targetPackages
+            } yield {
+                ((sourcePackage, targetPackage), count)
+            }
+        packageDependencies.keySet should be(expectedMinPackageDependencies.keySet)
+        for { (packages, count) ← packageDependencies } {
+            count should be >= expectedMinPackageDependencies(packages)
+        }
+        packageDependencies.values.sum should be <= expectedCounts.currentDependencyCount.toLong
+    }
+
+    it should "filter self dependencies if the processor is decorated" in {
+        val dp = new DependencyCountingDependencyProcessor
+        DependencyStream(classFiles, new DependencyProcessorDecorator(dp) with FilterSelfDependencies)
+        dp.currentDependencyCount should be < expectedCounts.currentDependencyCount
+        dp.currentDependencyOnArraysCount should be(expectedCounts.currentDependencyOnArraysCount)
+    }
+
+    it should "pass all dependencies to a buffered processor using a single thread" in {
+        val expected = DependencyStream(classFiles, new DependencyTypesCountingDependencyProcessor)
+        val dp = DependencyStream.buffered(
+            classFiles,
+            new SingleThreadedDependencyTypesCountingDependencyProcessor,
+            batchSize = 64,
+            capacity = 2
+        )
+        for { dType ← DependencyTypes.values } {
+            dp.counts(dType.id) should be(expected.currentDependencyTypeCount(dType))
+        }
+    }
+
+    it should "rethrow the exception thrown by a buffered processor" in {
+        val failingDP = new DependencyProcessorAdapter {
+            override def processDependency(
+                source: VirtualSourceElement,
+                target: VirtualSourceElement,
+                dType:  DependencyType
+            ): Unit = throw new UnknownError("failing processor")
+        }
+        an[UnknownError] should be thrownBy {
+            DependencyStream.buffered(classFiles, failingDP, capacity = 1)
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+
+import java.net.URL
+import java.util.concurrent.atomic.AtomicLong
+
+import org.opalj.util.Nanoseconds
+import org.opalj.util.PerformanceEvaluation.time
+import org.opalj.br.analyses.BasicReport
+import org.opalj.br.analyses.DefaultOneStepAnalysis
+import org.opalj.br.analyses.Project
+
+/**
+ * Compares the default (depth-first) scheduling of the instructions by the abstract
+ * interpreter with the scheduling in reverse postorder (see
+ * [[AI.ScheduleInReversePostorder]]) by performing an abstract interpretation of all
+ * methods of a project (e.g., the JDK) using both strategies.
+ *
+ * @author agent
+ */
+object WorklistScheduling extends DefaultOneStepAnalysis {
+
+    final val Runs = 5
+
+    override def title: String = "Worklist Scheduling"
+
+    override def description: String = {
+        "Compares the number of evaluated instructions and the time required by the "+
+            "abstract interpretation of all methods when using different scheduling strategies."
+    }
+
+    override def analysisSpecificParametersDescription: String = {
+        "[-domain=l0|l1 (default: l1)]"
+    }
+
+    override def checkAnalysisSpecificParameters(parameters: Seq[String]): Seq[String] = {
+        parameters.filterNot(p ⇒ p == "-domain=l0" || p == "-domain=l1").map("unknown parameter: "+_)
+    }
+
+    override def doAnalyze(
+        theProject:    Project[URL],
+        parameters:    Seq[String],
+        isInterrupted: () ⇒ Boolean
+    ): BasicReport = {
+
+        val useL0Domain = parameters.contains("-domain=l0")
+
+        // returns the number of evaluated instructions, the number of aborted interpretations
+        // and the time required to analyze all methods
+        def analyzeAll(ai: AI[Domain]): (Long, Long, Nanoseconds) = {
+            val evaluationsCount = new AtomicLong(0)
+            val abortedCount = new AtomicLong(0)
+            var executionTime: Nanoseconds = Nanoseconds.None
+            time {
+                theProject.parForeachMethodWithBody(isInterrupted) { mi ⇒
+                    val m = mi.method
+                    val theDomain =
+                        if (useL0Domain)
+                            new domain.l0.BaseDomain(theProject, m)
+                        else
+                            new domain.l1.DefaultDomain(theProject, m)
+                    val result = ai(m, theDomain)
+                    evaluationsCount.addAndGet(result.evaluatedPCs.count(_ >= 0).toLong)
+                    if (result.wasAborted) abortedCount.incrementAndGet()
+                }
+            } { t ⇒ executionTime = t }
+            (evaluationsCount.get, abortedCount.get, executionTime)
+        }
+
+        val depthFirstAI = new BaseAI()
+        val reversePostorderAI = new BaseAI(ScheduleInReversePostorder = true)
+        // The runs are interleaved and we report the fastest run of each strategy to
+        // reduce the effects of the JVM's warm-up and the garbage collector.
+        var depthFirstResults: (Long, Long, Nanoseconds) = null
+        var reversePostorderResults: (Long, Long, Nanoseconds) = null
+        for { _ ← 1 to Runs } {
+            val newDepthFirstResults = analyzeAll(depthFirstAI)
+            if ((depthFirstResults eq null) || newDepthFirstResults._3.timeSpan < depthFirstResults._3.timeSpan)
+                depthFirstResults = newDepthFirstResults
+            val newReversePostorderResults = analyzeAll(reversePostorderAI)
+            if ((reversePostorderResults eq null) ||
+                newReversePostorderResults._3.timeSpan < reversePostorderResults._3.timeSpan)
+                reversePostorderResults = newReversePostorderResults
+        }
+
+        def toString(results: (Long, Long, Nanoseconds)): String = {
+            val (evaluationsCount, abortedCount, executionTime) = results
+            s"$evaluationsCount evaluated instructions; "+
+                s"$abortedCount aborted interpretations; ${executionTime.toSeconds}"
+        }
+        BasicReport(
+            s"depth-first scheduling: ${toString(depthFirstResults)}\n"+
+                s"reverse postorder scheduling: ${toString(reversePostorderResults)}"
+        )
+    }
+}
@@ -0,0 +1,59 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+package dataflow
+package ifds
+
+/**
+ * A function which transforms the value (of type `Value`) associated with a fact along an
+ * edge of the (exploded) super graph. Edge functions have to be distributive and the
+ * set of all edge functions of a problem has to be closed under composition and meet.
+ *
+ * Edge functions are shared between threads and, hence, have to be immutable.
+ *
+ * @author agent
+ */
+trait EdgeFunction[Value] {
+
+    def apply(value: Value): Value
+
+    /**
+     * Returns the function that first applies this function and then the given function.
+     */
+    def composeWith(secondFunction: EdgeFunction[Value]): EdgeFunction[Value]
+
+    def meetWith(otherFunction: EdgeFunction[Value]): EdgeFunction[Value]
+
+    def equalTo(otherFunction: EdgeFunction[Value]): Boolean
+
+}
+
+object EdgeFunction {
+
+    private[this] object Identity extends EdgeFunction[Any] {
+
+        override def apply(value: Any): Any = value
+
+        override def composeWith(secondFunction: EdgeFunction[Any]): EdgeFunction[Any] = {
+            secondFunction
+        }
+
+        override def meetWith(otherFunction: EdgeFunction[Any]): EdgeFunction[Any] = {
+            if (otherFunction eq this)
+                this
+            else
+                otherFunction.meetWith(this)
+        }
+
+        override def equalTo(otherFunction: EdgeFunction[Any]): Boolean = otherFunction eq this
+
+        override def toString: String = "id"
+    }
+
+    /**
+     * The identity function; in case of IFDS problems, all edge functions are identity
+     * functions.
+     */
+    def identity[Value]: EdgeFunction[Value] = Identity.asInstanceOf[EdgeFunction[Value]]
+
+}
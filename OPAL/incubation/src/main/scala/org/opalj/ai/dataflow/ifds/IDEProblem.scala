@@ -0,0 +1,194 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+package dataflow
+package ifds
+
+import org.opalj.collection.immutable.IntTrieSet
+import org.opalj.br.Method
+import org.opalj.tac.Call
+
+/**
+ * Specifies an IDE problem over the three-address code of a project's methods; see
+ * [[IDESolver]] for the solver. All flow and edge functions are called concurrently and
+ * have to be thread-safe; given the same arguments they have to return the same results.
+ *
+ * The ''return sites'' of a call are the successors of the call statement in the
+ * control-flow graph of the calling method.
+ *
+ * @tparam Value The values of the environments; irrelevant for IFDS problems.
+ *
+ * @author agent
+ */
+trait IDEProblem[Value] {
+
+    /**
+     * The initial facts; each fact holds at the entry of the respective method.
+     */
+    def seeds: Iterable[(Method, Int)]
+
+    /**
+     * The three-address code of the given method; `None` if the method has no body. The
+     * results should be cached.
+     */
+    def code(method: Method): Option[TACode]
+
+    /**
+     * The methods which may be called by the given call. Methods without bodies are
+     * ignored by the solver.
+     */
+    def callees(caller: Method, code: TACode, callIndex: Int, call: Call[V]): Iterable[Method]
+
+    /**
+     * Returns `true` if the given statement is an exit statement. By default, all `return`
+     * statements are exit statements.
+     */
+    def isExitStatement(method: Method, code: TACode, index: Int): Boolean = {
+        code.stmts(index).astID match {
+            case tac.ReturnValue.ASTID | tac.Return.ASTID ⇒ true
+            case _                                        ⇒ false
+        }
+    }
+
+    // FLOW FUNCTIONS
+
+    def normalFlow(
+        method:         Method,
+        code:           TACode,
+        index:          Int,
+        successorIndex: Int,
+        fact:           Int
+    ): IntTrieSet
+
+    /**
+     * Maps the facts which hold at the call site to the facts which hold at the entry of
+     * the callee.
+     */
+    def callFlow(
+        caller:     Method,
+        callerCode: TACode,
+        callIndex:  Int,
+        call:       Call[V],
+        callee:     Method,
+        calleeCode: TACode,
+        fact:       Int
+    ): IntTrieSet
+
+    /**
+     * Maps the facts which hold at an exit statement of the callee to the facts which hold
+     * at the return site.
+     */
+    def returnFlow(
+        callee:          Method,
+        calleeCode:      TACode,
+        exitIndex:       Int,
+        caller:          Method,
+        callerCode:      TACode,
+        callIndex:       Int,
+        call:            Call[V],
+        returnSiteIndex: Int,
+        fact:            Int
+    ): IntTrieSet
+
+    /**
+     * Propagates the facts which are not affected by the call (or which are affected by
+     * callees which are not analyzed) from the call site to the return site.
+     *
+     * @param hasCallees `true` if the solver analyzes at least one of the callees.
+     */
+    def callToReturnFlow(
+        caller:          Method,
+        code:            TACode,
+        callIndex:       Int,
+        call:            Call[V],
+        returnSiteIndex: Int,
+        fact:            Int,
+        hasCallees:      Boolean
+    ): IntTrieSet
+
+    // EDGE FUNCTIONS
+
+    def normalEdgeFunction(
+        method:         Method,
+        code:           TACode,
+        index:          Int,
+        successorIndex: Int,
+        fact:           Int,
+        successorFact:  Int
+    ): EdgeFunction[Value] = EdgeFunction.identity
+
+    def callEdgeFunction(
+        caller:     Method,
+        callerCode: TACode,
+        callIndex:  Int,
+        callee:     Method,
+        fact:       Int,
+        calleeFact: Int
+    ): EdgeFunction[Value] = EdgeFunction.identity
+
+    def returnEdgeFunction(
+        callee:          Method,
+        exitIndex:       Int,
+        exitFact:        Int,
+        caller:          Method,
+        callIndex:       Int,
+        returnSiteIndex: Int,
+        returnSiteFact:  Int
+    ): EdgeFunction[Value] = EdgeFunction.identity
+
+    def callToReturnEdgeFunction(
+        caller:          Method,
+        code:            TACode,
+        callIndex:       Int,
+        returnSiteIndex: Int,
+        fact:            Int,
+        returnSiteFact:  Int
+    ): EdgeFunction[Value] = EdgeFunction.identity
+
+}
+
+/**
+ * An IFDS problem is an IDE problem where all edge functions are identity functions.
+ *
+ * @author agent
+ */
+trait IFDSProblem extends IDEProblem[Unit] {
+
+    final override def normalEdgeFunction(
+        method:         Method,
+        code:           TACode,
+        index:          Int,
+        successorIndex: Int,
+        fact:           Int,
+        successorFact:  Int
+    ): EdgeFunction[Unit] = EdgeFunction.identity
+
+    final override def callEdgeFunction(
+        caller:     Method,
+        callerCode: TACode,
+        callIndex:  Int,
+        callee:     Method,
+        fact:       Int,
+        calleeFact: Int
+    ): EdgeFunction[Unit] = EdgeFunction.identity
+
+    final override def returnEdgeFunction(
+        callee:          Method,
+        exitIndex:       Int,
+        exitFact:        Int,
+        caller:          Method,
+        callIndex:       Int,
+        returnSiteIndex: Int,
+        returnSiteFact:  Int
+    ): EdgeFunction[Unit] = EdgeFunction.identity
+
+    final override def callToReturnEdgeFunction(
+        caller:          Method,
+        code:            TACode,
+        callIndex:       Int,
+        returnSiteIndex: Int,
+        fact:            Int,
+        returnSiteFact:  Int
+    ): EdgeFunction[Unit] = EdgeFunction.identity
+
+}
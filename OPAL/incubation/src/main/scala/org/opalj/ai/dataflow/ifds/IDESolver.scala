@@ -0,0 +1,364 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+package dataflow
+package ifds
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.ForkJoinTask
+import java.util.concurrent.RecursiveAction
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicReference
+import java.lang.{Long ⇒ JLong}
+import java.lang.{Integer ⇒ JInteger}
+
+import scala.collection.JavaConverters._
+
+import org.opalj.collection.immutable.IntTrieSet
+import org.opalj.concurrent.NumberOfThreadsForCPUBoundTasks
+import org.opalj.br.Method
+import org.opalj.tac.Call
+
+/**
+ * A multi-threaded solver for [[IDEProblem]]s which computes the jump functions (phase one of
+ * the IDE algorithm by Sagiv, Reps and Horwitz); IFDS problems ([[IFDSProblem]]) are solved as
+ * the special case where all edge functions are identity functions.
+ *
+ * ==Concurrency==
+ * Each path edge whose jump function is new or has changed is processed by a task of a
+ * work-stealing `ForkJoinPool`; tasks created by a task are pushed on the local queue of
+ * the respective worker. The jump functions are stored – per method – in concurrent tables;
+ * a jump function is only updated using an atomic compare-and-set operation and is always met
+ * with the previous function.
+ *
+ * ==Summaries==
+ * The summaries of a method (i.e., the path edges which reach an exit statement) are
+ * computed on the fly and are reused by all callers which pass the same fact to the method.
+ * A call site first registers itself as an ''incoming edge'' of the callee and then applies
+ * the callee's current summaries; an exit statement first registers the summary and then
+ * applies it to all registered incoming edges. Hence, each summary is applied to each
+ * call site at least once.
+ *
+ * @param  parallelism The number of threads used to solve the problem.
+ *
+ * @author agent
+ */
+final class IDESolver[Value](
+        val problem:     IDEProblem[Value],
+        val parallelism: Int               = NumberOfThreadsForCPUBoundTasks
+) {
+
+    private[this] final class MethodState(val method: Method, val code: TACode) {
+
+        final val jumpFunctions = new ConcurrentHashMap[JLong, EdgeFunction[Value]]()
+
+        /** The path edges of the callers (values) which pass a specific fact (key). */
+        private[this] final val incomingEdges = {
+            new ConcurrentHashMap[JInteger, java.util.Set[CallSiteEdge]]()
+        }
+
+        /** The path edges (values) which reach an exit statement per entry fact (key). */
+        private[this] final val endSummaries = {
+            new ConcurrentHashMap[JInteger, java.util.Set[JLong]]()
+        }
+
+        def incoming(d1: Int): java.util.Set[CallSiteEdge] = {
+            incomingEdges.computeIfAbsent(d1, _ ⇒ ConcurrentHashMap.newKeySet[CallSiteEdge]())
+        }
+
+        def summaries(d1: Int): java.util.Set[JLong] = {
+            endSummaries.computeIfAbsent(d1, _ ⇒ ConcurrentHashMap.newKeySet[JLong]())
+        }
+    }
+
+    /** A path edge `<d1> → <callIndex,d2>` of a caller. */
+    private[this] type CallSiteEdge = (MethodState, Long)
+
+    private[this] final class PathEdgeTask(
+            state:    MethodState,
+            pathEdge: Long
+    ) extends RecursiveAction {
+
+        override def compute(): Unit = {
+            try {
+                if (exception.get() eq null) process(state, pathEdge)
+            } catch {
+                case t: Throwable ⇒ exception.compareAndSet(null, t)
+            } finally {
+                taskCompleted()
+            }
+        }
+    }
+
+    private[this] val NoCode = new MethodState(null, null)
+
+    private[this] val methodStates = new ConcurrentHashMap[Method, MethodState]()
+
+    private[this] val pool = new ForkJoinPool(parallelism)
+
+    private[this] val pendingTasks = new AtomicInteger(0)
+
+    private[this] val exception = new AtomicReference[Throwable]()
+
+    private[this] val quiescence = new CountDownLatch(1)
+
+    private[this] var solved = false
+
+    /**
+     * Computes the jump functions starting with the problem's seeds; returns when all path
+     * edges are processed. If a flow or edge function throws an exception, the solver
+     * terminates (as soon as possible) and the exception is rethrown.
+     *
+     * @note   `solve` can only be called once.
+     */
+    def solve(): Unit = {
+        synchronized {
+            if (solved) throw new IllegalStateException("the problem was already solved")
+            solved = true
+        }
+
+        // the "guard" ensures that the solver does not terminate while seeding
+        pendingTasks.incrementAndGet()
+        try {
+            problem.seeds foreach { seed ⇒
+                val (method, fact) = seed
+                val state = stateOf(method)
+                if (state ne null) propagate(state, fact, 0, fact, EdgeFunction.identity)
+            }
+        } catch {
+            case t: Throwable ⇒ exception.compareAndSet(null, t)
+        } finally {
+            taskCompleted()
+        }
+        quiescence.await()
+        pool.shutdown()
+
+        val t = exception.get()
+        if (t ne null) throw t;
+    }
+
+    /**
+     * Returns the facts which hold at the statement with the given index; the zero fact is
+     * only included if the statement is reachable.
+     */
+    def facts(method: Method, index: Int): IntTrieSet = {
+        val state = methodStates.get(method)
+        if ((state eq null) || (state eq NoCode))
+            return IntTrieSet.empty;
+
+        var facts = IntTrieSet.empty
+        state.jumpFunctions.keySet.asScala foreach { pathEdge ⇒
+            if (pathEdgeIndex(pathEdge) == index) facts += pathEdgeTargetFact(pathEdge)
+        }
+        facts
+    }
+
+    /**
+     * Returns the jump function of the path edge `<d1> → <index,d2>` of the given method if
+     * the path edge exists.
+     */
+    def jumpFunction(method: Method, d1: Int, index: Int, d2: Int): Option[EdgeFunction[Value]] = {
+        val state = methodStates.get(method)
+        if ((state eq null) || (state eq NoCode))
+            None
+        else
+            Option(state.jumpFunctions.get(pathEdge(index, d1, d2)))
+    }
+
+    /**
+     * The methods which were reached by at least one fact.
+     */
+    def analyzedMethods: Iterator[Method] = {
+        val states = methodStates.values.iterator.asScala
+        states.filter(s ⇒ (s ne NoCode) && !s.jumpFunctions.isEmpty).map(_.method)
+    }
+
+    def pathEdgesCount: Int = methodStates.values.asScala.foldLeft(0)(_ + _.jumpFunctions.size)
+
+    // ---------------------------------------------------------------------------------------
+    //
+    // THE SOLVER
+    //
+    // ---------------------------------------------------------------------------------------
+
+    /** @return The state of the given method; `null` if the method has no body. */
+    private[this] def stateOf(method: Method): MethodState = {
+        var state = methodStates.get(method)
+        if (state eq null) {
+            val newState = problem.code(method) match {
+                case Some(code) ⇒ new MethodState(method, code)
+                case None       ⇒ NoCode
+            }
+            state = methodStates.putIfAbsent(method, newState)
+            if (state eq null) state = newState
+        }
+        if (state eq NoCode) null else state
+    }
+
+    private[this] def taskCompleted(): Unit = {
+        if (pendingTasks.decrementAndGet() == 0) quiescence.countDown()
+    }
+
+    private[this] def schedule(state: MethodState, pathEdge: Long): Unit = {
+        pendingTasks.incrementAndGet()
+        val task = new PathEdgeTask(state, pathEdge)
+        if (ForkJoinTask.getPool eq pool)
+            task.fork()
+        else
+            pool.execute(task)
+    }
+
+    /**
+     * Meets the current jump function of the given path edge with `f` and schedules the
+     * path edge if the jump function has changed.
+     */
+    private[this] def propagate(
+        state: MethodState,
+        d1:    Int,
+        index: Int,
+        d2:    Int,
+        f:     EdgeFunction[Value]
+    ): Unit = {
+        if (d1 < 0 || d1 > MaxFact || d2 < 0 || d2 > MaxFact)
+            throw new IllegalArgumentException(s"unsupported fact: $d1 or $d2 > $MaxFact")
+
+        val edge = pathEdge(index, d1, d2)
+        val jumpFunctions = state.jumpFunctions
+        while (true) {
+            val oldF = jumpFunctions.get(edge)
+            if (oldF eq null) {
+                if (jumpFunctions.putIfAbsent(edge, f) eq null) {
+                    schedule(state, edge)
+                    return ;
+                }
+            } else {
+                val newF = oldF.meetWith(f)
+                if (newF.equalTo(oldF))
+                    return ;
+                if (jumpFunctions.replace(edge, oldF, newF)) {
+                    schedule(state, edge)
+                    return ;
+                }
+            }
+        }
+    }
+
+    private[this] def process(state: MethodState, pathEdge: Long): Unit = {
+        val f = state.jumpFunctions.get(pathEdge)
+        val index = pathEdgeIndex(pathEdge)
+        val call = callOf(state.code.stmts(index))
+        if (call ne null)
+            processCall(state, pathEdge, f, call)
+        else if (problem.isExitStatement(state.method, state.code, index))
+            processExit(state, pathEdge)
+        else
+            processNormal(state, pathEdge, f)
+    }
+
+    private[this] def processNormal(state: MethodState, pathEdge: Long, f: EdgeFunction[Value]): Unit = {
+        val method = state.method
+        val code = state.code
+        val index = pathEdgeIndex(pathEdge)
+        val d1 = pathEdgeSourceFact(pathEdge)
+        val d2 = pathEdgeTargetFact(pathEdge)
+        code.cfg.foreachSuccessor(index) { successorIndex ⇒
+            problem.normalFlow(method, code, index, successorIndex, d2) foreach { d3 ⇒
+                val edgeF = problem.normalEdgeFunction(method, code, index, successorIndex, d2, d3)
+                propagate(state, d1, successorIndex, d3, f.composeWith(edgeF))
+            }
+        }
+    }
+
+    private[this] def processCall(
+        state:    MethodState,
+        pathEdge: Long,
+        f:        EdgeFunction[Value],
+        call:     Call[V]
+    ): Unit = {
+        val caller = state.method
+        val code = state.code
+        val callIndex = pathEdgeIndex(pathEdge)
+        val d1 = pathEdgeSourceFact(pathEdge)
+        val d2 = pathEdgeTargetFact(pathEdge)
+
+        var hasCallees = false
+        problem.callees(caller, code, callIndex, call) foreach { callee ⇒
+            val calleeState = stateOf(callee)
+            if (calleeState ne null) {
+                hasCallees = true
+                val calleeCode = calleeState.code
+                problem.callFlow(caller, code, callIndex, call, callee, calleeCode, d2) foreach { d3 ⇒
+                    // register first, then apply the existing summaries (see processExit)
+                    calleeState.incoming(d3).add((state, pathEdge))
+                    propagate(calleeState, d3, 0, d3, EdgeFunction.identity)
+                    calleeState.summaries(d3).asScala foreach { exitEdge ⇒
+                        applySummary(state, pathEdge, f, call, calleeState, exitEdge)
+                    }
+                }
+            }
+        }
+
+        code.cfg.foreachSuccessor(callIndex) { returnSiteIndex ⇒
+            problem.callToReturnFlow(
+                caller, code, callIndex, call, returnSiteIndex, d2, hasCallees
+            ) foreach { d3 ⇒
+                val edgeF = problem.callToReturnEdgeFunction(
+                    caller, code, callIndex, returnSiteIndex, d2, d3
+                )
+                propagate(state, d1, returnSiteIndex, d3, f.composeWith(edgeF))
+            }
+        }
+    }
+
+    private[this] def processExit(state: MethodState, pathEdge: Long): Unit = {
+        val d1 = pathEdgeSourceFact(pathEdge)
+        // register first, then apply the summary to the existing call sites (see processCall)
+        state.summaries(d1).add(pathEdge)
+        state.incoming(d1).asScala foreach { callSiteEdge ⇒
+            val (callerState, callerPathEdge) = callSiteEdge
+            val callerF = callerState.jumpFunctions.get(callerPathEdge)
+            val call = callOf(callerState.code.stmts(pathEdgeIndex(callerPathEdge)))
+            applySummary(callerState, callerPathEdge, callerF, call, state, pathEdge)
+        }
+    }
+
+    /**
+     * Propagates the facts which reach the exit statement of the callee (`exitEdge`) to the
+     * return sites of the call site (`callEdge`).
+     */
+    private[this] def applySummary(
+        callerState: MethodState,
+        callEdge:    Long,
+        callerF:     EdgeFunction[Value],
+        call:        Call[V],
+        calleeState: MethodState,
+        exitEdge:    Long
+    ): Unit = {
+        val caller = callerState.method
+        val callerCode = callerState.code
+        val callIndex = pathEdgeIndex(callEdge)
+        val d1 = pathEdgeSourceFact(callEdge)
+        val d2 = pathEdgeTargetFact(callEdge)
+        val callee = calleeState.method
+        val calleeCode = calleeState.code
+        val exitIndex = pathEdgeIndex(exitEdge)
+        val d3 = pathEdgeSourceFact(exitEdge)
+        val d4 = pathEdgeTargetFact(exitEdge)
+        val summaryF = calleeState.jumpFunctions.get(exitEdge)
+        val callF = problem.callEdgeFunction(caller, callerCode, callIndex, callee, d2, d3)
+        val f = callerF.composeWith(callF).composeWith(summaryF)
+        callerCode.cfg.foreachSuccessor(callIndex) { returnSiteIndex ⇒
+            problem.returnFlow(
+                callee, calleeCode, exitIndex, caller, callerCode, callIndex, call, returnSiteIndex, d4
+            ) foreach { d5 ⇒
+                val returnF = problem.returnEdgeFunction(
+                    callee, exitIndex, d4, caller, callIndex, returnSiteIndex, d5
+                )
+                propagate(callerState, d1, returnSiteIndex, d5, f.composeWith(returnF))
+            }
+        }
+    }
+
+}
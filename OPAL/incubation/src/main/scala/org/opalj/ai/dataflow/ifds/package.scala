@@ -0,0 +1,93 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+package dataflow
+
+import scala.annotation.switch
+
+import org.opalj.value.KnownTypedValue
+import org.opalj.tac.Assignment
+import org.opalj.tac.Call
+import org.opalj.tac.DUVar
+import org.opalj.tac.Expr
+import org.opalj.tac.ExprStmt
+import org.opalj.tac.NonVirtualFunctionCall
+import org.opalj.tac.NonVirtualMethodCall
+import org.opalj.tac.StaticFunctionCall
+import org.opalj.tac.StaticMethodCall
+import org.opalj.tac.Stmt
+import org.opalj.tac.TACMethodParameter
+import org.opalj.tac.VirtualFunctionCall
+import org.opalj.tac.VirtualMethodCall
+
+/**
+ * A multi-threaded solver for interprocedural, finite, distributive subset (IFDS) problems
+ * and for interprocedural distributive environment (IDE) problems over the three-address
+ * code ([[org.opalj.tac.TACode]]) of a project.
+ *
+ * ==Facts==
+ * Data-flow facts are represented using (non-negative) `Int` values; the fact `0` is the
+ * special ''zero'' fact (Λ) which always holds. A problem is responsible for mapping its
+ * facts to ints; e.g., by using the value origins of the tac-based representation.
+ *
+ * ==Path Edges==
+ * A path edge `<d1> → <index,d2>` of a method states that the fact `d2` holds at the
+ * statement with the given `index` if the fact `d1` holds at the method's entry. Path
+ * edges are encoded using a single `Long` value (see [[pathEdge]]); hence, a method may have
+ * at most 2^20 statements and at most 2^22 facts can be distinguished.
+ *
+ * @author agent
+ */
+package object ifds {
+
+    type V = DUVar[KnownTypedValue]
+
+    type TACode = org.opalj.tac.TACode[TACMethodParameter, V]
+
+    /** The fact which always holds; also known as Λ. */
+    final val ZeroFact = 0
+
+    final val StmtIndexBits = 20
+
+    final val FactBits = 22
+
+    final val MaxFact = (1 << FactBits) - 1
+
+    final val MaxStmtIndex = (1 << StmtIndexBits) - 1
+
+    /**
+     * Encodes the path edge `<d1> → <index,d2>` using a single long value.
+     */
+    def pathEdge(index: Int, d1: Int, d2: Int): Long = {
+        (index.toLong << (2 * FactBits)) | (d1.toLong << FactBits) | d2.toLong
+    }
+
+    def pathEdgeIndex(pathEdge: Long): Int = (pathEdge >>> (2 * FactBits)).toInt
+
+    def pathEdgeSourceFact(pathEdge: Long): Int = ((pathEdge >>> FactBits) & MaxFact).toInt
+
+    def pathEdgeTargetFact(pathEdge: Long): Int = (pathEdge & MaxFact).toInt
+
+    /**
+     * Returns the (non-invokedynamic) call performed by the given statement or `null` if the
+     * statement does not perform such a call.
+     */
+    def callOf(stmt: Stmt[V]): Call[V] = {
+        (stmt.astID: @switch) match {
+            case StaticMethodCall.ASTID | NonVirtualMethodCall.ASTID | VirtualMethodCall.ASTID ⇒
+                stmt.asMethodCall
+            case Assignment.ASTID ⇒ callOf(stmt.asAssignment.expr)
+            case ExprStmt.ASTID   ⇒ callOf(stmt.asExprStmt.expr)
+            case _                ⇒ null
+        }
+    }
+
+    private[this] def callOf(expr: Expr[V]): Call[V] = {
+        (expr.astID: @switch) match {
+            case StaticFunctionCall.ASTID |
+                NonVirtualFunctionCall.ASTID |
+                VirtualFunctionCall.ASTID ⇒ expr.asFunctionCall
+            case _ ⇒ null
+        }
+    }
+}
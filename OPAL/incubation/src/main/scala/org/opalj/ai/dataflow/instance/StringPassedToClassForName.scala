@@ -11,7 +11,7 @@ import org.opalj.value.IsReferenceValue
 import org.opalj.br._
 import org.opalj.br.analyses._
 import org.opalj.ai.dataflow.spec._
-import org.opalj.ai.dataflow.solver.NaiveSolver
+import org.opalj.ai.dataflow.solver.IFDSSolver
 
 /**
  * Searches for strings that are passed to `Class.forName(_)` calls.
@@ -146,12 +146,12 @@ object StringPassedToClassForName extends DataFlowProblemFactory with DataFlowPr
         theProject: Project[Source],
         theP:       P
     ): DataFlowProblem[Source, P] = {
-        object StringPassedToClassForNameWithSimpleSolver extends {
+        object StringPassedToClassForNameWithIFDSSolver extends {
             // early definition block
             final val project = theProject
             final val p = theP
-        } with StringPassedToClassForName[Source] with NaiveSolver[Source, P]
-        StringPassedToClassForNameWithSimpleSolver
+        } with StringPassedToClassForName[Source] with IFDSSolver[Source, P]
+        StringPassedToClassForNameWithIFDSSolver
     }
 
 }
@@ -0,0 +1,314 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+package dataflow
+package solver
+
+import org.opalj.collection.immutable.IntTrieSet
+import org.opalj.collection.immutable.IntTrieSet1
+import org.opalj.value.KnownTypedValue
+import org.opalj.value.ValueInformation
+import org.opalj.br.Method
+import org.opalj.tac.ArrayStore
+import org.opalj.tac.Assignment
+import org.opalj.tac.Call
+import org.opalj.tac.DefaultTACAIKey
+import org.opalj.tac.Expr
+import org.opalj.tac.PutField
+import org.opalj.tac.ReturnValue
+import org.opalj.tac.TACAI
+import org.opalj.ai.dataflow.ifds.IDESolver
+import org.opalj.ai.dataflow.ifds.IFDSProblem
+import org.opalj.ai.dataflow.ifds.TACode
+import org.opalj.ai.dataflow.ifds.V
+import org.opalj.ai.dataflow.ifds.ZeroFact
+import org.opalj.ai.dataflow.ifds.callOf
+
+/**
+ * Solves a data-flow problem by mapping it to an IFDS problem over the three-address code
+ * of the project's methods which is then solved by the (multi-threaded) [[IDESolver]].
+ *
+ * ==Facts==
+ * A fact states that the value defined by a specific def site (i.e., the value origin of
+ * the tac-based representation) is tainted. Given that the representation is in SSA form,
+ * a fact – once it holds – holds until the end of the method. The source values (see
+ * [[sourceValues]]) are mapped to the facts which hold at the entry of the respective methods.
+ *
+ * ==Taint Propagation==
+ *  - A value computed by an expression (but not a call) that uses a tainted value is tainted.
+ *  - The receiver of a field write is tainted if the specified `write` processors
+ *    ([[onWriteTaintProcessors]]) say so; storing a tainted value in an array taints the array.
+ *  - Tainted arguments are passed to the called methods (which are determined using the
+ *    project's class hierarchy); tainted return values and tainted parameters are passed back
+ *    to the caller.
+ *  - The specified `call` processors ([[onCallTaintProcessors]]) are evaluated at each
+ *    call site which uses a tainted value. Given that IFDS problems are distributive,
+ *    the processors are evaluated for each tainted value in isolation.
+ *
+ * The values stored in fields are not tracked.
+ *
+ * @author agent
+ */
+trait IFDSSolver[Source, Params] extends DataFlowProblem[Source, Params] { solver ⇒
+
+    type DomainValue = KnownTypedValue
+
+    protected[this] class TaintedValue(
+            override val domainValue: DomainValue
+    ) extends super.TaintedValue with TaintInformation {
+
+        def valueInformation: ValueInformation = domainValue
+
+    }
+
+    def ValueIsTainted: (DomainValue) ⇒ TaintInformation =
+        (value: DomainValue) ⇒ new TaintedValue(value)
+
+    /**
+     * The (tac-based) value origins of parameters are in the range [-256,-1].
+     */
+    final val FactOffset = 257
+
+    final def originToFact(origin: ValueOrigin): Int = origin + FactOffset
+
+    final def factToOrigin(fact: Int): ValueOrigin = fact - FactOffset
+
+    lazy val tacai: Method ⇒ TACode = project.get(DefaultTACAIKey)
+
+    private[this] def usesOrigin(expr: Expr[V], origin: ValueOrigin): Boolean = {
+        def isDefinedBy(expr: Expr[V]): Boolean = {
+            expr.isVar && expr.asVar.definedBy.contains(origin)
+        }
+        isDefinedBy(expr) || !expr.forallSubExpressions[V](e ⇒ !isDefinedBy(e))
+    }
+
+    private[this] def taintOf(expr: Expr[V], origin: ValueOrigin): TaintInformation = {
+        if (expr.isVar && expr.asVar.definedBy.contains(origin))
+            ValueIsTainted(expr.asVar.value)
+        else
+            NotTainted
+    }
+
+    private[this] def factsOf(expr: Expr[V]): IntTrieSet = {
+        if (expr.isVar)
+            expr.asVar.definedBy.map(o ⇒ originToFact(o))
+        else
+            IntTrieSet.empty
+    }
+
+    /**
+     * Maps the index of a call's parameter (including the receiver) to the value origin
+     * of the parameter in the called method.
+     */
+    private[this] def calleeParameterOrigin(callee: Method, parameterIndex: Int): ValueOrigin = {
+        if (callee.isStatic) -2 - parameterIndex else -1 - parameterIndex
+    }
+
+    object TaintProblem extends IFDSProblem {
+
+        override def seeds: Iterable[(Method, Int)] = {
+            for {
+                (method, origins) ← sourceValues().toSeq
+                code ← this.code(method).toSeq
+                origin ← origins
+                // the value origins of the abstract interpretation are pcs or parameter origins
+                tacOrigin = if (origin < 0) {
+                    val descriptor = method.descriptor
+                    TACAI.normalizeParameterOriginsMap(descriptor, method.isStatic)(-origin - 1)
+                } else {
+                    code.pcToIndex(origin) // -1 if the instruction is dead
+                }
+                if origin < 0 || tacOrigin >= 0
+            } yield {
+                (method, originToFact(tacOrigin))
+            }
+        }
+
+        override def code(method: Method): Option[TACode] = {
+            if (method.body.isDefined) Some(tacai(method)) else None
+        }
+
+        override def callees(
+            caller:    Method,
+            code:      TACode,
+            callIndex: Int,
+            call:      Call[V]
+        ): Iterable[Method] = {
+            call.resolveCallTargets(caller.classFile.thisType)(project, implicitly)
+        }
+
+        override def normalFlow(
+            method:         Method,
+            code:           TACode,
+            index:          Int,
+            successorIndex: Int,
+            fact:           Int
+        ): IntTrieSet = {
+            if (fact == ZeroFact)
+                return IntTrieSet1(fact);
+
+            val origin = factToOrigin(fact)
+            val stmt = code.stmts(index)
+            stmt.astID match {
+                case Assignment.ASTID if usesOrigin(stmt.asAssignment.expr, origin) ⇒
+                    IntTrieSet1(fact) + originToFact(index)
+
+                case ArrayStore.ASTID if usesOrigin(stmt.asArrayStore.value, origin) ⇒
+                    factsOf(stmt.asArrayStore.arrayRef) + fact
+
+                case PutField.ASTID ⇒
+                    val PutField(_, declaringClass, name, fieldType, objRef, value) = stmt.asPutField
+                    val fieldWrite = FieldWrite(
+                        declaringClass, name, fieldType,
+                        method,
+                        NotTainted,
+                        taintOf(value, origin),
+                        taintOf(objRef, origin)
+                    )
+                    val taintsReceiver = fieldWrite.value.isTainted() &&
+                        objRef.isVar &&
+                        onWriteTaintProcessors.exists { processor ⇒
+                            processor.isDefinedAt(fieldWrite) &&
+                                processor(fieldWrite)(objRef.asVar.value).isTainted()
+                        }
+                    if (taintsReceiver) factsOf(objRef) + fact else IntTrieSet1(fact)
+
+                case _ ⇒
+                    IntTrieSet1(fact)
+            }
+        }
+
+        override def callFlow(
+            caller:     Method,
+            callerCode: TACode,
+            callIndex:  Int,
+            call:       Call[V],
+            callee:     Method,
+            calleeCode: TACode,
+            fact:       Int
+        ): IntTrieSet = {
+            if (fact == ZeroFact)
+                return IntTrieSet.empty;
+
+            val origin = factToOrigin(fact)
+            var calleeFacts = IntTrieSet.empty
+            call.params.iterator.zipWithIndex foreach { e ⇒
+                val (param, parameterIndex) = e
+                if (usesOrigin(param, origin)) {
+                    calleeFacts += originToFact(calleeParameterOrigin(callee, parameterIndex))
+                }
+            }
+            calleeFacts
+        }
+
+        override def returnFlow(
+            callee:          Method,
+            calleeCode:      TACode,
+            exitIndex:       Int,
+            caller:          Method,
+            callerCode:      TACode,
+            callIndex:       Int,
+            call:            Call[V],
+            returnSiteIndex: Int,
+            fact:            Int
+        ): IntTrieSet = {
+            if (fact == ZeroFact)
+                return IntTrieSet.empty;
+
+            val origin = factToOrigin(fact)
+            var callerFacts = IntTrieSet.empty
+            val exitStmt = calleeCode.stmts(exitIndex)
+            if (exitStmt.astID == ReturnValue.ASTID &&
+                usesOrigin(exitStmt.asReturnValue.expr, origin) &&
+                callerCode.stmts(callIndex).astID == Assignment.ASTID) {
+                callerFacts += originToFact(callIndex)
+            }
+            if (origin < 0) {
+                // a parameter of the callee (which may have become tainted in the callee)
+                val parameterIndex = if (callee.isStatic) -2 - origin else -1 - origin
+                if (parameterIndex >= 0 && parameterIndex < call.params.size) {
+                    callerFacts = callerFacts ++ factsOf(call.params(parameterIndex))
+                }
+            }
+            callerFacts
+        }
+
+        override def callToReturnFlow(
+            caller:          Method,
+            code:            TACode,
+            callIndex:       Int,
+            call:            Call[V],
+            returnSiteIndex: Int,
+            fact:            Int,
+            hasCallees:      Boolean
+        ): IntTrieSet = {
+            if (fact == ZeroFact)
+                return IntTrieSet1(fact);
+
+            val origin = factToOrigin(fact)
+            val params = call.params
+            if (!params.exists(usesOrigin(_, origin)))
+                return IntTrieSet1(fact);
+
+            val isInstanceCall = params.size > call.descriptor.parametersCount
+            val (receiver, parameters) =
+                if (isInstanceCall)
+                    (params.head, params.tail)
+                else
+                    (null, params)
+            val invoke = Invoke(
+                call.declaringClass, call.name, call.descriptor,
+                caller,
+                NotTainted,
+                if (receiver ne null) taintOf(receiver, origin) else NotTainted,
+                parameters.map(taintOf(_, origin)).toIndexedSeq
+            )
+            var facts: IntTrieSet = IntTrieSet1(fact)
+            val stmt = code.stmts(callIndex)
+            onCallTaintProcessors foreach { processor ⇒
+                if (processor.isDefinedAt(invoke)) {
+                    val CallResult(receiverTaint, parametersTaint, resultTaint) = processor(invoke)
+                    if ((receiver ne null) && receiverTaint.isTainted()) {
+                        facts = facts ++ factsOf(receiver)
+                    }
+                    parametersTaint.iterator.zip(parameters.iterator) foreach { e ⇒
+                        val (parameterTaint, parameter) = e
+                        if (parameterTaint.isTainted()) facts = facts ++ factsOf(parameter)
+                    }
+                    if (stmt.astID == Assignment.ASTID &&
+                        resultTaint(stmt.asAssignment.targetVar.value).isTainted()) {
+                        facts += originToFact(callIndex)
+                    }
+                }
+            }
+            facts
+        }
+    }
+
+    /**
+     * Returns a textual description of each sink to which a tainted value is passed.
+     */
+    def doSolve(): String = {
+        val ifdsSolver = new IDESolver(TaintProblem)
+        ifdsSolver.solve()
+
+        val flows = for {
+            (method, pcs) ← sinkInstructions().toSeq
+            code ← TaintProblem.code(method).toSeq
+            pc ← pcs
+            index = code.pcToIndex(pc)
+            if index >= 0
+            call = callOf(code.stmts(index))
+            if call ne null
+            facts = ifdsSolver.facts(method, index)
+            if call.params.exists(param ⇒ factsOf(param).exists(facts.contains))
+        } yield {
+            s"${method.toJava}: a tainted value is passed to ${call.name} (pc=$pc)"
+        }
+
+        if (flows.isEmpty)
+            "no tainted value is passed to a sink"
+        else
+            flows.sorted.mkString("\n")
+    }
+}
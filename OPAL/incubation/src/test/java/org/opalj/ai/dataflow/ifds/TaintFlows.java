@@ -0,0 +1,107 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj.ai.dataflow.ifds;
+
+/**
+ * The methods which are analyzed by the {@code IDESolverTest}. The values returned by
+ * {@link #source()} are tainted; the methods which pass a tainted value to
+ * {@link #sink(Object)} have names that start with "flow".
+ *
+ * @author agent
+ */
+public class TaintFlows {
+
+    static Object source() {
+        return new Object();
+    }
+
+    static void sink(Object o) {
+        // nothing to do
+    }
+
+    static Object identity(Object o) {
+        return o;
+    }
+
+    static Object wrapper(Object o) {
+        return identity(o);
+    }
+
+    static Object untaint(Object o) {
+        return new Object();
+    }
+
+    static Object passThrough(Object o) {
+        Object r = o;
+        if (r == null)
+            return null;
+        return r;
+    }
+
+    static Object recursive(Object o, int n) {
+        if (n > 0)
+            return recursive(o, n - 1);
+        return o;
+    }
+
+    static Object even(Object o, int n) {
+        return n == 0 ? o : odd(o, n - 1);
+    }
+
+    static Object odd(Object o, int n) {
+        return n == 0 ? null : even(o, n - 1);
+    }
+
+    // INTRA-PROCEDURAL FLOWS
+
+    static void flowIntraProcedural(int i) {
+        Object o = source();
+        if (i > 0) {
+            i = i * 2;
+        } else {
+            i = -i;
+        }
+        sink(i > 10 ? o : null);
+    }
+
+    static void noFlowIntraProcedural(int i) {
+        Object o = source();
+        if (i > 0) {
+            o = new Object();
+        }
+        sink(i > 10 ? "" : null);
+    }
+
+    // INTER-PROCEDURAL FLOWS
+
+    static void flowInterProcedural() {
+        sink(identity(source()));
+    }
+
+    static void flowThroughNestedCalls() {
+        sink(wrapper(source()));
+    }
+
+    static void flowThroughSubsequentCalls() {
+        sink(identity(identity(source())));
+    }
+
+    static void noFlowInterProcedural() {
+        sink(untaint(source()));
+    }
+
+    static void flowToAllCallers() {
+        sink(passThrough(source()));
+        sink(passThrough(source()));
+        sink(passThrough(source()));
+    }
+
+    // RECURSION
+
+    static void flowThroughRecursion() {
+        sink(recursive(source(), 10));
+    }
+
+    static void flowThroughMutualRecursion() {
+        sink(even(source(), 3));
+    }
+}
@@ -0,0 +1,388 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package ai
+package dataflow
+package ifds
+
+import org.junit.runner.RunWith
+import org.scalatest.FunSpec
+import org.scalatest.Matchers
+import org.scalatest.junit.JUnitRunner
+
+import java.io.File
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.collection.JavaConverters._
+
+import org.opalj.collection.immutable.IntTrieSet
+import org.opalj.collection.immutable.IntTrieSet1
+import org.opalj.br.Method
+import org.opalj.br.analyses.Project
+import org.opalj.tac.Assignment
+import org.opalj.tac.Call
+import org.opalj.tac.DefaultTACAIKey
+import org.opalj.tac.Expr
+import org.opalj.tac.ReturnValue
+
+/**
+ * Tests the [[IDESolver]] using a taint analysis of the methods of the class `TaintFlows`.
+ *
+ * @author agent
+ */
+@RunWith(classOf[JUnitRunner])
+class IDESolverTest extends FunSpec with Matchers {
+
+    val project = Project(new File(classOf[IDESolverTest].getResource("TaintFlows.class").toURI))
+
+    val tacai: Method ⇒ TACode = project.get(DefaultTACAIKey)
+
+    val taintFlows = project.allProjectClassFiles.find(_.thisType.simpleName == "TaintFlows").get
+
+    def method(name: String): Method = taintFlows.findMethod(name).head
+
+    /** The methods which pass or which do not pass a tainted value to the sink. */
+    val testMethods: Seq[Method] = taintFlows.methods.filter(_.name.contains("low"))
+
+    // The (tac-based) value origins of parameters are in the range [-256,-1].
+    def originToFact(origin: Int): Int = origin + 257
+
+    def factsOf(expr: Expr[V]): IntTrieSet = {
+        if (expr.isVar) expr.asVar.definedBy.map(o ⇒ originToFact(o)) else IntTrieSet.empty
+    }
+
+    def usesFact(expr: Expr[V], fact: Int): Boolean = factsOf(expr).contains(fact)
+
+    /**
+     * A simple taint analysis: the values returned by `source` are tainted, the tainted
+     * values are passed to and returned by the called methods.
+     */
+    trait TaintFlowFunctions[Value] extends IDEProblem[Value] {
+
+        override def seeds: Iterable[(Method, Int)] = testMethods.map(m ⇒ (m, ZeroFact))
+
+        override def code(method: Method): Option[TACode] = {
+            if (method.body.isDefined) Some(tacai(method)) else None
+        }
+
+        override def callees(
+            caller:    Method,
+            code:      TACode,
+            callIndex: Int,
+            call:      Call[V]
+        ): Iterable[Method] = {
+            call.resolveCallTargets(caller.classFile.thisType)(project, implicitly)
+        }
+
+        override def normalFlow(
+            method:         Method,
+            code:           TACode,
+            index:          Int,
+            successorIndex: Int,
+            fact:           Int
+        ): IntTrieSet = {
+            val stmt = code.stmts(index)
+            if (fact != ZeroFact && stmt.astID == Assignment.ASTID &&
+                usesFact(stmt.asAssignment.expr, fact))
+                IntTrieSet1(fact) + originToFact(index)
+            else
+                IntTrieSet1(fact)
+        }
+
+        override def callFlow(
+            caller:     Method,
+            callerCode: TACode,
+            callIndex:  Int,
+            call:       Call[V],
+            callee:     Method,
+            calleeCode: TACode,
+            fact:       Int
+        ): IntTrieSet = {
+            var calleeFacts = IntTrieSet.empty
+            if (fact != ZeroFact) {
+                call.params.iterator.zipWithIndex foreach { e ⇒
+                    val (param, parameterIndex) = e
+                    if (usesFact(param, fact)) calleeFacts += originToFact(-2 - parameterIndex)
+                }
+            }
+            calleeFacts
+        }
+
+        override def returnFlow(
+            callee:          Method,
+            calleeCode:      TACode,
+            exitIndex:       Int,
+            caller:          Method,
+            callerCode:      TACode,
+            callIndex:       Int,
+            call:            Call[V],
+            returnSiteIndex: Int,
+            fact:            Int
+        ): IntTrieSet = {
+            val exitStmt = calleeCode.stmts(exitIndex)
+            if (exitStmt.astID == ReturnValue.ASTID &&
+                usesFact(exitStmt.asReturnValue.expr, fact) &&
+                callerCode.stmts(callIndex).astID == Assignment.ASTID)
+                IntTrieSet1(originToFact(callIndex))
+            else
+                IntTrieSet.empty
+        }
+
+        override def callToReturnFlow(
+            caller:          Method,
+            code:            TACode,
+            callIndex:       Int,
+            call:            Call[V],
+            returnSiteIndex: Int,
+            fact:            Int,
+            hasCallees:      Boolean
+        ): IntTrieSet = {
+            if (fact == ZeroFact && call.name == "source")
+                IntTrieSet1(fact) + originToFact(callIndex)
+            else
+                IntTrieSet1(fact)
+        }
+    }
+
+    class TaintProblem extends TaintFlowFunctions[Unit] with IFDSProblem
+
+    /** The number of calls of `sink` with a tainted value per method. */
+    def taintedSinkCalls(solver: IDESolver[_]): Map[String, Int] = {
+        val taintedSinkCalls = for {
+            method ← testMethods
+            code = tacai(method)
+            (stmt, index) ← code.stmts.iterator.zipWithIndex
+            call = callOf(stmt)
+            if (call ne null) && call.name == "sink"
+            facts = solver.facts(method, index)
+            if factsOf(call.params.head).exists(facts.contains)
+        } yield {
+            method.name
+        }
+        taintedSinkCalls.groupBy(n ⇒ n).map(e ⇒ (e._1, e._2.size))
+    }
+
+    def solve[Value](problem: IDEProblem[Value], parallelism: Int = 4): IDESolver[Value] = {
+        val solver = new IDESolver(problem, parallelism)
+        solver.solve()
+        solver
+    }
+
+    describe("the IDESolver solving an IFDS problem") {
+
+        lazy val solver = solve(new TaintProblem)
+
+        it("should find the intra-procedural flows") {
+            val flows = taintedSinkCalls(solver)
+            flows.get("flowIntraProcedural") should be(Some(1))
+            flows.get("noFlowIntraProcedural") should be(None)
+        }
+
+        it("should find the inter-procedural flows") {
+            val flows = taintedSinkCalls(solver)
+            flows.get("flowInterProcedural") should be(Some(1))
+            flows.get("flowThroughNestedCalls") should be(Some(1))
+            flows.get("flowThroughSubsequentCalls") should be(Some(1))
+            flows.get("noFlowInterProcedural") should be(None)
+        }
+
+        it("should terminate and find the flows through (mutually) recursive methods") {
+            val flows = taintedSinkCalls(solver)
+            flows.get("flowThroughRecursion") should be(Some(1))
+            flows.get("flowThroughMutualRecursion") should be(Some(1))
+        }
+
+        it("should find exactly the flows to the sinks of the methods named flow...") {
+            val flows = taintedSinkCalls(solver)
+            flows.keySet should be(testMethods.map(_.name).filter(_.startsWith("flow")).toSet)
+        }
+
+        it("should compute the same results using one or multiple threads") {
+            val sequentialSolver = solve(new TaintProblem, parallelism = 1)
+            sequentialSolver.pathEdgesCount should be(solver.pathEdgesCount)
+            testMethods foreach { m ⇒
+                tacai(m).stmts.indices foreach { index ⇒
+                    sequentialSolver.facts(m, index) should be(solver.facts(m, index))
+                }
+            }
+        }
+    }
+
+    describe("the IDESolver computing the summaries of methods") {
+
+        it("should reuse the summary of a method for all callers which pass the same fact") {
+            val passThrough = method("passThrough")
+            val evaluations = new ConcurrentHashMap[(Int, Int, Int), AtomicInteger]()
+            val problem = new TaintProblem {
+                override def normalFlow(
+                    method:         Method,
+                    code:           TACode,
+                    index:          Int,
+                    successorIndex: Int,
+                    fact:           Int
+                ): IntTrieSet = {
+                    if (method eq passThrough) {
+                        val key = (index, successorIndex, fact)
+                        evaluations.computeIfAbsent(key, _ ⇒ new AtomicInteger())
+                        evaluations.get(key).incrementAndGet()
+                    }
+                    super.normalFlow(method, code, index, successorIndex, fact)
+                }
+            }
+            val solver = solve(problem)
+
+            taintedSinkCalls(solver).get("flowToAllCallers") should be(Some(3))
+            evaluations should not be (empty)
+            // each path edge of passThrough is processed once, independent of the callers
+            evaluations.asScala.filter(_._2.get > 1) should be(empty)
+        }
+    }
+
+    describe("the IDESolver solving an IDE problem") {
+
+        /** Adds a constant to the value; the meet of two functions is the minimum. */
+        case class Add(constant: Int) extends EdgeFunction[Int] {
+
+            def apply(value: Int): Int = value + constant
+
+            // the identity function is equivalent to Add(0)
+            private[this] def constantOf(f: EdgeFunction[Int]): Int = {
+                f match { case Add(c) ⇒ c; case _ ⇒ 0 }
+            }
+
+            def composeWith(secondFunction: EdgeFunction[Int]): EdgeFunction[Int] = {
+                Add(constant + constantOf(secondFunction))
+            }
+
+            def meetWith(otherFunction: EdgeFunction[Int]): EdgeFunction[Int] = {
+                Add(Math.min(constant, constantOf(otherFunction)))
+            }
+
+            def equalTo(otherFunction: EdgeFunction[Int]): Boolean = {
+                constantOf(otherFunction) == constant
+            }
+        }
+
+        /**
+         * Counts the intra-procedural edges (using `normalWeight`) and the call edges
+         * (using `callWeight`) along the (shortest) paths.
+         */
+        class DistanceProblem(normalWeight: Int, callWeight: Int)
+            extends TaintFlowFunctions[Int] {
+
+            override def normalEdgeFunction(
+                method:         Method,
+                code:           TACode,
+                index:          Int,
+                successorIndex: Int,
+                fact:           Int,
+                successorFact:  Int
+            ): EdgeFunction[Int] = Add(normalWeight)
+
+            override def callToReturnEdgeFunction(
+                caller:          Method,
+                code:            TACode,
+                callIndex:       Int,
+                returnSiteIndex: Int,
+                fact:            Int,
+                returnSiteFact:  Int
+            ): EdgeFunction[Int] = Add(normalWeight)
+
+            override def callEdgeFunction(
+                caller:     Method,
+                callerCode: TACode,
+                callIndex:  Int,
+                callee:     Method,
+                fact:       Int,
+                calleeFact: Int
+            ): EdgeFunction[Int] = Add(callWeight)
+        }
+
+        it("should compose the edge functions along a path and meet them at joins") {
+            val solver = solve(new DistanceProblem(normalWeight = 1, callWeight = 0))
+            testMethods foreach { m ⇒
+                // the length of the shortest path from the first statement to each statement
+                val code = tacai(m)
+                val distances = Array.fill(code.stmts.length)(-1)
+                distances(0) = 0
+                var worklist = List(0)
+                while (worklist.nonEmpty) {
+                    val index = worklist.head
+                    worklist = worklist.tail
+                    if (!solver.problem.isExitStatement(m, code, index)) {
+                        code.cfg.foreachSuccessor(index) { successorIndex ⇒
+                            if (distances(successorIndex) == -1) {
+                                distances(successorIndex) = distances(index) + 1
+                                worklist :+= successorIndex
+                            }
+                        }
+                    }
+                }
+
+                distances.iterator.zipWithIndex foreach { e ⇒
+                    val (distance, index) = e
+                    val expected = if (distance == -1) None else Some(Add(distance))
+                    val jumpFunction =
+                        solver.jumpFunction(m, ZeroFact, index, ZeroFact).map(Add(0).composeWith)
+                    if (jumpFunction != expected)
+                        fail(s"${m.name}: $index: expected $expected; found $jumpFunction")
+                }
+            }
+        }
+
+        it("should compose the edge functions of the callers with the summaries of the callees") {
+            val solver = solve(new DistanceProblem(normalWeight = 0, callWeight = 1))
+            def sinkJumpFunctions(m: Method): Seq[Option[EdgeFunction[Int]]] = {
+                val code = tacai(m)
+                for {
+                    (stmt, index) ← code.stmts.toSeq.zipWithIndex
+                    call = callOf(stmt)
+                    if (call ne null) && call.name == "sink"
+                    fact ← factsOf(call.params.head).iterator
+                } yield {
+                    solver.jumpFunction(m, ZeroFact, index, fact).map(Add(0).composeWith)
+                }
+            }
+            sinkJumpFunctions(method("flowInterProcedural")) should be(Seq(Some(Add(1))))
+            sinkJumpFunctions(method("flowThroughNestedCalls")) should be(Seq(Some(Add(2))))
+            sinkJumpFunctions(method("flowThroughSubsequentCalls")) should be(Seq(Some(Add(2))))
+            sinkJumpFunctions(method("noFlowInterProcedural")) should be(Seq(None))
+        }
+    }
+
+    describe("the IDESolver") {
+
+        it("should rethrow the exception thrown by a flow function") {
+            val exception = new IllegalStateException("flow function failed")
+            val problem = new TaintProblem {
+                override def returnFlow(
+                    callee:          Method,
+                    calleeCode:      TACode,
+                    exitIndex:       Int,
+                    caller:          Method,
+                    callerCode:      TACode,
+                    callIndex:       Int,
+                    call:            Call[V],
+                    returnSiteIndex: Int,
+                    fact:            Int
+                ): IntTrieSet = {
+                    if (callee.name == "recursive") throw exception;
+
+                    super.returnFlow(
+                        callee, calleeCode, exitIndex,
+                        caller, callerCode, callIndex, call, returnSiteIndex,
+                        fact
+                    )
+                }
+            }
+            val solver = new IDESolver(problem, parallelism = 4)
+            val thrown = intercept[IllegalStateException] { solver.solve() }
+            thrown should be theSameInstanceAs (exception)
+        }
+
+        it("should only solve a problem once") {
+            val solver = solve(new TaintProblem)
+            intercept[IllegalStateException] { solver.solve() }
+        }
+    }
+}
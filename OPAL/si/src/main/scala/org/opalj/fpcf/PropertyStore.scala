@@ -116,7 +116,7 @@ abstract class PropertyStore {
     //
 
     /** Immutable map which stores the context objects given at initialization time. */
-    val ctx: Map[Class[_], AnyRef]
+    def ctx: Map[Class[_], AnyRef]
 
     /**
      * Looks up the context object of the given type. This is a comparatively expensive operation;
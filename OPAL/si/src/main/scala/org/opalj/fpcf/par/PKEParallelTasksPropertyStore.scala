@@ -5,6 +5,7 @@ package par
 
 import java.lang.System.identityHashCode
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicBoolean
 import java.util.concurrent.atomic.AtomicInteger
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.ConcurrentLinkedQueue
@@ -19,6 +20,7 @@ import scala.collection.{Map ⇒ SomeMap}
 
 import org.opalj.control.foreachValue
 import org.opalj.graphs
+import org.opalj.collection.immutable.IntTrieSet
 import org.opalj.collection.mutable.RefAccumulator
 import org.opalj.concurrent.NumberOfThreadsForCPUBoundTasks
 import org.opalj.log.LogContext
@@ -39,18 +41,33 @@ import org.opalj.fpcf.PropertyKey.isPropertyKeyForSimplePropertyBasedOnPKId
  * Entities are stored after computation.
  *
  * ==Implementation==
- * The idea is to use one specific thread (the `store updates thread`) for processing updates
- * to the store. This enables us to avoid any synchronization w.r.t. updating the
- * depender/dependee relations.
+ * The idea is to use specific threads (the `store updates threads`) for processing updates
+ * to the store. By default, only one such thread is used; this enables us to avoid any
+ * synchronization w.r.t. updating the depender/dependee relations.
+ *
+ * If `NumberOfThreadsForProcessingStoreUpdates` is larger than one, the entities are
+ * partitioned (based on their hash codes) into as many shards and each shard is owned by
+ * exactly one store updates thread. Only the owning thread updates the properties of the
+ * shard's entities and the dependers of the shard's entities. Whenever a result requires an
+ * action w.r.t. an entity of another shard (e.g., the registration of a depender with a dependee
+ * or the forwarding of a result computed in a cheap continuation), a respective store update is
+ * sent to the owning thread. A depender is always registered with all of its dependees using
+ * one [[DependerRegistration]] which is claimed atomically when the depender is notified;
+ * hence, a depender's continuation is triggered at most once even if its dependees are
+ * updated concurrently by different store updates threads. A claimed registration is removed
+ * from the dependers of its dependees by the store updates threads owning the dependees.
  *
  * We use `NumberOfThreadsForProcessingPropertyComputations` threads for processing the
- * scheduled computations.
+ * scheduled computations. The order in which the scheduled computations are processed is
+ * determined by the [[TasksScheduler]] created by the given [[TasksSchedulerFactory]].
  *
  * @author Michael Eichberg
  */
 final class PKEParallelTasksPropertyStore private (
         val ctx:                                              Map[Class[_], AnyRef],
         val NumberOfThreadsForProcessingPropertyComputations: Int,
+        val NumberOfThreadsForProcessingStoreUpdates:         Int,
+        val tasksSchedulerFactory:                            TasksSchedulerFactory,
         val tracer:                                           Option[PropertyStoreTracer]
 )(
         implicit
@@ -85,43 +102,50 @@ final class PKEParallelTasksPropertyStore private (
     private[this] val fastTrackPropertiesCounter: AtomicInteger = new AtomicInteger(0)
     def fastTrackPropertiesCount: Int = fastTrackPropertiesCounter.get
 
-    @volatile private[this] var redundantIdempotentResultsCounter = 0
-    def redundantIdempotentResultsCount: Int = redundantIdempotentResultsCounter
+    // The following counters are updated by the store updates threads; given that we may have
+    // multiple such threads, the counters have to be thread-safe.
+
+    private[this] val redundantIdempotentResultsCounter: AtomicInteger = new AtomicInteger(0)
+    def redundantIdempotentResultsCount: Int = redundantIdempotentResultsCounter.get
 
-    @volatile private[this] var uselessPartialResultComputationCounter = 0
-    def uselessPartialResultComputationCount: Int = uselessPartialResultComputationCounter
+    private[this] val uselessPartialResultComputationCounter: AtomicInteger = new AtomicInteger(0)
+    def uselessPartialResultComputationCount: Int = uselessPartialResultComputationCounter.get
 
-    private[this] var scheduledLazyTasksCounter = 0
-    def scheduledLazyTasksCount: Int = scheduledLazyTasksCounter
+    private[this] val scheduledLazyTasksCounter: AtomicInteger = new AtomicInteger(0)
+    def scheduledLazyTasksCount: Int = scheduledLazyTasksCounter.get
 
     private[this] val fallbacksUsedCounter: AtomicInteger = new AtomicInteger(0)
     def fallbacksUsedCount: Int = fallbacksUsedCounter.get
 
-    @volatile private[this] var scheduledOnUpdateComputationsCounter = 0
-    def scheduledOnUpdateComputationsCount: Int = scheduledOnUpdateComputationsCounter
+    private[this] val scheduledOnUpdateComputationsCounter: AtomicInteger = new AtomicInteger(0)
+    def scheduledOnUpdateComputationsCount: Int = scheduledOnUpdateComputationsCounter.get
 
-    @volatile private[this] var scheduledDependeeUpdatesCounter = 0
+    private[this] val scheduledDependeeUpdatesCounter: AtomicInteger = new AtomicInteger(0)
     /** Computations of dependees which are scheduled immediately. */
-    def scheduledDependeeUpdatesCount: Int = scheduledDependeeUpdatesCounter
+    def scheduledDependeeUpdatesCount: Int = scheduledDependeeUpdatesCounter.get
 
-    @volatile private[this] var directDependerOnUpdateComputationsCounter = 0
+    private[this] val directDependerOnUpdateComputationsCounter: AtomicInteger = new AtomicInteger(0)
     /** Computations which are executed immediately and which are not scheduled. */
-    def directDependerOnUpdateComputationsCount: Int = directDependerOnUpdateComputationsCounter
+    def directDependerOnUpdateComputationsCount: Int = directDependerOnUpdateComputationsCounter.get
 
-    @volatile private[this] var directDependeeUpdatesCounter = 0
-    def directDependeeUpdatesCount: Int = directDependeeUpdatesCounter
+    private[this] val directDependeeUpdatesCounter: AtomicInteger = new AtomicInteger(0)
+    def directDependeeUpdatesCount: Int = directDependeeUpdatesCounter.get
 
     def immediateOnUpdateComputationsCount: Int = {
-        directDependeeUpdatesCounter + scheduledDependeeUpdatesCounter
+        directDependeeUpdatesCount + scheduledDependeeUpdatesCount
     }
 
     private[this] val maxTasksQueueSize: AtomicInteger = new AtomicInteger(-1)
 
-    private[this] var updatesCounter = 0
-    private[this] var oneStepFinalUpdatesCounter = 0
+    private[this] val updatesCounter: AtomicInteger = new AtomicInteger(0)
+    private[this] val oneStepFinalUpdatesCounter: AtomicInteger = new AtomicInteger(0)
 
-    @volatile private[this] var resolvedCSCCsCounter = 0
-    def resolvedCSCCsCount: Int = resolvedCSCCsCounter
+    /** Store updates which were forwarded to the store updates thread owning the entity. */
+    private[this] val forwardedStoreUpdatesCounter: AtomicInteger = new AtomicInteger(0)
+    def forwardedStoreUpdatesCount: Int = forwardedStoreUpdatesCounter.get
+
+    private[this] val resolvedCSCCsCounter: AtomicInteger = new AtomicInteger(0)
+    def resolvedCSCCsCount: Int = resolvedCSCCsCounter.get
 
     @volatile private[this] var quiescenceCounter = 0
     def quiescenceCount: Int = quiescenceCounter
@@ -137,8 +161,8 @@ final class PKEParallelTasksPropertyStore private (
         statistics ++= List(
             "fast-track properties computations" -> fastTrackPropertiesCount,
             "computations of fallback properties (queried but not computed properties)" -> fallbacksUsedCount,
-            "property store updates" -> updatesCounter,
-            "computations which in one step computed a final result" -> oneStepFinalUpdatesCounter,
+            "property store updates" -> updatesCounter.get,
+            "computations which in one step computed a final result" -> oneStepFinalUpdatesCounter.get,
             "redundant fast-track/fallback property computations" -> redundantIdempotentResultsCount,
             "useless partial result computations" -> uselessPartialResultComputationCount,
 
@@ -148,6 +172,8 @@ final class PKEParallelTasksPropertyStore private (
             "direct evaluation of dependers (cheap property computation)" -> directDependerOnUpdateComputationsCount,
             "direct reevaluations of dependee due to updated dependers (cheap property computation)" -> directDependeeUpdatesCount,
 
+            "store updates forwarded to the store updates thread owning the entity" -> forwardedStoreUpdatesCount,
+
             "number of times the store reached quiescence" -> quiescenceCount,
             "resolved cSCCs" -> resolvedCSCCsCount
         )
@@ -197,17 +223,94 @@ final class PKEParallelTasksPropertyStore private (
     @volatile private[this] var delayedPropertyKinds: Array[Boolean] = _ /*null*/
 
     // ---------------------------------------------------------------------------------------------
-    // The following three data-structures are never read or updated concurrently;
-    // they are only read/updated by the store updates thread.
+    // The following data-structures are organized based on the store updates threads first;
+    // i.e., the shard id is the index in the underlying array. They are only updated by the
+    // store updates thread owning the shard while it holds the shard's lock (see `shardLocks`);
+    // other threads only read them while holding the respective lock.
     //
-    private[this] val dependers: Array[AnyRefMap[Entity, AnyRefMap[SomeEPK, (OnUpdateContinuation, PropertyComputationHint)]]] = {
-        Array.fill(SupportedPropertyKinds) { AnyRefMap.empty }
+    private[this] final val StoreUpdatesShards = NumberOfThreadsForProcessingStoreUpdates
+
+    private[this] val shardLocks: Array[AnyRef] = Array.fill(StoreUpdatesShards)(new Object)
+
+    private[this] val dependers: Array[Array[AnyRefMap[Entity, AnyRefMap[SomeEPK, DependerRegistration]]]] = {
+        Array.fill(StoreUpdatesShards, SupportedPropertyKinds) { AnyRefMap.empty }
     }
-    private[this] val dependees: Array[AnyRefMap[Entity, Traversable[SomeEOptionP]]] = {
-        Array.fill(SupportedPropertyKinds) { AnyRefMap.empty }
+    private[this] val triggeredLazyComputations: Array[Array[mutable.Set[Entity]]] = {
+        Array.fill(StoreUpdatesShards, SupportedPropertyKinds) { mutable.HashSet.empty }
     }
-    private[this] val triggeredLazyComputations: Array[mutable.Set[Entity]] = {
-        Array.fill(SupportedPropertyKinds) { mutable.HashSet.empty }
+
+    // Updated by the store updates thread owning the depender; the removal of a (claimed)
+    // registration may happen concurrently by the store updates thread owning the dependee.
+    private[this] val dependees: Array[ConcurrentHashMap[Entity, DependerRegistration]] = {
+        Array.fill(SupportedPropertyKinds) { new ConcurrentHashMap() }
+    }
+
+    /**
+     * The id of the shard – and, hence, of the store updates thread – which is responsible
+     * for the given entity.
+     */
+    @inline private[this] def shardOf(e: Entity): Int = {
+        if (StoreUpdatesShards == 1) {
+            0
+        } else {
+            val h = e.hashCode()
+            ((h ^ (h >>> 16)) & Int.MaxValue) % StoreUpdatesShards
+        }
+    }
+
+    /** The entity for which the given result stores a property; `null` for result containers. */
+    private[this] def entityOf(r: PropertyComputationResult): Entity = {
+        r.id match {
+            case Result.id                    ⇒ r.asInstanceOf[Result].e
+            case IntermediateResult.id        ⇒ r.asIntermediateResult.e
+            case SimplePIntermediateResult.id ⇒ r.asSimplePIntermediateResult.e
+            case PartialResult.id             ⇒ r.asInstanceOf[SomePartialResult].e
+            case ExternalResult.id            ⇒ r.asInstanceOf[ExternalResult].e
+            case IdempotentResult.id          ⇒ r.asInstanceOf[IdempotentResult].finalEP.e
+            case _ /*result containers*/      ⇒ null
+        }
+    }
+
+    private[this] def shardOf(update: StoreUpdate): Int = {
+        if (StoreUpdatesShards == 1)
+            return 0;
+
+        update match {
+            case NewProperty(r, _, _) ⇒
+                val e = entityOf(r)
+                if (e == null) 0 else shardOf(e)
+            case TriggeredLazyComputation(e, _, _, _) ⇒ shardOf(e)
+            case DependerRegistered(dependee, _)      ⇒ shardOf(dependee.e)
+            case DependersNotification(epk)           ⇒ shardOf(epk.e)
+            case DependerRegistrationCleared(_, id)   ⇒ id
+        }
+    }
+
+    /** `true` if the entity has dependers which are not yet notified. */
+    private[this] def hasDependers(e: Entity, pkId: Int): Boolean = {
+        val shardId = shardOf(e)
+        shardLocks(shardId).synchronized {
+            dependers(shardId)(pkId).get(e) match {
+                case Some(dependersOfEntity) ⇒ dependersOfEntity.valuesIterator.exists(!_.isClaimed)
+                case None                    ⇒ false
+            }
+        }
+    }
+
+    /** All entities of the given kind which have dependers that are not yet notified. */
+    private[this] def entitiesWithDependers(pkId: Int): List[Entity] = {
+        var entities = List.empty[Entity]
+        var shardId = 0
+        while (shardId < StoreUpdatesShards) {
+            shardLocks(shardId).synchronized {
+                dependers(shardId)(pkId) foreach { eDependers ⇒
+                    val (e, dependersOfEntity) = eDependers
+                    if (dependersOfEntity.valuesIterator.exists(!_.isClaimed)) entities ::= e
+                }
+            }
+            shardId += 1
+        }
+        entities
     }
 
     // ---------------------------------------------------------------------------------------------
@@ -248,56 +351,45 @@ final class PKEParallelTasksPropertyStore private (
         new ThreadGroup(s"OPAL - Property Store ${store.hashCode().toHexString} Threads")
     }
 
-    private[this] final val TaskQueues = 12
-    private[this] final val DefaultTaskQueue = 0
+    private[this] final val DefaultTaskPriority = 0
+
     /**
-     * Array of lists of scheduled (on update) property computations - they will be processed
-     * in parallel, giving lists in smaller arrays priority.
+     * Manages the scheduled (on update) property computations - they will be processed
+     * in parallel, giving computations with smaller dependee lists priority.
      */
-    private[this] val tasks = {
-        Array.fill(TaskQueues)(new ConcurrentLinkedQueue[QualifiedTask[_ <: Entity]]())
+    private[this] val tasksScheduler: TasksScheduler = {
+        tasksSchedulerFactory(NumberOfThreadsForProcessingPropertyComputations)
     }
-    private[this] val tasksSemaphore = new Semaphore(0)
 
     private[this] def appendTask(task: QualifiedTask[_ <: Entity]): Unit = {
         incOpenJobs()
-        tasks(DefaultTaskQueue).offer(task)
-        tasksSemaphore.release()
+        tasksScheduler.schedule(task, DefaultTaskPriority)
     }
 
-    private[this] def appendTask(queueId: Int, task: QualifiedTask[_ <: Entity]): Unit = {
+    private[this] def appendTask(priority: Int, task: QualifiedTask[_ <: Entity]): Unit = {
         incOpenJobs()
-        tasks(Math.min(queueId, TaskQueues - 1)).offer(task)
-        tasksSemaphore.release()
+        tasksScheduler.schedule(task, priority)
     }
 
     @volatile private[this] var tasksProcessors: ThreadGroup = {
 
-        @inline def processTask(): Unit = {
+        @inline def processTask(workerId: Int): Unit = {
             if (debug) {
                 var currentMaxTasksQueueSize = maxTasksQueueSize.get
-                var newMaxTasksQueueSize = Math.max(maxTasksQueueSize.get, tasksSemaphore.availablePermits())
+                var newMaxTasksQueueSize = Math.max(maxTasksQueueSize.get, tasksScheduler.tasksCount)
                 while (currentMaxTasksQueueSize < newMaxTasksQueueSize &&
                     !maxTasksQueueSize.compareAndSet(currentMaxTasksQueueSize, newMaxTasksQueueSize)) {
                     currentMaxTasksQueueSize = maxTasksQueueSize.get
-                    newMaxTasksQueueSize = Math.max(maxTasksQueueSize.get, tasksSemaphore.availablePermits())
+                    newMaxTasksQueueSize = Math.max(maxTasksQueueSize.get, tasksScheduler.tasksCount)
                 }
             }
 
-            tasksSemaphore.acquire()
-            // we know that we will eventually find a task in some queue
-            var task: QualifiedTask[_ <: Entity] = null
-            var qid = 0
-            do { task = tasks(qid).poll(); qid = (qid + 1) % TaskQueues } while (task eq null)
+            val task = tasksScheduler.nextTask(workerId)
             try {
                 // As a sideeffect of processing a task, we may have (implicit) calls to schedule
                 // and also implicit handleResult calls; both will increase openJobs.
-                if (task.isInitialTask) {
-                    task.apply()
-                } else {
-                    // TODO check if required; i.e., if we are forced or have dependees.
-                    task.apply()
-                }
+                // TODO check if required; i.e., if we are forced or have dependees.
+                task.apply()
             } finally {
                 decOpenJobs()
             }
@@ -309,7 +401,7 @@ final class PKEParallelTasksPropertyStore private (
                 override def run(): Unit = gatherExceptions {
                     do {
                         while (!store.isSuspended()) {
-                            processTask()
+                            processTask(workerId = i - 1)
                             if (exception != null)
                                 return ;
                         }
@@ -331,85 +423,125 @@ final class PKEParallelTasksPropertyStore private (
     // --------------------------------------------------------------------------------------------
 
     /**
-     * The jobs which update the store.
+     * The jobs which update the store; each store updates thread has its own queues.
      */
     private[this] final val StoreUpdateQueues = 5
     private[this] val storeUpdates = {
-        Array.fill(StoreUpdateQueues)(new ConcurrentLinkedQueue[StoreUpdate]())
+        Array.fill(StoreUpdatesShards, StoreUpdateQueues)(new ConcurrentLinkedQueue[StoreUpdate]())
     }
-    private[this] val storeUpdatesSemaphore = new Semaphore(0)
+    private[this] val storeUpdatesSemaphores = Array.fill(StoreUpdatesShards)(new Semaphore(0))
 
     private[this] def appendStoreUpdate(queueId: Int, update: StoreUpdate): Unit = {
         incOpenJobs()
-        storeUpdates(Math.min(queueId, StoreUpdateQueues - 1)).offer(update)
-        storeUpdatesSemaphore.release()
+        val shardId = shardOf(update)
+        storeUpdates(shardId)(Math.min(queueId, StoreUpdateQueues - 1)).offer(update)
+        storeUpdatesSemaphores(shardId).release()
+    }
+
+    /**
+     * Processes the given update; has to be called by the store updates thread owning the
+     * given shard while holding the shard's lock.
+     */
+    private[this] def processUpdate(update: StoreUpdate, shardId: Int): Unit = {
+        update match {
+            case NewProperty(r, forceEvaluation, forceDependersNotifications) ⇒
+                doHandleResult(r, forceEvaluation, forceDependersNotifications, shardId)
+
+            case TriggeredLazyComputation(e, pkId, triggeredByForce, lc) ⇒
+                // Recall, that -- once we have a final result -- all meta data
+                // is deleted; in particular information about triggeredLazyComputations.
+                val currentP = properties(pkId).get(e)
+                if (currentP == null) {
+                    val triggeredLazyComputationsOfShard = triggeredLazyComputations(shardId)
+                    if (triggeredLazyComputationsOfShard(pkId).add(e)) {
+                        if (tracer.isDefined) tracer.get.schedulingLazyComputation(e, pkId)
+
+                        val alsoComputedPKIds = simultaneouslyLazilyComputedPropertyKinds(pkId)
+                        alsoComputedPKIds foreach { computedPKId ⇒
+                            if (!triggeredLazyComputationsOfShard(computedPKId).add(e)) {
+                                throw new UnknownError(
+                                    "a simultaneously computed property kind was already triggered"
+                                )
+                            }
+                        }
+
+                        scheduledLazyTasksCounter.incrementAndGet()
+                        appendTask(new PropertyComputationTask[Entity](store, e, pkId, lc))
+                    }
+                } else if (triggeredByForce && currentP.isFinal) {
+                    // it maybe the case that an epk is already final; e.g., if a value
+                    // is first set/computed and then forced; in this case, we have
+                    // to ensure that the meta-information is really deleted
+                    forcedComputations(pkId).remove(e)
+                }
+
+            case DependerRegistered(dependee, registration) ⇒
+                val pcrs = RefAccumulator.empty[PropertyComputationResult]
+                registerDepender(dependee, registration, pcrs, shardId)
+                if (pcrs.nonEmpty) {
+                    doHandleResults(pcrs, forceEvaluation = false, Set.empty, shardId)
+                }
+
+            case DependersNotification(epk) ⇒
+                val pcrs = RefAccumulator.empty[PropertyComputationResult]
+                doHandleResults(pcrs, forceEvaluation = false, Set(epk), shardId)
+
+            case DependerRegistrationCleared(registration, _) ⇒
+                registration.dependees foreach { dependee ⇒
+                    if (shardOf(dependee.e) == shardId) removeDepender(dependee, registration, shardId)
+                }
+        }
     }
 
-    @volatile private[this] var storeUpdatesProcessor: Thread = {
+    @volatile private[this] var storeUpdatesProcessors: Array[Thread] = {
 
-        @inline def processUpdate(): Unit = {
-            storeUpdatesSemaphore.acquire()
+        @inline def processNextUpdate(shardId: Int): Unit = {
+            storeUpdatesSemaphores(shardId).acquire()
             // we know that we will eventually find a task...
+            val storeUpdatesOfShard = storeUpdates(shardId)
             var update: StoreUpdate = null
             var queueId = 0
             do {
-                update = storeUpdates(queueId).poll()
+                update = storeUpdatesOfShard(queueId).poll()
                 queueId = (queueId + 1) % StoreUpdateQueues
             } while (update eq null)
             try {
-                update match {
-                    case NewProperty(r, forceEvaluation, forceDependersNotifications) ⇒
-                        doHandleResult(r, forceEvaluation, forceDependersNotifications)
-
-                    case TriggeredLazyComputation(e, pkId, triggeredByForce, lc) ⇒
-                        // Recall, that -- once we have a final result -- all meta data
-                        // is deleted; in particular information about triggeredLazyComputations.
-                        val currentP = properties(pkId).get(e)
-                        if (currentP == null) {
-                            if (triggeredLazyComputations(pkId).add(e)) {
-                                if (tracer.isDefined) tracer.get.schedulingLazyComputation(e, pkId)
-
-                                val alsoComputedPKIds = simultaneouslyLazilyComputedPropertyKinds(pkId)
-                                alsoComputedPKIds foreach { computedPKId ⇒
-                                    if (!triggeredLazyComputations(computedPKId).add(e)) {
-                                        throw new UnknownError(
-                                            "a simultaneously computed property kind was already triggered"
-                                        )
-                                    }
-                                }
-
-                                scheduledLazyTasksCounter += 1
-                                appendTask(new PropertyComputationTask[Entity](store, e, pkId, lc))
-                            }
-                        } else if (triggeredByForce && currentP.isFinal) {
-                            // it maybe the case that an epk is already final; e.g., if a value
-                            // is first set/computed and then forced; in this case, we have
-                            // to ensure that the meta-information is really deleted
-                            forcedComputations(pkId).remove(e)
-                        }
-                }
+                shardLocks(shardId).synchronized { processUpdate(update, shardId) }
             } finally {
                 decOpenJobs()
             }
         }
 
-        val t = new Thread(propertyStoreThreads, "OPAL - Property Updates Processor") {
-            override def run(): Unit = gatherExceptions {
-                do {
-                    while (!store.isSuspended()) {
-                        if (exception != null)
-                            return ;
-                        processUpdate()
-                    }
-                    // The store is suspended; hence, we want to keep the thread alive.
-                    Thread.sleep(1000)
-                } while (exception == null)
+        Array.tabulate(StoreUpdatesShards) { shardId ⇒
+            val name =
+                if (StoreUpdatesShards == 1)
+                    "OPAL - Property Updates Processor"
+                else
+                    s"OPAL - Property Updates Processor ${shardId + 1}"
+            val t = new Thread(propertyStoreThreads, name) {
+                override def run(): Unit = gatherExceptions {
+                    do {
+                        while (!store.isSuspended()) {
+                            if (exception != null)
+                                return ;
+                            processNextUpdate(shardId)
+                        }
+                        // The store is suspended; hence, we want to keep the thread alive.
+                        Thread.sleep(1000)
+                    } while (exception == null)
+                }
             }
+            t.setDaemon(true)
+            t.setPriority(8)
+            t.start()
+            t
         }
-        t.setDaemon(true)
-        t.setPriority(8)
-        t.start()
-        t
+    }
+
+    /** `true` if the current thread is the store updates thread owning the given shard. */
+    private[this] def isStoreUpdatesProcessor(shardId: Int): Boolean = {
+        val storeUpdatesProcessors = this.storeUpdatesProcessors
+        storeUpdatesProcessors == null || Thread.currentThread() == storeUpdatesProcessors(shardId)
     }
 
     // --------------------------------------------------------------------------------------------
@@ -422,19 +554,19 @@ final class PKEParallelTasksPropertyStore private (
         try {
             f
         } catch {
-            case _: InterruptedException if storeUpdatesProcessor == null ⇒ // ignore; shutting down
-            case t: Throwable                                             ⇒ collectException(t)
+            case _: InterruptedException if storeUpdatesProcessors == null ⇒ // ignore; shutting down
+            case t: Throwable                                              ⇒ collectException(t)
         }
     }
 
     def shutdown(): Unit = this.synchronized {
-        if (storeUpdatesProcessor == null)
+        if (storeUpdatesProcessors == null)
             return ;
 
         // We use the "Thread"s' interrupt method to finally abort the threads...
-        val oldStoreUpdatesProcessor = storeUpdatesProcessor
-        storeUpdatesProcessor = null
-        oldStoreUpdatesProcessor.interrupt()
+        val oldStoreUpdatesProcessors = storeUpdatesProcessors
+        storeUpdatesProcessors = null
+        oldStoreUpdatesProcessors.foreach(_.interrupt())
         val oldTasksProcessors = tasksProcessors
         tasksProcessors = null
         oldTasksProcessors.interrupt()
@@ -748,7 +880,7 @@ final class PKEParallelTasksPropertyStore private (
                         // check if we can/should handle the computations immediately in
                         // this thread, because there is still enough to do for the other
                         // threads
-                        if (tasksSemaphore.availablePermits() > NumberOfThreadsForProcessingPropertyComputations * 2) {
+                        if (tasksScheduler.tasksCount > NumberOfThreadsForProcessingPropertyComputations * 2) {
                             directInTaskThreadPropertyComputationsCounter.incrementAndGet()
                             val (pc, e) = npc
                             handleResult(pc(e), forceEvaluation, Set.empty)
@@ -782,56 +914,118 @@ final class PKEParallelTasksPropertyStore private (
 
     /**
      * Removes the e/pk from `dependees` and also removes it from the dependers of the
-     * e/pk's dependees.
+     * e/pk's dependees; the registration is claimed and will therefore no longer trigger the
+     * depender. (See [[clearDependers]] for details.)
+     *
+     * @param shardId The id of the shard owned by the current thread or `-1` if the
+     *                current thread owns no shard.
+     * @return The number of dependees.
      */
-    private[this] def clearDependees(epk: SomeEPK): Int = {
-        val pkId = epk.pk.id
-        val dependeesOfEntity = this.dependees(pkId)
-        var dependeesCount = 0
-        for {
-            oldDependees ← dependeesOfEntity.remove(epk.e) // <= the old ones
-            EOptionP(oldDependeeE, oldDependeePK) ← oldDependees
-            dependersOfOldDependee ← dependers(oldDependeePK.id).get(oldDependeeE)
-        } {
-            dependeesCount += 1
-            dependersOfOldDependee -= epk
+    private[this] def clearDependees(epk: SomeEPK, shardId: Int): Int = {
+        val registration = dependees(epk.pk.id).remove(epk.e)
+        if (registration == null)
+            return 0;
+
+        registration.claim()
+        clearDependers(registration, shardId)
+        registration.dependees.size
+    }
+
+    /**
+     * Removes the (claimed) registration from the dependers of its dependees. The registration
+     * is removed immediately from the dependers of the dependees owned by the given shard; for
+     * all other dependees a respective store update is sent to the owning store updates threads.
+     *
+     * @param shardId The id of the shard owned by the current thread or `-1` if the
+     *                current thread owns no shard.
+     */
+    private[this] def clearDependers(registration: DependerRegistration, shardId: Int): Unit = {
+        var otherShardIds = IntTrieSet.empty
+        registration.dependees foreach { dependee ⇒
+            val dependeeShardId = shardOf(dependee.e)
+            if (dependeeShardId == shardId)
+                removeDepender(dependee, registration, shardId)
+            else
+                otherShardIds += dependeeShardId
+        }
+        otherShardIds foreach { otherShardId ⇒
+            val update = DependerRegistrationCleared(registration, otherShardId)
+            appendStoreUpdate(queueId = StoreUpdateQueues - 1, update)
+        }
+    }
+
+    /**
+     * Removes the (claimed) registration from the dependers of the given dependee which has to
+     * be owned by the given shard.
+     */
+    private[this] def removeDepender(
+        dependee:     SomeEOptionP,
+        registration: DependerRegistration,
+        shardId:      Int
+    ): Unit = {
+        val dependeeE = dependee.e
+        val dependersOfShard = dependers(shardId)(dependee.pk.id)
+        dependersOfShard.get(dependeeE) foreach { dependersOfDependee ⇒
+            val epk = registration.epk
+            // If the depender is registered anew, the registration is not yet claimed.
+            if (dependersOfDependee.get(epk).exists(_.isClaimed)) {
+                dependersOfDependee -= epk
+                if (dependersOfDependee.isEmpty) dependersOfShard -= dependeeE
+            }
+        }
+    }
+
+    /**
+     * Triggers the depender unless it was already triggered due to the update of another
+     * (concurrently updated) dependee.
+     */
+    private[this] def notifyDepender(
+        newEPS:       SomeEPS,
+        registration: DependerRegistration,
+        pcrs:         RefAccumulator[PropertyComputationResult],
+        shardId:      Int
+    ): Unit = {
+        if (!registration.claim())
+            return ;
+
+        val dependerEPK = registration.epk
+        if (tracer.isDefined) tracer.get.notification(newEPS, dependerEPK)
+
+        // Clear depender => dependee lists.
+        // Given that we will trigger the depender, we now have to remove the
+        // respective onUpdateContinuation from all dependees of the respective
+        // depender to avoid that the onUpdateContinuation is triggered multiple times!
+        dependees(dependerEPK.pk.id).remove(dependerEPK.e, registration)
+        clearDependers(registration, shardId)
+        val c = registration.c
+        if (registration.hint == CheapPropertyComputation) {
+            directDependerOnUpdateComputationsCounter.incrementAndGet()
+            pcrs += c(newEPS)
+        } else {
+            scheduledOnUpdateComputationsCounter.incrementAndGet()
+            val dependeesCount = registration.dependees.size
+            if (newEPS.isFinal) {
+                appendTask(dependeesCount, new OnFinalUpdateComputationTask(this, newEPS.asFinal, c))
+            } else {
+                appendTask(dependeesCount, new OnUpdateComputationTask(this, newEPS.toEPK, c))
+            }
         }
-        dependeesCount
     }
 
     private[this] def notifyDependers(
-        newEPS: SomeEPS,
-        pcrs:   RefAccumulator[PropertyComputationResult]
+        newEPS:  SomeEPS,
+        pcrs:    RefAccumulator[PropertyComputationResult],
+        shardId: Int
     ): Unit = {
         val e = newEPS.e
         val pkId = newEPS.pk.id
         val isFinal = newEPS.isFinal
         // 3.1. notify dependers
-        val oldDependersOption = this.dependers(pkId).remove(e)
+        val oldDependersOption = this.dependers(shardId)(pkId).remove(e)
         if (oldDependersOption.isDefined) {
             oldDependersOption.get foreach { oldDepender ⇒
-                val (oldDependerEPK, (c, onUpdateContinuationHint)) = oldDepender
-
-                if (tracer.isDefined) tracer.get.notification(newEPS, oldDependerEPK)
-
-                // Clear depender => dependee lists.
-                // Given that we will trigger the depender, we now have to remove the
-                // respective onUpdateContinuation from all dependees of the respective
-                // depender to avoid that the onUpdateContinuation is triggered multiple times!
-                val oldDependerDependeesCount = clearDependees(oldDependerEPK)
-                if (onUpdateContinuationHint == CheapPropertyComputation) {
-                    directDependerOnUpdateComputationsCounter += 1
-                    pcrs += c(newEPS)
-                } else {
-                    scheduledOnUpdateComputationsCounter += 1
-                    if (isFinal) {
-                        val t = new OnFinalUpdateComputationTask(this, newEPS.asFinal, c)
-                        appendTask(oldDependerDependeesCount, t)
-                    } else {
-                        val t = new OnUpdateComputationTask(this, newEPS.toEPK, c)
-                        appendTask(oldDependerDependeesCount, t)
-                    }
-                }
+                val (_ /*oldDependerEPK*/ , registration) = oldDepender
+                notifyDepender(newEPS, registration, pcrs, shardId)
             }
         }
 
@@ -839,12 +1033,37 @@ final class PKEParallelTasksPropertyStore private (
         if (isFinal) {
             if (tracer.isDefined) tracer.get.metaInformationDeleted(newEPS.asFinal)
             forcedComputations(pkId).remove(e)
-            triggeredLazyComputations(pkId).remove(e)
+            triggeredLazyComputations(shardId)(pkId).remove(e)
+        }
+    }
+
+    /**
+     * Registers the depender with the given dependee – which has to be owned by the given
+     * shard – unless the dependee was updated in the meantime; in the latter case the depender
+     * is notified immediately.
+     */
+    private[this] def registerDepender(
+        dependee:     SomeEOptionP,
+        registration: DependerRegistration,
+        pcrs:         RefAccumulator[PropertyComputationResult],
+        shardId:      Int
+    ): Unit = {
+        if (registration.isClaimed)
+            return ; // the depender was already triggered by another dependee
+
+        val dependeeE = dependee.e
+        val dependeePKId = dependee.pk.id
+        val currentDependee = properties(dependeePKId).get(dependeeE)
+        if (currentDependee != null && currentDependee != dependee) {
+            notifyDepender(currentDependee, registration, pcrs, shardId)
+        } else {
+            dependers(shardId)(dependeePKId).getOrElseUpdate(dependeeE, AnyRefMap.empty) +=
+                ((registration.epk, registration))
         }
     }
 
     private[this] def handleInitialProperty(e: Entity, pkId: Int, isFinal: Boolean): Unit = {
-        if (isFinal) oneStepFinalUpdatesCounter += 1
+        if (isFinal) oneStepFinalUpdatesCounter.incrementAndGet()
 
         val computationsToStart = this.triggeredComputations.get(pkId)
         if (computationsToStart ne null) {
@@ -859,7 +1078,8 @@ final class PKEParallelTasksPropertyStore private (
         newEPS:                              SomeEPS,
         isFinal:                             Boolean,
         notifyDependersAboutNonFinalUpdates: Boolean,
-        pcrs:                                RefAccumulator[PropertyComputationResult]
+        pcrs:                                RefAccumulator[PropertyComputationResult],
+        shardId:                             Int
     ): UpdateAndNotifyState = {
 
         // 3. handle relevant updates
@@ -868,7 +1088,7 @@ final class PKEParallelTasksPropertyStore private (
         var notificationRequired = relevantUpdate // required if relevant, but not notified...
         if (isFinal || (notifyDependersAboutNonFinalUpdates && relevantUpdate)) {
             notificationRequired = false
-            notifyDependers(newEPS, pcrs)
+            notifyDependers(newEPS, pcrs, shardId)
         }
 
         // 4. report result
@@ -915,12 +1135,13 @@ final class PKEParallelTasksPropertyStore private (
         lb:                                  Property,
         ub:                                  Property,
         notifyDependersAboutNonFinalUpdates: Boolean                                   = true,
-        pcrs:                                RefAccumulator[PropertyComputationResult]
+        pcrs:                                RefAccumulator[PropertyComputationResult],
+        shardId:                             Int
     ): UpdateAndNotifyState = {
-        updatesCounter += 1
+        updatesCounter.incrementAndGet()
         assert(
-            Thread.currentThread() == storeUpdatesProcessor || storeUpdatesProcessor == null,
-            "only to be called by the store updates processing thread"
+            isStoreUpdatesProcessor(shardId) && shardOf(e) == shardId,
+            "only to be called by the store updates processing thread owning the entity"
         )
 
         val pk = ub.key
@@ -948,7 +1169,7 @@ final class PKEParallelTasksPropertyStore private (
         }
 
         // 3. check if the property is updated and generate the corresponding result
-        handleUpdate(oldEPS, newEPS, isFinal, notifyDependersAboutNonFinalUpdates, pcrs)
+        handleUpdate(oldEPS, newEPS, isFinal, notifyDependersAboutNonFinalUpdates, pcrs, shardId)
     }
 
     /**
@@ -961,12 +1182,13 @@ final class PKEParallelTasksPropertyStore private (
         ub:                                  Property,
         isFinal:                             Boolean,
         notifyDependersAboutNonFinalUpdates: Boolean                                   = true,
-        pcrs:                                RefAccumulator[PropertyComputationResult]
+        pcrs:                                RefAccumulator[PropertyComputationResult],
+        shardId:                             Int
     ): UpdateAndNotifyState = {
-        updatesCounter += 1
+        updatesCounter.incrementAndGet()
         assert(
-            Thread.currentThread() == storeUpdatesProcessor || storeUpdatesProcessor == null,
-            "only to be called by the store updates processing thread"
+            isStoreUpdatesProcessor(shardId) && shardOf(e) == shardId,
+            "only to be called by the store updates processing thread owning the entity"
         )
 
         val pk = ub.key
@@ -991,28 +1213,29 @@ final class PKEParallelTasksPropertyStore private (
         }
 
         // 3. check if the property is updated and generate the corresponding result
-        handleUpdate(oldEPS, newEPS, isFinal, notifyDependersAboutNonFinalUpdates, pcrs)
+        handleUpdate(oldEPS, newEPS, isFinal, notifyDependersAboutNonFinalUpdates, pcrs, shardId)
     }
 
     private[this] def finalUpdate(
-        e:    Entity,
-        p:    Property,
-        pcrs: RefAccumulator[PropertyComputationResult]
+        e:       Entity,
+        p:       Property,
+        pcrs:    RefAccumulator[PropertyComputationResult],
+        shardId: Int
     ): UpdateAndNotifyState = {
         if (isPropertyKeyForSimplePropertyBasedOnPKId(p.key.id)) {
-            updateAndNotifyForSimpleP(e, p, isFinal = true, true /*actually irrelevant*/ , pcrs)
+            updateAndNotifyForSimpleP(e, p, isFinal = true, true /*actually irrelevant*/ , pcrs, shardId)
         } else {
-            updateAndNotifyForRegularP(e, p, p, true /*actually irrelevant*/ , pcrs)
+            updateAndNotifyForRegularP(e, p, p, true /*actually irrelevant*/ , pcrs, shardId)
         }
     }
 
     private[this] def assertNoDependees(e: Entity, pkId: Int): Unit = {
         // Given that "on notification" dependees are eagerly killed, clearing
         // dependees is not necessary!
-        if (debug && dependees(pkId).contains(e)) {
+        if (debug && dependees(pkId).containsKey(e)) {
             throw new IllegalStateException(
                 s"$e: ${properties(pkId).get(e)} has (unexpected) dependees: \n\t"+
-                    s"${dependees(pkId)(e).mkString(", ")}\n"+
+                    s"${dependees(pkId).get(e).dependees.mkString(", ")}\n"+
                     "this happens, e.g., if computations are started eagerly while "+
                     "also a respective lazy property computation is scheduled; "+
                     "in this case use force instead!"
@@ -1023,19 +1246,49 @@ final class PKEParallelTasksPropertyStore private (
     private[this] def doHandleResult(
         r:                                  PropertyComputationResult,
         forceEvaluation:                    Boolean,
-        initialForceDependersNotifications: Set[SomeEPK]
+        initialForceDependersNotifications: Set[SomeEPK],
+        shardId:                            Int
     ): Unit = {
+        doHandleResults(
+            RefAccumulator(r),
+            forceEvaluation,
+            initialForceDependersNotifications,
+            shardId
+        )
+    }
 
-        // Used to store immediate results, which need to be handled immediately
-        val pcrs: RefAccumulator[PropertyComputationResult] = RefAccumulator(r)
+    /**
+     * Processes the given results using the store updates thread owning the given shard.
+     * Results related to entities of other shards are forwarded to the respective store updates
+     * threads.
+     */
+    private[this] def doHandleResults(
+        pcrs:                               RefAccumulator[PropertyComputationResult],
+        forceEvaluation:                    Boolean,
+        initialForceDependersNotifications: Set[SomeEPK],
+        shardId:                            Int
+    ): Unit = {
+
+        // pcrs is used to store immediate results, which need to be handled immediately
         var forceDependersNotifications = initialForceDependersNotifications
 
         def processResult(r: PropertyComputationResult): Unit = {
             assert(
-                Thread.currentThread() == storeUpdatesProcessor || storeUpdatesProcessor == null,
-                "only to be called by the store updates processing thread"
+                isStoreUpdatesProcessor(shardId),
+                "only to be called by a store updates processing thread"
             )
 
+            if (StoreUpdatesShards > 1) {
+                val e = entityOf(r)
+                if (e != null && shardOf(e) != shardId) {
+                    // The pending notifications are handled along with the forwarded result.
+                    forwardedStoreUpdatesCounter.incrementAndGet()
+                    handleResult(r, forceEvaluation, forceDependersNotifications)
+                    forceDependersNotifications = Set.empty
+                    return ;
+                }
+            }
+
             if (tracer.isDefined) tracer.get.handlingResult(r, forceEvaluation, forceDependersNotifications)
 
             r.id match {
@@ -1076,17 +1329,21 @@ final class PKEParallelTasksPropertyStore private (
                     val Result(e, p) = r
                     val pk = p.key
                     val epk = EPK(e, pk)
-                    clearDependees(epk)
+                    clearDependees(epk, shardId)
                     forceDependersNotifications -= epk
-                    finalUpdate(e, p, pcrs = pcrs)
+                    finalUpdate(e, p, pcrs, shardId)
 
                 case MultiResult.id ⇒
                     val MultiResult(results) = r
                     results foreach { ep ⇒
-                        val epk = ep.toEPK
-                        clearDependees(epk)
-                        forceDependersNotifications -= epk
-                        finalUpdate(ep.e, ep.p, pcrs = pcrs)
+                        if (shardOf(ep.e) == shardId) {
+                            val epk = ep.toEPK
+                            clearDependees(epk, shardId)
+                            forceDependersNotifications -= epk
+                            finalUpdate(ep.e, ep.p, pcrs, shardId)
+                        } else {
+                            pcrs += Result(ep.e, ep.p) // <= will be forwarded
+                        }
                     }
 
                 case IdempotentResult.id ⇒
@@ -1094,13 +1351,13 @@ final class PKEParallelTasksPropertyStore private (
                     val pkId = p.key.id
                     val epk = ep.toEPK
                     val propertiesOfEntity = properties(pkId)
-                    assert(!dependees(pkId).contains(e))
+                    assert(!dependees(pkId).containsKey(e))
                     forceDependersNotifications -= epk
                     if (!propertiesOfEntity.containsKey(e)) {
-                        finalUpdate(e, p, pcrs)
+                        finalUpdate(e, p, pcrs, shardId)
                     } else {
                         /*we already have a value*/
-                        redundantIdempotentResultsCounter += 1
+                        redundantIdempotentResultsCounter.incrementAndGet()
                         if (debug) {
                             val oldEP = propertiesOfEntity.get(e)
                             if (oldEP != ep) {
@@ -1118,22 +1375,26 @@ final class PKEParallelTasksPropertyStore private (
                     if (newEPSOption.isDefined) {
                         val newEPS = newEPSOption.get
                         val epk = newEPS.toEPK
-                        if (clearDependees(epk) > 0) {
+                        if (clearDependees(epk, shardId) > 0) {
                             throw new IllegalStateException(
                                 s"partial result ($r) for property with dependees (and continuation function)"
                             )
                         }
                         forceDependersNotifications -= epk
                         if (isPropertyKeyForSimplePropertyBasedOnPKId(pk.id))
-                            updateAndNotifyForSimpleP(newEPS.e, newEPS.ub, isFinal = false, pcrs = pcrs)
+                            updateAndNotifyForSimpleP(
+                                newEPS.e, newEPS.ub, isFinal = false, pcrs = pcrs, shardId = shardId
+                            )
                         else
-                            updateAndNotifyForRegularP(newEPS.e, newEPS.lb, newEPS.ub, pcrs = pcrs)
+                            updateAndNotifyForRegularP(
+                                newEPS.e, newEPS.lb, newEPS.ub, pcrs = pcrs, shardId = shardId
+                            )
                     } else {
                         if (tracer.isDefined) {
                             val partialResult = r.asInstanceOf[SomePartialResult]
                             tracer.get.uselessPartialResult(partialResult, eOptionP)
                         }
-                        uselessPartialResultComputationCounter += 1
+                        uselessPartialResultComputationCounter.incrementAndGet()
                     }
 
                 case ExternalResult.id ⇒
@@ -1144,12 +1405,12 @@ final class PKEParallelTasksPropertyStore private (
                         if (oldP != null) {
                             throw new IllegalStateException(s"$e: already has a property $oldP")
                         }
-                        if (dependees(pkId).contains(e)) {
+                        if (dependees(pkId).containsKey(e)) {
                             throw new IllegalStateException(s"$e: is already computed/has dependees")
                         }
                     }
                     forceDependersNotifications -= EPK(e, p)
-                    finalUpdate(e, p, pcrs)
+                    finalUpdate(e, p, pcrs, shardId)
 
                 case CSCCsResult.id ⇒
                     val CSCCsResult(cSCCs) = r
@@ -1170,16 +1431,23 @@ final class PKEParallelTasksPropertyStore private (
                         // 2. update all cycle members and inform the dependers (which, due to step 1,
                         //    do not contain members of the cSCC.)
                         // 3. clean-up all temporary information
-                        cSCC.foreach(clearDependees)
+                        // (The members which are owned by other shards are forwarded; given
+                        // that their dependees were already cleared, they can no longer be
+                        // triggered by other members.)
+                        cSCC.foreach(epk ⇒ clearDependees(epk, shardId))
                         for (epk ← cSCC) {
                             val e = epk.e
                             val pkId = epk.pk.id
                             val eps = properties(pkId).get(e)
                             val newP = PropertyKey.resolveCycle(this, eps)
-                            forceDependersNotifications -= EPK(e, newP)
-                            finalUpdate(e, newP, pcrs)
+                            if (shardOf(e) == shardId) {
+                                forceDependersNotifications -= EPK(e, newP)
+                                finalUpdate(e, newP, pcrs, shardId)
+                            } else {
+                                pcrs += Result(e, newP) // <= will be forwarded
+                            }
                         }
-                        resolvedCSCCsCounter += 1
+                        resolvedCSCCsCounter.incrementAndGet()
                     }
 
                 case IntermediateResult.id ⇒
@@ -1219,7 +1487,8 @@ final class PKEParallelTasksPropertyStore private (
                             val updateAndNotifyState = updateAndNotifyForRegularP(
                                 e, lb, ub,
                                 notifyDependersAboutNonFinalUpdates = false,
-                                pcrs
+                                pcrs,
+                                shardId
                             )
                             if (updateAndNotifyState.isNotificationRequired) {
                                 forceDependersNotifications += epk
@@ -1231,11 +1500,11 @@ final class PKEParallelTasksPropertyStore private (
                                 )
 
                             if (onUpdateContinuationHint == CheapPropertyComputation) {
-                                directDependeeUpdatesCounter += 1
+                                directDependeeUpdatesCounter.incrementAndGet()
                                 // we want to avoid potential stack-overflow errors...
                                 pcrs += c(currentDependee)
                             } else {
-                                scheduledDependeeUpdatesCounter += 1
+                                scheduledDependeeUpdatesCounter.incrementAndGet()
                                 if (currentDependee.isFinal) {
                                     val t = ImmediateOnFinalUpdateComputationTask(
                                         store,
@@ -1268,20 +1537,13 @@ final class PKEParallelTasksPropertyStore private (
                     // otherwise we would have had an early return
 
                     // 2.1.  Update the value (trigger dependers/clear old dependees).
-                    if (updateAndNotifyForRegularP(e, lb, ub, pcrs = pcrs).areDependersNotified) {
+                    if (updateAndNotifyForRegularP(e, lb, ub, pcrs = pcrs, shardId = shardId).areDependersNotified) {
                         forceDependersNotifications -= epk
                     }
 
                     // 2.2.  The most current value of every dependee was taken into account
                     //       register with new (!) dependees.
-                    this.dependees(pkId).put(e, seenDependees)
-                    val dependency = (epk, (c, onUpdateContinuationHint))
-                    seenDependees foreach { dependee ⇒
-                        val dependeeE = dependee.e
-                        val dependeePKId = dependee.pk.id
-                        dependers(dependeePKId).getOrElseUpdate(dependeeE, AnyRefMap.empty) +=
-                            dependency
-                    }
+                    registerWithDependees(epk, seenDependees, c, onUpdateContinuationHint)
 
                 case SimplePIntermediateResult.id ⇒
                     // TODO Unify handling with IntermediateResult (avoid code duplication)
@@ -1321,7 +1583,8 @@ final class PKEParallelTasksPropertyStore private (
                             val updateAndNotifyState = updateAndNotifyForSimpleP(
                                 e, ub, false,
                                 notifyDependersAboutNonFinalUpdates = false,
-                                pcrs
+                                pcrs,
+                                shardId
                             )
                             if (updateAndNotifyState.isNotificationRequired) {
                                 forceDependersNotifications += epk
@@ -1331,11 +1594,11 @@ final class PKEParallelTasksPropertyStore private (
                                 tracer.get.immediateDependeeUpdate(e, pk, seenDependee, currentDependee, updateAndNotifyState)
 
                             if (onUpdateContinuationHint == CheapPropertyComputation) {
-                                directDependeeUpdatesCounter += 1
+                                directDependeeUpdatesCounter.incrementAndGet()
                                 // we want to avoid potential stack-overflow errors...
                                 pcrs += c(currentDependee)
                             } else {
-                                scheduledDependeeUpdatesCounter += 1
+                                scheduledDependeeUpdatesCounter.incrementAndGet()
                                 if (currentDependee.isFinal) {
                                     val t = ImmediateOnFinalUpdateComputationTask(
                                         store,
@@ -1368,20 +1631,35 @@ final class PKEParallelTasksPropertyStore private (
                     // otherwise we would have had an early return
 
                     // 2.1.  Update the value (trigger dependers/clear old dependees).
-                    if (updateAndNotifyForSimpleP(e, ub, isFinal = false, pcrs = pcrs).areDependersNotified) {
+                    if (updateAndNotifyForSimpleP(e, ub, isFinal = false, pcrs = pcrs, shardId = shardId).areDependersNotified) {
                         forceDependersNotifications -= epk
                     }
 
                     // 2.2.  The most current value of every dependee was taken into account
                     //       register with new (!) dependees.
-                    this.dependees(pkId).put(e, seenDependees)
-                    val dependency = (epk, (c, onUpdateContinuationHint))
-                    seenDependees foreach { dependee ⇒
-                        val dependeeE = dependee.e
-                        val dependeePKId = dependee.pk.id
-                        dependers(dependeePKId).getOrElseUpdate(dependeeE, AnyRefMap.empty) +=
-                            dependency
-                    }
+                    registerWithDependees(epk, seenDependees, c, onUpdateContinuationHint)
+            }
+        }
+
+        def registerWithDependees(
+            epk:                      SomeEPK,
+            seenDependees:            Traversable[SomeEOptionP],
+            c:                        OnUpdateContinuation,
+            onUpdateContinuationHint: PropertyComputationHint
+        ): Unit = {
+            val registration = new DependerRegistration(epk, seenDependees, c, onUpdateContinuationHint)
+            this.dependees(epk.pk.id).put(epk.e, registration)
+            val dependency = (epk, registration)
+            seenDependees foreach { dependee ⇒
+                val dependeeE = dependee.e
+                if (shardOf(dependeeE) == shardId) {
+                    // We already checked that the dependee was not updated in the meantime.
+                    dependers(shardId)(dependee.pk.id).getOrElseUpdate(dependeeE, AnyRefMap.empty) +=
+                        dependency
+                } else {
+                    forwardedStoreUpdatesCounter.incrementAndGet()
+                    appendStoreUpdate(queueId = 0, DependerRegistered(dependee, registration))
+                }
             }
         }
 
@@ -1392,10 +1670,15 @@ final class PKEParallelTasksPropertyStore private (
             if (forceDependersNotifications.nonEmpty) {
                 val epk = forceDependersNotifications.head
                 forceDependersNotifications = forceDependersNotifications.tail
-                val eps = properties(epk.pk.id).get(epk.e)
-                if (tracer.isDefined) tracer.get.delayedNotification(eps)
+                if (shardOf(epk.e) == shardId) {
+                    val eps = properties(epk.pk.id).get(epk.e)
+                    if (tracer.isDefined) tracer.get.delayedNotification(eps)
 
-                notifyDependers(eps, pcrs)
+                    notifyDependers(eps, pcrs, shardId)
+                } else {
+                    forwardedStoreUpdatesCounter.incrementAndGet()
+                    appendStoreUpdate(queueId = 0, DependersNotification(epk))
+                }
             }
         } while (forceDependersNotifications.nonEmpty || pcrs.nonEmpty)
     }
@@ -1466,7 +1749,7 @@ final class PKEParallelTasksPropertyStore private (
                         !delayedPropertyKinds(pkId)) {
                         // Iterate over all entities which have NO simple properties and use the
                         // "notComputedProperty".
-                        val dependersOfEntity = dependers(pkId).keys
+                        val dependersOfEntity = entitiesWithDependers(pkId)
                         val propertiesOfEntity = properties(pkId)
                         dependersOfEntity foreach { e ⇒
                             if (propertiesOfEntity.get(e) == null) {
@@ -1486,11 +1769,11 @@ final class PKEParallelTasksPropertyStore private (
                 while (pkId < maxPKIndex) {
                     if (isPropertyKeyForSimplePropertyBasedOnPKId(pkId) &&
                         !delayedPropertyKinds(pkId)) {
-                        val dependersOfEntity = dependers(pkId)
+                        val dependersOfEntity = entitiesWithDependers(pkId)
                         val propertiesOfEntity = properties(pkId)
                         // Iterate over all entities which have NON-FINAL simple properties
                         // and commit the current property extension.
-                        dependersOfEntity.keys foreach { e ⇒
+                        dependersOfEntity foreach { e ⇒
                             val propertyOfEntity = propertiesOfEntity.get(e)
                             if (propertyOfEntity != null && propertyOfEntity.isRefinable) {
                                 // ... we don't do cycle resolution, we just commit all values.
@@ -1498,7 +1781,7 @@ final class PKEParallelTasksPropertyStore private (
                                 // dependencies on the dependees.
                                 val epk: SomeEPK = EPK(e, new PropertyKey[Property](pkId))
                                 entitiesWithSimplePropertiesToBeCommitted ::= epk
-                                clearDependees(epk)
+                                clearDependees(epk, shardId = -1)
                                 continueComputation = true
                             }
                         }
@@ -1522,9 +1805,9 @@ final class PKEParallelTasksPropertyStore private (
                 var pkId = 0
                 while (pkId < maxPKIndex) {
                     if (!delayedPropertyKinds(pkId)) {
-                        val dependersOfEntity = dependers(pkId)
+                        val dependersOfEntity = entitiesWithDependers(pkId)
                         val propertiesOfEntity = properties(pkId)
-                        dependersOfEntity.keys foreach { e ⇒
+                        dependersOfEntity foreach { e ⇒
                             if (propertiesOfEntity.get(e) == null) {
                                 val reason = {
                                     if (previouslyComputedPropertyKinds(pkId) || computedPropertyKinds(pkId))
@@ -1556,9 +1839,8 @@ final class PKEParallelTasksPropertyStore private (
                 while (pkId < maxPKIndex) {
                     if (!delayedPropertyKinds(pkId)) {
                         val dependeesOfEntity = dependees(pkId)
-                        val dependersOfEntity = dependers(pkId)
                         this.properties(pkId) forEach { (e, eps) ⇒
-                            if (dependeesOfEntity.contains(e) && dependersOfEntity.contains(e)) {
+                            if (dependeesOfEntity.containsKey(e) && hasDependers(e, pkId)) {
                                 epks += eps.toEPK
                             }
                         }
@@ -1568,7 +1850,7 @@ final class PKEParallelTasksPropertyStore private (
 
                 val cSCCs = graphs.closedSCCs(
                     epks,
-                    (epk: SomeEPK) ⇒ dependees(epk.pk.id)(epk.e).map(_.toEPK)
+                    (epk: SomeEPK) ⇒ dependees(epk.pk.id).get(epk.e).dependees.map(_.toEPK)
                 )
                 if (cSCCs.nonEmpty) {
                     handleResult(CSCCsResult(cSCCs), forceEvaluation = false)
@@ -1589,7 +1871,7 @@ final class PKEParallelTasksPropertyStore private (
                     if (!delayedPropertyKinds(pkId)) {
                         properties(pkId) forEach { (e, eps) ⇒
                             // Check that we have no running computations.
-                            if (eps.isRefinable && dependeesOfEntity.get(e).isEmpty) {
+                            if (eps.isRefinable && !dependeesOfEntity.containsKey(e)) {
                                 toBeFinalized ::= eps
                             }
                         }
@@ -1643,6 +1925,72 @@ object PKEParallelTasksPropertyStore extends PropertyStoreFactory {
         Math.max(NumberOfThreadsForCPUBoundTasks, 1)
     }
 
+    /**
+     * The number of threads (and shards) used for processing the updates of the store.
+     * Using more than one thread is only meaningful if the property computations are cheap
+     * compared to the store updates and if many cores are available.
+     */
+    @volatile var NumberOfThreadsForProcessingStoreUpdates: Int = 1
+
+    /**
+     * The factory of the scheduler which determines the order in which the scheduled property
+     * computations are processed. Initialized using the configuration key
+     * [[TasksSchedulerFactory.TasksSchedulerKey]].
+     */
+    @volatile var DefaultTasksSchedulerFactory: TasksSchedulerFactory = {
+        TasksSchedulerFactory(BaseConfig.getString(TasksSchedulerFactory.TasksSchedulerKey))
+    }
+
+    /**
+     * Returns a factory which creates property stores which use the given tasks scheduler.
+     */
+    def apply(tasksSchedulerFactory: TasksSchedulerFactory): PropertyStoreFactory = {
+        new PropertyStoreFactory {
+            def apply(
+                context: PropertyStoreContext[_ <: AnyRef]*
+            )(
+                implicit
+                logContext: LogContext
+            ): PKEParallelTasksPropertyStore = {
+                val contextMap: Map[Class[_], AnyRef] = context.map(_.asTuple).toMap
+                new PKEParallelTasksPropertyStore(
+                    contextMap,
+                    NumberOfThreadsForProcessingPropertyComputations,
+                    Math.max(NumberOfThreadsForProcessingStoreUpdates, 1),
+                    tasksSchedulerFactory,
+                    tracer = None
+                )
+            }
+        }
+    }
+
+    /**
+     * Creates a new property store which uses the given tasks scheduler and the given
+     * numbers of threads. Unlike the other factory methods, this method does not use the
+     * global defaults [[NumberOfThreadsForProcessingPropertyComputations]] and
+     * [[NumberOfThreadsForProcessingStoreUpdates]]; hence, stores with different
+     * configurations can be created without affecting each other.
+     */
+    def apply(
+        tasksSchedulerFactory:                            TasksSchedulerFactory,
+        numberOfThreadsForProcessingPropertyComputations: Int,
+        numberOfThreadsForProcessingStoreUpdates:         Int
+    )(
+        context: PropertyStoreContext[_ <: AnyRef]*
+    )(
+        implicit
+        logContext: LogContext
+    ): PKEParallelTasksPropertyStore = {
+        val contextMap: Map[Class[_], AnyRef] = context.map(_.asTuple).toMap
+        new PKEParallelTasksPropertyStore(
+            contextMap,
+            Math.max(numberOfThreadsForProcessingPropertyComputations, 1),
+            Math.max(numberOfThreadsForProcessingStoreUpdates, 1),
+            tasksSchedulerFactory,
+            tracer = None
+        )
+    }
+
     def apply(
         context: PropertyStoreContext[_ <: AnyRef]*
     )(
@@ -1653,6 +2001,8 @@ object PKEParallelTasksPropertyStore extends PropertyStoreFactory {
         new PKEParallelTasksPropertyStore(
             contextMap,
             NumberOfThreadsForProcessingPropertyComputations,
+            Math.max(NumberOfThreadsForProcessingStoreUpdates, 1),
+            DefaultTasksSchedulerFactory,
             tracer = None
         )
     }
@@ -1667,6 +2017,26 @@ object PKEParallelTasksPropertyStore extends PropertyStoreFactory {
         new PKEParallelTasksPropertyStore(
             Map.empty,
             NumberOfThreadsForProcessingPropertyComputations,
+            Math.max(NumberOfThreadsForProcessingStoreUpdates, 1),
+            DefaultTasksSchedulerFactory,
+            Some(tracer)
+        )
+    }
+
+    def apply(
+        tracer:                                   PropertyStoreTracer,
+        numberOfThreadsForProcessingStoreUpdates: Int,
+        tasksSchedulerFactory:                    TasksSchedulerFactory = DefaultTasksSchedulerFactory
+    )(
+        implicit
+        logContext: LogContext
+    ): PKEParallelTasksPropertyStore = {
+
+        new PKEParallelTasksPropertyStore(
+            Map.empty,
+            NumberOfThreadsForProcessingPropertyComputations,
+            numberOfThreadsForProcessingStoreUpdates,
+            tasksSchedulerFactory,
             Some(tracer)
         )
     }
@@ -1682,6 +2052,8 @@ object PKEParallelTasksPropertyStore extends PropertyStoreFactory {
         new PKEParallelTasksPropertyStore(
             context,
             NumberOfThreadsForProcessingPropertyComputations,
+            Math.max(NumberOfThreadsForProcessingStoreUpdates, 1),
+            DefaultTasksSchedulerFactory,
             Some(tracer)
         )
     }
@@ -1705,3 +2077,46 @@ private[par] case class TriggeredLazyComputation[E <: Entity](
         pc:               PropertyComputation[E]
 ) extends StoreUpdate
 
+/**
+ * The depender has to be registered with the dependee which is owned by the store
+ * updates thread processing this update.
+ */
+private[par] case class DependerRegistered(
+        dependee:     SomeEOptionP,
+        registration: DependerRegistration
+) extends StoreUpdate
+
+/**
+ * The dependers of the given epk – which is owned by the store updates thread processing this
+ * update – have to be notified.
+ */
+private[par] case class DependersNotification(epk: SomeEPK) extends StoreUpdate
+
+/**
+ * The (claimed) registration has to be removed from the dependers of the dependees which are
+ * owned by the store updates thread processing this update; i.e., the shard with the given id.
+ */
+private[par] case class DependerRegistrationCleared(
+        registration: DependerRegistration,
+        shardId:      Int
+) extends StoreUpdate
+
+/**
+ * The registration of a depender with all of its dependees. A registration is claimed at most
+ * once; either when the depender is notified or when the depender's dependees are cleared.
+ * Hence, a depender's continuation function is triggered at most once even if the dependees
+ * are updated concurrently by different store updates threads.
+ */
+private[par] final class DependerRegistration(
+        val epk:       SomeEPK,
+        val dependees: Traversable[SomeEOptionP],
+        val c:         OnUpdateContinuation,
+        val hint:      PropertyComputationHint
+) extends AtomicBoolean(false) {
+
+    /** Returns `true` iff this call claimed the registration. */
+    def claim(): Boolean = compareAndSet(false, true)
+
+    def isClaimed: Boolean = get()
+}
+
@@ -26,7 +26,8 @@ trait PropertyStoreTracer {
     def forceForComputedEPK(e: Entity, pkId: Int): Unit
 
     //
-    // CALLED SEQUENTIALLY
+    // CALLED BY THE STORE UPDATES PROCESSOR THREAD(S)
+    // (Called concurrently if the store uses multiple store updates processor threads.)
     //
 
     /** Called if a lazy or fallback computation is eventually scheduled. */
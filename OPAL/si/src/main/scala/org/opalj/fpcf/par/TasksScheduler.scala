@@ -0,0 +1,126 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package fpcf
+package par
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Semaphore
+
+/**
+ * Manages the tasks (property computations) which are scheduled by the
+ * [[PKEParallelTasksPropertyStore]] and which are processed by the store's property computations
+ * processor threads (the ''workers'').
+ *
+ * The priority of a task is a non-negative value; tasks with a lower value should be
+ * processed first. The store uses the number of dependees of the depender as the priority to
+ * process computations with small dependee lists first.
+ *
+ * @note   Implementations have to be thread-safe.
+ *
+ * @author agent
+ */
+trait TasksScheduler {
+
+    /**
+     * Schedules the given task. Called concurrently by the store updates threads, the workers
+     * and the thread which sets up the computations.
+     */
+    def schedule(task: () ⇒ Unit, priority: Int): Unit
+
+    /**
+     * Returns the next task which should be processed by the worker with the given id;
+     * blocks until a task is available.
+     *
+     * @param  workerId The id of the calling worker `[0..numberOfWorkers-1]`; each worker
+     *         always uses the same id.
+     * @throws InterruptedException If the calling thread was interrupted.
+     */
+    def nextTask(workerId: Int): () ⇒ Unit
+
+    /**
+     * The (approximated) number of scheduled tasks which are not yet processed.
+     */
+    def tasksCount: Int
+
+}
+
+/**
+ * Creates [[TasksScheduler]]s.
+ */
+trait TasksSchedulerFactory {
+
+    /** The name which is used to select the scheduler using the configuration. */
+    def name: String
+
+    def apply(numberOfWorkers: Int): TasksScheduler
+
+}
+
+object TasksSchedulerFactory {
+
+    final val TasksSchedulerKey = "org.opalj.fpcf.par.PKEParallelTasksPropertyStore.TasksScheduler"
+
+    final val TasksSchedulerFactories: List[TasksSchedulerFactory] = List(
+        ConcurrentQueuesTasksScheduler,
+        WorkStealingTasksScheduler
+    )
+
+    /**
+     * Returns the factory with the given name.
+     *
+     * @throws IllegalArgumentException If no such factory exists.
+     */
+    def apply(name: String): TasksSchedulerFactory = {
+        TasksSchedulerFactories.find(_.name == name).getOrElse {
+            throw new IllegalArgumentException(
+                s"unknown tasks scheduler $name; supported: "+
+                    TasksSchedulerFactories.map(_.name).mkString(", ")
+            )
+        }
+    }
+
+}
+
+/**
+ * A tasks scheduler which uses one concurrent queue per priority (level) which are
+ * shared by all workers and a global semaphore to block the workers as long as no task is
+ * available.
+ */
+final class ConcurrentQueuesTasksScheduler private (
+        val TaskQueues: Int
+) extends TasksScheduler {
+
+    /**
+     * Array of lists of scheduled (on update) property computations - they will be processed
+     * in parallel, giving lists in smaller arrays priority.
+     */
+    private[this] val tasks = Array.fill(TaskQueues)(new ConcurrentLinkedQueue[() ⇒ Unit]())
+    private[this] val tasksSemaphore = new Semaphore(0)
+
+    override def schedule(task: () ⇒ Unit, priority: Int): Unit = {
+        tasks(Math.min(priority, TaskQueues - 1)).offer(task)
+        tasksSemaphore.release()
+    }
+
+    override def nextTask(workerId: Int): () ⇒ Unit = {
+        tasksSemaphore.acquire()
+        // we know that we will eventually find a task in some queue
+        var task: () ⇒ Unit = null
+        var qid = 0
+        do { task = tasks(qid).poll(); qid = (qid + 1) % TaskQueues } while (task eq null)
+        task
+    }
+
+    override def tasksCount: Int = tasksSemaphore.availablePermits()
+}
+
+object ConcurrentQueuesTasksScheduler extends TasksSchedulerFactory {
+
+    final val name = "ConcurrentQueues"
+
+    final val TaskQueues = 12
+
+    def apply(numberOfWorkers: Int): ConcurrentQueuesTasksScheduler = {
+        new ConcurrentQueuesTasksScheduler(TaskQueues)
+    }
+}
@@ -0,0 +1,141 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package fpcf
+package par
+
+import java.util.concurrent.ConcurrentLinkedDeque
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicReferenceArray
+import java.util.concurrent.atomic.LongAdder
+import java.util.concurrent.locks.LockSupport
+
+/**
+ * A ForkJoin-style work-stealing tasks scheduler.
+ *
+ * Every worker has its own deques (one per priority level). Tasks scheduled by a worker are
+ * pushed on the worker's own deque; tasks scheduled by other threads (in particular by the
+ * store updates threads) are distributed randomly across the workers' deques. A worker
+ * first takes the most recently pushed task from its own deque and – if its own deque is
+ * empty – steals the oldest task of another worker. The priority levels are always
+ * processed in order; i.e., a worker only takes a task with priority `p` if neither its own
+ * deques nor the deques of the other workers contain a task with a priority `< p`. This
+ * preserves the store's strategy to process computations with small dependee lists first.
+ *
+ * No global lock or semaphore is used; idle workers are parked and are unparked when new
+ * tasks are scheduled.
+ *
+ * @author agent
+ */
+final class WorkStealingTasksScheduler private (
+        val numberOfWorkers: Int,
+        val Levels:          Int
+) extends TasksScheduler {
+
+    private[this] val deques: Array[Array[ConcurrentLinkedDeque[() ⇒ Unit]]] = {
+        Array.fill(numberOfWorkers, Levels)(new ConcurrentLinkedDeque[() ⇒ Unit]())
+    }
+
+    // The id of the worker associated with the current thread; -1 if the thread is no worker.
+    private[this] val currentWorkerId: ThreadLocal[Integer] = new ThreadLocal[Integer]
+
+    private[this] val scheduledTasks = new LongAdder
+
+    private[this] val idleWorkers = new AtomicInteger(0)
+    private[this] val parkedWorkers = new AtomicReferenceArray[Thread](numberOfWorkers)
+
+    private[this] def workerId(): Int = {
+        val workerId = currentWorkerId.get
+        if (workerId eq null) -1 else workerId.intValue
+    }
+
+    override def schedule(task: () ⇒ Unit, priority: Int): Unit = {
+        val level = Math.min(priority, Levels - 1)
+        val ownWorkerId = workerId()
+        val targetWorkerId =
+            if (ownWorkerId >= 0)
+                ownWorkerId
+            else
+                ThreadLocalRandom.current().nextInt(numberOfWorkers)
+        scheduledTasks.increment()
+        deques(targetWorkerId)(level).offerLast(task)
+        if (idleWorkers.get > 0) unparkIdleWorker(targetWorkerId)
+    }
+
+    private[this] def unparkIdleWorker(preferredWorkerId: Int): Unit = {
+        var i = 0
+        while (i < numberOfWorkers) {
+            val workerId = (preferredWorkerId + i) % numberOfWorkers
+            val worker = parkedWorkers.get(workerId)
+            if ((worker ne null) && parkedWorkers.compareAndSet(workerId, worker, null)) {
+                LockSupport.unpark(worker)
+                return ;
+            }
+            i += 1
+        }
+    }
+
+    /** Returns the next task with the highest priority or `null` if no task is found. */
+    private[this] def findTask(workerId: Int): () ⇒ Unit = {
+        val ownDeques = deques(workerId)
+        var level = 0
+        while (level < Levels) {
+            var task = ownDeques(level).pollLast()
+            if (task ne null)
+                return task;
+
+            // let's try to steal a task with the same priority
+            var i = 1
+            while (i < numberOfWorkers) {
+                task = deques((workerId + i) % numberOfWorkers)(level).pollFirst()
+                if (task ne null)
+                    return task;
+                i += 1
+            }
+            level += 1
+        }
+        null
+    }
+
+    override def nextTask(workerId: Int): () ⇒ Unit = {
+        if (currentWorkerId.get eq null) currentWorkerId.set(workerId)
+
+        val thread = Thread.currentThread()
+        var task = findTask(workerId)
+        while (task eq null) {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+
+            // Before we park, we register this worker as idle and check (again) if we have a
+            // task; given that a scheduling thread first adds the task and then checks for idle
+            // workers, either we will find the task or the scheduling thread will unpark us.
+            parkedWorkers.set(workerId, thread)
+            idleWorkers.incrementAndGet()
+            task = findTask(workerId)
+            if (task eq null) {
+                // The timeout is just a safety net.
+                LockSupport.parkNanos(this, WorkStealingTasksScheduler.MaxParkNanos)
+            }
+            parkedWorkers.compareAndSet(workerId, thread, null)
+            idleWorkers.decrementAndGet()
+            if (task eq null) task = findTask(workerId)
+        }
+        scheduledTasks.decrement()
+        task
+    }
+
+    override def tasksCount: Int = scheduledTasks.intValue()
+}
+
+object WorkStealingTasksScheduler extends TasksSchedulerFactory {
+
+    final val name = "WorkStealing"
+
+    final val Levels = 12
+
+    final val MaxParkNanos = 1000L * 1000L * 10L // 10ms
+
+    def apply(numberOfWorkers: Int): WorkStealingTasksScheduler = {
+        new WorkStealingTasksScheduler(Math.max(numberOfWorkers, 1), Levels)
+    }
+}
@@ -0,0 +1,149 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj
+package fpcf
+package seq
+
+import java.util.IdentityHashMap
+
+import scala.collection.mutable
+
+/**
+ * Records the dependencies between the (root) computations and the E/PKs which they read and
+ * write; used by the [[PKESequentialPropertyStore]] to determine the transitively affected
+ * computations if some entities are invalidated.
+ *
+ * A root computation is a scheduled [[PropertyComputationTask]]; all continuations which are
+ * registered by a root computation – and by its continuations – are attributed to the root.
+ * In addition to the reads and writes, the reason why a root computation was scheduled is
+ * recorded; i.e., whether it was scheduled by another root computation (cf.
+ * [[IncrementalResult]]), was triggered by the first property of an E/PK or was scheduled
+ * lazily.
+ *
+ * @author agent
+ */
+private[seq] final class ComputationDependencies {
+
+    type Root = PropertyComputationTask[_ <: Entity]
+
+    private[this] val continuationRoots = new IdentityHashMap[OnUpdateContinuation, Root]()
+
+    private[this] val readers = mutable.HashMap.empty[SomeEPK, mutable.Set[Root]]
+    private[this] val reads = mutable.HashMap.empty[Root, mutable.Set[SomeEPK]]
+
+    private[this] val producers = mutable.HashMap.empty[SomeEPK, mutable.Set[Root]]
+    private[this] val produced = mutable.HashMap.empty[Root, mutable.Set[SomeEPK]]
+
+    private[this] val children = mutable.HashMap.empty[Root, mutable.Set[Root]]
+    private[this] val parents = mutable.HashMap.empty[Root, Root]
+
+    private[this] val triggeredRoots = mutable.HashMap.empty[SomeEPK, mutable.Set[Root]]
+    private[this] val triggeringEPKs = mutable.HashMap.empty[Root, SomeEPK]
+
+    private[this] val lazyRoots = mutable.HashSet.empty[Root]
+
+    private[this] def add[K, V](map: mutable.Map[K, mutable.Set[V]], k: K, v: V): Unit = {
+        map.getOrElseUpdate(k, mutable.HashSet.empty[V]) += v
+    }
+
+    private[this] def remove[K, V](map: mutable.Map[K, mutable.Set[V]], k: K, v: V): Unit = {
+        map.get(k) foreach { vs ⇒ vs -= v; if (vs.isEmpty) map -= k }
+    }
+
+    /** Returns the root computation which registered the given continuation or `null`. */
+    def rootOf(c: OnUpdateContinuation): Root = continuationRoots.get(c)
+
+    def recordContinuation(root: Root, c: OnUpdateContinuation): Unit = {
+        continuationRoots.put(c, root)
+    }
+
+    def recordRead(root: Root, epk: SomeEPK): Unit = {
+        add(readers, epk, root)
+        add(reads, root, epk)
+    }
+
+    def recordWrite(root: Root, epk: SomeEPK): Unit = {
+        add(producers, epk, root)
+        add(produced, root, epk)
+    }
+
+    def recordScheduledBy(parent: Root, root: Root): Unit = {
+        add(children, parent, root)
+        parents(root) = parent
+    }
+
+    def recordTriggeredBy(epk: SomeEPK, root: Root): Unit = {
+        add(triggeredRoots, epk, root)
+        triggeringEPKs(root) = epk
+    }
+
+    def recordLazy(root: Root): Unit = lazyRoots += root
+
+    /**
+     * Computes the E/PKs and root computations which are (transitively) affected by the
+     * given E/PKs and forgets the recorded dependencies of the affected root computations.
+     *
+     * An E/PK is affected if it is given or if it is written by an affected root computation.
+     * A root computation is affected if it reads or writes an affected E/PK, if it was
+     * triggered by an affected E/PK or if it was scheduled by an affected root computation.
+     *
+     * @return The affected E/PKs and those affected root computations which have to be
+     *         scheduled again; the other affected root computations are scheduled again
+     *         by an affected root computation, are triggered again, or are lazy computations.
+     */
+    def invalidate(epks: Traversable[SomeEPK]): (mutable.Set[SomeEPK], List[Root]) = {
+        val affectedEPKs = mutable.HashSet.empty[SomeEPK]
+        val affectedRoots = mutable.HashSet.empty[Root]
+        var epksWorklist: List[SomeEPK] = Nil
+        var rootsWorklist: List[Root] = Nil
+        def affectedEPK(epk: SomeEPK): Unit = {
+            if (affectedEPKs.add(epk)) epksWorklist ::= epk
+        }
+        def affectedRoot(root: Root): Unit = {
+            if (affectedRoots.add(root)) rootsWorklist ::= root
+        }
+
+        epks foreach affectedEPK
+        while (epksWorklist.nonEmpty || rootsWorklist.nonEmpty) {
+            while (epksWorklist.nonEmpty) {
+                val epk = epksWorklist.head
+                epksWorklist = epksWorklist.tail
+                readers.get(epk) foreach { _ foreach affectedRoot }
+                producers.get(epk) foreach { _ foreach affectedRoot }
+                triggeredRoots.get(epk) foreach { _ foreach affectedRoot }
+            }
+            while (rootsWorklist.nonEmpty) {
+                val root = rootsWorklist.head
+                rootsWorklist = rootsWorklist.tail
+                produced.get(root) foreach { _ foreach affectedEPK }
+                children.get(root) foreach { _ foreach affectedRoot }
+            }
+        }
+
+        var rescheduledRoots: List[Root] = Nil
+        affectedRoots foreach { root ⇒
+            val isRescheduled =
+                !lazyRoots.contains(root) &&
+                    !parents.get(root).exists(affectedRoots.contains) &&
+                    !triggeringEPKs.get(root).exists(affectedEPKs.contains)
+            if (isRescheduled) rescheduledRoots ::= root
+
+            reads.remove(root) foreach { _ foreach { epk ⇒ remove(readers, epk, root) } }
+            produced.remove(root) foreach { _ foreach { epk ⇒ remove(producers, epk, root) } }
+            children -= root
+            lazyRoots -= root
+            if (!isRescheduled) {
+                // the relation to the parent (or triggering E/PK) of a rescheduled root is kept
+                parents.remove(root) foreach { parent ⇒ remove(children, parent, root) }
+                triggeringEPKs.remove(root) foreach { epk ⇒ remove(triggeredRoots, epk, root) }
+            }
+        }
+        val continuationRootsIterator = continuationRoots.values.iterator
+        while (continuationRootsIterator.hasNext) {
+            if (affectedRoots.contains(continuationRootsIterator.next())) {
+                continuationRootsIterator.remove()
+            }
+        }
+
+        (affectedEPKs, rescheduledRoots)
+    }
+}
@@ -29,7 +29,7 @@ import org.opalj.fpcf.PropertyKey.fastTrackPropertyBasedOnPKId
  * @author Michael Eichberg
  */
 final class PKESequentialPropertyStore private (
-        val ctx: Map[Class[_], AnyRef]
+        initialCtx: Map[Class[_], AnyRef]
 )(
         implicit
         val logContext: LogContext
@@ -43,6 +43,32 @@ final class PKESequentialPropertyStore private (
 
     final def supportsFastTrackPropertyComputations: Boolean = true
 
+    /**
+     * If `true`, the dependencies between the computations and the properties are recorded
+     * to enable the [[invalidate]]ion of properties.
+     *
+     * Has to be set before the first computation is scheduled.
+     */
+    @volatile var incrementalComputations: Boolean = false
+
+    // --------------------------------------------------------------------------------------------
+    //
+    // CONTEXT
+    //
+    // --------------------------------------------------------------------------------------------
+
+    @volatile private[this] var theCtx: Map[Class[_], AnyRef] = initialCtx
+
+    def ctx: Map[Class[_], AnyRef] = theCtx
+
+    /**
+     * Replaces the context object of the given type; used to carry over the store – and its
+     * properties – when the context (e.g., the project) is incrementally updated.
+     */
+    private[fpcf] def updateContext[T <: AnyRef](key: Class[T], value: T): Unit = {
+        theCtx = theCtx.updated(key, value)
+    }
+
     // --------------------------------------------------------------------------------------------
     //
     // STATISTICS
@@ -125,6 +151,14 @@ final class PKESequentialPropertyStore private (
 
     private[this] var delayedPropertyKinds: Array[Boolean] = _ /*false*/ // has to be set before usage
 
+    // The dependencies between the computations and the properties; only recorded
+    // if incrementalComputations is true.
+    private[this] val dependencies = new ComputationDependencies
+
+    // The root computation which is currently executed; null if the dependencies are not
+    // recorded or if no computation is executed.
+    private[this] var currentRoot: PropertyComputationTask[_ <: Entity] = null
+
     override def isKnown(e: Entity): Boolean = ps.contains(e)
 
     override def hasProperty(e: Entity, pk: PropertyKind): Boolean = {
@@ -203,6 +237,8 @@ final class PKESequentialPropertyStore private (
         val pk = epk.pk
         val pkId = pk.id
 
+        if (currentRoot ne null) dependencies.recordRead(currentRoot, epk)
+
         ps(pkId).get(e) match {
             case None ⇒
                 // the entity is unknown ...
@@ -320,11 +356,23 @@ final class PKESequentialPropertyStore private (
         triggeredComputations(pk.id) += pc
     }
 
-    private[this] def triggerComputations(e: Entity, pkId: Int): Unit = {
-        val triggeredComputations = this.triggeredComputations(pkId)
+    private[this] def triggerComputations(e: Entity, pk: SomePropertyKey): Unit = {
+        val triggeredComputations = this.triggeredComputations(pk.id)
         if (triggeredComputations != null) {
-            triggeredComputations foreach (pc ⇒
-                scheduleEagerComputationForEntity(e)(pc.asInstanceOf[PropertyComputation[Entity]]))
+            triggeredComputations foreach { pc ⇒
+                val task = new PropertyComputationTask(
+                    this, e, pc.asInstanceOf[PropertyComputation[Entity]]
+                )
+                if (incrementalComputations) dependencies.recordTriggeredBy(EPK(e, pk), task)
+                scheduleTask(task)
+            }
+        }
+    }
+
+    private[this] def scheduleTask(task: PropertyComputationTask[_ <: Entity]): Unit = {
+        handleExceptions {
+            scheduledTasksCounter += 1
+            tasks.addLast(task)
         }
     }
 
@@ -332,18 +380,20 @@ final class PKESequentialPropertyStore private (
         e: E
     )(
         pc: PropertyComputation[E]
-    ): Unit = handleExceptions {
-        scheduledTasksCounter += 1
-        tasks.addLast(new PropertyComputationTask(this, e, pc))
+    ): Unit = {
+        val task = new PropertyComputationTask(this, e, pc)
+        if (incrementalComputations) dependencies.recordLazy(task)
+        scheduleTask(task)
     }
 
     override def scheduleEagerComputationForEntity[E <: Entity](
         e: E
     )(
         pc: PropertyComputation[E]
-    ): Unit = handleExceptions {
-        scheduledTasksCounter += 1
-        tasks.addLast(new PropertyComputationTask(this, e, pc))
+    ): Unit = {
+        val task = new PropertyComputationTask(this, e, pc)
+        if (currentRoot ne null) dependencies.recordScheduledBy(currentRoot, task)
+        scheduleTask(task)
     }
 
     private[this] def clearDependees(pValue: PropertyValue, pValueEPK: SomeEPK): Unit = {
@@ -383,12 +433,14 @@ final class PKESequentialPropertyStore private (
         if (debug && e == null) {
             throw new IllegalArgumentException("the entity must not be null");
         }
-        val pkId = ub.key.id
+        val pk = ub.key
+        val pkId = pk.id
+        if (currentRoot ne null) dependencies.recordWrite(currentRoot, EPK(e, pk))
         ps(pkId).get(e) match {
             case None ⇒
                 // The entity is unknown (=> there are no dependers/dependees):
                 ps(pkId).put(e, PropertyValue(lb, ub, newDependees))
-                triggerComputations(e, pkId)
+                triggerComputations(e, pk)
                 // registration with the new dependees is done when processing IntermediateResult
                 true
 
@@ -433,7 +485,7 @@ final class PKESequentialPropertyStore private (
                 val newPValueIsFinal = pValue.isFinal
 
                 if (oldLB == null || oldLB == PropertyIsLazilyComputed) {
-                    triggerComputations(e, pkId)
+                    triggerComputations(e, pk)
                 }
 
                 // 2. Clear old dependees (remove onUpdateContinuation from dependees)
@@ -556,6 +608,7 @@ final class PKESequentialPropertyStore private (
 
             case IntermediateResult.id ⇒
                 val IntermediateResult(e, lb, ub, newDependees, c, _) = r
+                if (currentRoot ne null) dependencies.recordContinuation(currentRoot, c)
 
                 def checkNonFinal(dependee: SomeEOptionP): Unit = {
                     if (dependee.isFinal) {
@@ -738,7 +791,20 @@ final class PKESequentialPropertyStore private (
 
             while (!tasks.isEmpty && !isSuspended) {
                 val task = tasks.pollFirst()
-                task.apply()
+                if (incrementalComputations) {
+                    currentRoot = task match {
+                        case task: PropertyComputationTask[_]      ⇒ task
+                        case OnUpdateComputationTask(_, _, c)      ⇒ dependencies.rootOf(c)
+                        case OnFinalUpdateComputationTask(_, _, c) ⇒ dependencies.rootOf(c)
+                    }
+                    try {
+                        task.apply()
+                    } finally {
+                        currentRoot = null
+                    }
+                } else {
+                    task.apply()
+                }
                 isSuspended = this.isSuspended()
             }
             if (tasks.isEmpty) quiescenceCounter += 1
@@ -929,6 +995,61 @@ final class PKESequentialPropertyStore private (
         }
     }
 
+    /**
+     * Invalidates all properties of the given entities – e.g., because the underlying code
+     * has changed – and all properties which (transitively) depend on them; this also
+     * includes final properties. The computations which computed the invalidated properties
+     * are scheduled again; i.e., to recompute the properties call [[waitOnPhaseCompletion]].
+     * Lazily computed properties are only recomputed when they are requested again.
+     *
+     * Invalidation is only possible if no computations are scheduled.
+     *
+     * The dependencies are recorded per root computation – i.e., per scheduled property
+     * computation including all its continuations – if [[incrementalComputations]] is `true`.
+     * Only the properties queried using `apply` are recorded as read; queries of
+     * the entities/properties (e.g., `entities(pk)`) are not tracked. Properties which are
+     * directly set by a client are invalidated, but need to be set again by the client.
+     *
+     * @note   Only this store supports incremental computations; hence, `invalidate` is
+     *         not part of the general [[PropertyStore]] API.
+     *
+     * @return The E/PKs of the invalidated properties.
+     */
+    def invalidate(es: Traversable[Entity]): Set[SomeEPK] = handleExceptions {
+        if (!incrementalComputations) {
+            throw new IllegalStateException("incremental computations are not enabled")
+        }
+        if (!tasks.isEmpty) {
+            throw new IllegalStateException(
+                "properties can only be invalidated as long as no tasks are scheduled"
+            )
+        }
+
+        val epks = for {
+            e ← es
+            pkId ← 0 to PropertyKey.maxId
+        } yield {
+            EPK(e, new PropertyKey[Property](pkId)): SomeEPK
+        }
+        val (affectedEPKs, rescheduledRoots) = dependencies.invalidate(epks)
+
+        // 1. clear the dependees of all affected properties (before the properties are
+        //    removed, because the dependees may also be affected)...
+        affectedEPKs foreach { epk ⇒
+            ps(epk.pk.id).get(epk.e) foreach { pValue ⇒
+                if (!pValue.isFinal) clearDependees(pValue, epk)
+            }
+        }
+        // 2. remove the properties; they are recomputed (or computed lazily) on demand...
+        var invalidatedEPKs = Set.empty[SomeEPK]
+        affectedEPKs foreach { epk ⇒
+            if (ps(epk.pk.id).remove(epk.e).nonEmpty) invalidatedEPKs += epk
+        }
+        // 3. schedule the affected computations again
+        rescheduledRoots foreach scheduleTask
+        invalidatedEPKs
+    }
+
     def shutdown(): Unit = {}
 }
 
@@ -27,3 +27,59 @@ class PKEParallelTasksPropertyStoreTestWithoutDebugging
     }
 
 }
+
+class PKEParallelTasksPropertyStoreWithShardedUpdatesTestWithDebugging
+    extends PropertyStoreTestWithDebugging(
+        List(DefaultPropertyComputation, CheapPropertyComputation)
+    ) {
+
+    def createPropertyStore(): PropertyStore = {
+        val ps = PKEParallelTasksPropertyStore(new RecordAllPropertyStoreTracer, 4)
+        ps.suppressError = true
+        ps
+    }
+
+}
+
+class PKEParallelTasksPropertyStoreWithShardedUpdatesTestWithoutDebugging
+    extends PropertyStoreTestWithoutDebugging(
+        List(DefaultPropertyComputation, CheapPropertyComputation)
+    ) {
+
+    def createPropertyStore(): PropertyStore = {
+        val ps = PKEParallelTasksPropertyStore(new RecordAllPropertyStoreTracer, 4)
+        ps.suppressError = true
+        ps
+    }
+
+}
+
+class PKEParallelTasksPropertyStoreWithWorkStealingTestWithDebugging
+    extends PropertyStoreTestWithDebugging(
+        List(DefaultPropertyComputation, CheapPropertyComputation)
+    ) {
+
+    def createPropertyStore(): PropertyStore = {
+        val ps = PKEParallelTasksPropertyStore(
+            new RecordAllPropertyStoreTracer, 1, WorkStealingTasksScheduler
+        )
+        ps.suppressError = true
+        ps
+    }
+
+}
+
+class PKEParallelTasksPropertyStoreWithWorkStealingTestWithoutDebugging
+    extends PropertyStoreTestWithoutDebugging(
+        List(DefaultPropertyComputation, CheapPropertyComputation)
+    ) {
+
+    def createPropertyStore(): PropertyStore = {
+        val ps = PKEParallelTasksPropertyStore(
+            new RecordAllPropertyStoreTracer, 1, WorkStealingTasksScheduler
+        )
+        ps.suppressError = true
+        ps
+    }
+
+}
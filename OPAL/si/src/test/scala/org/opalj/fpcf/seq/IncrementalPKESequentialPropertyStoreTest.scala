@@ -0,0 +1,221 @@
+/* BSD 2-Clause License - see OPAL/LICENSE for details. */
+package org.opalj.fpcf
+package seq
+
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+import org.scalatest.Matchers
+import org.scalatest.FunSpec
+
+import scala.collection.mutable
+
+import org.opalj.log.GlobalLogContext
+import org.opalj.fpcf.Marker.IsMarked
+import org.opalj.fpcf.Marker.MarkerKey
+import org.opalj.fpcf.Marker.NotMarked
+import org.opalj.fpcf.Palindromes.NoPalindrome
+import org.opalj.fpcf.Palindromes.NoSuperPalindrome
+import org.opalj.fpcf.Palindromes.Palindrome
+import org.opalj.fpcf.Palindromes.PalindromeKey
+import org.opalj.fpcf.Palindromes.SuperPalindrome
+import org.opalj.fpcf.Palindromes.SuperPalindromeKey
+
+/**
+ * Tests the invalidation and recomputation of properties using the sequential property store.
+ *
+ * @author agent
+ */
+@RunWith(classOf[JUnitRunner])
+class IncrementalPKESequentialPropertyStoreTest extends FunSpec with Matchers {
+
+    implicit val logContext = GlobalLogContext
+
+    /**
+     * The entities are the names of "files"; the "content" of a file is the string which is
+     * analyzed. The marker property of the entity "all" is set if all files are palindromes.
+     */
+    class Analyses(content: mutable.Map[String, String]) {
+
+        val ps = PKESequentialPropertyStore()
+        ps.incrementalComputations = true
+
+        val computations = mutable.Map.empty[(String, SomePropertyKey), Int].withDefaultValue(0)
+
+        def palindrome(e: String): PropertyComputationResult = {
+            computations((e, PalindromeKey)) += 1
+            val s = content(e)
+            Result(e, if (s.reverse == s) Palindrome else NoPalindrome)
+        }
+
+        def superPalindrome(e: String): PropertyComputationResult = {
+            computations((e, SuperPalindromeKey)) += 1
+            def result(eOptionP: SomeEOptionP): PropertyComputationResult = {
+                eOptionP match {
+                    case FinalEP(_, Palindrome) ⇒
+                        val s = content(e)
+                        val firstHalf = s.substring(0, s.length / 2)
+                        val isSuperPalindrome = firstHalf.reverse == firstHalf
+                        Result(e, if (isSuperPalindrome) SuperPalindrome else NoSuperPalindrome)
+                    case FinalEP(_, _) ⇒
+                        Result(e, NoSuperPalindrome)
+                    case epk ⇒
+                        IntermediateResult(
+                            e, NoSuperPalindrome, SuperPalindrome, Seq(epk), result
+                        )
+                }
+            }
+            result(ps(e, PalindromeKey))
+        }
+
+        def allPalindromes(e: String): PropertyComputationResult = {
+            computations((e, MarkerKey)) += 1
+            checkAllPalindromes(e)
+        }
+
+        private[this] def checkAllPalindromes(e: String): PropertyComputationResult = {
+            var dependees: List[SomeEOptionP] = Nil
+            var isMarked = true
+            content.keys foreach { file ⇒
+                ps(file, PalindromeKey) match {
+                    case FinalEP(_, NoPalindrome) ⇒ isMarked = false
+                    case FinalEP(_, _)            ⇒
+                    case epk                      ⇒ dependees ::= epk
+                }
+            }
+            if (!isMarked || dependees.isEmpty) {
+                Result(e, if (isMarked) IsMarked else NotMarked)
+            } else {
+                val c = (_: SomeEPS) ⇒ checkAllPalindromes(e)
+                IntermediateResult(e, NotMarked, IsMarked, dependees, c)
+            }
+        }
+    }
+
+    describe("the incremental sequential property store") {
+
+        it("should only recompute the properties of an invalidated entity and its dependers") {
+            val content = mutable.Map("a" → "aba", "b" → "abba", "c" → "abcba")
+            val analyses = new Analyses(content)
+            import analyses._
+            ps.setupPhase(Set(PalindromeKey, SuperPalindromeKey, MarkerKey))
+            ps.scheduleEagerComputationsForEntities(content.keys)(superPalindrome)
+            ps.scheduleEagerComputationsForEntities(content.keys)(palindrome)
+            ps.scheduleEagerComputationForEntity("all")(allPalindromes)
+            ps.waitOnPhaseCompletion()
+            ps("b", SuperPalindromeKey) should be(FinalEP("b", NoSuperPalindrome))
+            ps("all", MarkerKey) should be(FinalEP("all", IsMarked))
+
+            content("b") = "abab"
+            computations.clear()
+            val invalidatedEPKs = ps.invalidate(List("b"))
+            invalidatedEPKs should be(Set(
+                EPK("b", PalindromeKey),
+                EPK("b", SuperPalindromeKey),
+                EPK("all", MarkerKey)
+            ))
+            ps.waitOnPhaseCompletion()
+
+            computations should be(Map(
+                ("b", PalindromeKey) → 1,
+                ("b", SuperPalindromeKey) → 1,
+                ("all", MarkerKey) → 1
+            ))
+            ps("b", PalindromeKey) should be(FinalEP("b", NoPalindrome))
+            ps("b", SuperPalindromeKey) should be(FinalEP("b", NoSuperPalindrome))
+            ps("a", SuperPalindromeKey) should be(FinalEP("a", SuperPalindrome))
+            ps("all", MarkerKey) should be(FinalEP("all", NotMarked))
+        }
+
+        it("should recompute the properties of an invalidated entity which is not read") {
+            val content = mutable.Map("a" → "aba", "b" → "abba")
+            val analyses = new Analyses(content)
+            import analyses._
+            ps.setupPhase(Set(PalindromeKey))
+            ps.scheduleEagerComputationsForEntities(content.keys)(palindrome)
+            ps.waitOnPhaseCompletion()
+
+            content("a") = "ab"
+            computations.clear()
+            ps.invalidate(List("a")) should be(Set(EPK("a", PalindromeKey)))
+            ps.waitOnPhaseCompletion()
+
+            computations should be(Map(("a", PalindromeKey) → 1))
+            ps("a", PalindromeKey) should be(FinalEP("a", NoPalindrome))
+            ps("b", PalindromeKey) should be(FinalEP("b", Palindrome))
+        }
+
+        it("should recompute lazily computed properties only when they are requested again") {
+            val content = mutable.Map("a" → "aba", "b" → "abba", "c" → "abcba")
+            val analyses = new Analyses(content)
+            import analyses._
+            ps.setupPhase(Set(PalindromeKey, SuperPalindromeKey))
+            ps.registerLazyPropertyComputation(PalindromeKey, palindrome)
+            ps.scheduleEagerComputationsForEntities(List("a", "b"))(superPalindrome)
+            ps.waitOnPhaseCompletion()
+            ps("a", SuperPalindromeKey) should be(FinalEP("a", SuperPalindrome))
+
+            content("a") = "abcba"
+            content("c") = "abc"
+            computations.clear()
+            ps.invalidate(List("a", "c")) should be(Set(
+                EPK("a", PalindromeKey),
+                EPK("a", SuperPalindromeKey)
+            ))
+            ps.waitOnPhaseCompletion()
+
+            computations should be(Map(
+                ("a", PalindromeKey) → 1,
+                ("a", SuperPalindromeKey) → 1
+            ))
+            ps("a", SuperPalindromeKey) should be(FinalEP("a", NoSuperPalindrome))
+        }
+
+        it("should not schedule triggered computations multiple times") {
+            val content = mutable.Map("a" → "aba", "b" → "ab")
+            val analyses = new Analyses(content)
+            import analyses._
+            ps.setupPhase(Set(PalindromeKey, SuperPalindromeKey))
+            ps.registerTriggeredComputation(PalindromeKey, superPalindrome)
+            ps.scheduleEagerComputationsForEntities(content.keys)(palindrome)
+            ps.waitOnPhaseCompletion()
+            ps("a", SuperPalindromeKey) should be(FinalEP("a", SuperPalindrome))
+
+            content("a") = "abcba"
+            computations.clear()
+            ps.invalidate(List("a"))
+            ps.waitOnPhaseCompletion()
+
+            computations should be(Map(
+                ("a", PalindromeKey) → 1,
+                ("a", SuperPalindromeKey) → 1
+            ))
+            ps("a", SuperPalindromeKey) should be(FinalEP("a", NoSuperPalindrome))
+        }
+
+        it("should reschedule the computations which were scheduled by a computation") {
+            val content = mutable.Map("a" → "aba", "b" → "abba")
+            val analyses = new Analyses(content)
+            import analyses._
+            ps.setupPhase(Set(PalindromeKey))
+            ps.scheduleEagerComputationForEntity("root") { _: String ⇒
+                IncrementalResult(NoResult, content.keys.iterator.map(e ⇒ (palindrome _, e)))
+            }
+            ps.waitOnPhaseCompletion()
+
+            content("b") = "ab"
+            computations.clear()
+            ps.invalidate(List("b")) should be(Set(EPK("b", PalindromeKey)))
+            ps.waitOnPhaseCompletion()
+
+            computations should be(Map(("b", PalindromeKey) → 1))
+            ps("b", PalindromeKey) should be(FinalEP("b", NoPalindrome))
+        }
+
+        it("should reject the invalidation if incremental computations are not enabled") {
+            val ps = PKESequentialPropertyStore()
+            ps.suppressError = true
+            ps.setupPhase(Set(PalindromeKey))
+            an[IllegalStateException] should be thrownBy { ps.invalidate(List("a")) }
+        }
+    }
+}